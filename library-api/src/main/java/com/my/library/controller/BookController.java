@@ -1,12 +1,33 @@
 package com.my.library.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.my.library.controller.api.BookApi;
+import com.my.library.controller.reader.JsonRowIterator;
 import com.my.library.dto.BookDto;
+import com.my.library.dto.BookImportReport;
+import com.my.library.dto.CursorPage;
+import com.my.library.dto.HoldDto;
+import com.my.library.service.BookImportService;
+import com.my.library.service.BookSearchService;
 import com.my.library.service.BookService;
+import com.my.library.service.ExportService;
+import com.my.library.service.HoldService;
+import com.my.library.service.InventoryStreamService;
+import com.my.library.service.ModificationService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Set;
 
 /**
  * RestController class for handling requests related to books.
@@ -19,29 +40,146 @@ public class BookController implements BookApi {
      */
     private final BookService bookService;
 
+    /**
+     * The BookSearchService object that will be used to search books.
+     */
+    private final BookSearchService bookSearchService;
+
+    /**
+     * The ExportService object that will be used to export all books.
+     */
+    private final ExportService exportService;
+
+    /**
+     * The ModificationService object that will be used to tag pages of books.
+     */
+    private final ModificationService modificationService;
+
+    /**
+     * The BookImportService object that will be used to create many books at once.
+     */
+    private final BookImportService bookImportService;
+
+    /**
+     * The InventoryStreamService object that will be used to stream changes of available copies.
+     */
+    private final InventoryStreamService inventoryStreamService;
+
+    /**
+     * The HoldService object that will be used to place holds of books.
+     */
+    private final HoldService holdService;
+
+    /**
+     * The ObjectMapper object that will be used to read imported books one by one.
+     */
+    private final ObjectMapper objectMapper;
+
     /**
      * Returns a book with the given ID.
+     * The book is tagged with its version and available copies, as copies kept in stripes change without
+     * a new version.
      *
-     * @param id the ID of the book to retrieve
-     * @return the book with the given ID
+     * @param id      the ID of the book to retrieve
+     * @param request the current request
+     * @return the book with the given ID, or null when the book is not modified
      */
     @Override
-    public BookDto getById(long id) {
-        return bookService.getById(id);
+    public BookDto getById(long id, WebRequest request) {
+        BookDto book = bookService.getById(id);
+        return request.checkNotModified(book.getVersion() + "-" + book.getAvailable()) ? null : book;
     }
 
     /**
      * Retrieves a sorted and paginated list of books.
      *
-     * @param page   the page number of the results to retrieve
-     * @param size   the maximum number of results per page
-     * @param sortBy the field to sort the results by
-     * @param order  the sort order
-     * @return a page of books sorted and filtered according to the specified parameters
+     * @param page    the page number of the results to retrieve
+     * @param size    the maximum number of results per page
+     * @param sortBy  the field to sort the results by
+     * @param order   the sort order
+     * @param count   how the total number of books is returned (exact, estimate or none)
+     * @param request the current request
+     * @return a page of books sorted and filtered according to the specified parameters,
+     * or null when no book was modified since the page was read
+     */
+    @Override
+    public Slice<BookDto> getSortedPage(int page, int size, String sortBy, String order, String count,
+                                        WebRequest request) {
+        if (isPageNotModified(request)) {
+            return null;
+        }
+        return switch (count) {
+            case "none" -> bookService.getSortedSlice(page, size, sortBy, order);
+            case "estimate" -> bookService.getSortedPageWithEstimatedTotal(page, size, sortBy, order);
+            default -> bookService.getSortedPage(page, size, sortBy, order);
+        };
+    }
+
+    /**
+     * Retrieves a sorted list of books following a cursor.
+     *
+     * @param cursor  the cursor returned with the previous page, empty for the first page
+     * @param size    the maximum number of results per page
+     * @param sortBy  the field to sort the results by
+     * @param order   the sort order
+     * @param request the current request
+     * @return a page of books sorted according to the specified parameters with the cursor of the next page,
+     * or null when no book was modified since the page was read
+     */
+    @Override
+    public CursorPage<BookDto> getPageAfter(String cursor, int size, String sortBy, String order,
+                                            WebRequest request) {
+        if (isPageNotModified(request)) {
+            return null;
+        }
+        return bookService.getPageAfter(cursor, size, sortBy, order);
+    }
+
+    /**
+     * Finds the books whose author or name contain every word of a query, best matches first.
+     *
+     * @param query the words to search for
+     * @param size  the maximum number of books to return
+     * @return the best matching books, best first
+     */
+    @Override
+    public List<BookDto> search(String query, int size) {
+        return bookSearchService.search(query, size);
+    }
+
+    /**
+     * Completes a prefix with the most popular book names and authors starting with it.
+     *
+     * @param prefix the prefix to complete
+     * @param size   the maximum number of completions to return
+     * @return the completing names and authors, most popular first
+     */
+    @Override
+    public List<String> suggest(String prefix, int size) {
+        return bookSearchService.suggest(prefix, size);
+    }
+
+    /**
+     * Exports every book as newline-delimited JSON.
+     *
+     * @param response the response to write the books to
+     * @throws IOException if the books cannot be written
      */
     @Override
-    public Page<BookDto> getSortedPage(int page, int size, String sortBy, String order) {
-        return bookService.getSortedPage(page, size, sortBy, order);
+    public void exportBooks(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        exportService.exportBooks(response.getOutputStream());
+    }
+
+    /**
+     * Streams the changes of available copies of books as server-sent events.
+     *
+     * @param ids the IDs of the books to stream the changes of, every book if not set
+     * @return the stream of changes
+     */
+    @Override
+    public SseEmitter stream(Set<Long> ids) {
+        return inventoryStreamService.subscribe(ids == null ? Set.of() : ids);
     }
 
     /**
@@ -55,6 +193,31 @@ public class BookController implements BookApi {
         return bookService.create(book);
     }
 
+    /**
+     * Creates many books at once, reading the rows while they are imported.
+     *
+     * @param books the body of the request
+     * @return the result of every row
+     * @throws IOException if the body cannot be read
+     */
+    @Override
+    public BookImportReport importBooks(InputStream books) throws IOException {
+        MappingIterator<BookDto> rows = objectMapper.readerFor(BookDto.class).readValues(books);
+        return bookImportService.importBooks(new JsonRowIterator<>(rows));
+    }
+
+    /**
+     * Places a hold of a book without available copies by a user.
+     *
+     * @param id     the ID of the book to hold
+     * @param userId the ID of the user waiting for the book
+     * @return the placed hold with its position in the queue of the book
+     */
+    @Override
+    public HoldDto placeHold(long id, long userId) {
+        return holdService.placeHold(id, userId);
+    }
+
     /**
      * Updates an existing book.
      *
@@ -77,4 +240,25 @@ public class BookController implements BookApi {
         bookService.deleteById(id);
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * Checks the tag of any page of books against the request, if pages are tagged at all.
+     *
+     * @param request the current request
+     * @return true if no book was modified since the page was read
+     */
+    private boolean isPageNotModified(WebRequest request) {
+        return modificationService.isEnabled() && request.checkNotModified(getPageTag());
+    }
+
+    /**
+     * Returns the tag of any page of books. It is read before the page, so that a page read
+     * together with a concurrent modification is tagged as older and is never matched later.
+     * The epoch of the process keeps tags of other processes with the same count from matching.
+     *
+     * @return the tag of pages of books
+     */
+    private String getPageTag() {
+        return "books-" + modificationService.getEpoch() + "-" + modificationService.getBookModifications();
+    }
 }
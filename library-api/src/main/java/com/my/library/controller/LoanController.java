@@ -0,0 +1,32 @@
+package com.my.library.controller;
+
+import com.my.library.controller.api.LoanApi;
+import com.my.library.dto.CursorPage;
+import com.my.library.dto.LoanDto;
+import com.my.library.service.LoanService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * RestController class for handling requests related to loans.
+ */
+@RestController
+@RequiredArgsConstructor
+public class LoanController implements LoanApi {
+    /**
+     * The LoanService object that will be used to read loans.
+     */
+    private final LoanService loanService;
+
+    /**
+     * Retrieves the overdue loans following a cursor.
+     *
+     * @param cursor the cursor returned with the previous page, empty for the first page
+     * @param size   the maximum number of results per page
+     * @return a page of overdue loans with the cursor of the next page
+     */
+    @Override
+    public CursorPage<LoanDto> getOverdue(String cursor, int size) {
+        return loanService.getOverduePage(cursor, size);
+    }
+}
@@ -0,0 +1,59 @@
+package com.my.library.controller;
+
+import com.my.library.controller.api.ReactiveApi;
+import com.my.library.dto.BookDto;
+import com.my.library.dto.UserDto;
+import com.my.library.service.ReactiveReadService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Component class for handling non-blocking requests reading books and users, routed to it by
+ * the {@link ReactiveServer}.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReactiveController implements ReactiveApi {
+    /**
+     * The ReactiveReadService object that will be used to read books and users.
+     */
+    private final ReactiveReadService reactiveReadService;
+
+    /**
+     * Returns a book with the given ID.
+     *
+     * @param id the ID of the book to retrieve
+     * @return the book with the given ID
+     */
+    @Override
+    public Mono<BookDto> getBookById(long id) {
+        return reactiveReadService.getBookById(id);
+    }
+
+    /**
+     * Retrieves a sorted and paginated list of books.
+     *
+     * @param page   the page number (0-based) of the results to retrieve
+     * @param size   the maximum number (1-based) of results per page
+     * @param sortBy the field to sort the results by
+     * @param order  the sort order
+     * @return the books of the page
+     */
+    @Override
+    public Flux<BookDto> getBooks(int page, int size, String sortBy, String order) {
+        return reactiveReadService.getBooks(page, size, sortBy, order);
+    }
+
+    /**
+     * Returns a user with the given ID together with the books issued to it.
+     *
+     * @param id the ID of the user to retrieve
+     * @return the user with the given ID
+     */
+    @Override
+    public Mono<UserDto> getUserById(long id) {
+        return reactiveReadService.getUserById(id);
+    }
+}
@@ -0,0 +1,174 @@
+package com.my.library.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.my.library.controller.api.ReactiveApi;
+import com.my.library.controller.config.ReactiveServerProperties;
+import com.my.library.exception.ServiceException;
+import com.my.library.exception.handler.CustomExceptionHandler;
+import com.my.library.exception.wrapper.ExceptionDetails;
+import com.my.library.exception.wrapper.ExceptionType;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolationException;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.reactivestreams.Publisher;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Server of the non-blocking API on its own Reactor Netty port. A request is read, answered and written by one event
+ * loop thread without blocking it, so open connections cost neither a servlet request nor a thread. Responses carry
+ * the same JSON as the blocking API, errors the same details as {@link CustomExceptionHandler}.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReactiveServer {
+
+    /**
+     * The ReactiveApi object that will be used to read books and users, validating the parameters.
+     */
+    private final ReactiveApi reactiveApi;
+
+    /**
+     * The ObjectMapper object that will be used to write the responses as JSON.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * The CustomExceptionHandler object that will be used to describe failed requests.
+     */
+    private final CustomExceptionHandler exceptionHandler;
+
+    /**
+     * The ReactiveServerProperties object that holds the port of the server.
+     */
+    private final ReactiveServerProperties reactiveServerProperties;
+
+    /**
+     * The running server.
+     */
+    private DisposableServer server;
+
+    /**
+     * Starts the server on the configured port.
+     */
+    @PostConstruct
+    public void start() {
+        server = HttpServer.create()
+                .port(reactiveServerProperties.getPort())
+                .compress(true)
+                .route(routes -> routes
+                        .get("/reactive/book/{id}", (request, response) -> send(response,
+                                () -> reactiveApi.getBookById(Long.parseLong(request.param("id")))))
+                        .get("/reactive/book", (request, response) -> send(response, () -> {
+                            Map<String, List<String>> params = new QueryStringDecoder(request.uri()).parameters();
+                            return reactiveApi.getBooks(Integer.parseInt(getParam(params, "page", "0")),
+                                    Integer.parseInt(getParam(params, "size", "1")),
+                                    getParam(params, "sortBy", "id"),
+                                    getParam(params, "order", "asc")).collectList();
+                        }))
+                        .get("/reactive/user/{id}", (request, response) -> send(response,
+                                () -> reactiveApi.getUserById(Long.parseLong(request.param("id"))))))
+                .bindNow();
+    }
+
+    /**
+     * Stops the server, closing the open connections.
+     */
+    @PreDestroy
+    public void stop() {
+        server.disposeNow();
+    }
+
+    /**
+     * Returns the port the server is bound to.
+     *
+     * @return the bound port, chosen at random if the configured port is 0
+     */
+    public int getPort() {
+        return server.port();
+    }
+
+    /**
+     * Writes the result of a request as JSON, or the details of its failure.
+     *
+     * @param response the response to write to
+     * @param action   the action reading the result, which may fail before or after it returns
+     * @return the completion of the written response
+     */
+    private Publisher<Void> send(HttpServerResponse response, Supplier<Mono<?>> action) {
+        return Mono.defer(action)
+                .<Reply>map(body -> new Reply(HttpResponseStatus.OK, body))
+                .onErrorResume(e -> Mono.just(describe(e)))
+                .flatMap(reply -> response.status(reply.getStatus())
+                        .header(HttpHeaderNames.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .sendByteArray(Mono.fromCallable(() -> objectMapper.writeValueAsBytes(reply.getBody())))
+                        .then());
+    }
+
+    /**
+     * Describes the failure of a request the way the blocking API does.
+     *
+     * @param e the failure
+     * @return the status and details of the failure
+     */
+    private Reply describe(Throwable e) {
+        if (e instanceof ConstraintViolationException violation) {
+            return new Reply(HttpResponseStatus.BAD_REQUEST,
+                    exceptionHandler.handleConstraintViolationException(violation));
+        }
+        if (e instanceof NumberFormatException) {
+            return new Reply(HttpResponseStatus.BAD_REQUEST, List.of(new ExceptionDetails(e.getMessage(),
+                    ExceptionType.VALIDATION_EXCEPTION, LocalDateTime.now())));
+        }
+        if (e instanceof ServiceException serviceException) {
+            return new Reply(HttpResponseStatus.INTERNAL_SERVER_ERROR,
+                    exceptionHandler.handleServiceException(serviceException, null));
+        }
+        return new Reply(HttpResponseStatus.INTERNAL_SERVER_ERROR, new ExceptionDetails(e.getMessage(),
+                ExceptionType.UNEXPECTED_EXCEPTION, LocalDateTime.now()));
+    }
+
+    /**
+     * Returns the first value of a query parameter.
+     *
+     * @param params       the query parameters
+     * @param name         the name of the parameter
+     * @param defaultValue the value of a missing parameter
+     * @return the value of the parameter
+     */
+    private static String getParam(Map<String, List<String>> params, String name, String defaultValue) {
+        List<String> values = params.get(name);
+        return values == null || values.isEmpty() ? defaultValue : values.get(0);
+    }
+
+    /**
+     * Status and body of a response.
+     */
+    @Value
+    private static class Reply {
+
+        /**
+         * The status of the response.
+         */
+        HttpResponseStatus status;
+
+        /**
+         * The object written as JSON to the body of the response.
+         */
+        Object body;
+    }
+}
@@ -1,12 +1,23 @@
 package com.my.library.controller;
 
 import com.my.library.controller.api.UserApi;
+import com.my.library.dto.CursorPage;
+import com.my.library.dto.UserAvailability;
 import com.my.library.dto.UserDto;
+import com.my.library.service.CheckoutService;
+import com.my.library.service.ExportService;
+import com.my.library.service.ModificationService;
 import com.my.library.service.UserService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
+import java.util.List;
 
 /**
  * RestController class for handling requests related to users.
@@ -20,29 +31,110 @@ public class UserController implements UserApi {
      */
     private final UserService userService;
 
+    /**
+     * The CheckoutService object that will be used to issue and return single books.
+     */
+    private final CheckoutService checkoutService;
+
+    /**
+     * The ExportService object that will be used to export all users.
+     */
+    private final ExportService exportService;
+
+    /**
+     * The ModificationService object that will be used to tag users and their pages.
+     */
+    private final ModificationService modificationService;
+
     /**
      * Retrieves a user with the specified ID.
+     * A user with the issued books is only tagged when tags counted in memory are enabled.
      *
-     * @param id the ID of the user to retrieve
-     * @return the user with the specified ID
+     * @param id      the ID of the user to retrieve
+     * @param books   whether the books issued to the user are returned
+     * @param request the current request
+     * @return the user with the specified ID, or null when the user is not modified
      */
     @Override
-    public UserDto getById(long id) {
-        return userService.getById(id);
+    public UserDto getById(long id, boolean books, WebRequest request) {
+        if (books && !modificationService.isEnabled()) {
+            return userService.getById(id, true);
+        }
+        String bookTag = books
+                ? "-" + modificationService.getEpoch() + "-" + modificationService.getBookModifications() : "";
+        UserDto user = userService.getById(id, books);
+        return request.checkNotModified(user.getVersion() + bookTag) ? null : user;
     }
 
     /**
      * Retrieves a sorted and paginated list of users
      *
-     * @param page   the page number of the results to retrieve
-     * @param size   the maximum number of results per page
-     * @param sortBy the field to sort the results by
-     * @param order  the sort order
-     * @return a page of users sorted and filtered according to the specified parameters
+     * @param page    the page number of the results to retrieve
+     * @param size    the maximum number of results per page
+     * @param sortBy  the field to sort the results by
+     * @param order   the sort order
+     * @param count   how the total number of users is returned (exact, estimate or none)
+     * @param books   whether the books issued to the users are returned
+     * @param request the current request
+     * @return a page of users sorted and filtered according to the specified parameters,
+     * or null when no user was modified since the page was read
+     */
+    @Override
+    public Slice<UserDto> getSortedPage(int page, int size, String sortBy, String order, String count,
+                                        boolean books, WebRequest request) {
+        if (isPageNotModified(request, books)) {
+            return null;
+        }
+        return switch (count) {
+            case "none" -> userService.getSortedSlice(page, size, sortBy, order, books);
+            case "estimate" -> userService.getSortedPageWithEstimatedTotal(page, size, sortBy, order, books);
+            default -> userService.getSortedPage(page, size, sortBy, order, books);
+        };
+    }
+
+    /**
+     * Retrieves a sorted list of users following a cursor.
+     *
+     * @param cursor  the cursor returned with the previous page, empty for the first page
+     * @param size    the maximum number of results per page
+     * @param sortBy  the field to sort the results by
+     * @param order   the sort order
+     * @param books   whether the books issued to the users are returned
+     * @param request the current request
+     * @return a page of users sorted according to the specified parameters with the cursor of the next page,
+     * or null when no user was modified since the page was read
+     */
+    @Override
+    public CursorPage<UserDto> getPageAfter(String cursor, int size, String sortBy, String order, boolean books,
+                                            WebRequest request) {
+        if (isPageNotModified(request, books)) {
+            return null;
+        }
+        return userService.getPageAfter(cursor, size, sortBy, order, books);
+    }
+
+    /**
+     * Checks whether a username and an email are still free for a new user.
+     *
+     * @param username the username to check, not checked if missing
+     * @param email    the email to check, not checked if missing
+     * @return whether no user has the username and whether no user has the email
+     */
+    @Override
+    public UserAvailability checkAvailability(String username, String email) {
+        return userService.checkAvailability(username, email);
+    }
+
+    /**
+     * Exports every user as newline-delimited JSON.
+     *
+     * @param response the response to write the users to
+     * @throws IOException if the users cannot be written
      */
     @Override
-    public Page<UserDto> getSortedPage(int page, int size, String sortBy, String order) {
-        return userService.getSortedPage(page, size, sortBy, order);
+    public void exportUsers(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        exportService.exportUsers(response.getOutputStream());
     }
 
     /**
@@ -88,7 +180,7 @@ public class UserController implements UserApi {
      */
     @Override
     public UserDto issueBook(long userId, long bookId) {
-        return userService.issueBook(userId, bookId);
+        return checkoutService.issueBook(userId, bookId);
     }
 
     /**
@@ -100,6 +192,57 @@ public class UserController implements UserApi {
      */
     @Override
     public UserDto returnBook(long userId, long bookId) {
-        return userService.returnBook(userId, bookId);
+        return checkoutService.returnBook(userId, bookId);
+    }
+
+    /**
+     * Issues several books to a user at once.
+     *
+     * @param userId  the ID of the user to issue the books to
+     * @param bookIds the IDs of the books to issue
+     * @param mode    whether all books or none are issued (all), or the books that can be issued (best-effort)
+     * @return the updated user
+     */
+    @Override
+    public UserDto issueBooks(long userId, List<Long> bookIds, String mode) {
+        return userService.issueBooks(userId, bookIds, mode.equals("best-effort"));
+    }
+
+    /**
+     * Returns several books from a user at once.
+     *
+     * @param userId  the ID of the user to return the books from
+     * @param bookIds the IDs of the books to return
+     * @param mode    whether all books or none are returned (all), or the books that can be returned (best-effort)
+     * @return the updated user
+     */
+    @Override
+    public UserDto returnBooks(long userId, List<Long> bookIds, String mode) {
+        return userService.returnBooks(userId, bookIds, mode.equals("best-effort"));
+    }
+
+    /**
+     * Checks the tag of any page of users against the request, if pages are tagged at all.
+     *
+     * @param request the current request
+     * @param books   whether the books issued to the users are returned
+     * @return true if no user was modified since the page was read
+     */
+    private boolean isPageNotModified(WebRequest request, boolean books) {
+        return modificationService.isEnabled() && request.checkNotModified(getPageTag(books));
+    }
+
+    /**
+     * Returns the tag of any page of users. It is read before the page, so that a page read
+     * together with a concurrent modification is tagged as older and is never matched later.
+     * As issued books are part of the page, modifications of books change the tag too.
+     * The epoch of the process keeps tags of other processes with the same counts from matching.
+     *
+     * @param books whether the books issued to the users are returned
+     * @return the tag of pages of users
+     */
+    private String getPageTag(boolean books) {
+        String tag = "users-" + modificationService.getEpoch() + "-" + modificationService.getUserModifications();
+        return books ? tag + "-" + modificationService.getBookModifications() : tag;
     }
 }
@@ -1,15 +1,31 @@
 package com.my.library.controller.api;
 
 import com.my.library.dto.BookDto;
+import com.my.library.dto.BookImportReport;
+import com.my.library.dto.CursorPage;
+import com.my.library.dto.HoldDto;
+import com.my.library.service.search.SuggestionIndex;
 import com.my.library.validation.group.OnCreate;
 import com.my.library.validation.group.OnUpdate;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
-import org.springframework.data.domain.Page;
+import jakarta.validation.constraints.Size;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Set;
 
 /**
  * This interface defines REST API for managing books.
@@ -20,35 +36,126 @@ public interface BookApi {
 
     /**
      * Returns a book with the given ID.
+     * The response carries an ETag, and "304 Not Modified" is returned without a body
+     * when it matches the If-None-Match header.
      *
-     * @param id the ID of the book to retrieve
-     * @return the book with the given ID
+     * @param id      the ID of the book to retrieve
+     * @param request the current request, used to check its If-None-Match header
+     * @return the book with the given ID, or null when the book is not modified
      */
     @GetMapping("/{id}")
-    @ResponseStatus(HttpStatus.OK)
-    BookDto getById(@PathVariable("id") @Min(value = 1, message = "{bookApi.getById.id.min}") long id);
+    BookDto getById(@PathVariable("id") @Min(value = 1, message = "{bookApi.getById.id.min}") long id,
+                    WebRequest request);
 
     /**
      * Retrieves a sorted and paginated list of books.
      *
-     * @param page   the page number (0-based) of the results to retrieve, "0" by default
-     * @param size   the maximum number (1-based) of results per page, "1" by default
-     * @param sortBy the field to sort the results by (id, author, or name), "id" by default
-     * @param order  the sort order (asc or desc), "asc" by default
-     * @return a page of books sorted and filtered according to the specified parameters
+     * @param page    the page number (0-based) of the results to retrieve, "0" by default
+     * @param size    the maximum number (1-based) of results per page, "1" by default
+     * @param sortBy  the field to sort the results by (id, author, or name), "id" by default
+     * @param order   the sort order (asc or desc), "asc" by default
+     * @param count   how the total number of books is returned: "exact" counts them on every request, "estimate"
+     *                returns the number from the last background count and "none" returns no total at all,
+     *                "exact" by default
+     * @param request the current request, used to check its If-None-Match header
+     * @return a page of books sorted and filtered according to the specified parameters,
+     * or null when no book was modified since the page was read
      */
     @GetMapping
+    Slice<BookDto> getSortedPage(@RequestParam(value = "page", defaultValue = "0")
+                                 @Min(value = 0, message = "{bookApi.getSortedPage.page.min}") int page,
+                                 @RequestParam(value = "size", defaultValue = "1")
+                                 @Min(value = 1, message = "{bookApi.getSortedPage.size.min}") int size,
+                                 @RequestParam(value = "sortBy", defaultValue = "id")
+                                 @Pattern(regexp = "id|author|name",
+                                         message = "{bookApi.getSortedPage.sortBy.pattern}") String sortBy,
+                                 @RequestParam(value = "order", defaultValue = "asc")
+                                 @Pattern(regexp = "asc|desc",
+                                         message = "{bookApi.getSortedPage.order.pattern}") String order,
+                                 @RequestParam(value = "count", defaultValue = "exact")
+                                 @Pattern(regexp = "exact|estimate|none",
+                                         message = "{bookApi.getSortedPage.count.pattern}") String count,
+                                 WebRequest request);
+
+    /**
+     * Retrieves a sorted list of books following a cursor. Unlike the page number, a cursor costs the same
+     * on every page, as the next page starts right after the sort value and ID of the last book of the previous one.
+     *
+     * @param cursor  the opaque cursor returned with the previous page, empty for the first page
+     * @param size    the maximum number (1-based) of results per page, "1" by default
+     * @param sortBy  the field to sort the results by (id, author, or name), "id" by default
+     * @param order   the sort order (asc or desc), "asc" by default
+     * @param request the current request, used to check its If-None-Match header
+     * @return a page of books sorted according to the specified parameters with the cursor of the next page,
+     * or null when no book was modified since the page was read
+     */
+    @GetMapping(params = "cursor")
+    CursorPage<BookDto> getPageAfter(@RequestParam("cursor") String cursor,
+                                     @RequestParam(value = "size", defaultValue = "1")
+                                     @Min(value = 1, message = "{bookApi.getPageAfter.size.min}") int size,
+                                     @RequestParam(value = "sortBy", defaultValue = "id")
+                                     @Pattern(regexp = "id|author|name",
+                                             message = "{bookApi.getPageAfter.sortBy.pattern}") String sortBy,
+                                     @RequestParam(value = "order", defaultValue = "asc")
+                                     @Pattern(regexp = "asc|desc",
+                                             message = "{bookApi.getPageAfter.order.pattern}") String order,
+                                     WebRequest request);
+
+    /**
+     * Finds the books whose author or name contain every word of a query, best matches first.
+     * Words are matched whole, ignoring case and accents, and words found in the name rank above words
+     * found in the author.
+     *
+     * @param query the words to search for
+     * @param size  the maximum number (1-based) of books to return, "10" by default
+     * @return the best matching books, best first
+     */
+    @GetMapping("/search")
+    @ResponseStatus(HttpStatus.OK)
+    List<BookDto> search(@RequestParam("q")
+                         @NotBlank(message = "{bookApi.search.query.notBlank}")
+                         @Size(max = 200, message = "{bookApi.search.query.size}") String query,
+                         @RequestParam(value = "size", defaultValue = "10")
+                         @Min(value = 1, message = "{bookApi.search.size.min}")
+                         @Max(value = 100, message = "{bookApi.search.size.max}") int size);
+
+    /**
+     * Completes a prefix with the most popular book names and authors starting with it,
+     * ignoring case, accents and punctuation. A name or author is as popular as the issued copies of its books.
+     *
+     * @param prefix the prefix to complete
+     * @param size   the maximum number (1-based) of completions to return, "10" by default
+     * @return the completing names and authors, most popular first
+     */
+    @GetMapping("/suggest")
+    @ResponseStatus(HttpStatus.OK)
+    List<String> suggest(@RequestParam("prefix")
+                         @NotBlank(message = "{bookApi.suggest.prefix.notBlank}")
+                         @Size(max = 200, message = "{bookApi.suggest.prefix.size}") String prefix,
+                         @RequestParam(value = "size", defaultValue = "10")
+                         @Min(value = 1, message = "{bookApi.suggest.size.min}")
+                         @Max(value = SuggestionIndex.MAX_SUGGESTIONS,
+                                 message = "{bookApi.suggest.size.max}") int size);
+
+    /**
+     * Exports every book as newline-delimited JSON, one book per line in ID order.
+     * The books are written while they are read, so the whole table is never held in memory.
+     *
+     * @param response the response to write the books to
+     * @throws IOException if the books cannot be written
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
     @ResponseStatus(HttpStatus.OK)
-    Page<BookDto> getSortedPage(@RequestParam(value = "page", defaultValue = "0")
-                                @Min(value = 0, message = "{bookApi.getSortedPage.page.min}") int page,
-                                @RequestParam(value = "size", defaultValue = "1")
-                                @Min(value = 1, message = "{bookApi.getSortedPage.size.min}") int size,
-                                @RequestParam(value = "sortBy", defaultValue = "id")
-                                @Pattern(regexp = "id|author|name",
-                                        message = "{bookApi.getSortedPage.sortBy.pattern}") String sortBy,
-                                @RequestParam(value = "order", defaultValue = "asc")
-                                @Pattern(regexp = "asc|desc",
-                                        message = "{bookApi.getSortedPage.order.pattern}") String order);
+    void exportBooks(HttpServletResponse response) throws IOException;
+
+    /**
+     * Streams the changes of available copies of books as server-sent events.
+     *
+     * @param ids the IDs of the books to stream the changes of, every book if not set
+     * @return the stream of changes
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    SseEmitter stream(@RequestParam(value = "ids", required = false) Set<Long> ids);
 
     /**
      * Creates a new book.
@@ -60,6 +167,32 @@ public interface BookApi {
     @ResponseStatus(HttpStatus.CREATED)
     BookDto create(@RequestBody @Validated(OnCreate.class) BookDto book);
 
+    /**
+     * Creates many books at once from a JSON array or newline-delimited JSON of books.
+     * Invalid rows and books that already exist are skipped and reported instead of failing the import.
+     *
+     * @param books the body of the request
+     * @return the result of every row
+     * @throws IOException if the body cannot be read
+     */
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @ResponseStatus(HttpStatus.OK)
+    BookImportReport importBooks(InputStream books) throws IOException;
+
+    /**
+     * Places a hold of a book without available copies by a user. The next returned copy of the book
+     * is issued to the user holding it the longest, so waiting users do not have to retry issuing it.
+     *
+     * @param id     the ID of the book to hold
+     * @param userId the ID of the user waiting for the book
+     * @return the placed hold with its position in the queue of the book
+     */
+    @PostMapping("/{id}/hold")
+    @ResponseStatus(HttpStatus.CREATED)
+    HoldDto placeHold(@PathVariable("id") @Min(value = 1, message = "{bookApi.placeHold.id.min}") long id,
+                      @RequestParam("userId")
+                      @Min(value = 1, message = "{bookApi.placeHold.userId.min}") long userId);
+
     /**
      * Updates an existing book.
      *
@@ -0,0 +1,35 @@
+package com.my.library.controller.api;
+
+import com.my.library.dto.CursorPage;
+import com.my.library.dto.LoanDto;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.http.HttpStatus;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * This interface defines REST API for reading loans of books.
+ */
+@Validated
+@RequestMapping("/loan")
+public interface LoanApi {
+
+    /**
+     * Retrieves the loans whose due date has passed following a cursor, the longest overdue first.
+     * Every page costs the same, as it starts right after the due date and ID of the last loan of the previous one.
+     *
+     * @param cursor the opaque cursor returned with the previous page, empty for the first page
+     * @param size   the maximum number (1-based) of results per page, "20" by default
+     * @return a page of overdue loans with the cursor of the next page
+     */
+    @GetMapping("/overdue")
+    @ResponseStatus(HttpStatus.OK)
+    CursorPage<LoanDto> getOverdue(@RequestParam(value = "cursor", defaultValue = "") String cursor,
+                                   @RequestParam(value = "size", defaultValue = "20")
+                                   @Min(value = 1, message = "{loanApi.getOverdue.size.min}")
+                                   @Max(value = 1000, message = "{loanApi.getOverdue.size.max}") int size);
+}
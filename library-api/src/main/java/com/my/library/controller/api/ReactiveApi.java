@@ -0,0 +1,50 @@
+package com.my.library.controller.api;
+
+import com.my.library.dto.BookDto;
+import com.my.library.dto.UserDto;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import org.springframework.validation.annotation.Validated;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * This interface defines a non-blocking REST API for reading books and users, served under "/reactive"
+ * by the {@link com.my.library.controller.ReactiveServer}. No thread is held while the database answers:
+ * the request is suspended and resumed with the result. Invalid parameters are rejected before any is read.
+ */
+@Validated
+public interface ReactiveApi {
+
+    /**
+     * Returns a book with the given ID, served at "/book/{id}".
+     *
+     * @param id the ID of the book to retrieve
+     * @return the book with the given ID
+     */
+    Mono<BookDto> getBookById(@Min(value = 1, message = "{bookApi.getById.id.min}") long id);
+
+    /**
+     * Retrieves a sorted and paginated list of books, without the total number of books, served at "/book".
+     *
+     * @param page   the page number (0-based) of the results to retrieve, "0" by default
+     * @param size   the maximum number (1-based) of results per page, "1" by default
+     * @param sortBy the field to sort the results by (id, author, or name), "id" by default
+     * @param order  the sort order (asc or desc), "asc" by default
+     * @return the books of the page
+     */
+    Flux<BookDto> getBooks(@Min(value = 0, message = "{bookApi.getSortedPage.page.min}") int page,
+                           @Min(value = 1, message = "{bookApi.getSortedPage.size.min}") int size,
+                           @Pattern(regexp = "id|author|name",
+                                   message = "{bookApi.getSortedPage.sortBy.pattern}") String sortBy,
+                           @Pattern(regexp = "asc|desc",
+                                   message = "{bookApi.getSortedPage.order.pattern}") String order);
+
+    /**
+     * Returns a user with the given ID together with the books issued to it, served at "/user/{id}".
+     *
+     * @param id the ID of the user to retrieve
+     * @return the user with the given ID
+     */
+    Mono<UserDto> getUserById(@Min(value = 1, message = "{userApi.getById.id.min}") long id);
+}
@@ -1,15 +1,26 @@
 package com.my.library.controller.api;
 
+import com.my.library.dto.CursorPage;
+import com.my.library.dto.UserAvailability;
 import com.my.library.dto.UserDto;
+import com.my.library.validation.constraint.MaxBulkBooks;
 import com.my.library.validation.group.OnCreate;
 import com.my.library.validation.group.OnUpdate;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
+import java.util.List;
 
 /**
  * This interface defines REST API for managing users.
@@ -20,35 +31,100 @@ public interface UserApi {
 
     /**
      * Retrieves a user with the specified ID.
+     * The response carries an ETag, and "304 Not Modified" is returned without a body
+     * when it matches the If-None-Match header.
      *
-     * @param id the ID of the user to retrieve
-     * @return the user with the specified ID
+     * @param id      the ID of the user to retrieve
+     * @param books   whether the books issued to the user are returned, "true" by default
+     * @param request the current request, used to check its If-None-Match header
+     * @return the user with the specified ID, or null when the user is not modified
      */
     @GetMapping("/{id}")
-    @ResponseStatus(HttpStatus.OK)
-    UserDto getById(@Validated @PathVariable("id") @Min(value = 1, message = "{userApi.getById.id.min}") long id);
+    UserDto getById(@Validated @PathVariable("id") @Min(value = 1, message = "{userApi.getById.id.min}") long id,
+                    @RequestParam(value = "books", defaultValue = "true") boolean books,
+                    WebRequest request);
 
     /**
      * Retrieves a sorted and paginated list of users
      *
-     * @param page   the page number (0-based) of the results to retrieve, "0" by default
-     * @param size   the maximum number (1-based) of results per page, "1" by default
-     * @param sortBy the field to sort the results by (id, username, or email), "id" by default
-     * @param order  the sort order (asc or desc), "asc" by default
-     * @return a page of users sorted and filtered according to the specified parameters
+     * @param page    the page number (0-based) of the results to retrieve, "0" by default
+     * @param size    the maximum number (1-based) of results per page, "1" by default
+     * @param sortBy  the field to sort the results by (id, username, or email), "id" by default
+     * @param order   the sort order (asc or desc), "asc" by default
+     * @param count   how the total number of users is returned: "exact" counts them on every request, "estimate"
+     *                returns the number from the last background count and "none" returns no total at all,
+     *                "exact" by default
+     * @param books   whether the books issued to the users are returned, "true" by default
+     * @param request the current request, used to check its If-None-Match header
+     * @return a page of users sorted and filtered according to the specified parameters,
+     * or null when no user was modified since the page was read
      */
     @GetMapping
+    Slice<UserDto> getSortedPage(@RequestParam(value = "page", defaultValue = "0")
+                                 @Min(value = 0, message = "{userApi.getSortedPage.page.min}") int page,
+                                 @RequestParam(value = "size", defaultValue = "1")
+                                 @Min(value = 1, message = "{userApi.getSortedPage.size.min}") int size,
+                                 @RequestParam(value = "sortBy", defaultValue = "id")
+                                 @Pattern(regexp = "id|username|email",
+                                         message = "{userApi.getSortedPage.sortBy.pattern}") String sortBy,
+                                 @RequestParam(value = "order", defaultValue = "asc")
+                                 @Pattern(regexp = "asc|desc",
+                                         message = "{userApi.getSortedPage.order.pattern}") String order,
+                                 @RequestParam(value = "count", defaultValue = "exact")
+                                 @Pattern(regexp = "exact|estimate|none",
+                                         message = "{userApi.getSortedPage.count.pattern}") String count,
+                                 @RequestParam(value = "books", defaultValue = "true") boolean books,
+                                 WebRequest request);
+
+    /**
+     * Retrieves a sorted list of users following a cursor. Unlike the page number, a cursor costs the same
+     * on every page, as the next page starts right after the sort value and ID of the last user of the previous one.
+     *
+     * @param cursor  the opaque cursor returned with the previous page, empty for the first page
+     * @param size    the maximum number (1-based) of results per page, "1" by default
+     * @param sortBy  the field to sort the results by (id, username, or email), "id" by default
+     * @param order   the sort order (asc or desc), "asc" by default
+     * @param books   whether the books issued to the users are returned, "true" by default
+     * @param request the current request, used to check its If-None-Match header
+     * @return a page of users sorted according to the specified parameters with the cursor of the next page,
+     * or null when no user was modified since the page was read
+     */
+    @GetMapping(params = "cursor")
+    CursorPage<UserDto> getPageAfter(@RequestParam("cursor") String cursor,
+                                     @RequestParam(value = "size", defaultValue = "1")
+                                     @Min(value = 1, message = "{userApi.getPageAfter.size.min}") int size,
+                                     @RequestParam(value = "sortBy", defaultValue = "id")
+                                     @Pattern(regexp = "id|username|email",
+                                             message = "{userApi.getPageAfter.sortBy.pattern}") String sortBy,
+                                     @RequestParam(value = "order", defaultValue = "asc")
+                                     @Pattern(regexp = "asc|desc",
+                                             message = "{userApi.getPageAfter.order.pattern}") String order,
+                                     @RequestParam(value = "books", defaultValue = "true") boolean books,
+                                     WebRequest request);
+
+    /**
+     * Checks whether a username and an email are still free for a new user, answering without
+     * a database query when no user can have them.
+     *
+     * @param username the username to check, not checked if missing
+     * @param email    the email to check, not checked if missing
+     * @return whether no user has the username and whether no user has the email
+     */
+    @GetMapping("/availability")
     @ResponseStatus(HttpStatus.OK)
-    Page<UserDto> getSortedPage(@RequestParam(value = "page", defaultValue = "0")
-                                @Min(value = 0, message = "{userApi.getSortedPage.page.min}") int page,
-                                @RequestParam(value = "size", defaultValue = "1")
-                                @Min(value = 1, message = "{userApi.getSortedPage.size.min}") int size,
-                                @RequestParam(value = "sortBy", defaultValue = "id")
-                                @Pattern(regexp = "id|username|email",
-                                        message = "{userApi.getSortedPage.sortBy.pattern}") String sortBy,
-                                @RequestParam(value = "order", defaultValue = "asc")
-                                @Pattern(regexp = "asc|desc",
-                                        message = "{userApi.getSortedPage.order.pattern}") String order);
+    UserAvailability checkAvailability(@RequestParam(value = "username", required = false) String username,
+                                       @RequestParam(value = "email", required = false) String email);
+
+    /**
+     * Exports every user as newline-delimited JSON, one user per line in ID order.
+     * The users are written while they are read, so the whole table is never held in memory.
+     *
+     * @param response the response to write the users to
+     * @throws IOException if the users cannot be written
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    void exportUsers(HttpServletResponse response) throws IOException;
 
     /**
      * Creates a new user
@@ -107,4 +183,48 @@ public interface UserApi {
                        @Min(value = 1, message = "{userApi.returnBook.userId.min}") long userId,
                        @PathVariable("bookId")
                        @Min(value = 1, message = "{userApi.returnBook.bookId.min}") long bookId);
+
+    /**
+     * Issues several books to a user at once.
+     *
+     * @param userId  the ID of the user to issue the books to
+     * @param bookIds the IDs of the books to issue, at most "library.bulk.max-books"
+     * @param mode    "all" to issue either all books or none of them, "best-effort" to issue the books that can be
+     *                issued and skip the others, "all" by default
+     * @return the updated user
+     */
+    @PostMapping("/{userId}/issue")
+    @ResponseStatus(HttpStatus.OK)
+    UserDto issueBooks(@PathVariable("userId")
+                       @Min(value = 1, message = "{userApi.issueBooks.userId.min}") long userId,
+                       @RequestBody
+                       @NotEmpty(message = "{userApi.issueBooks.bookIds.notEmpty}")
+                       @MaxBulkBooks(message = "{userApi.issueBooks.bookIds.size}")
+                       List<@NotNull(message = "{userApi.issueBooks.bookId.notNull}")
+                       @Min(value = 1, message = "{userApi.issueBooks.bookId.min}") Long> bookIds,
+                       @RequestParam(value = "mode", defaultValue = "all")
+                       @Pattern(regexp = "all|best-effort",
+                               message = "{userApi.issueBooks.mode.pattern}") String mode);
+
+    /**
+     * Returns several books from a user at once.
+     *
+     * @param userId  the ID of the user to return the books from
+     * @param bookIds the IDs of the books to return, at most "library.bulk.max-books"
+     * @param mode    "all" to return either all books or none of them, "best-effort" to return the books that can
+     *                be returned and skip the others, "all" by default
+     * @return the updated user
+     */
+    @PostMapping("/{userId}/return")
+    @ResponseStatus(HttpStatus.OK)
+    UserDto returnBooks(@PathVariable("userId")
+                        @Min(value = 1, message = "{userApi.returnBooks.userId.min}") long userId,
+                        @RequestBody
+                        @NotEmpty(message = "{userApi.returnBooks.bookIds.notEmpty}")
+                        @MaxBulkBooks(message = "{userApi.returnBooks.bookIds.size}")
+                        List<@NotNull(message = "{userApi.returnBooks.bookId.notNull}")
+                        @Min(value = 1, message = "{userApi.returnBooks.bookId.min}") Long> bookIds,
+                        @RequestParam(value = "mode", defaultValue = "all")
+                        @Pattern(regexp = "all|best-effort",
+                                message = "{userApi.returnBooks.mode.pattern}") String mode);
 }
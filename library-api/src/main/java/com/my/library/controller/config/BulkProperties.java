@@ -0,0 +1,20 @@
+package com.my.library.controller.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the requests issuing or returning several books at once.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "library.bulk")
+public class BulkProperties {
+
+    /**
+     * Maximum number of books a single request may issue or return, bounding the rows it locks
+     * and the statements its transaction runs.
+     */
+    private int maxBooks = 100;
+}
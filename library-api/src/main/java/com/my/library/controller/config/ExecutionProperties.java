@@ -0,0 +1,20 @@
+package com.my.library.controller.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the threads handling requests.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "library.execution")
+public class ExecutionProperties {
+
+    /**
+     * Threads handling requests: "platform" for the bounded pool of Tomcat or "virtual" for a new virtual thread
+     * per request, which needs Java 21 or later.
+     */
+    private String mode = "platform";
+}
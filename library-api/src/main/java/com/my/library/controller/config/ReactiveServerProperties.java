@@ -0,0 +1,19 @@
+package com.my.library.controller.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the server of the non-blocking API.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "library.reactive")
+public class ReactiveServerProperties {
+
+    /**
+     * Port the non-blocking API is served on, apart from the port of the blocking API; 0 for a random free port.
+     */
+    private int port = 8081;
+}
@@ -0,0 +1,64 @@
+package com.my.library.controller.config;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Configuration class for handling every request on its own virtual thread.
+ * Services are called on the thread of the request, so their transactions run on virtual threads as well,
+ * and a thread waiting for the database no longer holds one of a bounded number of threads.
+ * The number of concurrent database calls is then only bounded by the connection pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "library.execution.mode", havingValue = "virtual")
+public class VirtualThreadConfig {
+
+    /**
+     * Creates the executor starting a new virtual thread for every task, which also runs asynchronous requests
+     * in place of the default thread pool.
+     *
+     * @return an AsyncTaskExecutor bean
+     * @throws IllegalStateException if the running Java version has no virtual threads
+     */
+    @Bean(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * Creates a customizer handing the requests of Tomcat over to virtual threads instead of its thread pool.
+     *
+     * @param applicationTaskExecutor the executor starting a new virtual thread for every task
+     * @return a TomcatProtocolHandlerCustomizer bean
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer(
+            AsyncTaskExecutor applicationTaskExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(applicationTaskExecutor);
+    }
+
+    /**
+     * Creates an executor starting a new virtual thread for every task. The executor is looked up at runtime,
+     * so that the application still compiles and runs on Java 17 in the platform mode.
+     *
+     * @return the executor
+     * @throws IllegalStateException if the running Java version has no virtual threads
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            throw new IllegalStateException("Virtual threads need Java 21 or later, running "
+                    + Runtime.version(), e);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.my.library.controller.reader;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.my.library.exception.UnreadableRowException;
+import lombok.RequiredArgsConstructor;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterator reading rows of a JSON array or of newline-delimited JSON one by one while they are consumed.
+ *
+ * @param <T> the type of the rows
+ */
+@RequiredArgsConstructor
+public class JsonRowIterator<T> implements Iterator<T> {
+
+    /**
+     * The MappingIterator object that parses the rows.
+     */
+    private final MappingIterator<T> rows;
+
+    /**
+     * The index of the next row.
+     */
+    private int index;
+
+    /**
+     * Checks if another row follows.
+     *
+     * @return true if another row follows, false otherwise
+     * @throws UnreadableRowException if the next row is not valid JSON
+     */
+    @Override
+    public boolean hasNext() {
+        try {
+            return rows.hasNextValue();
+        } catch (IOException e) {
+            throw new UnreadableRowException(index);
+        }
+    }
+
+    /**
+     * Reads the next row.
+     *
+     * @return the next row
+     * @throws UnreadableRowException if the next row is not valid JSON or does not match the type of rows
+     */
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        try {
+            T row = rows.nextValue();
+            index++;
+            return row;
+        } catch (IOException e) {
+            throw new UnreadableRowException(index);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.my.library.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data transfer object carrying the available copies of a book pushed to the subscribers of inventory changes.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookAvailability {
+
+    /**
+     * The ID of the book.
+     */
+    private Long id;
+
+    /**
+     * The number of available copies of the book, null if the book was deleted.
+     */
+    private Integer available;
+}
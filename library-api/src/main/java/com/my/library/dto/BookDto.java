@@ -1,16 +1,19 @@
 package com.my.library.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.my.library.validation.group.OnCreate;
 import com.my.library.validation.group.OnUpdate;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Null;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 /**
  * Data transfer object for Book entity.
  */
 @Data
+@NoArgsConstructor
 public class BookDto {
 
     /**
@@ -40,4 +43,25 @@ public class BookDto {
     @NotNull(message = "{book.available.notNull}", groups = OnCreate.class)
     @Min(value = 1, message = "{book.available.min}", groups = OnCreate.class)
     private Integer available;
+
+    /**
+     * Version of the book row, used to tag the representation of the book. Never read from or written to JSON.
+     */
+    @JsonIgnore
+    private Long version;
+
+    /**
+     * Constructor for a book read from database without its version.
+     *
+     * @param id        Book unique identifier
+     * @param author    Book author
+     * @param name      Book name
+     * @param available Number of available copies of the book
+     */
+    public BookDto(Long id, String author, String name, Integer available) {
+        this.id = id;
+        this.author = author;
+        this.name = name;
+        this.available = available;
+    }
 }
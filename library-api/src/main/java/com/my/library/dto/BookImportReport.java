@@ -0,0 +1,49 @@
+package com.my.library.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data transfer object for the results of a bulk import of books.
+ */
+@Data
+@NoArgsConstructor
+public class BookImportReport {
+
+    /**
+     * The number of created books.
+     */
+    private int created;
+
+    /**
+     * The number of rows skipped as a book with the same author and name already exists.
+     */
+    private int duplicates;
+
+    /**
+     * The number of rows skipped as they failed validation.
+     */
+    private int invalid;
+
+    /**
+     * The result of every row in the order of the rows.
+     */
+    private List<BookImportResult> results = new ArrayList<>();
+
+    /**
+     * Adds the result of a row and counts its outcome.
+     *
+     * @param result the result of the row
+     */
+    public void add(BookImportResult result) {
+        switch (result.getStatus()) {
+            case CREATED -> created++;
+            case DUPLICATE -> duplicates++;
+            case INVALID -> invalid++;
+        }
+        results.add(result);
+    }
+}
@@ -0,0 +1,45 @@
+package com.my.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data transfer object for the result of importing one row of a bulk import of books.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookImportResult {
+
+    /**
+     * The outcome of importing a row.
+     */
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        INVALID
+    }
+
+    /**
+     * The 0-based position of the row in the imported rows.
+     */
+    private int index;
+
+    /**
+     * The outcome of importing the row.
+     */
+    private Status status;
+
+    /**
+     * The ID of the created book, null if no book was created.
+     */
+    private Long id;
+
+    /**
+     * The validation errors of an invalid row, empty otherwise.
+     */
+    private List<String> errors;
+}
@@ -0,0 +1,28 @@
+package com.my.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data transfer object for a page of results read after a cursor.
+ *
+ * @param <T> the type of the results
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    /**
+     * The results of the page.
+     */
+    private List<T> content;
+
+    /**
+     * The cursor of the next page, null if this page is the last one.
+     */
+    private String nextCursor;
+}
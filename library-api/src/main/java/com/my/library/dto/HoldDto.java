@@ -0,0 +1,41 @@
+package com.my.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Data transfer object for Hold entity.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HoldDto {
+
+    /**
+     * Hold unique identifier.
+     */
+    private Long id;
+
+    /**
+     * The ID of the user waiting for the book.
+     */
+    private Long userId;
+
+    /**
+     * The ID of the held book.
+     */
+    private Long bookId;
+
+    /**
+     * The position of the hold in the queue of the book, starting with 1.
+     */
+    private Long position;
+
+    /**
+     * The time the hold expires at unless the user is issued a copy before.
+     */
+    private LocalDateTime expiresAt;
+}
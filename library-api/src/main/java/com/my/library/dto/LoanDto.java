@@ -0,0 +1,41 @@
+package com.my.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Data transfer object for Loan entity.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanDto {
+
+    /**
+     * Loan unique identifier.
+     */
+    private Long id;
+
+    /**
+     * The ID of the user the book is issued to.
+     */
+    private Long userId;
+
+    /**
+     * The ID of the issued book.
+     */
+    private Long bookId;
+
+    /**
+     * The time the book was issued at.
+     */
+    private LocalDateTime issuedAt;
+
+    /**
+     * The time the book should be returned by.
+     */
+    private LocalDateTime dueDate;
+}
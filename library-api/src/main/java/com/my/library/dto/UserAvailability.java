@@ -0,0 +1,26 @@
+package com.my.library.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data transfer object telling whether a username and an email are still free for a new user.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserAvailability {
+
+    /**
+     * Whether no user has the username, null if the username was not checked.
+     */
+    private Boolean username;
+
+    /**
+     * Whether no user has the email, null if the email was not checked.
+     */
+    private Boolean email;
+}
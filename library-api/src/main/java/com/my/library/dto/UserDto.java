@@ -1,5 +1,6 @@
 package com.my.library.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.my.library.validation.group.OnCreate;
 import com.my.library.validation.group.OnUpdate;
@@ -7,6 +8,7 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Null;
 import jakarta.validation.constraints.Pattern;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.util.Set;
 
@@ -14,6 +16,7 @@ import java.util.Set;
  * Data transfer object for User entity.
  */
 @Data
+@NoArgsConstructor
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class UserDto {
 
@@ -53,4 +56,23 @@ public class UserDto {
      */
     @Null(message = "{user.books.null}")
     private Set<BookDto> books;
+
+    /**
+     * Version of the user row, used to tag the representation of the user. Never read from or written to JSON.
+     */
+    @JsonIgnore
+    private Long version;
+
+    /**
+     * Constructor for a user read from database without its password and books.
+     *
+     * @param id       User unique identifier
+     * @param username User username
+     * @param email    User email
+     */
+    public UserDto(Long id, String username, String email) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+    }
 }
@@ -0,0 +1,19 @@
+package com.my.library.exception;
+
+/**
+ * Custom exception class for a scenario where a book being held still has available copies.
+ */
+public class BookAvailableException extends DataConsistencyViolationException {
+
+    /**
+     * Custom message for BookAvailableException.
+     */
+    private static final String MESSAGE = "Book has available copies!";
+
+    /**
+     * Constructor for BookAvailableException.
+     */
+    public BookAvailableException() {
+        super(MESSAGE);
+    }
+}
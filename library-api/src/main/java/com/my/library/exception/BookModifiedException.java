@@ -0,0 +1,20 @@
+package com.my.library.exception;
+
+/**
+ * Custom exception class for a scenario where a book cannot be updated because it was changed concurrently,
+ * for example by an issue or a return of one of its copies.
+ */
+public class BookModifiedException extends DataConsistencyViolationException {
+
+    /**
+     * Custom message for BookModifiedException.
+     */
+    private static final String MESSAGE = "Book was changed concurrently, try again!";
+
+    /**
+     * Constructor for BookModifiedException.
+     */
+    public BookModifiedException() {
+        super(MESSAGE);
+    }
+}
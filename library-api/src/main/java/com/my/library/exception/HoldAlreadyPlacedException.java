@@ -0,0 +1,19 @@
+package com.my.library.exception;
+
+/**
+ * Custom exception class for a scenario where a user already holding a book places another hold of it.
+ */
+public class HoldAlreadyPlacedException extends DataConsistencyViolationException {
+
+    /**
+     * Custom message for HoldAlreadyPlacedException.
+     */
+    private static final String MESSAGE = "Book had been already held by user!";
+
+    /**
+     * Constructor for HoldAlreadyPlacedException.
+     */
+    public HoldAlreadyPlacedException() {
+        super(MESSAGE);
+    }
+}
@@ -0,0 +1,21 @@
+package com.my.library.exception;
+
+import com.my.library.exception.wrapper.ExceptionType;
+
+/**
+ * Custom exception class for a scenario where a page cursor is malformed or does not match the requested sort.
+ */
+public class InvalidCursorException extends ServiceException {
+
+    /**
+     * Custom message for InvalidCursorException.
+     */
+    private static final String MESSAGE = "Cursor is invalid for the requested sort!";
+
+    /**
+     * Constructor for InvalidCursorException.
+     */
+    public InvalidCursorException() {
+        super(MESSAGE, ExceptionType.VALIDATION_EXCEPTION);
+    }
+}
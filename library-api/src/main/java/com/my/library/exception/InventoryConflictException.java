@@ -0,0 +1,20 @@
+package com.my.library.exception;
+
+/**
+ * Custom exception class for a scenario where available copies of a book cannot be updated
+ * because of concurrent updates.
+ */
+public class InventoryConflictException extends DataConsistencyViolationException {
+
+    /**
+     * Custom message for InventoryConflictException.
+     */
+    private static final String MESSAGE = "Book is being issued concurrently, try again later!";
+
+    /**
+     * Constructor for InventoryConflictException.
+     */
+    public InventoryConflictException() {
+        super(MESSAGE);
+    }
+}
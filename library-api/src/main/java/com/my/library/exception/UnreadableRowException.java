@@ -0,0 +1,23 @@
+package com.my.library.exception;
+
+import com.my.library.exception.wrapper.ExceptionType;
+
+/**
+ * Custom exception class for a scenario where a row of a bulk import is not valid JSON or does not match the DTO.
+ */
+public class UnreadableRowException extends ServiceException {
+
+    /**
+     * Custom message format for UnreadableRowException.
+     */
+    private static final String MESSAGE = "Row %d could not be read! Chunks of rows before it were imported.";
+
+    /**
+     * Constructor for UnreadableRowException.
+     *
+     * @param index the 0-based index of the row that could not be read
+     */
+    public UnreadableRowException(int index) {
+        super(String.format(MESSAGE, index), ExceptionType.VALIDATION_EXCEPTION);
+    }
+}
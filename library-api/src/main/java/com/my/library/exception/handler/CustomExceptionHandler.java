@@ -1,6 +1,10 @@
 package com.my.library.exception.handler;
 
+import com.my.library.exception.BookModifiedException;
+import com.my.library.exception.InvalidCursorException;
+import com.my.library.exception.InventoryConflictException;
 import com.my.library.exception.ServiceException;
+import com.my.library.exception.UnreadableRowException;
 import com.my.library.exception.wrapper.ExceptionDetails;
 import com.my.library.exception.wrapper.ExceptionType;
 import jakarta.validation.ConstraintViolationException;
@@ -52,6 +56,43 @@ public class CustomExceptionHandler {
                 .toList();
     }
 
+    /**
+     * Exception handler for InvalidCursorException.
+     *
+     * @param ex the exception object
+     * @return an ExceptionDetails object
+     */
+    @ExceptionHandler(InvalidCursorException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ExceptionDetails handleInvalidCursorException(InvalidCursorException ex) {
+        return new ExceptionDetails(ex.getMessage(), ex.getExceptionType(), LocalDateTime.now());
+    }
+
+    /**
+     * Exception handler for UnreadableRowException.
+     *
+     * @param ex the exception object
+     * @return an ExceptionDetails object
+     */
+    @ExceptionHandler(UnreadableRowException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ExceptionDetails handleUnreadableRowException(UnreadableRowException ex) {
+        return new ExceptionDetails(ex.getMessage(), ex.getExceptionType(), LocalDateTime.now());
+    }
+
+    /**
+     * Exception handler for BookModifiedException and InventoryConflictException, telling the client
+     * that the request can be sent again.
+     *
+     * @param ex the exception object
+     * @return an ExceptionDetails object
+     */
+    @ExceptionHandler({BookModifiedException.class, InventoryConflictException.class})
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ExceptionDetails handleConflictException(ServiceException ex) {
+        return new ExceptionDetails(ex.getMessage(), ex.getExceptionType(), LocalDateTime.now());
+    }
+
     /**
      * Exception handler for ServiceException.
      *
@@ -3,6 +3,7 @@ package com.my.library.mapper;
 import com.my.library.dto.BookDto;
 import com.my.library.model.Book;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
 import org.mapstruct.NullValuePropertyMappingStrategy;
 import org.mapstruct.factory.Mappers;
@@ -33,6 +34,7 @@ public interface BookMapper {
      * @param bookDto The BookDto object to convert
      * @return The corresponding Book object
      */
+    @Mapping(target = "version", ignore = true)
     Book mapBook(BookDto bookDto);
 
     /**
@@ -41,5 +43,6 @@ public interface BookMapper {
      * @param toBook   The Book object to copy the fields to
      * @param fromBook The Book object to copy the fields from
      */
+    @Mapping(target = "version", ignore = true)
     void mapPresentFields(@MappingTarget Book toBook, Book fromBook);
 }
@@ -12,7 +12,7 @@ import org.mapstruct.factory.Mappers;
  * A mapper interface for converting between User and UserDto objects.
  * Also allows to map present fields for User objects.
  */
-@Mapper(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+@Mapper(uses = BookMapper.class, nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
 public interface UserMapper {
 
     /**
@@ -27,6 +27,7 @@ public interface UserMapper {
      * @return The corresponding UserDto object
      */
     @Mapping(target = "password", ignore = true)
+    @Mapping(target = "books", ignore = true)
     UserDto mapUserDto(User user);
 
     /**
@@ -35,6 +36,7 @@ public interface UserMapper {
      * @param userDto The UserDto object to convert
      * @return The corresponding User object
      */
+    @Mapping(target = "version", ignore = true)
     User mapUser(UserDto userDto);
 
     /**
@@ -43,5 +45,6 @@ public interface UserMapper {
      * @param toUser   The User object to copy the fields to
      * @param fromUser The User object to copy the fields from
      */
+    @Mapping(target = "version", ignore = true)
     void mapPresentFields(@MappingTarget User toUser, User fromUser);
 }
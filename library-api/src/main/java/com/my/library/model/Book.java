@@ -1,14 +1,23 @@
 package com.my.library.model;
 
+import com.my.library.model.id.PooledSequenceGenerator;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import java.util.Objects;
-import java.util.Set;
 
 /**
  * A class representing a book in the library.
+ * Only the copies kept in the row are loaded; the striped inventory counts the copies in the stripes
+ * of a book on request.
+ * Updates only write the changed columns.
  */
 @Getter
 @Setter
@@ -16,10 +25,15 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(uniqueConstraints = {@UniqueConstraint(columnNames = {"author", "name"})})
+@Table(uniqueConstraints = {@UniqueConstraint(columnNames = {"author", "name"})},
+        indexes = {@Index(columnList = "author, id"), @Index(columnList = "name, id")})
+@DynamicUpdate
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "book")
 public class Book {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(generator = "book_seq")
+    @GenericGenerator(name = "book_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "book_seq"))
     private Long id;
     @Column(nullable = false)
     private String author;
@@ -27,9 +41,9 @@ public class Book {
     private String name;
     @Column(nullable = false)
     private Integer available;
-    @ManyToMany(mappedBy = "books")
-    @ToString.Exclude
-    private Set<User> users;
+    @Version
+    @Column(nullable = false)
+    private Long version;
 
     /**
      * Checks if the specified object is equal to this book.
@@ -0,0 +1,73 @@
+package com.my.library.model;
+
+import com.my.library.model.id.PooledSequenceGenerator;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import java.util.Objects;
+
+/**
+ * A class representing a share of the available copies of a book used by the striped inventory strategy.
+ */
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(uniqueConstraints = {@UniqueConstraint(columnNames = {"book_id", "stripe"})})
+public class BookStock {
+    @Id
+    @GeneratedValue(generator = "book_stock_seq")
+    @GenericGenerator(name = "book_stock_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "book_stock_seq"))
+    private Long id;
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @ToString.Exclude
+    private Book book;
+    @Column(nullable = false)
+    private Integer stripe;
+    @Column(nullable = false)
+    private Integer available;
+
+    /**
+     * Creates a new stripe of the given book.
+     *
+     * @param book      The book the copies belong to
+     * @param stripe    The number of the stripe
+     * @param available The number of available copies in the stripe
+     */
+    public BookStock(Book book, Integer stripe, Integer available) {
+        this.book = book;
+        this.stripe = stripe;
+        this.available = available;
+    }
+
+    /**
+     * Checks if the specified object is equal to this stripe.
+     *
+     * @param o The object to compare to
+     * @return true if object is a stripe and IDs are equal, false otherwise
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) return false;
+        BookStock bookStock = (BookStock) o;
+        return id != null && Objects.equals(id, bookStock.id);
+    }
+
+    /**
+     * Generates a hash code for this stripe.
+     *
+     * @return The hash code value.
+     */
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
@@ -0,0 +1,82 @@
+package com.my.library.model;
+
+import com.my.library.model.id.PooledSequenceGenerator;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * A class representing a user waiting for a copy of a book in the library system.
+ * Holds of a book are served in the order they were placed in, and holds placed at the same time in the order
+ * of their IDs. IDs alone do not tell the order, as every instance takes IDs from its own block of the sequence.
+ */
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(uniqueConstraints = {@UniqueConstraint(columnNames = {"user_id", "book_id"})},
+        indexes = {@Index(columnList = "book_id, placedAt, id")})
+public class Hold {
+    @Id
+    @GeneratedValue(generator = "hold_seq")
+    @GenericGenerator(name = "hold_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "hold_seq"))
+    private Long id;
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @ToString.Exclude
+    private User user;
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @ToString.Exclude
+    private Book book;
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime placedAt;
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    /**
+     * Creates a new hold of the given book by the given user.
+     *
+     * @param user      The user waiting for the book
+     * @param book      The held book
+     * @param expiresAt The time the hold expires at unless served before
+     */
+    public Hold(User user, Book book, LocalDateTime expiresAt) {
+        this.user = user;
+        this.book = book;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Checks if the specified object is equal to this hold.
+     *
+     * @param o The object to compare to
+     * @return true if object is a hold and IDs are equal, false otherwise
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) return false;
+        Hold hold = (Hold) o;
+        return id != null && Objects.equals(id, hold.id);
+    }
+
+    /**
+     * Generates a hash code for this hold.
+     *
+     * @return The hash code value.
+     */
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
@@ -0,0 +1,83 @@
+package com.my.library.model;
+
+import com.my.library.model.id.PooledSequenceGenerator;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * A class representing a book issued to a user in the library system.
+ * A loan remembers when it was announced as overdue, so every instance and every restart announces it once.
+ */
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(uniqueConstraints = {@UniqueConstraint(columnNames = {"user_id", "book_id"})},
+        indexes = {@Index(columnList = "book_id"), @Index(columnList = "dueDate, id"),
+                @Index(columnList = "overdueNotifiedAt, dueDate, id")})
+public class Loan {
+    @Id
+    @GeneratedValue(generator = "loan_seq")
+    @GenericGenerator(name = "loan_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "loan_seq"))
+    private Long id;
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @ToString.Exclude
+    private User user;
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @ToString.Exclude
+    private Book book;
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime issuedAt;
+    @Column(nullable = false)
+    private LocalDateTime dueDate;
+    private LocalDateTime overdueNotifiedAt;
+
+    /**
+     * Creates a new loan of the given book to the given user.
+     *
+     * @param user    The user the book is issued to
+     * @param book    The issued book
+     * @param dueDate The time the book should be returned by
+     */
+    public Loan(User user, Book book, LocalDateTime dueDate) {
+        this.user = user;
+        this.book = book;
+        this.dueDate = dueDate;
+    }
+
+    /**
+     * Checks if the specified object is equal to this loan.
+     *
+     * @param o The object to compare to
+     * @return true if object is a loan and IDs are equal, false otherwise
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) return false;
+        Loan loan = (Loan) o;
+        return id != null && Objects.equals(id, loan.id);
+    }
+
+    /**
+     * Generates a hash code for this loan.
+     *
+     * @return The hash code value.
+     */
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
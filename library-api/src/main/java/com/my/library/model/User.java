@@ -1,14 +1,21 @@
 package com.my.library.model;
 
+import com.my.library.model.id.PooledSequenceGenerator;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import java.util.Objects;
-import java.util.Set;
 
 /**
  * A class representing a user in the library system.
+ * Updates only write the changed columns.
  */
 @Getter
 @Setter
@@ -16,9 +23,13 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@DynamicUpdate
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(generator = "user_seq")
+    @GenericGenerator(name = "user_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "user_seq"))
     private Long id;
     @Column(nullable = false, unique = true)
     private String username;
@@ -26,9 +37,9 @@ public class User {
     private String email;
     @Column(nullable = false)
     private String password;
-    @ManyToMany
-    @ToString.Exclude
-    private Set<Book> books;
+    @Version
+    @Column(nullable = false)
+    private Long version;
 
     /**
      * Checks if the specified object is equal to this user.
@@ -0,0 +1,25 @@
+package com.my.library.model.config;
+
+import com.my.library.model.id.PooledSequenceGenerator;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for passing the ID generation settings to Hibernate.
+ */
+@Configuration
+public class IdGeneratorConfig {
+
+    /**
+     * Creates a customizer handing the allocation size over to {@link PooledSequenceGenerator}.
+     *
+     * @param properties the allocation size of the sequences
+     * @return a HibernatePropertiesCustomizer bean
+     */
+    @Bean
+    public HibernatePropertiesCustomizer idGeneratorCustomizer(IdGeneratorProperties properties) {
+        return hibernateProperties -> hibernateProperties.put(PooledSequenceGenerator.ALLOCATION_SIZE_SETTING,
+                properties.getAllocationSize());
+    }
+}
@@ -0,0 +1,19 @@
+package com.my.library.model.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the generation of entity IDs.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "library.id")
+public class IdGeneratorProperties {
+
+    /**
+     * Number of IDs reserved with one round trip to the sequence of an entity.
+     */
+    private int allocationSize = 50;
+}
@@ -0,0 +1,53 @@
+package com.my.library.model.id;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * Sequence generator that reserves a configurable block of IDs with one round trip to the sequence,
+ * so that inserts can be batched and the sequence is not updated for every row.
+ * On databases without sequences, such as MySQL, the sequence is kept in a table of one row.
+ * Blocks are tracked by their lowest value, so the block size can be changed between restarts
+ * without handing out the same ID twice.
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+    /**
+     * The name of the generator strategy, to be used with {@link org.hibernate.annotations.GenericGenerator}.
+     */
+    public static final String STRATEGY = "com.my.library.model.id.PooledSequenceGenerator";
+
+    /**
+     * The Hibernate setting holding the number of IDs reserved at once.
+     */
+    public static final String ALLOCATION_SIZE_SETTING = "library.id.allocation_size";
+
+    /**
+     * The number of IDs reserved at once when the setting is absent.
+     */
+    public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    /**
+     * Configures the sequence with the allocation size from the settings and the pooled-lo optimizer.
+     *
+     * @param type            the type of the generated IDs
+     * @param parameters      the parameters of the generator
+     * @param serviceRegistry the service registry holding the settings
+     * @throws MappingException if the generator cannot be configured
+     */
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        int allocationSize = serviceRegistry.getService(ConfigurationService.class)
+                .getSetting(ALLOCATION_SIZE_SETTING, StandardConverters.INTEGER, DEFAULT_ALLOCATION_SIZE);
+        parameters.setProperty(INCREMENT_PARAM, String.valueOf(allocationSize));
+        parameters.setProperty(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+        super.configure(type, parameters, serviceRegistry);
+    }
+}
@@ -1,30 +1,155 @@
 package com.my.library.repository;
 
+import com.my.library.dto.BookDto;
 import com.my.library.model.Book;
+import com.my.library.repository.available.BookAvailableRepository;
+import com.my.library.repository.keyset.BookKeysetRepository;
+import com.my.library.repository.projection.BookInventory;
+import com.my.library.repository.projection.BookTitle;
+import com.my.library.repository.projection.IndexedBookTitle;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Interface for the book repository, based on JpaRepository.
  * Provides standard methods for CRUD operations on Book entities.
  */
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, BookKeysetRepository,
+        BookAvailableRepository {
+
+    /**
+     * The constructor arguments of a BookDto selected from a book aliased "b", including the copies in its stripes.
+     */
+    String BOOK_DTO_FIELDS = "b.id, b.author, b.name, cast(b.available + "
+            + "(select coalesce(sum(s.available), 0) from BookStock s where s.book = b) as Integer)";
+
+    /**
+     * The constructor expression selecting a book aliased "b" as a BookDto, including the copies in its stripes.
+     */
+    String BOOK_DTO = "new com.my.library.dto.BookDto(" + BOOK_DTO_FIELDS + ")";
+
+    /**
+     * The number of rows fetched with one round trip by streaming queries.
+     */
+    String STREAM_FETCH_SIZE = "1000";
+
+    /**
+     * Retrieves a page of books as DTOs without loading book entities.
+     *
+     * @param pageable The page to retrieve
+     * @return a page of books
+     */
+    @Query(value = "select " + BOOK_DTO + " from Book b", countQuery = "select count(b) from Book b")
+    Page<BookDto> findBookDtos(Pageable pageable);
+
+    /**
+     * Retrieves a page of books as DTOs without loading book entities and without counting all books.
+     *
+     * @param pageable The page to retrieve
+     * @return a slice of books that only knows whether a next page exists
+     */
+    @Query("select " + BOOK_DTO + " from Book b")
+    Slice<BookDto> findBookDtoSlice(Pageable pageable);
+
+    /**
+     * Streams all books as DTOs in ID order through a forward-only cursor, without loading book entities,
+     * so that any number of books is read in constant memory. The stream must be read and closed in a transaction.
+     *
+     * @return a stream of all books
+     */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("select " + BOOK_DTO + " from Book b order by b.id")
+    Stream<BookDto> streamBookDtos();
+
+    /**
+     * Streams the ID, author, name and number of issued copies of all books in ID order
+     * through a forward-only cursor.
+     * The stream must be read and closed in a transaction.
+     *
+     * @return a stream of the titles of all books
+     */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("select b.id as id, b.author as author, b.name as name, "
+            + "(select count(l) from Loan l where l.book = b) as loans from Book b order by b.id")
+    Stream<IndexedBookTitle> streamTitles();
+
+    /**
+     * Streams the author and name of all books through a forward-only cursor.
+     * The stream must be read and closed in a transaction.
+     *
+     * @return a stream of the authors and names of all books
+     */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("select b.author as author, b.name as name from Book b")
+    Stream<BookTitle> streamAuthorsAndNames();
+
+    /**
+     * Retrieves the books with the given IDs as DTOs without loading book entities.
+     *
+     * @param ids the IDs of the books
+     * @return the existing books with the given IDs, in no particular order
+     */
+    @Query("select " + BOOK_DTO + " from Book b where b.id in :ids")
+    List<BookDto> findBookDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Retrieves the titles of all books written by one of the authors and named with one of the names.
+     * The result may include pairs of an author and a name that were not asked for together.
+     *
+     * @param authors The authors' names
+     * @param names   The books' titles
+     * @return the titles of the matching books
+     */
+    List<BookTitle> findTitlesByAuthorInAndNameIn(Collection<String> authors, Collection<String> names);
+
+    /**
+     * Retrieves a book by its ID locking its row until the end of the transaction.
+     *
+     * @param id The book's ID
+     * @return the locked book, or empty if it does not exist
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Book> findLockedById(Long id);
+
+    /**
+     * Retrieves the number of available copies of a book locking its row until the end of the transaction.
+     * Unlike {@link #findLockedById(Long)} the book is not loaded into the persistence context.
+     *
+     * @param id The book's ID
+     * @return the number of available copies, or empty if the book does not exist
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b.available from Book b where b.id = :id")
+    Optional<Integer> findLockedAvailableById(@Param("id") Long id);
 
     /**
-     * Checks if a book exists in the repository by the author's name and book title.
+     * Retrieves the current number of available copies and the version of a book bypassing the persistence context.
      *
-     * @param author The author's name
-     * @param name   The book's title
-     * @return true if the book exists, false otherwise
+     * @param id The book's ID
+     * @return the inventory state of the book, or empty if it does not exist
      */
-    boolean existsByAuthorAndName(String author, String name);
+    Optional<BookInventory> findInventoryById(Long id);
 
     /**
-     * Checks if a book exists in the repository by the author's name, book title, and excluding a specific ID.
+     * Retrieves which of the given IDs belong to existing books.
      *
-     * @param author The author's name
-     * @param name   The book's title
-     * @param id     The ID to exclude from the check
-     * @return true if the book exists, false otherwise
+     * @param ids The IDs to look for
+     * @return the IDs of the existing books
      */
-    boolean existsByAuthorAndNameAndIdIsNot(String author, String name, Long id);
+    @Query("select b.id from Book b where b.id in :ids")
+    List<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,78 @@
+package com.my.library.repository;
+
+import com.my.library.dto.BookAvailability;
+import com.my.library.model.BookStock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Interface for the book stock repository, based on JpaRepository.
+ * Provides standard methods for CRUD operations on BookStock entities.
+ */
+public interface BookStockRepository extends JpaRepository<BookStock, Long> {
+
+    /**
+     * Checks if the copies of a book are spread over stripes.
+     *
+     * @param bookId The book's ID
+     * @return true if the book has at least one stripe, false otherwise
+     */
+    boolean existsByBookId(Long bookId);
+
+    /**
+     * Retrieves the numbers of the stripes of a book that have available copies.
+     *
+     * @param bookId The book's ID
+     * @return a list of stripe numbers with at least one available copy
+     */
+    @Query("select s.stripe from BookStock s where s.book.id = :bookId and s.available > 0")
+    List<Integer> findAvailableStripesByBookId(@Param("bookId") Long bookId);
+
+    /**
+     * Sums the available copies in the stripes of the given books.
+     *
+     * @param bookIds The IDs of the books
+     * @return the available copies in the stripes of each of the books having stripes
+     */
+    @Query("select new com.my.library.dto.BookAvailability(s.book.id, cast(sum(s.available) as Integer)) "
+            + "from BookStock s where s.book.id in :bookIds group by s.book.id")
+    List<BookAvailability> sumAvailableByBookIdIn(@Param("bookIds") Collection<Long> bookIds);
+
+    /**
+     * Takes one available copy from a stripe of a book with a single conditional statement.
+     *
+     * @param bookId The book's ID
+     * @param stripe The number of the stripe
+     * @return 1 if a copy was taken, 0 if the stripe does not exist or has no available copies
+     */
+    @Modifying
+    @Query("update BookStock s set s.available = s.available - 1 "
+            + "where s.book.id = :bookId and s.stripe = :stripe and s.available > 0")
+    int decrementAvailable(@Param("bookId") Long bookId, @Param("stripe") Integer stripe);
+
+    /**
+     * Puts one copy of a book back to a stripe with a single statement.
+     *
+     * @param bookId The book's ID
+     * @param stripe The number of the stripe
+     * @return 1 if a copy was put back, 0 if the stripe does not exist
+     */
+    @Modifying
+    @Query("update BookStock s set s.available = s.available + 1 where s.book.id = :bookId and s.stripe = :stripe")
+    int incrementAvailable(@Param("bookId") Long bookId, @Param("stripe") Integer stripe);
+
+    /**
+     * Deletes all stripes of a book with a single statement.
+     *
+     * @param bookId The book's ID
+     * @return the number of deleted stripes
+     */
+    @Modifying
+    @Query("delete from BookStock s where s.book.id = :bookId")
+    int deleteByBookId(@Param("bookId") Long bookId);
+}
@@ -0,0 +1,81 @@
+package com.my.library.repository;
+
+import com.my.library.model.Hold;
+import com.my.library.repository.projection.HoldExpiry;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Interface for the hold repository, based on JpaRepository.
+ * Provides standard methods for CRUD operations on Hold entities.
+ */
+public interface HoldRepository extends JpaRepository<Hold, Long> {
+
+    /**
+     * Retrieves the oldest hold of a book that has not expired yet.
+     *
+     * @param bookId The book's ID
+     * @param now    The current time
+     * @return the oldest unexpired hold of the book, or empty if there is none
+     */
+    Optional<Hold> findFirstByBookIdAndExpiresAtAfterOrderByPlacedAtAscIdAsc(Long bookId, LocalDateTime now);
+
+    /**
+     * Counts the unexpired holds of the book of a hold placed before the hold, the hold included.
+     * The hold is compared by the time stored for it, which may be less precise than the time it was created with.
+     *
+     * @param id  The hold's ID
+     * @param now The current time
+     * @return the position of the hold in the queue of its book, starting with 1
+     */
+    @Query("select count(h) from Hold h, Hold o where o.id = :id and h.book.id = o.book.id and h.expiresAt > :now "
+            + "and (h.placedAt < o.placedAt or h.placedAt = o.placedAt and h.id <= o.id)")
+    long countQueuedBefore(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    /**
+     * Deletes a hold with a single statement, so that of several transactions deleting it only one succeeds.
+     *
+     * @param id The hold's ID
+     * @return the number of deleted holds
+     */
+    @Modifying
+    @Query("delete from Hold h where h.id = :id")
+    int deleteHoldById(@Param("id") Long id);
+
+    /**
+     * Deletes all holds of a user with a single statement.
+     *
+     * @param userId The user's ID
+     */
+    @Modifying
+    @Query("delete from Hold h where h.user.id = :userId")
+    void deleteByUserId(@Param("userId") Long userId);
+
+    /**
+     * Deletes all holds of a book with a single statement.
+     *
+     * @param bookId The book's ID
+     */
+    @Modifying
+    @Query("delete from Hold h where h.book.id = :bookId")
+    void deleteByBookId(@Param("bookId") Long bookId);
+
+    /**
+     * Streams the ID and expiry of all holds through a forward-only cursor.
+     * The stream must be read and closed in a transaction.
+     *
+     * @return a stream of the IDs and expiries of all holds
+     */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = BookRepository.STREAM_FETCH_SIZE))
+    @Query("select h.id as id, h.expiresAt as expiresAt from Hold h")
+    Stream<HoldExpiry> streamExpiries();
+}
@@ -0,0 +1,163 @@
+package com.my.library.repository;
+
+import com.my.library.dto.BookDto;
+import com.my.library.dto.LoanDto;
+import com.my.library.model.Loan;
+import com.my.library.repository.projection.IssuedBook;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Interface for the loan repository, based on JpaRepository.
+ * Provides standard methods for CRUD operations on Loan entities.
+ */
+public interface LoanRepository extends JpaRepository<Loan, Long> {
+
+    /**
+     * The constructor expression selecting a loan aliased "l" as a LoanDto.
+     */
+    String LOAN_DTO = "new com.my.library.dto.LoanDto(l.id, l.user.id, l.book.id, l.issuedAt, l.dueDate)";
+
+    /**
+     * Checks if a book is issued to a user.
+     *
+     * @param userId The user's ID
+     * @param bookId The book's ID
+     * @return true if the loan exists, false otherwise
+     */
+    boolean existsByUserIdAndBookId(Long userId, Long bookId);
+
+    /**
+     * Checks if a user has any issued books.
+     *
+     * @param userId The user's ID
+     * @return true if the user has at least one loan, false otherwise
+     */
+    boolean existsByUserId(Long userId);
+
+    /**
+     * Checks if a book is issued to any user.
+     *
+     * @param bookId The book's ID
+     * @return true if the book has at least one loan, false otherwise
+     */
+    boolean existsByBookId(Long bookId);
+
+    /**
+     * Retrieves all books issued to a user as DTOs without loading book entities.
+     *
+     * @param userId The user's ID
+     * @return a list of books issued to the user
+     */
+    @Query("select " + BookRepository.BOOK_DTO + " from Loan l join l.book b where l.user.id = :userId")
+    List<BookDto> findBookDtosByUserId(@Param("userId") Long userId);
+
+    /**
+     * Retrieves all books issued to several users with a single query.
+     *
+     * @param userIds The users' IDs
+     * @return a list of books issued to the users, each with the ID of the user it is issued to
+     */
+    @Query("select new com.my.library.repository.projection.IssuedBook(l.user.id, " + BookRepository.BOOK_DTO_FIELDS
+            + ") from Loan l join l.book b where l.user.id in :userIds")
+    List<IssuedBook> findIssuedBooksByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Deletes the loan of a book to a user with a single statement.
+     *
+     * @param userId The user's ID
+     * @param bookId The book's ID
+     * @return the number of deleted loans
+     */
+    @Modifying
+    @Query("delete from Loan l where l.user.id = :userId and l.book.id = :bookId")
+    int deleteByUserIdAndBookId(@Param("userId") Long userId, @Param("bookId") Long bookId);
+
+    /**
+     * Retrieves which of the given books are issued to a user.
+     *
+     * @param userId  The user's ID
+     * @param bookIds The books' IDs
+     * @return the IDs of the given books issued to the user
+     */
+    @Query("select l.book.id from Loan l where l.user.id = :userId and l.book.id in :bookIds")
+    List<Long> findBookIdsByUserIdAndBookIdIn(@Param("userId") Long userId,
+                                              @Param("bookIds") Collection<Long> bookIds);
+
+    /**
+     * Finds up to a limited number of the users a book is issued to.
+     *
+     * @param bookId   The book's ID
+     * @param pageable The maximum number of users to find
+     * @return the IDs of the users holding the book
+     */
+    @Query("select l.user.id from Loan l where l.book.id = :bookId")
+    List<Long> findUserIdsByBookId(@Param("bookId") Long bookId, Pageable pageable);
+
+    /**
+     * Deletes the loans of several books issued to a user with a single statement.
+     *
+     * @param userId  The user's ID
+     * @param bookIds The books' IDs
+     * @return the number of deleted loans
+     */
+    @Modifying
+    @Query("delete from Loan l where l.user.id = :userId and l.book.id in :bookIds")
+    int deleteByUserIdAndBookIdIn(@Param("userId") Long userId, @Param("bookIds") Collection<Long> bookIds);
+
+    /**
+     * Retrieves the first overdue loans as DTOs in due date and ID order, read from the index of due dates.
+     *
+     * @param now      The current time
+     * @param pageable The maximum number of loans to retrieve, as the size of the first page
+     * @return the loans due before the current time that are read first
+     */
+    @Query("select " + LOAN_DTO + " from Loan l where l.dueDate < :now order by l.dueDate, l.id")
+    List<LoanDto> findOverdue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Retrieves the overdue loans following a loan as DTOs in due date and ID order. The next loans start
+     * right after the due date and ID of the given loan in the index of due dates, whatever the number
+     * of loans before it.
+     *
+     * @param now      The current time
+     * @param dueDate  The due date of the last loan read
+     * @param id       The ID of the last loan read
+     * @param pageable The maximum number of loans to retrieve, as the size of the first page
+     * @return the loans due before the current time that follow the given loan
+     */
+    @Query("select " + LOAN_DTO + " from Loan l where l.dueDate < :now"
+            + " and (l.dueDate > :dueDate or (l.dueDate = :dueDate and l.id > :id)) order by l.dueDate, l.id")
+    List<LoanDto> findOverdueAfter(@Param("now") LocalDateTime now, @Param("dueDate") LocalDateTime dueDate,
+                                   @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Retrieves the first overdue loans not announced yet as DTOs in due date and ID order, read from the index
+     * of announcement times and due dates, so the loans announced before are never read again.
+     *
+     * @param now      The current time
+     * @param pageable The maximum number of loans to retrieve, as the size of the first page
+     * @return the loans due before the current time that were not announced yet
+     */
+    @Query("select " + LOAN_DTO + " from Loan l where l.overdueNotifiedAt is null and l.dueDate < :now"
+            + " order by l.dueDate, l.id")
+    List<LoanDto> findOverdueNotNotified(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Claims the announcement of an overdue loan, unless another run has claimed it first.
+     *
+     * @param id  The loan's ID
+     * @param now The current time
+     * @return 1 if the loan was claimed, 0 if it was claimed before or has been returned
+     */
+    @Modifying
+    @Query("update Loan l set l.overdueNotifiedAt = :now where l.id = :id and l.overdueNotifiedAt is null")
+    int markOverdueNotified(@Param("id") Long id, @Param("now") LocalDateTime now);
+}
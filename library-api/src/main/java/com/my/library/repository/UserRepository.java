@@ -1,29 +1,75 @@
 package com.my.library.repository;
 
+import com.my.library.dto.UserDto;
 import com.my.library.model.User;
+import com.my.library.repository.keyset.UserKeysetRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.stream.Stream;
 
 /**
  * Interface for the user repository, based on JpaRepository.
  * Provides standard methods for CRUD operations on User entities.
  */
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserKeysetRepository {
+
+    /**
+     * Retrieves a page of users as DTOs without loading user entities.
+     * The DTOs have neither passwords nor books.
+     *
+     * @param pageable The page to retrieve
+     * @return a page of users
+     */
+    @Query(value = "select new com.my.library.dto.UserDto(u.id, u.username, u.email) from User u",
+            countQuery = "select count(u) from User u")
+    Page<UserDto> findUserDtos(Pageable pageable);
+
+    /**
+     * Retrieves a page of users as DTOs without loading user entities and without counting all users.
+     * The DTOs have neither passwords nor books.
+     *
+     * @param pageable The page to retrieve
+     * @return a slice of users that only knows whether a next page exists
+     */
+    @Query("select new com.my.library.dto.UserDto(u.id, u.username, u.email) from User u")
+    Slice<UserDto> findUserDtoSlice(Pageable pageable);
+
+    /**
+     * Streams all users as DTOs in ID order through a forward-only cursor, without loading user entities,
+     * so that any number of users is read in constant memory. The stream must be read and closed in a transaction.
+     * The DTOs have neither passwords nor books.
+     *
+     * @return a stream of all users
+     */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = BookRepository.STREAM_FETCH_SIZE))
+    @Query("select new com.my.library.dto.UserDto(u.id, u.username, u.email) from User u order by u.id")
+    Stream<UserDto> streamUserDtos();
 
     /**
-     * Checks if a user exists in the repository by their username or email.
+     * Checks if a user exists in the repository by their username.
+     * Like the other existence check, the result is kept in the query cache until users are written.
      *
      * @param username The user's username
-     * @param email    The user's email address
      * @return true if the user exists, false otherwise
      */
-    boolean existsByUsernameOrEmail(String username, String email);
+    @QueryHints({@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = "existence")})
+    boolean existsByUsername(String username);
 
     /**
-     * Checks if a user exists in the repository by their email and excluding a specific ID.
+     * Checks if a user exists in the repository by their email.
      *
      * @param email The user's email address
-     * @param id    The ID to exclude from the check
      * @return true if the user exists, false otherwise
      */
-    boolean existsByEmailAndIdIsNot(String email, Long id);
+    @QueryHints({@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = "existence")})
+    boolean existsByEmail(String email);
 }
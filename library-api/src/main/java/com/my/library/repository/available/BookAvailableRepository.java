@@ -0,0 +1,61 @@
+package com.my.library.repository.available;
+
+import java.util.Collection;
+
+/**
+ * Repository fragment for changing the available copies of books with single statements.
+ * Unlike bulk updates of book entities, these statements evict neither the whole book region of the
+ * second-level cache nor the cached queries, so callers evict the changed books by ID themselves.
+ */
+public interface BookAvailableRepository {
+
+    /**
+     * Takes one available copy of a book with a single conditional statement.
+     *
+     * @param id The book's ID
+     * @return 1 if a copy was taken, 0 if the book does not exist or has no available copies
+     */
+    int decrementAvailable(Long id);
+
+    /**
+     * Takes one available copy of each of several books with a single conditional statement.
+     *
+     * @param ids The books' IDs
+     * @return the number of books a copy was taken of, books without available copies are left unchanged
+     */
+    int decrementAvailableByIdIn(Collection<Long> ids);
+
+    /**
+     * Puts one copy of a book back with a single statement.
+     *
+     * @param id The book's ID
+     * @return 1 if a copy was put back, 0 if the book does not exist
+     */
+    int incrementAvailable(Long id);
+
+    /**
+     * Puts one copy of each of several books back with a single statement.
+     *
+     * @param ids The books' IDs
+     * @return the number of books a copy was put back of
+     */
+    int incrementAvailableByIdIn(Collection<Long> ids);
+
+    /**
+     * Changes the number of available copies of a book if its version was not changed since it was read.
+     *
+     * @param id      The book's ID
+     * @param version The version the book had when it was read
+     * @param delta   The number of copies to add, negative to take copies
+     * @return 1 if the book was updated, 0 if it was changed concurrently
+     */
+    int addAvailableIfVersion(Long id, Long version, int delta);
+
+    /**
+     * Sets the number of available copies of a book to zero with a single statement.
+     *
+     * @param id The book's ID
+     * @return 1 if the book was updated, 0 if the book does not exist
+     */
+    int clearAvailable(Long id);
+}
@@ -0,0 +1,115 @@
+package com.my.library.repository.available;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.query.NativeQuery;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Implementation of the BookAvailableRepository fragment.
+ * Statements are native queries synchronized with a query space no entity or cached query is mapped to.
+ * Hibernate evicts the whole region of every entity in the spaces of a statement, and of every entity
+ * when a statement names no space at all, so this space keeps it from evicting anything.
+ */
+public class BookAvailableRepositoryImpl implements BookAvailableRepository {
+
+    /**
+     * The query space of the statements changing available copies.
+     */
+    private static final String AVAILABLE_SPACE = "book_available";
+
+    /**
+     * The EntityManager object that will be used to run statements.
+     */
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Takes one available copy of a book with a single conditional statement.
+     *
+     * @param id The book's ID
+     * @return 1 if a copy was taken, 0 if the book does not exist or has no available copies
+     */
+    @Override
+    public int decrementAvailable(Long id) {
+        return update("update book set available = available - 1, version = version + 1 "
+                + "where id = :id and available > 0", Map.of("id", id));
+    }
+
+    /**
+     * Takes one available copy of each of several books with a single conditional statement.
+     *
+     * @param ids The books' IDs
+     * @return the number of books a copy was taken of, books without available copies are left unchanged
+     */
+    @Override
+    public int decrementAvailableByIdIn(Collection<Long> ids) {
+        return update("update book set available = available - 1, version = version + 1 "
+                + "where id in :ids and available > 0", Map.of("ids", ids));
+    }
+
+    /**
+     * Puts one copy of a book back with a single statement.
+     *
+     * @param id The book's ID
+     * @return 1 if a copy was put back, 0 if the book does not exist
+     */
+    @Override
+    public int incrementAvailable(Long id) {
+        return update("update book set available = available + 1, version = version + 1 where id = :id",
+                Map.of("id", id));
+    }
+
+    /**
+     * Puts one copy of each of several books back with a single statement.
+     *
+     * @param ids The books' IDs
+     * @return the number of books a copy was put back of
+     */
+    @Override
+    public int incrementAvailableByIdIn(Collection<Long> ids) {
+        return update("update book set available = available + 1, version = version + 1 where id in :ids",
+                Map.of("ids", ids));
+    }
+
+    /**
+     * Changes the number of available copies of a book if its version was not changed since it was read.
+     *
+     * @param id      The book's ID
+     * @param version The version the book had when it was read
+     * @param delta   The number of copies to add, negative to take copies
+     * @return 1 if the book was updated, 0 if it was changed concurrently
+     */
+    @Override
+    public int addAvailableIfVersion(Long id, Long version, int delta) {
+        return update("update book set available = available + :delta, version = version + 1 "
+                + "where id = :id and version = :version", Map.of("id", id, "version", version, "delta", delta));
+    }
+
+    /**
+     * Sets the number of available copies of a book to zero with a single statement.
+     *
+     * @param id The book's ID
+     * @return 1 if the book was updated, 0 if the book does not exist
+     */
+    @Override
+    public int clearAvailable(Long id) {
+        return update("update book set available = 0, version = version + 1 where id = :id", Map.of("id", id));
+    }
+
+    /**
+     * Runs a statement changing available copies within the current transaction.
+     *
+     * @param sql        the statement to run
+     * @param parameters the values of the named parameters of the statement
+     * @return the number of changed books
+     */
+    private int update(String sql, Map<String, Object> parameters) {
+        NativeQuery<?> query = entityManager.createNativeQuery(sql).unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(AVAILABLE_SPACE);
+        parameters.forEach(query::setParameter);
+        return query.executeUpdate();
+    }
+}
@@ -0,0 +1,58 @@
+package com.my.library.repository.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactory;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * Configuration class for the non-blocking connections of the reactive read path.
+ * The pool of connections is not a bean, as a connection factory bean would turn off the JDBC data source,
+ * the JPA repositories and the transaction manager used by everything else, which is why the R2DBC
+ * auto-configuration is excluded and only the "spring.r2dbc" properties are kept.
+ */
+@Configuration
+@EnableConfigurationProperties(R2dbcProperties.class)
+public class ReactiveDatabaseConfig {
+
+    /**
+     * The pool of connections of the database client, closed with the application context.
+     */
+    private ConnectionPool connectionPool;
+
+    /**
+     * Creates a database client over a pool of non-blocking connections to the same database as the data source.
+     *
+     * @param properties the URL, credentials and pool settings of the connections
+     * @return a DatabaseClient bean
+     */
+    @Bean
+    public DatabaseClient reactiveDatabaseClient(R2dbcProperties properties) {
+        ConnectionFactory connectionFactory = ConnectionFactoryBuilder.withUrl(properties.getUrl())
+                .username(properties.getUsername())
+                .password(properties.getPassword())
+                .build();
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .initialSize(properties.getPool().getInitialSize())
+                .maxSize(properties.getPool().getMaxSize())
+                .maxIdleTime(properties.getPool().getMaxIdleTime())
+                .build());
+        return DatabaseClient.create(connectionPool);
+    }
+
+    /**
+     * Closes the connections of the pool.
+     */
+    @PreDestroy
+    public void close() {
+        if (connectionPool != null) {
+            connectionPool.dispose();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.my.library.repository.keyset;
+
+import com.my.library.model.Book;
+
+import java.util.List;
+
+/**
+ * Repository fragment for reading books page by page without an offset.
+ */
+public interface BookKeysetRepository {
+
+    /**
+     * Retrieves the books following the given position in the given sort order.
+     *
+     * @param sortBy     the field to sort the books by (id, author or name)
+     * @param descending true to sort in descending order, false to sort in ascending order
+     * @param lastValue  the sort value of the last book of the previous page, ignored when sorting by ID
+     * @param lastId     the ID of the last book of the previous page, or null to read the first page
+     * @param limit      the maximum number of books to retrieve
+     * @return a list of books following the given position
+     */
+    List<Book> findPageAfter(String sortBy, boolean descending, Object lastValue, Long lastId, int limit);
+}
@@ -0,0 +1,16 @@
+package com.my.library.repository.keyset;
+
+import com.my.library.model.Book;
+
+/**
+ * Implementation of the BookKeysetRepository fragment.
+ */
+public class BookKeysetRepositoryImpl extends KeysetQuery<Book> implements BookKeysetRepository {
+
+    /**
+     * Constructor for BookKeysetRepositoryImpl.
+     */
+    public BookKeysetRepositoryImpl() {
+        super(Book.class);
+    }
+}
@@ -0,0 +1,78 @@
+package com.my.library.repository.keyset;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+
+import java.util.List;
+
+/**
+ * Base class for repository fragments reading pages of entities after a known position in a sort order.
+ * The position is the sort value and the ID of the last entity of the previous page, and the ID breaks ties
+ * between equal sort values, so every page starts with an index range scan instead of skipping an offset.
+ *
+ * @param <T> the type of the entity
+ */
+public abstract class KeysetQuery<T> {
+
+    /**
+     * The name of the ID attribute used as a tiebreaker.
+     */
+    private static final String ID = "id";
+
+    /**
+     * The EntityManager object that will be used to build and run queries.
+     */
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * The class of the entity.
+     */
+    private final Class<T> type;
+
+    /**
+     * Constructor for KeysetQuery.
+     *
+     * @param type the class of the entity
+     */
+    protected KeysetQuery(Class<T> type) {
+        this.type = type;
+    }
+
+    /**
+     * Retrieves the entities following the given position in the given sort order.
+     *
+     * @param sortBy     the attribute to sort the entities by
+     * @param descending true to sort in descending order, false to sort in ascending order
+     * @param lastValue  the sort value of the last entity of the previous page, ignored when sorting by ID
+     * @param lastId     the ID of the last entity of the previous page, or null to read the first page
+     * @param limit      the maximum number of entities to retrieve
+     * @return a list of entities following the given position
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public List<T> findPageAfter(String sortBy, boolean descending, Object lastValue, Long lastId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(type);
+        Root<T> root = query.from(type);
+        Path<Long> id = root.get(ID);
+        if (lastId != null) {
+            Predicate afterId = descending ? cb.lessThan(id, lastId) : cb.greaterThan(id, lastId);
+            if (ID.equals(sortBy)) {
+                query.where(afterId);
+            } else {
+                Path<Comparable> key = root.get(sortBy);
+                Comparable value = (Comparable) lastValue;
+                Predicate afterKey = descending ? cb.lessThan(key, value) : cb.greaterThan(key, value);
+                query.where(cb.or(afterKey, cb.and(cb.equal(key, value), afterId)));
+            }
+        }
+        if (ID.equals(sortBy)) {
+            query.orderBy(descending ? cb.desc(id) : cb.asc(id));
+        } else {
+            Path<?> key = root.get(sortBy);
+            query.orderBy(descending ? List.of(cb.desc(key), cb.desc(id)) : List.of(cb.asc(key), cb.asc(id)));
+        }
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+}
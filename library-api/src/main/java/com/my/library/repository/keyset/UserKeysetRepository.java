@@ -0,0 +1,23 @@
+package com.my.library.repository.keyset;
+
+import com.my.library.model.User;
+
+import java.util.List;
+
+/**
+ * Repository fragment for reading users page by page without an offset.
+ */
+public interface UserKeysetRepository {
+
+    /**
+     * Retrieves the users following the given position in the given sort order.
+     *
+     * @param sortBy     the field to sort the users by (id, username or email)
+     * @param descending true to sort in descending order, false to sort in ascending order
+     * @param lastValue  the sort value of the last user of the previous page, ignored when sorting by ID
+     * @param lastId     the ID of the last user of the previous page, or null to read the first page
+     * @param limit      the maximum number of users to retrieve
+     * @return a list of users following the given position
+     */
+    List<User> findPageAfter(String sortBy, boolean descending, Object lastValue, Long lastId, int limit);
+}
@@ -0,0 +1,16 @@
+package com.my.library.repository.keyset;
+
+import com.my.library.model.User;
+
+/**
+ * Implementation of the UserKeysetRepository fragment.
+ */
+public class UserKeysetRepositoryImpl extends KeysetQuery<User> implements UserKeysetRepository {
+
+    /**
+     * Constructor for UserKeysetRepositoryImpl.
+     */
+    public UserKeysetRepositoryImpl() {
+        super(User.class);
+    }
+}
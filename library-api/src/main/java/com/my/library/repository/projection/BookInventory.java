@@ -0,0 +1,17 @@
+package com.my.library.repository.projection;
+
+/**
+ * Projection of the inventory state of a book read directly from database.
+ */
+public interface BookInventory {
+
+    /**
+     * @return the number of available copies of the book
+     */
+    Integer getAvailable();
+
+    /**
+     * @return the version of the book row
+     */
+    Long getVersion();
+}
@@ -0,0 +1,17 @@
+package com.my.library.repository.projection;
+
+/**
+ * Projection of the author and name of a book, which identify a book together.
+ */
+public interface BookTitle {
+
+    /**
+     * @return the author of the book
+     */
+    String getAuthor();
+
+    /**
+     * @return the name of the book
+     */
+    String getName();
+}
@@ -0,0 +1,19 @@
+package com.my.library.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection of the expiry of a hold read directly from database.
+ */
+public interface HoldExpiry {
+
+    /**
+     * @return the ID of the hold
+     */
+    Long getId();
+
+    /**
+     * @return the time the hold expires at
+     */
+    LocalDateTime getExpiresAt();
+}
@@ -0,0 +1,18 @@
+package com.my.library.repository.projection;
+
+/**
+ * Projection of the ID, author and name of a book, which are indexed for search,
+ * with the number of its issued copies, which ranks suggestions.
+ */
+public interface IndexedBookTitle extends BookTitle {
+
+    /**
+     * @return the ID of the book
+     */
+    Long getId();
+
+    /**
+     * @return the number of issued copies of the book
+     */
+    Long getLoans();
+}
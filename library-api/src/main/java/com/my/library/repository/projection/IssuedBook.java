@@ -0,0 +1,35 @@
+package com.my.library.repository.projection;
+
+import com.my.library.dto.BookDto;
+import lombok.Getter;
+
+/**
+ * Projection of a book issued to a user, read directly from database together with the ID of the user.
+ */
+@Getter
+public class IssuedBook {
+
+    /**
+     * The ID of the user the book is issued to.
+     */
+    private final Long userId;
+
+    /**
+     * The issued book.
+     */
+    private final BookDto book;
+
+    /**
+     * Constructor for a book issued to a user read from database.
+     *
+     * @param userId    The ID of the user the book is issued to
+     * @param id        Book unique identifier
+     * @param author    Book author
+     * @param name      Book name
+     * @param available Number of available copies of the book
+     */
+    public IssuedBook(Long userId, Long id, String author, String name, Integer available) {
+        this.userId = userId;
+        this.book = new BookDto(id, author, name, available);
+    }
+}
@@ -0,0 +1,79 @@
+package com.my.library.repository.reactive;
+
+import com.my.library.dto.BookDto;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Non-blocking repository reading books as DTOs with SQL over R2DBC, for the reactive read path.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReactiveBookRepository {
+
+    /**
+     * The columns of a BookDto selected from a book aliased "b", including the copies in its stripes.
+     */
+    public static final String BOOK_DTO_COLUMNS = "b.id, b.author, b.name, b.available + "
+            + "(select coalesce(sum(s.available), 0) from book_stock s where s.book_id = b.id) as available";
+
+    /**
+     * The columns books can be sorted by, by the name of the sorted field.
+     */
+    private static final Map<String, String> SORT_COLUMNS = Map.of("id", "b.id", "author", "b.author",
+            "name", "b.name");
+
+    /**
+     * The DatabaseClient object that will be used to run queries over non-blocking connections.
+     */
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Retrieves a book by its ID as a DTO.
+     *
+     * @param id the ID of the book
+     * @return the book, or empty if it does not exist
+     */
+    public Mono<BookDto> findBookDtoById(long id) {
+        return databaseClient.sql("select " + BOOK_DTO_COLUMNS + " from book b where b.id = :id")
+                .bind("id", id)
+                .map(ReactiveBookRepository::mapBookDto)
+                .one();
+    }
+
+    /**
+     * Retrieves a page of books as DTOs, sorted by a field and then by ID.
+     *
+     * @param page       the page number (0-based) of the books to retrieve
+     * @param size       the maximum number of books per page
+     * @param sortBy     the field to sort the books by (id, author, or name)
+     * @param descending whether the books are sorted in descending order
+     * @return the books of the page
+     */
+    public Flux<BookDto> findBookDtos(int page, int size, String sortBy, boolean descending) {
+        String direction = descending ? " desc" : " asc";
+        return databaseClient.sql("select " + BOOK_DTO_COLUMNS + " from book b order by "
+                        + SORT_COLUMNS.get(sortBy) + direction + ", b.id" + direction + " limit :size offset :offset")
+                .bind("size", size)
+                .bind("offset", (long) page * size)
+                .map(ReactiveBookRepository::mapBookDto)
+                .all();
+    }
+
+    /**
+     * Converts a row selected with {@link #BOOK_DTO_COLUMNS} to a BookDto object.
+     *
+     * @param row the row to convert
+     * @return the book of the row
+     */
+    static BookDto mapBookDto(Readable row) {
+        return new BookDto(row.get("id", Long.class), row.get("author", String.class), row.get("name", String.class),
+                ((Number) row.get("available")).intValue());
+    }
+}
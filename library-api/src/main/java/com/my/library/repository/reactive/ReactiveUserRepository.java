@@ -0,0 +1,51 @@
+package com.my.library.repository.reactive;
+
+import com.my.library.dto.BookDto;
+import com.my.library.dto.UserDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking repository reading users and their issued books as DTOs with SQL over R2DBC,
+ * for the reactive read path.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReactiveUserRepository {
+
+    /**
+     * The DatabaseClient object that will be used to run queries over non-blocking connections.
+     */
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Retrieves a user by its ID as a DTO without its password and books.
+     *
+     * @param id the ID of the user
+     * @return the user, or empty if it does not exist
+     */
+    public Mono<UserDto> findUserDtoById(long id) {
+        return databaseClient.sql("select u.id, u.username, u.email from user u where u.id = :id")
+                .bind("id", id)
+                .map(row -> new UserDto(row.get("id", Long.class), row.get("username", String.class),
+                        row.get("email", String.class)))
+                .one();
+    }
+
+    /**
+     * Retrieves the books issued to a user as DTOs.
+     *
+     * @param userId the ID of the user
+     * @return the books issued to the user
+     */
+    public Flux<BookDto> findBookDtosByUserId(long userId) {
+        return databaseClient.sql("select " + ReactiveBookRepository.BOOK_DTO_COLUMNS
+                        + " from loan l join book b on b.id = l.book_id where l.user_id = :userId")
+                .bind("userId", userId)
+                .map(ReactiveBookRepository::mapBookDto)
+                .all();
+    }
+}
@@ -0,0 +1,20 @@
+package com.my.library.service;
+
+import com.my.library.dto.BookDto;
+import com.my.library.dto.BookImportReport;
+
+import java.util.Iterator;
+
+/**
+ * Service interface for creating many books at once.
+ */
+public interface BookImportService {
+
+    /**
+     * Creates the given books, skipping invalid rows and books that already exist.
+     *
+     * @param books the books to create, read one by one
+     * @return the result of every row
+     */
+    BookImportReport importBooks(Iterator<BookDto> books);
+}
@@ -0,0 +1,29 @@
+package com.my.library.service;
+
+import com.my.library.dto.BookDto;
+
+import java.util.List;
+
+/**
+ * Service interface for full-text search of books by author and name.
+ */
+public interface BookSearchService {
+
+    /**
+     * Finds the books whose author or name contain every term of a query, best matches first.
+     *
+     * @param query the query to search for
+     * @param size  the maximum number of books to return
+     * @return the best matching books, best first
+     */
+    List<BookDto> search(String query, int size);
+
+    /**
+     * Completes a prefix with the most popular book names and authors starting with it.
+     *
+     * @param prefix the prefix to complete
+     * @param size   the maximum number of completions to return
+     * @return the completing names and authors, most popular first
+     */
+    List<String> suggest(String prefix, int size);
+}
@@ -1,7 +1,9 @@
 package com.my.library.service;
 
 import com.my.library.dto.BookDto;
+import com.my.library.dto.CursorPage;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 /**
  * Service interface for managing books.
@@ -27,6 +29,39 @@ public interface BookService {
      */
     Page<BookDto> getSortedPage(int page, int size, String sortBy, String order);
 
+    /**
+     * Retrieves a sorted and paginated list of books without the total number of books.
+     *
+     * @param page   the page number of the results to retrieve
+     * @param size   the maximum number of results per page
+     * @param sortBy the field to sort the results by
+     * @param order  the sort order
+     * @return a slice of books sorted according to the specified parameters
+     */
+    Slice<BookDto> getSortedSlice(int page, int size, String sortBy, String order);
+
+    /**
+     * Retrieves a sorted and paginated list of books with an estimated total number of books.
+     *
+     * @param page   the page number of the results to retrieve
+     * @param size   the maximum number of results per page
+     * @param sortBy the field to sort the results by
+     * @param order  the sort order
+     * @return a page of books sorted according to the specified parameters
+     */
+    Page<BookDto> getSortedPageWithEstimatedTotal(int page, int size, String sortBy, String order);
+
+    /**
+     * Retrieves a sorted list of books following a cursor.
+     *
+     * @param cursor the cursor returned with the previous page, empty for the first page
+     * @param size   the maximum number of results per page
+     * @param sortBy the field to sort the results by
+     * @param order  the sort order
+     * @return a page of books sorted according to the specified parameters with the cursor of the next page
+     */
+    CursorPage<BookDto> getPageAfter(String cursor, int size, String sortBy, String order);
+
     /**
      * Creates a new book.
      *
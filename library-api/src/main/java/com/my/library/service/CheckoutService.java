@@ -0,0 +1,28 @@
+package com.my.library.service;
+
+import com.my.library.dto.UserDto;
+
+/**
+ * Service interface for issuing and returning single books.
+ * The implementation is selected with the "library.checkout.mode" property.
+ */
+public interface CheckoutService {
+
+    /**
+     * Issues a book to a user.
+     *
+     * @param userId the ID of the user to issue the book to
+     * @param bookId the ID of the book to issue
+     * @return the updated user
+     */
+    UserDto issueBook(long userId, long bookId);
+
+    /**
+     * Returns a book from a user.
+     *
+     * @param userId the ID of the user to return the book from
+     * @param bookId the ID of the book to return
+     * @return the updated user
+     */
+    UserDto returnBook(long userId, long bookId);
+}
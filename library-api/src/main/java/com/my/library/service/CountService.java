@@ -0,0 +1,21 @@
+package com.my.library.service;
+
+/**
+ * Service interface for estimating the number of books and users without counting them on every request.
+ */
+public interface CountService {
+
+    /**
+     * Returns the estimated number of books.
+     *
+     * @return the number of books at the last refresh
+     */
+    long estimateBooks();
+
+    /**
+     * Returns the estimated number of users.
+     *
+     * @return the number of users at the last refresh
+     */
+    long estimateUsers();
+}
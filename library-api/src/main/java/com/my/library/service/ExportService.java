@@ -0,0 +1,26 @@
+package com.my.library.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Service interface for exporting all books and users as newline-delimited JSON.
+ */
+public interface ExportService {
+
+    /**
+     * Writes every book as one JSON object per line.
+     *
+     * @param out the stream to write the books to
+     * @throws IOException if the books cannot be written
+     */
+    void exportBooks(OutputStream out) throws IOException;
+
+    /**
+     * Writes every user as one JSON object per line.
+     *
+     * @param out the stream to write the users to
+     * @throws IOException if the users cannot be written
+     */
+    void exportUsers(OutputStream out) throws IOException;
+}
@@ -0,0 +1,19 @@
+package com.my.library.service;
+
+import com.my.library.dto.HoldDto;
+
+/**
+ * Service interface for managing holds of books without available copies.
+ */
+public interface HoldService {
+
+    /**
+     * Places a hold of a book by a user, who is issued the next returned copy once the holds placed before
+     * are served or expired.
+     *
+     * @param bookId the ID of the book to hold
+     * @param userId the ID of the user waiting for the book
+     * @return the placed hold
+     */
+    HoldDto placeHold(long bookId, long userId);
+}
@@ -0,0 +1,91 @@
+package com.my.library.service;
+
+import com.my.library.exception.NoAvailableBooksException;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+
+/**
+ * Service interface for managing available copies of books.
+ * The implementation is selected with the "library.inventory.strategy" property.
+ */
+public interface InventoryService {
+
+    /**
+     * Takes one available copy of a book.
+     * Callers taking copies of several books in one transaction must do it in ascending book ID order.
+     *
+     * @param bookId the ID of the book to take a copy of
+     */
+    void reserve(long bookId);
+
+    /**
+     * Puts one copy of a book back to the available copies.
+     *
+     * @param bookId the ID of the book to put a copy of
+     */
+    void release(long bookId);
+
+    /**
+     * Takes one available copy of each of the given books, failing if any of them has none left.
+     * Must be called in a transaction, which is rolled back together with the copies already taken on failure.
+     *
+     * @param bookIds the IDs of the books to take a copy of, in ascending order
+     * @throws NoAvailableBooksException if any of the books has no available copies left
+     */
+    default void reserveAll(SortedSet<Long> bookIds) {
+        bookIds.forEach(this::reserve);
+    }
+
+    /**
+     * Takes one available copy of each of the given books that still has one, skipping the others.
+     * Copies are taken within the calling transaction, so a skipped book does not roll back the others.
+     *
+     * @param bookIds the IDs of the books to take a copy of, in ascending order
+     * @return the IDs of the books a copy was taken of
+     */
+    default Set<Long> reserveAvailable(SortedSet<Long> bookIds) {
+        Set<Long> reserved = new LinkedHashSet<>();
+        for (Long bookId : bookIds) {
+            try {
+                reserve(bookId);
+                reserved.add(bookId);
+            } catch (NoAvailableBooksException e) {
+                // the book is skipped, the other books are still reserved
+            }
+        }
+        return reserved;
+    }
+
+    /**
+     * Puts one copy of each of the given books back to the available copies.
+     *
+     * @param bookIds the IDs of the books to put a copy of, in ascending order
+     */
+    default void releaseAll(Collection<Long> bookIds) {
+        bookIds.forEach(this::release);
+    }
+
+    /**
+     * Counts the available copies of the given books kept outside their rows, which loaded books do not include.
+     * Only the striped strategy keeps copies outside the rows of books; the others have nothing to count.
+     *
+     * @param bookIds the IDs of the books to count the copies of
+     * @return the number of copies outside the row by book ID, leaving out books without any
+     */
+    default Map<Long, Integer> countOutsideRows(Collection<Long> bookIds) {
+        return Map.of();
+    }
+
+    /**
+     * Forgets whatever is known about the available copies of a deleted book outside its row, once the calling
+     * transaction commits. Strategies reading the row on every checkout have nothing to forget.
+     *
+     * @param bookId the ID of the deleted book
+     */
+    default void forget(long bookId) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.my.library.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Set;
+
+/**
+ * Service interface for pushing changes of available copies of books to subscribers.
+ */
+public interface InventoryStreamService {
+
+    /**
+     * Subscribes to the changes of available copies of books.
+     *
+     * @param bookIds the IDs of the books to receive the changes of, every book if empty
+     * @return the stream the changes are sent to as server-sent events
+     */
+    SseEmitter subscribe(Set<Long> bookIds);
+}
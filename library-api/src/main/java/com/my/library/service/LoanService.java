@@ -0,0 +1,19 @@
+package com.my.library.service;
+
+import com.my.library.dto.CursorPage;
+import com.my.library.dto.LoanDto;
+
+/**
+ * Service interface for reading loans of books.
+ */
+public interface LoanService {
+
+    /**
+     * Retrieves the overdue loans following a cursor, the longest overdue first.
+     *
+     * @param cursor the cursor returned with the previous page, empty for the first page
+     * @param size   the maximum number of results per page
+     * @return a page of overdue loans with the cursor of the next page
+     */
+    CursorPage<LoanDto> getOverduePage(String cursor, int size);
+}
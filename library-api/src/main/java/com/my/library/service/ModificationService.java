@@ -0,0 +1,40 @@
+package com.my.library.service;
+
+/**
+ * Service interface for counting the modifications of books and users,
+ * so that a representation can be known unchanged without reading it again.
+ * The counts restart with every process and differ between instances, so they are only comparable
+ * together with the epoch of the process that counted them. As the counts miss the modifications made
+ * by other instances, they are only used when tags counted in memory are enabled for a single instance.
+ */
+public interface ModificationService {
+
+    /**
+     * Tells whether representations built from many books or users are tagged with the counts of modifications.
+     *
+     * @return true if tags counted in memory are enabled, false if such representations are not tagged
+     */
+    boolean isEnabled();
+
+    /**
+     * Returns the epoch of this process, a random value drawn at startup that every tag built
+     * from the counts of modifications has to include.
+     *
+     * @return the epoch of the counts of modifications
+     */
+    String getEpoch();
+
+    /**
+     * Returns the number of committed modifications of books, including issues and returns.
+     *
+     * @return the number of modifications of books since startup
+     */
+    long getBookModifications();
+
+    /**
+     * Returns the number of committed modifications of users.
+     *
+     * @return the number of modifications of users since startup
+     */
+    long getUserModifications();
+}
@@ -0,0 +1,39 @@
+package com.my.library.service;
+
+import com.my.library.dto.BookDto;
+import com.my.library.dto.UserDto;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service interface for reading books and users without blocking a thread while the database answers.
+ */
+public interface ReactiveReadService {
+
+    /**
+     * Returns a book with the given ID.
+     *
+     * @param id the ID of the book to retrieve
+     * @return the book with the given ID, or an error if it does not exist
+     */
+    Mono<BookDto> getBookById(long id);
+
+    /**
+     * Retrieves a sorted page of books.
+     *
+     * @param page   the page number of the results to retrieve
+     * @param size   the maximum number of results per page
+     * @param sortBy the field to sort the results by
+     * @param order  the sort order
+     * @return the books of the page
+     */
+    Flux<BookDto> getBooks(int page, int size, String sortBy, String order);
+
+    /**
+     * Returns a user with the given ID together with the books issued to it.
+     *
+     * @param id the ID of the user to retrieve
+     * @return the user with the given ID, or an error if it does not exist
+     */
+    Mono<UserDto> getUserById(long id);
+}
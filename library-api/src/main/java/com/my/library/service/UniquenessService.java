@@ -0,0 +1,50 @@
+package com.my.library.service;
+
+/**
+ * Service interface telling whether the unique author and name of a book, or the username or email of a user,
+ * may already be taken, without asking the database when they certainly are not.
+ * Only values written by this instance are known, so behind several instances every value may be taken.
+ */
+public interface UniquenessService {
+
+    /**
+     * Checks whether a book with the given author and name may exist.
+     *
+     * @param author the author of the book
+     * @param name   the name of the book
+     * @return false if no such book exists, true if it may exist
+     */
+    boolean mightExistBook(String author, String name);
+
+    /**
+     * Checks whether a user with the given username may exist.
+     *
+     * @param username the username
+     * @return false if no user has the username, true if one may have it
+     */
+    boolean mightExistUsername(String username);
+
+    /**
+     * Checks whether a user with the given email may exist.
+     *
+     * @param email the email
+     * @return false if no user has the email, true if one may have it
+     */
+    boolean mightExistEmail(String email);
+
+    /**
+     * Records the author and name of a book about to be written, for the checks of imports.
+     *
+     * @param author the author of the book
+     * @param name   the name of the book
+     */
+    void addBook(String author, String name);
+
+    /**
+     * Records the username and email of a user about to be written.
+     *
+     * @param username the username, ignored if null
+     * @param email    the email, ignored if null
+     */
+    void addUser(String username, String email);
+}
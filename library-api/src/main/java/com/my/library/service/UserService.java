@@ -1,7 +1,12 @@
 package com.my.library.service;
 
+import com.my.library.dto.CursorPage;
+import com.my.library.dto.UserAvailability;
 import com.my.library.dto.UserDto;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+import java.util.Collection;
 
 /**
  * Service interface for managing users.
@@ -11,10 +16,11 @@ public interface UserService {
     /**
      * Retrieves a user with the specified ID.
      *
-     * @param id the ID of the user to retrieve
+     * @param id    the ID of the user to retrieve
+     * @param books whether the books issued to the user are read
      * @return the user with the specified ID
      */
-    UserDto getById(long id);
+    UserDto getById(long id, boolean books);
 
     /**
      * Retrieves a sorted and paginated list of users
@@ -23,9 +29,55 @@ public interface UserService {
      * @param size   the maximum number of results per page
      * @param sortBy the field to sort the results by
      * @param order  the sort order
+     * @param books  whether the books issued to the users are read
      * @return a page of users sorted and filtered according to the specified parameters
      */
-    Page<UserDto> getSortedPage(int page, int size, String sortBy, String order);
+    Page<UserDto> getSortedPage(int page, int size, String sortBy, String order, boolean books);
+
+    /**
+     * Retrieves a sorted and paginated list of users without the total number of users.
+     *
+     * @param page   the page number of the results to retrieve
+     * @param size   the maximum number of results per page
+     * @param sortBy the field to sort the results by
+     * @param order  the sort order
+     * @param books  whether the books issued to the users are read
+     * @return a slice of users sorted according to the specified parameters
+     */
+    Slice<UserDto> getSortedSlice(int page, int size, String sortBy, String order, boolean books);
+
+    /**
+     * Retrieves a sorted and paginated list of users with an estimated total number of users.
+     *
+     * @param page   the page number of the results to retrieve
+     * @param size   the maximum number of results per page
+     * @param sortBy the field to sort the results by
+     * @param order  the sort order
+     * @param books  whether the books issued to the users are read
+     * @return a page of users sorted according to the specified parameters
+     */
+    Page<UserDto> getSortedPageWithEstimatedTotal(int page, int size, String sortBy, String order, boolean books);
+
+    /**
+     * Retrieves a sorted list of users following a cursor.
+     *
+     * @param cursor the cursor returned with the previous page, empty for the first page
+     * @param size   the maximum number of results per page
+     * @param sortBy the field to sort the results by
+     * @param order  the sort order
+     * @param books  whether the books issued to the users are read
+     * @return a page of users sorted according to the specified parameters with the cursor of the next page
+     */
+    CursorPage<UserDto> getPageAfter(String cursor, int size, String sortBy, String order, boolean books);
+
+    /**
+     * Checks whether a username and an email are still free for a new user.
+     *
+     * @param username the username to check, null to skip it
+     * @param email    the email to check, null to skip it
+     * @return whether no user has the username and whether no user has the email
+     */
+    UserAvailability checkAvailability(String username, String email);
 
     /**
      * Creates a new user
@@ -67,4 +119,24 @@ public interface UserService {
      * @return the updated user
      */
     UserDto returnBook(long userId, long bookId);
+
+    /**
+     * Issues several books to a user at once.
+     *
+     * @param userId     the ID of the user to issue the books to
+     * @param bookIds    the IDs of the books to issue
+     * @param bestEffort whether books that cannot be issued are skipped instead of failing all books
+     * @return the updated user
+     */
+    UserDto issueBooks(long userId, Collection<Long> bookIds, boolean bestEffort);
+
+    /**
+     * Returns several books from a user at once.
+     *
+     * @param userId     the ID of the user to return the books from
+     * @param bookIds    the IDs of the books to return
+     * @param bestEffort whether books that cannot be returned are skipped instead of failing all books
+     * @return the updated user
+     */
+    UserDto returnBooks(long userId, Collection<Long> bookIds, boolean bestEffort);
 }
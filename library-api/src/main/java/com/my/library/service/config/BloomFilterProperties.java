@@ -0,0 +1,30 @@
+package com.my.library.service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the Bloom filters skipping uniqueness checks of new books and users.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "library.bloom")
+public class BloomFilterProperties {
+
+    /**
+     * Number of books, and of users, every filter is sized for.
+     */
+    private long expectedInsertions = 1_000_000;
+
+    /**
+     * Rate of new values a filter wrongly reports as taken once it holds the expected number of values.
+     */
+    private double falsePositiveRate = 0.01;
+
+    /**
+     * Whether this is the only instance writing books and users. The filters only know the writes of their own
+     * instance, so they are only used when it is; otherwise every check asks the database.
+     */
+    private boolean singleInstance;
+}
@@ -0,0 +1,41 @@
+package com.my.library.service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for issuing and returning single books.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "library.checkout")
+public class CheckoutProperties {
+
+    /**
+     * How single books are issued and returned: "direct" or "queue".
+     */
+    private String mode = "direct";
+
+    /**
+     * Number of queues, each drained by its own thread, the books are spread over in the queue mode.
+     */
+    private int partitions = 4;
+
+    /**
+     * Maximum number of checkouts of a queue executed in one transaction.
+     */
+    private int batchSize = 32;
+
+    /**
+     * Maximum number of checkouts waiting in a queue before further callers are blocked.
+     */
+    private int queueCapacity = 1000;
+
+    /**
+     * Time a caller waits for a queued checkout to start, and the timeout of the transaction of a batch.
+     */
+    private Duration timeout = Duration.ofSeconds(5);
+}
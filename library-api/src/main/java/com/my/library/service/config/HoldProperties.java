@@ -0,0 +1,31 @@
+package com.my.library.service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for holds of books without available copies.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "library.hold")
+public class HoldProperties {
+
+    /**
+     * Time after which a hold not served yet expires.
+     */
+    private Duration ttl = Duration.ofDays(7);
+
+    /**
+     * Length of a tick of the timing wheel of expiring holds, the precision holds expire with.
+     */
+    private Duration tick = Duration.ofSeconds(1);
+
+    /**
+     * Number of ticks of one revolution of the timing wheel of expiring holds.
+     */
+    private int wheelSize = 3600;
+}
@@ -0,0 +1,19 @@
+package com.my.library.service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for bulk imports of books.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "library.import")
+public class ImportProperties {
+
+    /**
+     * Number of rows checked for duplicates with one query and inserted in one transaction.
+     */
+    private int chunkSize = 1000;
+}
@@ -0,0 +1,27 @@
+package com.my.library.service.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Configuration class for the beans used by the inventory strategies.
+ */
+@Configuration
+public class InventoryConfig {
+
+    /**
+     * Creates the random generator the striped strategy picks stripes with. Every call is served by the random
+     * generator of the calling thread, so concurrent checkouts never contend on a shared seed.
+     *
+     * @return a RandomGenerator bean
+     */
+    @Bean
+    @ConditionalOnProperty(name = "library.inventory.strategy", havingValue = "striped")
+    public RandomGenerator stripeRandom() {
+        return () -> ThreadLocalRandom.current().nextLong();
+    }
+}
@@ -0,0 +1,42 @@
+package com.my.library.service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for managing available copies of books.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "library.inventory")
+public class InventoryProperties {
+
+    /**
+     * Strategy for updating available copies: "atomic", "optimistic", "pessimistic", "striped"
+     * or "write-behind".
+     */
+    private String strategy = "atomic";
+
+    /**
+     * Maximum number of attempts of the optimistic strategy before giving up.
+     */
+    private int maxAttempts = 5;
+
+    /**
+     * Backoff before the second optimistic attempt, doubled for every following one.
+     */
+    private Duration backoff = Duration.ofMillis(5);
+
+    /**
+     * Number of stripes the available copies of a book are spread over by the striped strategy.
+     */
+    private int stripes = 8;
+
+    /**
+     * Delay between two writes of available copies to database by the write-behind strategy.
+     */
+    private Duration flushInterval = Duration.ofMillis(100);
+}
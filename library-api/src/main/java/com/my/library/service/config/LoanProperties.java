@@ -0,0 +1,31 @@
+package com.my.library.service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for loans of books and their due dates.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "library.loan")
+public class LoanProperties {
+
+    /**
+     * Time after its issue a book should be returned by.
+     */
+    private Duration period = Duration.ofDays(14);
+
+    /**
+     * Delay between two runs of the job processing the loans that became overdue.
+     */
+    private Duration overdueInterval = Duration.ofMinutes(1);
+
+    /**
+     * Maximum number of overdue loans read and processed in one transaction.
+     */
+    private int overdueBatchSize = 500;
+}
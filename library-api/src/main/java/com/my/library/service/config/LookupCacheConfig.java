@@ -0,0 +1,46 @@
+package com.my.library.service.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for setting up the caches of books and users looked up by ID.
+ */
+@Configuration
+@EnableCaching
+public class LookupCacheConfig {
+
+    /**
+     * The name of the cache of books by ID.
+     */
+    public static final String BOOKS = "books";
+
+    /**
+     * The name of the cache of users with their issued books by ID.
+     */
+    public static final String USERS = "users";
+
+    /**
+     * Creates a cache manager of bounded Caffeine caches recording hit, miss and eviction statistics.
+     * Puts and evictions are deferred until the surrounding transaction commits, so an entry is evicted
+     * only once the change is visible to other transactions and a concurrent lookup cannot cache the old data again.
+     *
+     * @param properties the maximum size and time to live of the entries
+     * @return a CacheManager bean
+     */
+    @Bean
+    public CacheManager cacheManager(LookupCacheProperties properties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(BOOKS, USERS);
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats());
+        cacheManager.setAllowNullValues(false);
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -0,0 +1,32 @@
+package com.my.library.service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the caches of books and users looked up by ID.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "library.cache")
+public class LookupCacheProperties {
+
+    /**
+     * Maximum number of entries of each cache, the least valuable ones are evicted first.
+     */
+    private long maxSize = 10_000;
+
+    /**
+     * Time after which an entry is evicted since it was cached.
+     */
+    private Duration ttl = Duration.ofMinutes(10);
+
+    /**
+     * Maximum number of cached users evicted one by one when a book issued to them changes.
+     * A change of a book issued to more users clears the whole cache of users instead.
+     */
+    private int maxHolderEvictions = 1000;
+}
@@ -0,0 +1,27 @@
+package com.my.library.service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for paginated listings.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "library.pagination")
+public class PaginationProperties {
+
+    /**
+     * Delay between two refreshes of the estimated numbers of books and users.
+     */
+    private Duration countRefreshInterval = Duration.ofSeconds(30);
+
+    /**
+     * Whether pages and users with their issued books are tagged with the modifications counted by this instance,
+     * which only sees its own writes and is therefore only correct behind a single instance.
+     */
+    private boolean countedTags;
+}
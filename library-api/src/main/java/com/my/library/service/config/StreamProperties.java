@@ -0,0 +1,42 @@
+package com.my.library.service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for pushing changes of available copies of books to subscribers.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "library.stream")
+public class StreamProperties {
+
+    /**
+     * Delay between two reads of the changed books, over which changes of the same book are coalesced.
+     */
+    private Duration interval = Duration.ofMillis(200);
+
+    /**
+     * Maximum number of books with changes not sent to a subscriber yet before it is disconnected.
+     */
+    private int bufferSize = 1000;
+
+    /**
+     * Time after which a stream is closed, to be opened again by the subscriber.
+     */
+    private Duration timeout = Duration.ofMinutes(30);
+
+    /**
+     * Number of threads kept for sending the changes to the subscribers, apart from the threads of requests.
+     * More are started while more subscribers are being sent to at once.
+     */
+    private int senders = 4;
+
+    /**
+     * Time a subscriber may take to accept a change before it is dropped.
+     */
+    private Duration sendTimeout = Duration.ofSeconds(10);
+}
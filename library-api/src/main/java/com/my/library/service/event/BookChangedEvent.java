@@ -0,0 +1,41 @@
+package com.my.library.service.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * An event published when a book or its available copies change, including issues and returns of the book.
+ */
+@Value
+@AllArgsConstructor
+public class BookChangedEvent {
+
+    /**
+     * The ID of the changed book.
+     */
+    long bookId;
+
+    /**
+     * Whether the book was just created, so it is not issued to anyone yet.
+     */
+    boolean created;
+
+    /**
+     * Creates an event of a change of an existing book.
+     *
+     * @param bookId the ID of the changed book
+     */
+    public BookChangedEvent(long bookId) {
+        this(bookId, false);
+    }
+
+    /**
+     * Creates an event of a created book.
+     *
+     * @param bookId the ID of the created book
+     * @return the event of the created book
+     */
+    public static BookChangedEvent created(long bookId) {
+        return new BookChangedEvent(bookId, true);
+    }
+}
@@ -0,0 +1,21 @@
+package com.my.library.service.event;
+
+import lombok.Value;
+
+/**
+ * An event published when copies of a book are issued or returned, with the change of the number of its
+ * issued copies. A returned copy issued right away to a holder leaves the number unchanged and is not published.
+ */
+@Value
+public class BookLoansChangedEvent {
+
+    /**
+     * The ID of the issued or returned book.
+     */
+    long bookId;
+
+    /**
+     * The number of copies issued, negative for returned copies.
+     */
+    int delta;
+}
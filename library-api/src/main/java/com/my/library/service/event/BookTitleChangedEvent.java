@@ -0,0 +1,42 @@
+package com.my.library.service.event;
+
+import lombok.Value;
+
+/**
+ * An event published when a book is created, deleted or updated, with the author and name it has afterwards.
+ */
+@Value
+public class BookTitleChangedEvent {
+
+    /**
+     * The ID of the changed book.
+     */
+    long bookId;
+
+    /**
+     * The author of the book, null if the book was deleted.
+     */
+    String author;
+
+    /**
+     * The name of the book, null if the book was deleted.
+     */
+    String name;
+
+    /**
+     * Creates an event of a deleted book.
+     *
+     * @param bookId the ID of the deleted book
+     * @return the event of the deleted book
+     */
+    public static BookTitleChangedEvent deleted(long bookId) {
+        return new BookTitleChangedEvent(bookId, null, null);
+    }
+
+    /**
+     * @return true if the book was deleted
+     */
+    public boolean isDeleted() {
+        return author == null && name == null;
+    }
+}
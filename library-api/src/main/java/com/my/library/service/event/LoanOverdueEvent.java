@@ -0,0 +1,32 @@
+package com.my.library.service.event;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * An event published once when a loan is found overdue, for reminders or fines to be based on.
+ */
+@Value
+public class LoanOverdueEvent {
+
+    /**
+     * The ID of the overdue loan.
+     */
+    long loanId;
+
+    /**
+     * The ID of the user the book is issued to.
+     */
+    long userId;
+
+    /**
+     * The ID of the issued book.
+     */
+    long bookId;
+
+    /**
+     * The time the book should have been returned by.
+     */
+    LocalDateTime dueDate;
+}
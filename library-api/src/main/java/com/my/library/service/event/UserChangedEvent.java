@@ -0,0 +1,15 @@
+package com.my.library.service.event;
+
+import lombok.Value;
+
+/**
+ * An event published when a user is created, updated or deleted.
+ */
+@Value
+public class UserChangedEvent {
+
+    /**
+     * The ID of the changed user.
+     */
+    long userId;
+}
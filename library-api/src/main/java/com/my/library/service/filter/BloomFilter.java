@@ -0,0 +1,112 @@
+package com.my.library.service.filter;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread-safe Bloom filter of strings. It may claim that a string was added when it was not,
+ * at a rate growing with the number of added strings, but never misses a string that was added.
+ * Strings cannot be removed.
+ */
+public class BloomFilter {
+
+    /**
+     * The number of bits of a word of the bit array.
+     */
+    private static final int WORD_BITS = Long.SIZE;
+
+    /**
+     * The bits, set concurrently without locking.
+     */
+    private final AtomicLongArray words;
+
+    /**
+     * The number of bits.
+     */
+    private final long bits;
+
+    /**
+     * The number of bits set for every string.
+     */
+    private final int hashes;
+
+    /**
+     * Creates a filter sized to answer with the given false positive rate once the expected number of strings
+     * is added.
+     *
+     * @param expectedInsertions the expected number of strings
+     * @param falsePositiveRate  the rate of strings wrongly claimed to be added, between 0 and 1
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions < 1 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Invalid size of Bloom filter");
+        }
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate)
+                / (Math.log(2) * Math.log(2)));
+        int words = Math.toIntExact((optimalBits + WORD_BITS - 1) / WORD_BITS);
+        this.words = new AtomicLongArray(words);
+        this.bits = (long) words * WORD_BITS;
+        this.hashes = Math.max(1, (int) Math.round((double) bits / expectedInsertions * Math.log(2)));
+    }
+
+    /**
+     * Adds a string.
+     *
+     * @param value the string to add
+     */
+    public void add(String value) {
+        long hash = hash(value);
+        long first = mix(hash);
+        long second = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(first + i * second, bits);
+            long mask = 1L << bit;
+            int word = (int) (bit / WORD_BITS);
+            words.getAndAccumulate(word, mask, (current, added) -> current | added);
+        }
+    }
+
+    /**
+     * Checks whether a string may have been added.
+     *
+     * @param value the string to check
+     * @return false if the string was certainly never added, true if it may have been
+     */
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        long first = mix(hash);
+        long second = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(first + i * second, bits);
+            if ((words.get((int) (bit / WORD_BITS)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hashes the characters of a string with 64-bit FNV-1a.
+     *
+     * @param value the string to hash
+     * @return the hash of the string
+     */
+    private static long hash(String value) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Spreads the bits of a hash with the finalizer of MurmurHash3.
+     *
+     * @param hash the hash to spread
+     * @return the spread hash
+     */
+    private static long mix(long hash) {
+        hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+        hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+}
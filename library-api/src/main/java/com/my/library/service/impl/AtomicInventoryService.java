@@ -0,0 +1,124 @@
+package com.my.library.service.impl;
+
+import com.my.library.exception.BookNotFoundException;
+import com.my.library.exception.NoAvailableBooksException;
+import com.my.library.model.Book;
+import com.my.library.repository.BookRepository;
+import com.my.library.service.InventoryService;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.SortedSet;
+
+/**
+ * Inventory strategy updating available copies with a single conditional statement per copy.
+ * The row is locked only for the duration of the statement and copies can never be oversold.
+ * Only the changed books are evicted from the second-level cache, once the transaction completes.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "library.inventory.strategy", havingValue = "atomic", matchIfMissing = true)
+public class AtomicInventoryService implements InventoryService {
+
+    /**
+     * The BookRepository object that will be used to interact with books in database.
+     */
+    private final BookRepository bookRepository;
+
+    /**
+     * The EntityManagerFactory object that will be used to evict changed books from the second-level cache.
+     */
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Takes one available copy of a book.
+     *
+     * @param bookId the ID of the book to take a copy of
+     * @throws BookNotFoundException     if the book with the specified ID cannot be found
+     * @throws NoAvailableBooksException if the book with the specified ID has no available copies left
+     */
+    @Transactional
+    @Override
+    public void reserve(long bookId) {
+        int updated = bookRepository.decrementAvailable(bookId);
+        evictOnCompletion(List.of(bookId));
+        if (updated == 0) {
+            throw bookRepository.existsById(bookId) ? new NoAvailableBooksException() : new BookNotFoundException();
+        }
+    }
+
+    /**
+     * Puts one copy of a book back to the available copies.
+     *
+     * @param bookId the ID of the book to put a copy of
+     * @throws BookNotFoundException if the book with the specified ID cannot be found
+     */
+    @Transactional
+    @Override
+    public void release(long bookId) {
+        int updated = bookRepository.incrementAvailable(bookId);
+        evictOnCompletion(List.of(bookId));
+        if (updated == 0) {
+            throw new BookNotFoundException();
+        }
+    }
+
+    /**
+     * Takes one available copy of each of the given books with a single conditional statement.
+     *
+     * @param bookIds the IDs of the books to take a copy of, in ascending order
+     * @throws NoAvailableBooksException if any of the books has no available copies left
+     */
+    @Transactional
+    @Override
+    public void reserveAll(SortedSet<Long> bookIds) {
+        int updated = bookRepository.decrementAvailableByIdIn(bookIds);
+        evictOnCompletion(bookIds);
+        if (updated < bookIds.size()) {
+            throw new NoAvailableBooksException();
+        }
+    }
+
+    /**
+     * Puts one copy of each of the given books back with a single statement.
+     *
+     * @param bookIds the IDs of the books to put a copy of, in ascending order
+     * @throws BookNotFoundException if any of the books cannot be found
+     */
+    @Transactional
+    @Override
+    public void releaseAll(Collection<Long> bookIds) {
+        int updated = bookRepository.incrementAvailableByIdIn(bookIds);
+        evictOnCompletion(bookIds);
+        if (updated < bookIds.size()) {
+            throw new BookNotFoundException();
+        }
+    }
+
+    /**
+     * Evicts books from the second-level cache once the current transaction completes.
+     * Statements changing available copies are kept out of the query spaces of books,
+     * so Hibernate evicts neither these books nor any other.
+     *
+     * @param bookIds the IDs of the books to evict
+     */
+    private void evictOnCompletion(Collection<Long> bookIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bookIds.forEach(bookId -> entityManagerFactory.getCache().evict(Book.class, bookId));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                bookIds.forEach(bookId -> entityManagerFactory.getCache().evict(Book.class, bookId));
+            }
+        });
+    }
+}
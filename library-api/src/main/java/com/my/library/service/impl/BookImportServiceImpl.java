@@ -0,0 +1,188 @@
+package com.my.library.service.impl;
+
+import com.my.library.dto.BookDto;
+import com.my.library.dto.BookImportReport;
+import com.my.library.dto.BookImportResult;
+import com.my.library.mapper.BookMapper;
+import com.my.library.model.Book;
+import com.my.library.repository.BookRepository;
+import com.my.library.service.BookImportService;
+import com.my.library.service.UniquenessService;
+import com.my.library.service.config.ImportProperties;
+import com.my.library.service.event.BookChangedEvent;
+import com.my.library.service.event.BookTitleChangedEvent;
+import com.my.library.validation.group.OnCreate;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+public class BookImportServiceImpl implements BookImportService {
+
+    /**
+     * The BookRepository object that will be used to interact with books in database.
+     */
+    private final BookRepository bookRepository;
+
+    /**
+     * The Validator object that will be used to validate every row like a single created book.
+     */
+    private final Validator validator;
+
+    /**
+     * The TransactionTemplate object that will be used to import every chunk in its own transaction.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * The ApplicationEventPublisher object that will be used to announce created books.
+     */
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * The ImportProperties object that holds the number of rows imported together.
+     */
+    private final ImportProperties importProperties;
+
+    /**
+     * The UniquenessService object that will be used to skip duplicate checks of new books.
+     */
+    private final UniquenessService uniquenessService;
+
+    /**
+     * Creates the given books in chunks, each checked for duplicates with one query and inserted in JDBC batches
+     * in its own transaction. Rows are read as they are imported, so the rows are never held in memory at once,
+     * and chunks imported before a row fails to be read stay imported.
+     *
+     * @param books the books to create, read one by one
+     * @return the result of every row
+     */
+    @Override
+    public BookImportReport importBooks(Iterator<BookDto> books) {
+        BookImportReport report = new BookImportReport();
+        List<BookDto> chunk = new ArrayList<>(importProperties.getChunkSize());
+        while (books.hasNext()) {
+            chunk.add(books.next());
+            if (chunk.size() == importProperties.getChunkSize() || !books.hasNext()) {
+                importChunk(report.getResults().size(), chunk).forEach(report::add);
+                chunk.clear();
+            }
+        }
+        return report;
+    }
+
+    /**
+     * Imports a chunk of rows in one transaction. If the chunk still violates the unique author and name,
+     * as a book was created concurrently or the database compares names ignoring case, its rows are imported
+     * one by one instead.
+     *
+     * @param first the index of the first row of the chunk
+     * @param chunk the rows to import
+     * @return the results of the rows of the chunk
+     */
+    private List<BookImportResult> importChunk(int first, List<BookDto> chunk) {
+        try {
+            return transactionTemplate.execute(status -> insertChunk(first, chunk));
+        } catch (DataIntegrityViolationException e) {
+            List<BookImportResult> results = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                results.add(importRow(first + i, chunk.get(i)));
+            }
+            return results;
+        }
+    }
+
+    /**
+     * Imports a single row in its own transaction.
+     *
+     * @param index   the index of the row
+     * @param bookDto the row to import
+     * @return the result of the row, a duplicate if it violates the unique author and name
+     */
+    private BookImportResult importRow(int index, BookDto bookDto) {
+        try {
+            return transactionTemplate.execute(status -> insertChunk(index, List.of(bookDto))).get(0);
+        } catch (DataIntegrityViolationException e) {
+            return new BookImportResult(index, BookImportResult.Status.DUPLICATE, null, List.of());
+        }
+    }
+
+    /**
+     * Validates a chunk of rows, skips books that already exist or repeat an earlier row and inserts the others.
+     *
+     * @param first the index of the first row of the chunk
+     * @param chunk the rows to import
+     * @return the results of the rows of the chunk
+     */
+    private List<BookImportResult> insertChunk(int first, List<BookDto> chunk) {
+        BookImportResult[] results = new BookImportResult[chunk.size()];
+        Map<Integer, BookDto> valid = new LinkedHashMap<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            Set<ConstraintViolation<BookDto>> violations = validator.validate(chunk.get(i), OnCreate.class);
+            if (violations.isEmpty()) {
+                valid.put(i, chunk.get(i));
+            } else {
+                results[i] = new BookImportResult(first + i, BookImportResult.Status.INVALID, null,
+                        violations.stream().map(ConstraintViolation::getMessage).sorted().toList());
+            }
+        }
+        Set<List<String>> titles = findExistingTitles(valid.values());
+        Map<Integer, Book> created = new LinkedHashMap<>();
+        valid.forEach((i, bookDto) -> {
+            if (titles.add(List.of(bookDto.getAuthor(), bookDto.getName()))) {
+                created.put(i, BookMapper.INSTANCE.mapBook(bookDto));
+            } else {
+                results[i] = new BookImportResult(first + i, BookImportResult.Status.DUPLICATE, null, List.of());
+            }
+        });
+        created.values().forEach(book -> uniquenessService.addBook(book.getAuthor(), book.getName()));
+        bookRepository.saveAll(created.values());
+        bookRepository.flush();
+        created.forEach((i, book) -> {
+            results[i] = new BookImportResult(first + i, BookImportResult.Status.CREATED, book.getId(), List.of());
+            eventPublisher.publishEvent(BookChangedEvent.created(book.getId()));
+            eventPublisher.publishEvent(new BookTitleChangedEvent(book.getId(), book.getAuthor(), book.getName()));
+        });
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Finds which of the given books already exist with one query, asking only for the books
+     * the filter of existing books cannot rule out.
+     *
+     * @param books the books to look for
+     * @return the author and name of every existing book, as a mutable set
+     */
+    private Set<List<String>> findExistingTitles(Collection<BookDto> books) {
+        Set<List<String>> titles = new HashSet<>();
+        Set<String> authors = new HashSet<>();
+        Set<String> names = new HashSet<>();
+        books.stream()
+                .filter(bookDto -> uniquenessService.mightExistBook(bookDto.getAuthor(), bookDto.getName()))
+                .forEach(bookDto -> {
+                    authors.add(bookDto.getAuthor());
+                    names.add(bookDto.getName());
+                });
+        if (authors.isEmpty()) {
+            return titles;
+        }
+        bookRepository.findTitlesByAuthorInAndNameIn(authors, names)
+                .forEach(title -> titles.add(List.of(title.getAuthor(), title.getName())));
+        return titles;
+    }
+}
@@ -0,0 +1,125 @@
+package com.my.library.service.impl;
+
+import com.my.library.dto.BookDto;
+import com.my.library.repository.BookRepository;
+import com.my.library.repository.projection.IndexedBookTitle;
+import com.my.library.service.BookSearchService;
+import com.my.library.service.event.BookLoansChangedEvent;
+import com.my.library.service.event.BookTitleChangedEvent;
+import com.my.library.service.search.InvertedIndex;
+import com.my.library.service.search.SuggestionIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class BookSearchServiceImpl implements BookSearchService, SmartInitializingSingleton {
+
+    /**
+     * The BookRepository object that will be used to read indexed and found books from database.
+     */
+    private final BookRepository bookRepository;
+
+    /**
+     * The TransactionTemplate object that will be used to read all books while building the index.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * The index of the author and name of all books.
+     */
+    private final InvertedIndex index = new InvertedIndex();
+
+    /**
+     * The prefix tree of the names and authors of all books.
+     */
+    private final SuggestionIndex suggestions = new SuggestionIndex();
+
+    /**
+     * Builds the indexes by streaming all books once all beans are created, before requests are served.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<IndexedBookTitle> titles = bookRepository.streamTitles()) {
+                titles.forEach(title -> {
+                    index.put(title.getId(), title.getAuthor(), title.getName());
+                    suggestions.put(title.getId(), title.getAuthor(), title.getName(), title.getLoans());
+                });
+            }
+        });
+    }
+
+    /**
+     * Finds the books whose author or name contain every term of a query, best matches first.
+     * The index ranks the books without touching the database, then the found books are read with one query.
+     *
+     * @param query the query to search for
+     * @param size  the maximum number of books to return
+     * @return the best matching books, best first
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public List<BookDto> search(String query, int size) {
+        List<Long> ids = index.search(query, size);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, BookDto> books = bookRepository.findBookDtosByIdIn(ids).stream()
+                .collect(Collectors.toMap(BookDto::getId, Function.identity()));
+        return ids.stream().map(books::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Completes a prefix with the most popular book names and authors starting with it, without touching
+     * the database. A name or author is as popular as the copies of its books issued now, counted when
+     * the application started and followed by every committed issue and return since.
+     *
+     * @param prefix the prefix to complete
+     * @param size   the maximum number of completions to return
+     * @return the completing names and authors, most popular first
+     */
+    @Override
+    public List<String> suggest(String prefix, int size) {
+        return suggestions.suggest(prefix, size);
+    }
+
+    /**
+     * Indexes a changed book once the change is committed, so that searches never find uncommitted titles.
+     * Events published outside a transaction are indexed at once.
+     *
+     * @param event the event of the changed book
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookTitleChanged(BookTitleChangedEvent event) {
+        if (event.isDeleted()) {
+            index.remove(event.getBookId());
+            suggestions.remove(event.getBookId());
+        } else {
+            index.put(event.getBookId(), event.getAuthor(), event.getName());
+            suggestions.put(event.getBookId(), event.getAuthor(), event.getName());
+        }
+    }
+
+    /**
+     * Counts issued or returned copies of a book towards the popularity of its name and author once
+     * the issue or return is committed.
+     *
+     * @param event the event of the issued or returned book
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookLoansChanged(BookLoansChangedEvent event) {
+        suggestions.addPopularity(event.getBookId(), event.getDelta());
+    }
+}
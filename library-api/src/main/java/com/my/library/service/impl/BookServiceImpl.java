@@ -1,21 +1,44 @@
 package com.my.library.service.impl;
 
 import com.my.library.dto.BookDto;
+import com.my.library.dto.CursorPage;
 import com.my.library.exception.BookAlreadyExistsException;
+import com.my.library.exception.BookModifiedException;
 import com.my.library.exception.BookNotFoundException;
+import com.my.library.exception.InvalidCursorException;
 import com.my.library.exception.IssuedBookException;
 import com.my.library.mapper.BookMapper;
 import com.my.library.model.Book;
 import com.my.library.repository.BookRepository;
+import com.my.library.repository.BookStockRepository;
+import com.my.library.repository.HoldRepository;
+import com.my.library.repository.LoanRepository;
 import com.my.library.service.BookService;
+import com.my.library.service.CountService;
+import com.my.library.service.InventoryService;
+import com.my.library.service.UniquenessService;
+import com.my.library.service.config.LookupCacheConfig;
+import com.my.library.service.event.BookChangedEvent;
+import com.my.library.service.event.BookTitleChangedEvent;
+import com.my.library.service.pagination.Cursor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Map;
+
 @Service
 @RequiredArgsConstructor
 public class BookServiceImpl implements BookService {
@@ -25,22 +48,60 @@ public class BookServiceImpl implements BookService {
      */
     private final BookRepository bookRepository;
 
+    /**
+     * The LoanRepository object that will be used to interact with loans in database.
+     */
+    private final LoanRepository loanRepository;
+
+    /**
+     * The BookStockRepository object that will be used to interact with stripes of books in database.
+     */
+    private final BookStockRepository bookStockRepository;
+
+    /**
+     * The HoldRepository object that will be used to delete the holds of deleted books.
+     */
+    private final HoldRepository holdRepository;
+
+    /**
+     * The InventoryService object that will be used to count copies outside book rows and notified of deleted books.
+     */
+    private final InventoryService inventoryService;
+
+    /**
+     * The CountService object that will be used to estimate the total number of books.
+     */
+    private final CountService countService;
+
+    /**
+     * The ApplicationEventPublisher object that will be used to announce committed changes.
+     */
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * The UniquenessService object that will be used to remember the authors and names of books.
+     */
+    private final UniquenessService uniquenessService;
+
     /**
      * Returns a book with the given ID.
+     * Books are cached by ID until they are updated, deleted, issued or returned.
      *
      * @param id the ID of the book to retrieve
      * @return the book with the given ID
      * @throws BookNotFoundException if the book with the specified ID cannot be found
      */
-    @Transactional
+    @Cacheable(cacheNames = LookupCacheConfig.BOOKS, key = "#id")
+    @Transactional(readOnly = true)
     @Override
     public BookDto getById(long id) {
         Book book = bookRepository.findById(id).orElseThrow(BookNotFoundException::new);
-        return BookMapper.INSTANCE.mapBookDto(book);
+        return mapBookDtos(List.of(book)).get(0);
     }
 
     /**
      * Retrieves a sorted and paginated list of books.
+     * Books are read as DTOs in a read-only transaction, so no entities are loaded and dirty-checked.
      *
      * @param page   the page number of the results to retrieve
      * @param size   the maximum number of results per page
@@ -48,16 +109,76 @@ public class BookServiceImpl implements BookService {
      * @param order  the sort order
      * @return a page of books sorted and filtered according to the specified parameters
      */
-    @Transactional
+    @Transactional(readOnly = true)
     @Override
     public Page<BookDto> getSortedPage(int page, int size, String sortBy, String order) {
-        Pageable pageable = PageRequest.of(page, size, order.equals("desc")
-                ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending());
-        return bookRepository.findAll(pageable).map(BookMapper.INSTANCE::mapBookDto);
+        return bookRepository.findBookDtos(createPageable(page, size, sortBy, order));
+    }
+
+    /**
+     * Retrieves a sorted and paginated list of books without the total number of books.
+     * Reads one extra book to know whether a next page exists instead of counting all books.
+     *
+     * @param page   the page number of the results to retrieve
+     * @param size   the maximum number of results per page
+     * @param sortBy the field to sort the results by
+     * @param order  the sort order
+     * @return a slice of books sorted according to the specified parameters
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public Slice<BookDto> getSortedSlice(int page, int size, String sortBy, String order) {
+        return bookRepository.findBookDtoSlice(createPageable(page, size, sortBy, order));
+    }
+
+    /**
+     * Retrieves a sorted and paginated list of books with an estimated total number of books.
+     * The total is refreshed in the background and is only corrected to stay consistent with the page read.
+     *
+     * @param page   the page number of the results to retrieve
+     * @param size   the maximum number of results per page
+     * @param sortBy the field to sort the results by
+     * @param order  the sort order
+     * @return a page of books sorted according to the specified parameters
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public Page<BookDto> getSortedPageWithEstimatedTotal(int page, int size, String sortBy, String order) {
+        Slice<BookDto> slice = getSortedSlice(page, size, sortBy, order);
+        long read = slice.getPageable().getOffset() + slice.getNumberOfElements() + (slice.hasNext() ? 1 : 0);
+        return new PageImpl<>(slice.getContent(), slice.getPageable(), Math.max(countService.estimateBooks(), read));
+    }
+
+    /**
+     * Retrieves a sorted list of books following a cursor.
+     *
+     * @param cursor the cursor returned with the previous page, empty for the first page
+     * @param size   the maximum number of results per page
+     * @param sortBy the field to sort the results by
+     * @param order  the sort order
+     * @return a page of books sorted according to the specified parameters with the cursor of the next page
+     * @throws InvalidCursorException if the cursor is malformed or was created for a different sort
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public CursorPage<BookDto> getPageAfter(String cursor, int size, String sortBy, String order) {
+        Cursor after = Cursor.decode(cursor, sortBy, order);
+        List<Book> books = bookRepository.findPageAfter(sortBy, order.equals("desc"),
+                after == null ? null : after.getValue(), after == null ? null : after.getId(), size + 1);
+        String nextCursor = null;
+        if (books.size() > size) {
+            books = books.subList(0, size);
+            Book last = books.get(size - 1);
+            nextCursor = new Cursor(sortBy, order, last.getId(), getSortValue(last, sortBy)).encode();
+        }
+        return new CursorPage<>(mapBookDtos(books), nextCursor);
     }
 
     /**
      * Creates a new book.
+     * The book is inserted right away and the unique author and name of the database rejects duplicates,
+     * so no query checks the existence of the book first. The title is still recorded in the filter of existing
+     * books, which only imports read, so that an import of the same title asks the database about it.
      *
      * @param bookDto the book to create
      * @return the newly created book
@@ -67,48 +188,115 @@ public class BookServiceImpl implements BookService {
     @Override
     public BookDto create(BookDto bookDto) {
         Book book = BookMapper.INSTANCE.mapBook(bookDto);
-        if (bookRepository.existsByAuthorAndName(book.getAuthor(), book.getName())) {
+        uniquenessService.addBook(book.getAuthor(), book.getName());
+        Book saved;
+        try {
+            saved = bookRepository.saveAndFlush(book);
+        } catch (DataIntegrityViolationException e) {
             throw new BookAlreadyExistsException();
         }
-        return BookMapper.INSTANCE.mapBookDto(bookRepository.save(book));
+        eventPublisher.publishEvent(BookChangedEvent.created(saved.getId()));
+        eventPublisher.publishEvent(new BookTitleChangedEvent(saved.getId(), saved.getAuthor(), saved.getName()));
+        return BookMapper.INSTANCE.mapBookDto(saved);
     }
 
     /**
      * Updates an existing book.
+     * The loaded book is changed in place and flushed with the changed columns only,
+     * letting the unique author and name of the database reject duplicates. The new title is recorded
+     * in the filter of existing books, which only imports read.
      *
      * @param bookDto the book to update
      * @return the updated book
      * @throws BookNotFoundException      if the book with the specified ID cannot be found
      * @throws BookAlreadyExistsException if a book with given author and name already exists
+     * @throws BookModifiedException      if the book was changed concurrently, for example by an issue
      */
+    @CacheEvict(cacheNames = LookupCacheConfig.BOOKS, key = "#bookDto.id")
     @Transactional
     @Override
     public BookDto update(BookDto bookDto) {
         Book updating = BookMapper.INSTANCE.mapBook(bookDto);
         Book persisted = bookRepository.findById(updating.getId()).orElseThrow(BookNotFoundException::new);
-        String updatingAuthor = updating.getAuthor() == null ? persisted.getAuthor() : updating.getAuthor();
-        String updatingName = updating.getName() == null ? persisted.getName() : updating.getName();
-        if (bookRepository.existsByAuthorAndNameAndIdIsNot(updatingAuthor, updatingName, updating.getId())) {
+        BookMapper.INSTANCE.mapPresentFields(persisted, updating);
+        uniquenessService.addBook(persisted.getAuthor(), persisted.getName());
+        try {
+            bookRepository.flush();
+        } catch (DataIntegrityViolationException e) {
             throw new BookAlreadyExistsException();
+        } catch (OptimisticLockingFailureException e) {
+            throw new BookModifiedException();
         }
-        BookMapper.INSTANCE.mapPresentFields(persisted, updating);
-        return BookMapper.INSTANCE.mapBookDto(bookRepository.save(persisted));
+        eventPublisher.publishEvent(new BookChangedEvent(persisted.getId()));
+        eventPublisher.publishEvent(
+                new BookTitleChangedEvent(persisted.getId(), persisted.getAuthor(), persisted.getName()));
+        return mapBookDtos(List.of(persisted)).get(0);
     }
 
     /**
-     * Deletes the Book entity with the specified ID.
+     * Deletes the Book entity with the specified ID together with the holds of the book.
      *
      * @param id the ID of the book to delete
      * @throws BookNotFoundException if the book with the specified ID cannot be found
      * @throws IssuedBookException   if the book with the specified ID is issued to a user
      */
+    @CacheEvict(cacheNames = LookupCacheConfig.BOOKS, key = "#id")
     @Transactional
     @Override
     public void deleteById(long id) {
-        Book book = bookRepository.findById(id).orElseThrow(BookNotFoundException::new);
-        if (!book.getUsers().isEmpty()) {
+        bookRepository.findById(id).orElseThrow(BookNotFoundException::new);
+        if (loanRepository.existsByBookId(id)) {
             throw new IssuedBookException();
         }
+        bookStockRepository.deleteByBookId(id);
+        holdRepository.deleteByBookId(id);
         bookRepository.deleteById(id);
+        inventoryService.forget(id);
+        eventPublisher.publishEvent(new BookChangedEvent(id));
+        eventPublisher.publishEvent(BookTitleChangedEvent.deleted(id));
+    }
+
+    /**
+     * Converts loaded books to DTOs, adding the copies the inventory keeps outside their rows.
+     *
+     * @param books the books to convert
+     * @return the DTOs of the books with all their available copies, in the same order
+     */
+    private List<BookDto> mapBookDtos(List<Book> books) {
+        Map<Long, Integer> outsideRows = inventoryService.countOutsideRows(books.stream().map(Book::getId).toList());
+        return books.stream().map(book -> {
+            BookDto bookDto = BookMapper.INSTANCE.mapBookDto(book);
+            bookDto.setAvailable(book.getAvailable() + outsideRows.getOrDefault(book.getId(), 0));
+            return bookDto;
+        }).toList();
+    }
+
+    /**
+     * Returns the value of the field a book is sorted by.
+     *
+     * @param book   the book to get the value of
+     * @param sortBy the field the books are sorted by
+     * @return the value of the field, or null when sorting by ID
+     */
+    private String getSortValue(Book book, String sortBy) {
+        return switch (sortBy) {
+            case "author" -> book.getAuthor();
+            case "name" -> book.getName();
+            default -> null;
+        };
+    }
+
+    /**
+     * Creates a page request sorted by the given field.
+     *
+     * @param page   the page number of the results to retrieve
+     * @param size   the maximum number of results per page
+     * @param sortBy the field to sort the results by
+     * @param order  the sort order
+     * @return the page request
+     */
+    private Pageable createPageable(int page, int size, String sortBy, String order) {
+        return PageRequest.of(page, size, order.equals("desc")
+                ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending());
     }
 }
@@ -0,0 +1,86 @@
+package com.my.library.service.impl;
+
+import com.my.library.repository.BookRepository;
+import com.my.library.repository.UserRepository;
+import com.my.library.service.CountService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+@Service
+@RequiredArgsConstructor
+public class CountServiceImpl implements CountService {
+
+    /**
+     * The value of a count that was not loaded yet.
+     */
+    private static final long UNKNOWN = -1;
+
+    /**
+     * The BookRepository object that will be used to count books in database.
+     */
+    private final BookRepository bookRepository;
+
+    /**
+     * The UserRepository object that will be used to count users in database.
+     */
+    private final UserRepository userRepository;
+
+    /**
+     * The number of books at the last refresh.
+     */
+    private final AtomicLong books = new AtomicLong(UNKNOWN);
+
+    /**
+     * The number of users at the last refresh.
+     */
+    private final AtomicLong users = new AtomicLong(UNKNOWN);
+
+    /**
+     * Returns the estimated number of books, counting them only if they were never counted before.
+     *
+     * @return the number of books at the last refresh
+     */
+    @Override
+    public long estimateBooks() {
+        return estimate(books, bookRepository::count);
+    }
+
+    /**
+     * Returns the estimated number of users, counting them only if they were never counted before.
+     *
+     * @return the number of users at the last refresh
+     */
+    @Override
+    public long estimateUsers() {
+        return estimate(users, userRepository::count);
+    }
+
+    /**
+     * Counts books and users in the background.
+     */
+    @Scheduled(fixedDelayString = "#{@paginationProperties.countRefreshInterval.toMillis()}")
+    public void refresh() {
+        books.set(bookRepository.count());
+        users.set(userRepository.count());
+    }
+
+    /**
+     * Returns a cached count, loading it on first use.
+     *
+     * @param cached the cached count
+     * @param count  the query counting the rows
+     * @return the cached count
+     */
+    private long estimate(AtomicLong cached, LongSupplier count) {
+        long value = cached.get();
+        if (value == UNKNOWN) {
+            value = count.getAsLong();
+            cached.compareAndSet(UNKNOWN, value);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,47 @@
+package com.my.library.service.impl;
+
+import com.my.library.dto.UserDto;
+import com.my.library.service.CheckoutService;
+import com.my.library.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Checkout mode issuing and returning a book in the transaction of the calling thread.
+ * Concurrent checkouts of the same book wait for each other on the book row.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "library.checkout.mode", havingValue = "direct", matchIfMissing = true)
+public class DirectCheckoutService implements CheckoutService {
+
+    /**
+     * The UserService object that will be used to issue and return books.
+     */
+    private final UserService userService;
+
+    /**
+     * Issues a book to a user.
+     *
+     * @param userId the ID of the user to issue the book to
+     * @param bookId the ID of the book to issue
+     * @return the updated user
+     */
+    @Override
+    public UserDto issueBook(long userId, long bookId) {
+        return userService.issueBook(userId, bookId);
+    }
+
+    /**
+     * Returns a book from a user.
+     *
+     * @param userId the ID of the user to return the book from
+     * @param bookId the ID of the book to return
+     * @return the updated user
+     */
+    @Override
+    public UserDto returnBook(long userId, long bookId) {
+        return userService.returnBook(userId, bookId);
+    }
+}
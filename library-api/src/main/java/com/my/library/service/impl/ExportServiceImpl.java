@@ -0,0 +1,91 @@
+package com.my.library.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.my.library.dto.BookDto;
+import com.my.library.dto.UserDto;
+import com.my.library.repository.BookRepository;
+import com.my.library.repository.UserRepository;
+import com.my.library.service.ExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class ExportServiceImpl implements ExportService {
+
+    /**
+     * The size of the buffer rows are written through, so that the response is not written row by row.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The BookRepository object that will be used to stream books from database.
+     */
+    private final BookRepository bookRepository;
+
+    /**
+     * The UserRepository object that will be used to stream users from database.
+     */
+    private final UserRepository userRepository;
+
+    /**
+     * The ObjectMapper object that will be used to write every row as JSON.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Writes every book as one JSON object per line, in ID order, while the books are read from database.
+     *
+     * @param out the stream to write the books to
+     * @throws IOException if the books cannot be written
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public void exportBooks(OutputStream out) throws IOException {
+        try (Stream<BookDto> books = bookRepository.streamBookDtos()) {
+            write(books, objectMapper.writerFor(BookDto.class), out);
+        }
+    }
+
+    /**
+     * Writes every user as one JSON object per line, in ID order, while the users are read from database.
+     * Issued books are not exported.
+     *
+     * @param out the stream to write the users to
+     * @throws IOException if the users cannot be written
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public void exportUsers(OutputStream out) throws IOException {
+        try (Stream<UserDto> users = userRepository.streamUserDtos()) {
+            write(users, objectMapper.writerFor(UserDto.class), out);
+        }
+    }
+
+    /**
+     * Writes rows as one JSON object per line.
+     *
+     * @param rows   the rows to write
+     * @param writer the writer of a single row
+     * @param out    the stream to write the rows to
+     * @param <T>    the type of the rows
+     * @throws IOException if the rows cannot be written
+     */
+    private <T> void write(Stream<T> rows, ObjectWriter writer, OutputStream out) throws IOException {
+        OutputStream buffered = new BufferedOutputStream(out, BUFFER_SIZE);
+        Iterator<T> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            buffered.write(writer.writeValueAsBytes(iterator.next()));
+            buffered.write('\n');
+        }
+        buffered.flush();
+    }
+}
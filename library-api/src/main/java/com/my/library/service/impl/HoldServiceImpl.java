@@ -0,0 +1,174 @@
+package com.my.library.service.impl;
+
+import com.my.library.dto.HoldDto;
+import com.my.library.exception.BookAlreadyIssuedException;
+import com.my.library.exception.BookAvailableException;
+import com.my.library.exception.BookNotFoundException;
+import com.my.library.exception.HoldAlreadyPlacedException;
+import com.my.library.exception.UserNotFoundException;
+import com.my.library.model.Book;
+import com.my.library.model.Hold;
+import com.my.library.model.User;
+import com.my.library.repository.BookRepository;
+import com.my.library.repository.HoldRepository;
+import com.my.library.repository.LoanRepository;
+import com.my.library.repository.UserRepository;
+import com.my.library.repository.projection.HoldExpiry;
+import com.my.library.service.HoldService;
+import com.my.library.service.InventoryService;
+import com.my.library.service.config.HoldProperties;
+import com.my.library.service.timer.TimingWheel;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Service
+public class HoldServiceImpl implements HoldService, SmartInitializingSingleton {
+
+    /**
+     * The HoldRepository object that will be used to interact with holds in database.
+     */
+    private final HoldRepository holdRepository;
+
+    /**
+     * The UserRepository object that will be used to find the users placing holds.
+     */
+    private final UserRepository userRepository;
+
+    /**
+     * The BookRepository object that will be used to find the held books.
+     */
+    private final BookRepository bookRepository;
+
+    /**
+     * The LoanRepository object that will be used to check the books already issued to the users placing holds.
+     */
+    private final LoanRepository loanRepository;
+
+    /**
+     * The InventoryService object that will be used to count the copies kept outside the rows of held books.
+     */
+    private final InventoryService inventoryService;
+
+    /**
+     * The TransactionTemplate object that will be used to read all holds at startup and delete the expired ones.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * The HoldProperties object that holds the time to live of holds.
+     */
+    private final HoldProperties holdProperties;
+
+    /**
+     * The IDs of the holds by the time they expire at.
+     */
+    private final TimingWheel<Long> expiries;
+
+    /**
+     * Creates the empty wheel of expiring holds.
+     *
+     * @param holdRepository      the repository of holds
+     * @param userRepository      the repository of users
+     * @param bookRepository      the repository of books
+     * @param loanRepository      the repository of loans
+     * @param inventoryService    the service counting copies outside book rows
+     * @param transactionTemplate the template of the transactions reading and deleting holds
+     * @param holdProperties      the time to live of holds and the size of the wheel
+     */
+    public HoldServiceImpl(HoldRepository holdRepository, UserRepository userRepository,
+                           BookRepository bookRepository, LoanRepository loanRepository,
+                           InventoryService inventoryService, TransactionTemplate transactionTemplate,
+                           HoldProperties holdProperties) {
+        this.holdRepository = holdRepository;
+        this.userRepository = userRepository;
+        this.bookRepository = bookRepository;
+        this.loanRepository = loanRepository;
+        this.inventoryService = inventoryService;
+        this.transactionTemplate = transactionTemplate;
+        this.holdProperties = holdProperties;
+        this.expiries = new TimingWheel<>(holdProperties.getTick().toMillis(), holdProperties.getWheelSize(),
+                System.currentTimeMillis());
+    }
+
+    /**
+     * Fills the wheel by streaming the expiry of all holds once all beans are created, before requests are served.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<HoldExpiry> holds = holdRepository.streamExpiries()) {
+                holds.forEach(hold -> expiries.schedule(hold.getId(), toMillis(hold.getExpiresAt())));
+            }
+        });
+    }
+
+    /**
+     * Places a hold of a book without available copies by a user. The hold joins the end of the queue of the book
+     * and expires after the configured time to live unless a returned copy is issued to the user before.
+     * The book row stays locked until the hold is committed, like during a return, so a copy returned concurrently
+     * is either seen here or issued to the new hold, and never put back while the hold keeps waiting.
+     *
+     * @param bookId the ID of the book to hold
+     * @param userId the ID of the user waiting for the book
+     * @return the placed hold with its position in the queue of the book
+     * @throws UserNotFoundException      if the user with the specified ID is not found
+     * @throws BookNotFoundException      if the book with the specified ID is not found
+     * @throws BookAvailableException     if the book still has available copies to issue instead
+     * @throws BookAlreadyIssuedException if the book is already issued to the user
+     * @throws HoldAlreadyPlacedException if the user already holds the book
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    @Override
+    public HoldDto placeHold(long bookId, long userId) {
+        User user = userRepository.findById(userId).orElseThrow(UserNotFoundException::new);
+        Book book = bookRepository.findLockedById(bookId).orElseThrow(BookNotFoundException::new);
+        if (book.getAvailable() + inventoryService.countOutsideRows(List.of(bookId)).getOrDefault(bookId, 0) > 0) {
+            throw new BookAvailableException();
+        }
+        if (loanRepository.existsByUserIdAndBookId(userId, bookId)) {
+            throw new BookAlreadyIssuedException();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Hold hold;
+        try {
+            hold = holdRepository.saveAndFlush(new Hold(user, book, now.plus(holdProperties.getTtl())));
+        } catch (DataIntegrityViolationException e) {
+            throw new HoldAlreadyPlacedException();
+        }
+        expiries.schedule(hold.getId(), toMillis(hold.getExpiresAt()));
+        long position = holdRepository.countQueuedBefore(hold.getId(), now);
+        return new HoldDto(hold.getId(), userId, bookId, position, hold.getExpiresAt());
+    }
+
+    /**
+     * Deletes the holds whose time came on the wheel with one statement; holds served before are already gone.
+     * Only the holds due in the elapsed ticks are visited, the table is never scanned.
+     */
+    @Scheduled(fixedDelayString = "#{@holdProperties.tick.toMillis()}")
+    public void expire() {
+        List<Long> expired = expiries.advance(System.currentTimeMillis());
+        if (!expired.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> holdRepository.deleteAllByIdInBatch(expired));
+        }
+    }
+
+    /**
+     * Converts a local time of the database to milliseconds since the epoch.
+     *
+     * @param time the local time
+     * @return the milliseconds since the epoch
+     */
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,279 @@
+package com.my.library.service.impl;
+
+import com.my.library.dto.BookAvailability;
+import com.my.library.repository.BookRepository;
+import com.my.library.service.InventoryStreamService;
+import com.my.library.service.config.StreamProperties;
+import com.my.library.service.event.BookChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@RequiredArgsConstructor
+public class InventoryStreamServiceImpl implements InventoryStreamService {
+
+    /**
+     * The BookRepository object that will be used to read the available copies of changed books.
+     */
+    private final BookRepository bookRepository;
+
+    /**
+     * The StreamProperties object that holds the coalescing interval, buffer size, timeouts and senders
+     * of the streams.
+     */
+    private final StreamProperties streamProperties;
+
+    /**
+     * The IDs of the books changed since their available copies were last read.
+     */
+    private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The subscribers whose streams are open.
+     */
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The threads sending the changes, kept apart from the shared executor. A subscriber being sent to takes a thread
+     * of its own, idle or new, so a subscriber that stopped reading holds only its own thread until the write fails
+     * and never delays the others.
+     */
+    private ThreadPoolTaskExecutor senders;
+
+    /**
+     * Starts the threads sending the changes. Sends are handed to threads directly, never queued behind other sends.
+     */
+    @PostConstruct
+    public void start() {
+        senders = new ThreadPoolTaskExecutor();
+        senders.setCorePoolSize(streamProperties.getSenders());
+        senders.setMaxPoolSize(Integer.MAX_VALUE);
+        senders.setQueueCapacity(0);
+        senders.setThreadNamePrefix("stream-");
+        senders.setWaitForTasksToCompleteOnShutdown(true);
+        senders.setAwaitTerminationMillis(streamProperties.getSendTimeout().toMillis());
+        senders.initialize();
+    }
+
+    /**
+     * Stops the threads sending the changes, waiting for the changes being sent at most the send timeout.
+     */
+    @PreDestroy
+    public void stop() {
+        senders.shutdown();
+    }
+
+    /**
+     * Subscribes to the changes of available copies of books. A subscriber of some books first receives
+     * their current available copies. Every change is sent as an "available" event, or a "deleted" event
+     * once the book is deleted, with the ID and available copies of the book as JSON data.
+     *
+     * @param bookIds the IDs of the books to receive the changes of, every book if empty
+     * @return the stream the changes are sent to as server-sent events
+     */
+    @Override
+    public SseEmitter subscribe(Set<Long> bookIds) {
+        SseEmitter emitter = new SseEmitter(streamProperties.getTimeout().toMillis());
+        Subscriber subscriber = new Subscriber(emitter, Set.copyOf(bookIds));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        if (!bookIds.isEmpty()) {
+            subscriber.offer(readAvailability(bookIds));
+        }
+        return emitter;
+    }
+
+    /**
+     * Remembers a committed change of a book while anyone is subscribed.
+     *
+     * @param event the event of the changed book
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (!subscribers.isEmpty()) {
+            changed.add(event.getBookId());
+        }
+    }
+
+    /**
+     * Drops the subscribers still busy accepting a change after the send timeout, then reads the available copies
+     * of the books changed since the last call with one query and hands them to the other subscribers,
+     * so a book changed several times in between is sent once with its latest state.
+     */
+    @Scheduled(fixedDelayString = "#{@streamProperties.interval.toMillis()}")
+    public void publish() {
+        long stalledSince = System.nanoTime() - streamProperties.getSendTimeout().toNanos();
+        subscribers.stream()
+                .filter(subscriber -> subscriber.isSendingSince(stalledSince))
+                .forEach(Subscriber::drop);
+        if (changed.isEmpty()) {
+            return;
+        }
+        List<Long> bookIds = new ArrayList<>(changed);
+        bookIds.forEach(changed::remove);
+        Collection<BookAvailability> availability = readAvailability(bookIds);
+        subscribers.forEach(subscriber -> subscriber.offer(availability));
+    }
+
+    /**
+     * Reads the available copies of books.
+     *
+     * @param bookIds the IDs of the books
+     * @return the available copies of every given book, without them for deleted books
+     */
+    private Collection<BookAvailability> readAvailability(Collection<Long> bookIds) {
+        Map<Long, BookAvailability> availability = new LinkedHashMap<>();
+        bookIds.forEach(bookId -> availability.put(bookId, new BookAvailability(bookId, null)));
+        bookRepository.findBookDtosByIdIn(bookIds).forEach(book ->
+                availability.put(book.getId(), new BookAvailability(book.getId(), book.getAvailable())));
+        return availability.values();
+    }
+
+    /**
+     * Open stream with the changes not sent to it yet, sent by at most one task at a time.
+     * A stream dropped while a change is sent to it is completed once the change is accepted or fails.
+     */
+    @RequiredArgsConstructor
+    private class Subscriber {
+
+        /**
+         * The stream the changes are sent to.
+         */
+        private final SseEmitter emitter;
+
+        /**
+         * The IDs of the books the changes are sent of, every book if empty.
+         */
+        private final Set<Long> bookIds;
+
+        /**
+         * The latest changes not sent yet by book ID.
+         */
+        private final Map<Long, BookAvailability> pending = new LinkedHashMap<>();
+
+        /**
+         * Whether a task is sending the pending changes.
+         */
+        private boolean sending;
+
+        /**
+         * Whether the subscriber was dropped for taking too long to accept a change.
+         */
+        private boolean dropped;
+
+        /**
+         * The {@link System#nanoTime()} at which the change being sent was handed to the stream,
+         * or null while no change is being sent.
+         */
+        private volatile Long sendStart;
+
+        /**
+         * Adds the changes of the subscribed books to the pending ones, replacing older changes of the same books,
+         * and starts sending them unless a task is already doing so. A subscriber too slow to keep the changes
+         * of more books than the buffer size pending is disconnected instead.
+         *
+         * @param changes the changes of available copies
+         */
+        void offer(Collection<BookAvailability> changes) {
+            boolean start;
+            synchronized (this) {
+                if (dropped) {
+                    return;
+                }
+                changes.stream()
+                        .filter(change -> bookIds.isEmpty() || bookIds.contains(change.getId()))
+                        .forEach(change -> pending.put(change.getId(), change));
+                if (pending.size() > streamProperties.getBufferSize()) {
+                    pending.clear();
+                    subscribers.remove(this);
+                    senders.execute(emitter::complete);
+                    return;
+                }
+                start = !pending.isEmpty() && !sending;
+                sending |= start;
+            }
+            if (start) {
+                senders.execute(this::send);
+            }
+        }
+
+        /**
+         * Tells whether a change has been sent to the stream since before the given time.
+         *
+         * @param time the {@link System#nanoTime()} to compare to
+         * @return whether the change being sent was handed to the stream before the time
+         */
+        boolean isSendingSince(long time) {
+            Long start = sendStart;
+            return start != null && start - time < 0;
+        }
+
+        /**
+         * Stops handing changes to the subscriber. The stream is completed by the task sending to it
+         * once the change it is stuck on is accepted or fails.
+         */
+        synchronized void drop() {
+            subscribers.remove(this);
+            pending.clear();
+            dropped = true;
+        }
+
+        /**
+         * Sends the pending changes until none are left. A stream that cannot be written anymore is dropped
+         * and completed with the error, and a stream dropped meanwhile is completed.
+         */
+        private void send() {
+            while (true) {
+                List<BookAvailability> changes;
+                synchronized (this) {
+                    if (dropped) {
+                        sending = false;
+                        emitter.complete();
+                        return;
+                    }
+                    if (pending.isEmpty()) {
+                        sending = false;
+                        return;
+                    }
+                    changes = new ArrayList<>(pending.values());
+                    pending.clear();
+                }
+                try {
+                    for (BookAvailability change : changes) {
+                        sendStart = System.nanoTime();
+                        emitter.send(SseEmitter.event()
+                                .name(change.getAvailable() == null ? "deleted" : "available")
+                                .data(change, MediaType.APPLICATION_JSON));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    synchronized (this) {
+                        drop();
+                        sending = false;
+                    }
+                    emitter.completeWithError(e);
+                    return;
+                } finally {
+                    sendStart = null;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.my.library.service.impl;
+
+import com.my.library.dto.CursorPage;
+import com.my.library.dto.LoanDto;
+import com.my.library.exception.InvalidCursorException;
+import com.my.library.repository.LoanRepository;
+import com.my.library.service.LoanService;
+import com.my.library.service.config.LoanProperties;
+import com.my.library.service.event.LoanOverdueEvent;
+import com.my.library.service.pagination.Cursor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class LoanServiceImpl implements LoanService {
+
+    /**
+     * The field overdue loans are sorted by, encoded in their cursors.
+     */
+    private static final String SORT_BY = "dueDate";
+
+    /**
+     * The order overdue loans are sorted in, encoded in their cursors.
+     */
+    private static final String ORDER = "asc";
+
+    /**
+     * The LoanRepository object that will be used to read overdue loans from database.
+     */
+    private final LoanRepository loanRepository;
+
+    /**
+     * The ApplicationEventPublisher object that will be used to announce loans found overdue.
+     */
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * The LoanProperties object that holds the size of the batches of overdue loans.
+     */
+    private final LoanProperties loanProperties;
+
+    /**
+     * The TransactionTemplate object that will be used to claim every batch of overdue loans in one transaction.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Retrieves the overdue loans following a cursor, the longest overdue first. Every page is read
+     * from the index of due dates right after the due date and ID of the last loan of the previous page.
+     *
+     * @param cursor the cursor returned with the previous page, empty for the first page
+     * @param size   the maximum number of results per page
+     * @return a page of overdue loans with the cursor of the next page
+     * @throws InvalidCursorException if the cursor is malformed or was not returned by this method
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public CursorPage<LoanDto> getOverduePage(String cursor, int size) {
+        Cursor after = Cursor.decode(cursor, SORT_BY, ORDER);
+        List<LoanDto> loans = findOverdueAfter(LocalDateTime.now(),
+                after == null ? null : parseDueDate(after), after == null ? null : after.getId(), size + 1);
+        String nextCursor = null;
+        if (loans.size() > size) {
+            loans = loans.subList(0, size);
+            LoanDto last = loans.get(size - 1);
+            nextCursor = new Cursor(SORT_BY, ORDER, last.getId(), last.getDueDate().toString()).encode();
+        }
+        return new CursorPage<>(loans, nextCursor);
+    }
+
+    /**
+     * Announces every loan that became overdue and was not announced yet once. The loans are read in due date
+     * and ID order in batches of bounded size, each read with one query and claimed in one transaction of its own
+     * by setting the time they were announced at, unless another instance has set it first. A loan is announced
+     * only by the run that claimed it, and the claims survive restarts, so no loan is announced twice.
+     * The events are published inside the transaction of the claims, so listeners that must not miss them
+     * listen after commit; a crash between the commit and such a listener loses the announcement.
+     */
+    @Scheduled(fixedDelayString = "#{@loanProperties.overdueInterval.toMillis()}")
+    public void processOverdue() {
+        LocalDateTime now = LocalDateTime.now();
+        int batchSize = loanProperties.getOverdueBatchSize();
+        Integer read;
+        do {
+            read = transactionTemplate.execute(status -> {
+                List<LoanDto> loans = loanRepository.findOverdueNotNotified(now, PageRequest.ofSize(batchSize));
+                loans.stream()
+                        .filter(loan -> loanRepository.markOverdueNotified(loan.getId(), now) == 1)
+                        .forEach(loan -> eventPublisher.publishEvent(new LoanOverdueEvent(loan.getId(),
+                                loan.getUserId(), loan.getBookId(), loan.getDueDate())));
+                return loans.size();
+            });
+        } while (read != null && read == batchSize);
+    }
+
+    /**
+     * Reads the overdue loans following a loan in due date and ID order.
+     *
+     * @param now     the current time
+     * @param dueDate the due date of the last loan read, null to read the first loans
+     * @param id      the ID of the last loan read, null to read the first loans
+     * @param limit   the maximum number of loans to read
+     * @return the loans due before the current time that follow the given loan
+     */
+    private List<LoanDto> findOverdueAfter(LocalDateTime now, LocalDateTime dueDate, Long id, int limit) {
+        return id == null ? loanRepository.findOverdue(now, PageRequest.ofSize(limit))
+                : loanRepository.findOverdueAfter(now, dueDate, id, PageRequest.ofSize(limit));
+    }
+
+    /**
+     * Returns the due date of the last loan of a page encoded in its cursor.
+     *
+     * @param cursor the decoded cursor
+     * @return the due date of the last loan of the page
+     * @throws InvalidCursorException if the cursor holds no valid due date
+     */
+    private static LocalDateTime parseDueDate(Cursor cursor) {
+        if (cursor.getValue() == null) {
+            throw new InvalidCursorException();
+        }
+        try {
+            return LocalDateTime.parse(cursor.getValue());
+        } catch (DateTimeParseException e) {
+            throw new InvalidCursorException();
+        }
+    }
+}
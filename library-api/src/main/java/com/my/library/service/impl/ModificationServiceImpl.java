@@ -0,0 +1,100 @@
+package com.my.library.service.impl;
+
+import com.my.library.service.ModificationService;
+import com.my.library.service.config.PaginationProperties;
+import com.my.library.service.event.BookChangedEvent;
+import com.my.library.service.event.UserChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@RequiredArgsConstructor
+public class ModificationServiceImpl implements ModificationService {
+
+    /**
+     * The PaginationProperties object that tells whether tags counted in memory are enabled.
+     */
+    private final PaginationProperties paginationProperties;
+
+    /**
+     * The epoch of the counts of this process, so that a tag built by an earlier process
+     * or another instance reaching the same counts never matches.
+     */
+    private final String epoch = Long.toUnsignedString(new SecureRandom().nextLong(), 36);
+
+    /**
+     * The number of committed modifications of books.
+     */
+    private final AtomicLong books = new AtomicLong();
+
+    /**
+     * The number of committed modifications of users.
+     */
+    private final AtomicLong users = new AtomicLong();
+
+    /**
+     * Tells whether representations built from many books or users are tagged with the counts of modifications.
+     *
+     * @return true if tags counted in memory are enabled, false if such representations are not tagged
+     */
+    @Override
+    public boolean isEnabled() {
+        return paginationProperties.isCountedTags();
+    }
+
+    /**
+     * Returns the epoch of this process, drawn at random at startup.
+     *
+     * @return the epoch of the counts of modifications
+     */
+    @Override
+    public String getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Returns the number of committed modifications of books, including issues and returns.
+     *
+     * @return the number of modifications of books since startup
+     */
+    @Override
+    public long getBookModifications() {
+        return books.get();
+    }
+
+    /**
+     * Returns the number of committed modifications of users.
+     *
+     * @return the number of modifications of users since startup
+     */
+    @Override
+    public long getUserModifications() {
+        return users.get();
+    }
+
+    /**
+     * Counts a modification of a book once it is committed, so that a new count is never seen with old data.
+     * Events published outside a transaction are counted at once.
+     *
+     * @param event the event of the modified book
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        books.incrementAndGet();
+    }
+
+    /**
+     * Counts a modification of a user once it is committed, so that a new count is never seen with old data.
+     * Events published outside a transaction are counted at once.
+     *
+     * @param event the event of the modified user
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        users.incrementAndGet();
+    }
+}
@@ -0,0 +1,135 @@
+package com.my.library.service.impl;
+
+import com.my.library.exception.BookNotFoundException;
+import com.my.library.exception.InventoryConflictException;
+import com.my.library.exception.NoAvailableBooksException;
+import com.my.library.model.Book;
+import com.my.library.repository.BookRepository;
+import com.my.library.repository.projection.BookInventory;
+import com.my.library.service.InventoryService;
+import com.my.library.service.config.InventoryProperties;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Inventory strategy updating available copies only if the book version did not change since it was read.
+ * A lost race is retried with exponential backoff up to the configured number of attempts. The version check
+ * is a conditional statement rather than a flush of the managed entity, because a failed flush would mark
+ * the whole transaction as rollback-only and make retrying inside it impossible. Only the changed book is evicted
+ * from the second-level cache, once the transaction completes.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "library.inventory.strategy", havingValue = "optimistic")
+public class OptimisticInventoryService implements InventoryService {
+
+    /**
+     * The BookRepository object that will be used to interact with books in database.
+     */
+    private final BookRepository bookRepository;
+
+    /**
+     * The properties of the retry policy.
+     */
+    private final InventoryProperties inventoryProperties;
+
+    /**
+     * The EntityManagerFactory object that will be used to evict changed books from the second-level cache.
+     */
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Takes one available copy of a book.
+     *
+     * @param bookId the ID of the book to take a copy of
+     * @throws BookNotFoundException      if the book with the specified ID cannot be found
+     * @throws NoAvailableBooksException  if the book with the specified ID has no available copies left
+     * @throws InventoryConflictException if the book was changed concurrently on every attempt
+     */
+    @Transactional
+    @Override
+    public void reserve(long bookId) {
+        addAvailable(bookId, -1);
+    }
+
+    /**
+     * Puts one copy of a book back to the available copies.
+     *
+     * @param bookId the ID of the book to put a copy of
+     * @throws BookNotFoundException      if the book with the specified ID cannot be found
+     * @throws InventoryConflictException if the book was changed concurrently on every attempt
+     */
+    @Transactional
+    @Override
+    public void release(long bookId) {
+        addAvailable(bookId, 1);
+    }
+
+    /**
+     * Reads the current state of a book and tries to apply the change until it wins the race.
+     *
+     * @param bookId the ID of the book to update
+     * @param delta  the number of copies to add, negative to take copies
+     */
+    private void addAvailable(long bookId, int delta) {
+        for (int attempt = 1; ; attempt++) {
+            BookInventory inventory = bookRepository.findInventoryById(bookId)
+                    .orElseThrow(BookNotFoundException::new);
+            if (inventory.getAvailable() + delta < 0) {
+                throw new NoAvailableBooksException();
+            }
+            if (bookRepository.addAvailableIfVersion(bookId, inventory.getVersion(), delta) == 1) {
+                evictOnCompletion(List.of(bookId));
+                return;
+            }
+            if (attempt >= inventoryProperties.getMaxAttempts()) {
+                throw new InventoryConflictException();
+            }
+            backoff(attempt);
+        }
+    }
+
+    /**
+     * Sleeps before the next attempt for an exponentially growing time with random jitter.
+     *
+     * @param attempt the number of the failed attempt
+     */
+    private void backoff(int attempt) {
+        long maxMillis = inventoryProperties.getBackoff().toMillis() << (attempt - 1);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(maxMillis / 2, maxMillis + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InventoryConflictException();
+        }
+    }
+
+    /**
+     * Evicts books from the second-level cache once the current transaction completes.
+     * Statements changing available copies are kept out of the query spaces of books,
+     * so Hibernate evicts neither these books nor any other.
+     *
+     * @param bookIds the IDs of the books to evict
+     */
+    private void evictOnCompletion(Collection<Long> bookIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bookIds.forEach(bookId -> entityManagerFactory.getCache().evict(Book.class, bookId));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                bookIds.forEach(bookId -> entityManagerFactory.getCache().evict(Book.class, bookId));
+            }
+        });
+    }
+}
@@ -0,0 +1,59 @@
+package com.my.library.service.impl;
+
+import com.my.library.exception.BookNotFoundException;
+import com.my.library.exception.NoAvailableBooksException;
+import com.my.library.model.Book;
+import com.my.library.repository.BookRepository;
+import com.my.library.service.InventoryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Inventory strategy locking the book row until the end of the transaction before updating available copies.
+ * An issue locks the book row before inserting its loans, while a return deletes the loans of the returning user
+ * first and locks the book row after them. Neither waits for a loan row locked by the other, as an issue only
+ * inserts new loan rows and a return only deletes the rows of its own user, and several books are locked
+ * in ascending ID order, so concurrent issues and returns do not deadlock on each other.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "library.inventory.strategy", havingValue = "pessimistic")
+public class PessimisticInventoryService implements InventoryService {
+
+    /**
+     * The BookRepository object that will be used to interact with books in database.
+     */
+    private final BookRepository bookRepository;
+
+    /**
+     * Takes one available copy of a book.
+     *
+     * @param bookId the ID of the book to take a copy of
+     * @throws BookNotFoundException     if the book with the specified ID cannot be found
+     * @throws NoAvailableBooksException if the book with the specified ID has no available copies left
+     */
+    @Transactional
+    @Override
+    public void reserve(long bookId) {
+        Book book = bookRepository.findLockedById(bookId).orElseThrow(BookNotFoundException::new);
+        if (book.getAvailable() == 0) {
+            throw new NoAvailableBooksException();
+        }
+        book.setAvailable(book.getAvailable() - 1);
+    }
+
+    /**
+     * Puts one copy of a book back to the available copies.
+     *
+     * @param bookId the ID of the book to put a copy of
+     * @throws BookNotFoundException if the book with the specified ID cannot be found
+     */
+    @Transactional
+    @Override
+    public void release(long bookId) {
+        Book book = bookRepository.findLockedById(bookId).orElseThrow(BookNotFoundException::new);
+        book.setAvailable(book.getAvailable() + 1);
+    }
+}
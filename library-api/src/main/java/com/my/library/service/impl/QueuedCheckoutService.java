@@ -0,0 +1,325 @@
+package com.my.library.service.impl;
+
+import com.my.library.dto.UserDto;
+import com.my.library.exception.InventoryConflictException;
+import com.my.library.service.CheckoutService;
+import com.my.library.service.UserService;
+import com.my.library.service.config.CheckoutProperties;
+import com.my.library.service.config.LookupCacheConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Checkout mode sending every issue and return of a book to a queue picked by the hash of the book ID.
+ * Each queue is drained by a single thread, which executes the waiting checkouts in batches, one transaction
+ * per batch, and hands the results back to the waiting callers. Checkouts of a book are therefore executed
+ * one at a time in the order they were queued, never wait for each other on the book row, and the callers
+ * rejected for lack of copies are exactly the ones queued after the last copy was taken.
+ * <p>
+ * A checkout not started within the configured timeout is taken back and fails without being executed, and a batch
+ * runs in a transaction with the same timeout, so callers never wait for a stalled queue without bound.
+ * <p>
+ * Only single checkouts are queued. Issuing and returning several books at once and other application instances
+ * still change the same rows directly, so they are ordered against the queue by the inventory strategy as before.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "library.checkout.mode", havingValue = "queue")
+public class QueuedCheckoutService implements CheckoutService {
+
+    /**
+     * Time a queue thread waits for a checkout before checking whether it has to stop.
+     */
+    private static final long POLL_MILLIS = 100;
+
+    /**
+     * The UserService object that will be used to issue and return books.
+     */
+    private final UserService userService;
+
+    /**
+     * The PlatformTransactionManager object that will be used to execute every batch in one transaction.
+     */
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * The CacheManager object that will be used to evict the users and books of a batch once it commits.
+     */
+    private final CacheManager cacheManager;
+
+    /**
+     * The CheckoutProperties object that holds the number, capacity, batch size and timeout of the queues.
+     */
+    private final CheckoutProperties checkoutProperties;
+
+    /**
+     * The queues of checkouts waiting to be executed.
+     */
+    private final List<BlockingQueue<Checkout>> queues = new ArrayList<>();
+
+    /**
+     * The threads draining the queues, one per queue.
+     */
+    private final List<Thread> workers = new ArrayList<>();
+
+    /**
+     * The TransactionTemplate object executing a batch with the isolation of a single checkout and the timeout
+     * of the queues.
+     */
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Whether the queues still accept checkouts.
+     */
+    private volatile boolean running;
+
+    /**
+     * Creates the queues and starts their threads.
+     */
+    @PostConstruct
+    public void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        transactionTemplate.setTimeout((int) Math.max(1, checkoutProperties.getTimeout().toSeconds()));
+        running = true;
+        for (int i = 0; i < checkoutProperties.getPartitions(); i++) {
+            BlockingQueue<Checkout> queue = new LinkedBlockingQueue<>(checkoutProperties.getQueueCapacity());
+            Thread worker = new Thread(() -> drain(queue), "checkout-" + i);
+            worker.setDaemon(true);
+            queues.add(queue);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    /**
+     * Stops accepting checkouts, waits until the queued ones are executed and fails the ones queued too late.
+     *
+     * @throws InterruptedException if interrupted while waiting for the queue threads
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        queues.forEach(queue -> queue.forEach(checkout -> {
+            if (checkout.claim()) {
+                checkout.getResult().completeExceptionally(new IllegalStateException("Checkout queue is stopped"));
+            }
+        }));
+    }
+
+    /**
+     * Issues a book to a user through the queue of the book and waits for the result.
+     *
+     * @param userId the ID of the user to issue the book to
+     * @param bookId the ID of the book to issue
+     * @return the updated user
+     */
+    @Override
+    public UserDto issueBook(long userId, long bookId) {
+        return execute(new Checkout(userId, bookId, () -> userService.issueBook(userId, bookId),
+                new CompletableFuture<>()));
+    }
+
+    /**
+     * Returns a book from a user through the queue of the book and waits for the result.
+     *
+     * @param userId the ID of the user to return the book from
+     * @param bookId the ID of the book to return
+     * @return the updated user
+     */
+    @Override
+    public UserDto returnBook(long userId, long bookId) {
+        return execute(new Checkout(userId, bookId, () -> userService.returnBook(userId, bookId),
+                new CompletableFuture<>()));
+    }
+
+    /**
+     * Queues a checkout, blocking while its queue is full, and waits until it is executed. A checkout queued while
+     * the queues were being stopped, or not started within the timeout, is taken back and never executed.
+     * A checkout already started is waited for until its transaction ends, which the transaction timeout bounds.
+     *
+     * @param checkout the checkout to execute
+     * @return the updated user
+     * @throws IllegalStateException       if the queues are stopped or the caller is interrupted
+     * @throws InventoryConflictException if the checkout was not started within the timeout
+     */
+    private UserDto execute(Checkout checkout) {
+        if (!running) {
+            throw new IllegalStateException("Checkout queue is stopped");
+        }
+        try {
+            queues.get(Math.floorMod(Long.hashCode(checkout.getBookId()), queues.size())).put(checkout);
+            if (!running && checkout.claim()) {
+                throw new IllegalStateException("Checkout queue is stopped");
+            }
+            try {
+                return checkout.getResult().get(checkoutProperties.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (checkout.claim()) {
+                    throw new InventoryConflictException();
+                }
+                return checkout.getResult().get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a checkout", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Checkout failed", e.getCause());
+        }
+    }
+
+    /**
+     * Executes the checkouts of a queue in batches until the queues are stopped and the queue is empty.
+     * Checkouts taken back by their callers are skipped. A batch failing unexpectedly fails its checkouts
+     * not completed yet, and the queue goes on with the next batch.
+     *
+     * @param queue the queue to drain
+     */
+    private void drain(BlockingQueue<Checkout> queue) {
+        List<Checkout> batch = new ArrayList<>(checkoutProperties.getBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                Checkout first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch, checkoutProperties.getBatchSize() - 1);
+            batch.removeIf(checkout -> !checkout.claim());
+            try {
+                executeBatch(batch);
+            } catch (Throwable e) {
+                batch.forEach(checkout -> checkout.getResult().completeExceptionally(e));
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Executes a batch of checkouts in order, as many of them in one transaction as possible.
+     * When a checkout fails, the transaction is rolled back, the checkouts before it are executed again
+     * in a transaction of their own and the failed one is executed first in the next transaction,
+     * so every checkout succeeds or fails just as if it was executed alone after the ones queued before it.
+     * When the commit itself fails, all checkouts of the transaction fail.
+     *
+     * @param batch the checkouts to execute
+     */
+    private void executeBatch(List<Checkout> batch) {
+        int from = 0;
+        int to = batch.size();
+        while (from < batch.size()) {
+            List<Checkout> checkouts = batch.subList(from, to);
+            List<UserDto> results = new ArrayList<>(checkouts.size());
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        checkouts.forEach(checkout -> results.add(checkout.getAction().get())));
+            } catch (RuntimeException e) {
+                if (!results.isEmpty() && results.size() < checkouts.size()) {
+                    to = from + results.size();
+                    continue;
+                }
+                int failed = results.isEmpty() ? 1 : checkouts.size();
+                checkouts.subList(0, failed).forEach(checkout -> checkout.getResult().completeExceptionally(e));
+                from += failed;
+                to = batch.size();
+                continue;
+            }
+            evict(checkouts);
+            for (int i = 0; i < checkouts.size(); i++) {
+                checkouts.get(i).getResult().complete(results.get(i));
+            }
+            from = to;
+            to = batch.size();
+        }
+    }
+
+    /**
+     * Evicts the users and books of committed checkouts from the caches of lookups by ID, as the caches
+     * could have read them again between the checkouts and the commit of their batch.
+     *
+     * @param checkouts the committed checkouts
+     */
+    private void evict(List<Checkout> checkouts) {
+        Cache users = cacheManager.getCache(LookupCacheConfig.USERS);
+        Cache books = cacheManager.getCache(LookupCacheConfig.BOOKS);
+        for (Checkout checkout : checkouts) {
+            if (users != null) {
+                users.evict(checkout.getUserId());
+            }
+            if (books != null) {
+                books.evict(checkout.getBookId());
+            }
+        }
+    }
+
+    /**
+     * Issue or return of a book waiting in a queue.
+     */
+    @Value
+    private static class Checkout {
+
+        /**
+         * The ID of the user the book is issued to or returned from.
+         */
+        long userId;
+
+        /**
+         * The ID of the issued or returned book.
+         */
+        long bookId;
+
+        /**
+         * The issue or return, joining the transaction of the batch.
+         */
+        Supplier<UserDto> action;
+
+        /**
+         * The result handed back to the caller.
+         */
+        CompletableFuture<UserDto> result;
+
+        /**
+         * Whether the checkout was taken by the queue thread to be executed, or back by its caller.
+         */
+        AtomicBoolean claimed = new AtomicBoolean();
+
+        /**
+         * Takes the checkout, so that either the queue thread executes it or its caller fails it, never both.
+         *
+         * @return true if the checkout was not taken before
+         */
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.my.library.service.impl;
+
+import com.my.library.dto.BookDto;
+import com.my.library.dto.UserDto;
+import com.my.library.exception.BookNotFoundException;
+import com.my.library.exception.UserNotFoundException;
+import com.my.library.repository.reactive.ReactiveBookRepository;
+import com.my.library.repository.reactive.ReactiveUserRepository;
+import com.my.library.service.ReactiveReadService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashSet;
+
+@Service
+@RequiredArgsConstructor
+public class ReactiveReadServiceImpl implements ReactiveReadService {
+
+    /**
+     * The ReactiveBookRepository object that will be used to read books without blocking.
+     */
+    private final ReactiveBookRepository reactiveBookRepository;
+
+    /**
+     * The ReactiveUserRepository object that will be used to read users without blocking.
+     */
+    private final ReactiveUserRepository reactiveUserRepository;
+
+    /**
+     * Returns a book with the given ID.
+     *
+     * @param id the ID of the book to retrieve
+     * @return the book with the given ID
+     * @throws BookNotFoundException if the book with the specified ID cannot be found, as an error of the result
+     */
+    @Override
+    public Mono<BookDto> getBookById(long id) {
+        return reactiveBookRepository.findBookDtoById(id)
+                .switchIfEmpty(Mono.error(BookNotFoundException::new));
+    }
+
+    /**
+     * Retrieves a sorted page of books.
+     *
+     * @param page   the page number of the results to retrieve
+     * @param size   the maximum number of results per page
+     * @param sortBy the field to sort the results by
+     * @param order  the sort order
+     * @return the books of the page
+     */
+    @Override
+    public Flux<BookDto> getBooks(int page, int size, String sortBy, String order) {
+        return reactiveBookRepository.findBookDtos(page, size, sortBy, order.equals("desc"));
+    }
+
+    /**
+     * Returns a user with the given ID together with the books issued to it.
+     * The books are only read once the user is found.
+     *
+     * @param id the ID of the user to retrieve
+     * @return the user with its issued books
+     * @throws UserNotFoundException if the user with the specified ID is not found, as an error of the result
+     */
+    @Override
+    public Mono<UserDto> getUserById(long id) {
+        return reactiveUserRepository.findUserDtoById(id)
+                .switchIfEmpty(Mono.error(UserNotFoundException::new))
+                .flatMap(userDto -> reactiveUserRepository.findBookDtosByUserId(id)
+                        .collect(HashSet<BookDto>::new, HashSet::add)
+                        .map(books -> {
+                            userDto.setBooks(books);
+                            return userDto;
+                        }));
+    }
+}
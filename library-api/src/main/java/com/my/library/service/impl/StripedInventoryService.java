@@ -0,0 +1,169 @@
+package com.my.library.service.impl;
+
+import com.my.library.dto.BookAvailability;
+import com.my.library.exception.BookNotFoundException;
+import com.my.library.exception.NoAvailableBooksException;
+import com.my.library.model.Book;
+import com.my.library.model.BookStock;
+import com.my.library.repository.BookRepository;
+import com.my.library.repository.BookStockRepository;
+import com.my.library.service.InventoryService;
+import com.my.library.service.config.InventoryProperties;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+import java.util.stream.Collectors;
+
+/**
+ * Inventory strategy spreading available copies of a book over several stripe rows.
+ * Concurrent checkouts of the same book update random stripes, so they rarely wait for each other's row locks.
+ * The copies of a book are moved to its stripes on the first checkout, while the book row keeps the copies
+ * returned before that, which are taken once all stripes are empty.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "library.inventory.strategy", havingValue = "striped")
+public class StripedInventoryService implements InventoryService {
+
+    /**
+     * The BookRepository object that will be used to interact with books in database.
+     */
+    private final BookRepository bookRepository;
+
+    /**
+     * The BookStockRepository object that will be used to interact with stripes of books in database.
+     */
+    private final BookStockRepository bookStockRepository;
+
+    /**
+     * The InventoryProperties object holding the number of stripes.
+     */
+    private final InventoryProperties inventoryProperties;
+
+    /**
+     * The EntityManagerFactory object that will be used to evict books from the second-level cache.
+     */
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * The RandomGenerator object that will be used to pick the stripes of checkouts.
+     */
+    private final RandomGenerator stripeRandom;
+
+    /**
+     * Takes one available copy of a book from a random stripe, falling back to the other stripes and the book row.
+     *
+     * @param bookId the ID of the book to take a copy of
+     * @throws BookNotFoundException     if the book with the specified ID cannot be found
+     * @throws NoAvailableBooksException if the book with the specified ID has no available copies left
+     */
+    @Transactional
+    @Override
+    public void reserve(long bookId) {
+        evictOnCompletion(bookId);
+        List<Integer> stripes = bookStockRepository.findAvailableStripesByBookId(bookId);
+        if (stripes.isEmpty() && !bookStockRepository.existsByBookId(bookId)) {
+            stripes = split(bookId);
+        }
+        int start = stripes.isEmpty() ? 0 : stripeRandom.nextInt(stripes.size());
+        for (int i = 0; i < stripes.size(); i++) {
+            if (bookStockRepository.decrementAvailable(bookId, stripes.get((start + i) % stripes.size())) == 1) {
+                return;
+            }
+        }
+        if (bookRepository.decrementAvailable(bookId) == 0) {
+            throw bookRepository.existsById(bookId) ? new NoAvailableBooksException() : new BookNotFoundException();
+        }
+    }
+
+    /**
+     * Puts one copy of a book back to a random stripe, or to the book row if the stripe does not exist.
+     *
+     * @param bookId the ID of the book to put a copy of
+     * @throws BookNotFoundException if the book with the specified ID cannot be found
+     */
+    @Transactional
+    @Override
+    public void release(long bookId) {
+        evictOnCompletion(bookId);
+        int stripe = stripeRandom.nextInt(inventoryProperties.getStripes());
+        if (bookStockRepository.incrementAvailable(bookId, stripe) == 0
+                && bookRepository.incrementAvailable(bookId) == 0) {
+            throw new BookNotFoundException();
+        }
+    }
+
+    /**
+     * Sums the available copies in the stripes of the given books with one query.
+     *
+     * @param bookIds the IDs of the books to count the copies of
+     * @return the number of copies in the stripes by book ID, leaving out books without stripes
+     */
+    @Override
+    public Map<Long, Integer> countOutsideRows(Collection<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return Map.of();
+        }
+        return bookStockRepository.sumAvailableByBookIdIn(bookIds).stream()
+                .collect(Collectors.toMap(BookAvailability::getId, BookAvailability::getAvailable));
+    }
+
+    /**
+     * Moves the available copies of a book from the book row to new stripes.
+     * The book row stays locked until the end of the transaction, so a book is split only once.
+     *
+     * @param bookId the ID of the book to split
+     * @return the numbers of the stripes of the book that have available copies
+     * @throws BookNotFoundException if the book with the specified ID cannot be found
+     */
+    private List<Integer> split(long bookId) {
+        int available = bookRepository.findLockedAvailableById(bookId).orElseThrow(BookNotFoundException::new);
+        if (bookStockRepository.existsByBookId(bookId)) {
+            return bookStockRepository.findAvailableStripesByBookId(bookId);
+        }
+        Book book = bookRepository.getReferenceById(bookId);
+        int stripeCount = inventoryProperties.getStripes();
+        List<BookStock> stocks = new ArrayList<>();
+        List<Integer> stripes = new ArrayList<>();
+        for (int stripe = 0; stripe < stripeCount; stripe++) {
+            int stripeAvailable = available / stripeCount + (stripe < available % stripeCount ? 1 : 0);
+            stocks.add(new BookStock(book, stripe, stripeAvailable));
+            if (stripeAvailable > 0) {
+                stripes.add(stripe);
+            }
+        }
+        bookStockRepository.saveAll(stocks);
+        bookRepository.clearAvailable(bookId);
+        return stripes;
+    }
+
+    /**
+     * Evicts a book from the second-level cache once the current transaction completes.
+     * The copies of the book row are moved to the stripes or taken from the row in bulk, which Hibernate
+     * does not invalidate the cached book after.
+     *
+     * @param bookId the ID of the book to evict
+     */
+    private void evictOnCompletion(long bookId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            entityManagerFactory.getCache().evict(Book.class, bookId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                entityManagerFactory.getCache().evict(Book.class, bookId);
+            }
+        });
+    }
+}
@@ -0,0 +1,173 @@
+package com.my.library.service.impl;
+
+import com.my.library.dto.UserDto;
+import com.my.library.repository.BookRepository;
+import com.my.library.repository.UserRepository;
+import com.my.library.repository.projection.BookTitle;
+import com.my.library.service.UniquenessService;
+import com.my.library.service.config.BloomFilterProperties;
+import com.my.library.service.filter.BloomFilter;
+import com.my.library.service.search.Tokenizer;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.stream.Stream;
+
+@Service
+public class UniquenessServiceImpl implements UniquenessService, SmartInitializingSingleton {
+
+    /**
+     * The separator of the author and name of a book in the filter of books.
+     */
+    private static final char SEPARATOR = '\u0000';
+
+    /**
+     * The BookRepository object that will be used to read the titles of all books.
+     */
+    private final BookRepository bookRepository;
+
+    /**
+     * The UserRepository object that will be used to read the usernames and emails of all users.
+     */
+    private final UserRepository userRepository;
+
+    /**
+     * The TransactionTemplate object that will be used to read all books and users while filling the filters.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Whether the filters are used, as this is the only instance writing books and users.
+     */
+    private final boolean enabled;
+
+    /**
+     * The filter of the authors and names of books.
+     */
+    private final BloomFilter books;
+
+    /**
+     * The filter of the usernames of users.
+     */
+    private final BloomFilter usernames;
+
+    /**
+     * The filter of the emails of users.
+     */
+    private final BloomFilter emails;
+
+    /**
+     * Creates the empty filters.
+     *
+     * @param bookRepository      the repository of books
+     * @param userRepository      the repository of users
+     * @param transactionTemplate the template of the transactions reading all books and users
+     * @param properties          the size of the filters and whether they are used
+     */
+    public UniquenessServiceImpl(BookRepository bookRepository, UserRepository userRepository,
+                                 TransactionTemplate transactionTemplate, BloomFilterProperties properties) {
+        this.bookRepository = bookRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = properties.isSingleInstance();
+        this.books = new BloomFilter(properties.getExpectedInsertions(), properties.getFalsePositiveRate());
+        this.usernames = new BloomFilter(properties.getExpectedInsertions(), properties.getFalsePositiveRate());
+        this.emails = new BloomFilter(properties.getExpectedInsertions(), properties.getFalsePositiveRate());
+    }
+
+    /**
+     * Fills the filters by streaming all books and users once all beans are created, before requests are served,
+     * unless the filters are not used.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<BookTitle> titles = bookRepository.streamAuthorsAndNames()) {
+                titles.forEach(title -> addBook(title.getAuthor(), title.getName()));
+            }
+            try (Stream<UserDto> users = userRepository.streamUserDtos()) {
+                users.forEach(user -> addUser(user.getUsername(), user.getEmail()));
+            }
+        });
+    }
+
+    /**
+     * Checks whether a book with the given author and name may exist.
+     *
+     * @param author the author of the book
+     * @param name   the name of the book
+     * @return false if no such book exists, true if it may exist or the filters are not used
+     */
+    @Override
+    public boolean mightExistBook(String author, String name) {
+        return !enabled || books.mightContain(bookKey(author, name));
+    }
+
+    /**
+     * Checks whether a user with the given username may exist.
+     *
+     * @param username the username
+     * @return false if no user has the username, true if one may have it or the filters are not used
+     */
+    @Override
+    public boolean mightExistUsername(String username) {
+        return !enabled || usernames.mightContain(Tokenizer.normalize(username));
+    }
+
+    /**
+     * Checks whether a user with the given email may exist.
+     *
+     * @param email the email
+     * @return false if no user has the email, true if one may have it or the filters are not used
+     */
+    @Override
+    public boolean mightExistEmail(String email) {
+        return !enabled || emails.mightContain(Tokenizer.normalize(email));
+    }
+
+    /**
+     * Records the author and name of a book about to be written. Values are recorded before they are committed,
+     * so that a concurrent check never misses them; a rolled back write only leaves a false positive.
+     * Only imports read the filter of books: a book missing from it would not make an import insert a duplicate,
+     * which the database rejects, but would make it fall back to inserting its chunk row by row.
+     *
+     * @param author the author of the book
+     * @param name   the name of the book
+     */
+    @Override
+    public void addBook(String author, String name) {
+        books.add(bookKey(author, name));
+    }
+
+    /**
+     * Records the username and email of a user about to be written, before they are committed.
+     *
+     * @param username the username, ignored if null
+     * @param email    the email, ignored if null
+     */
+    @Override
+    public void addUser(String username, String email) {
+        if (username != null) {
+            usernames.add(Tokenizer.normalize(username));
+        }
+        if (email != null) {
+            emails.add(Tokenizer.normalize(email));
+        }
+    }
+
+    /**
+     * Returns the value of a book in the filter. Values are normalized like search terms, so that values the
+     * database compares as equal regardless of case and accents are never told apart.
+     *
+     * @param author the author of the book
+     * @param name   the name of the book
+     * @return the value of the book
+     */
+    private static String bookKey(String author, String name) {
+        return Tokenizer.normalize(author) + SEPARATOR + Tokenizer.normalize(name);
+    }
+}
@@ -1,20 +1,59 @@
 package com.my.library.service.impl;
 
+import com.my.library.dto.BookDto;
+import com.my.library.dto.CursorPage;
+import com.my.library.dto.UserAvailability;
 import com.my.library.dto.UserDto;
 import com.my.library.exception.*;
 import com.my.library.mapper.UserMapper;
-import com.my.library.model.Book;
+import com.my.library.model.Hold;
+import com.my.library.model.Loan;
 import com.my.library.model.User;
 import com.my.library.repository.BookRepository;
+import com.my.library.repository.HoldRepository;
+import com.my.library.repository.LoanRepository;
 import com.my.library.repository.UserRepository;
+import com.my.library.service.CountService;
+import com.my.library.service.InventoryService;
+import com.my.library.service.UniquenessService;
 import com.my.library.service.UserService;
+import com.my.library.service.config.LoanProperties;
+import com.my.library.service.config.LookupCacheConfig;
+import com.my.library.service.config.LookupCacheProperties;
+import com.my.library.service.event.BookChangedEvent;
+import com.my.library.service.event.BookLoansChangedEvent;
+import com.my.library.service.event.UserChangedEvent;
+import com.my.library.service.pagination.Cursor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
 @Service
 @RequiredArgsConstructor
@@ -30,39 +69,184 @@ public class UserServiceImpl implements UserService {
      */
     private final BookRepository bookRepository;
 
+    /**
+     * The LoanRepository object that will be used to interact with loans in database.
+     */
+    private final LoanRepository loanRepository;
+
+    /**
+     * The HoldRepository object that will be used to hand returned copies to the users waiting for them.
+     */
+    private final HoldRepository holdRepository;
+
+    /**
+     * The InventoryService object that will be used to manage available copies of books.
+     */
+    private final InventoryService inventoryService;
+
+    /**
+     * The CountService object that will be used to estimate the total number of users.
+     */
+    private final CountService countService;
+
+    /**
+     * The ApplicationEventPublisher object that will be used to announce committed changes.
+     */
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * The CacheManager object that will be used to evict several books issued or returned at once.
+     */
+    private final CacheManager cacheManager;
+
+    /**
+     * The UniquenessService object that will be used to skip existence checks of new usernames and emails.
+     */
+    private final UniquenessService uniquenessService;
+
+    /**
+     * The LoanProperties object that holds the period issued books should be returned within.
+     */
+    private final LoanProperties loanProperties;
+
+    /**
+     * The LookupCacheProperties object that holds the number of holders of a changed book evicted one by one.
+     */
+    private final LookupCacheProperties lookupCacheProperties;
+
     /**
      * Retrieves a user with the specified ID.
+     * Users with their books are cached by ID until they are updated, deleted, issued or returned a book,
+     * or until a book they hold is changed.
      *
-     * @param id the ID of the user to retrieve
+     * @param id    the ID of the user to retrieve
+     * @param books whether the books issued to the user are read
      * @return the user with the specified ID
      * @throws UserNotFoundException if the user with the specified ID is not found
      */
-    @Transactional
+    @Cacheable(cacheNames = LookupCacheConfig.USERS, key = "#id", condition = "#books")
+    @Transactional(readOnly = true)
     @Override
-    public UserDto getById(long id) {
+    public UserDto getById(long id, boolean books) {
         User user = userRepository.findById(id).orElseThrow(UserNotFoundException::new);
-        return UserMapper.INSTANCE.mapUserDto(user);
+        return books ? mapUserDtoWithBooks(user) : UserMapper.INSTANCE.mapUserDto(user);
     }
 
     /**
      * Retrieves a sorted and paginated list of users
+     * Users are read as DTOs in a read-only transaction, so no entities are loaded and dirty-checked,
+     * and the books issued to all of them are read with a single query.
      *
      * @param page   the page number of the results to retrieve
      * @param size   the maximum number of results per page
      * @param sortBy the field to sort the results by
      * @param order  the sort order
+     * @param books  whether the books issued to the users are read
      * @return a page of users sorted and filtered according to the specified parameters
      */
-    @Transactional
+    @Transactional(readOnly = true)
     @Override
-    public Page<UserDto> getSortedPage(int page, int size, String sortBy, String order) {
-        Pageable pageable = PageRequest.of(page, size, order.equals("desc")
-                ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending());
-        return userRepository.findAll(pageable).map(UserMapper.INSTANCE::mapUserDto);
+    public Page<UserDto> getSortedPage(int page, int size, String sortBy, String order, boolean books) {
+        Page<UserDto> users = userRepository.findUserDtos(createPageable(page, size, sortBy, order));
+        if (books) {
+            addBooks(users.getContent());
+        }
+        return users;
+    }
+
+    /**
+     * Retrieves a sorted and paginated list of users without the total number of users.
+     * Reads one extra user to know whether a next page exists instead of counting all users.
+     *
+     * @param page   the page number of the results to retrieve
+     * @param size   the maximum number of results per page
+     * @param sortBy the field to sort the results by
+     * @param order  the sort order
+     * @param books  whether the books issued to the users are read
+     * @return a slice of users sorted according to the specified parameters
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public Slice<UserDto> getSortedSlice(int page, int size, String sortBy, String order, boolean books) {
+        Slice<UserDto> users = userRepository.findUserDtoSlice(createPageable(page, size, sortBy, order));
+        if (books) {
+            addBooks(users.getContent());
+        }
+        return users;
+    }
+
+    /**
+     * Retrieves a sorted and paginated list of users with an estimated total number of users.
+     * The total is refreshed in the background and is only corrected to stay consistent with the page read.
+     *
+     * @param page   the page number of the results to retrieve
+     * @param size   the maximum number of results per page
+     * @param sortBy the field to sort the results by
+     * @param order  the sort order
+     * @param books  whether the books issued to the users are read
+     * @return a page of users sorted according to the specified parameters
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public Page<UserDto> getSortedPageWithEstimatedTotal(int page, int size, String sortBy, String order,
+                                                         boolean books) {
+        Slice<UserDto> slice = getSortedSlice(page, size, sortBy, order, books);
+        long read = slice.getPageable().getOffset() + slice.getNumberOfElements() + (slice.hasNext() ? 1 : 0);
+        return new PageImpl<>(slice.getContent(), slice.getPageable(), Math.max(countService.estimateUsers(), read));
+    }
+
+    /**
+     * Retrieves a sorted list of users following a cursor.
+     *
+     * @param cursor the cursor returned with the previous page, empty for the first page
+     * @param size   the maximum number of results per page
+     * @param sortBy the field to sort the results by
+     * @param order  the sort order
+     * @param books  whether the books issued to the users are read
+     * @return a page of users sorted according to the specified parameters with the cursor of the next page
+     * @throws InvalidCursorException if the cursor is malformed or was created for a different sort
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public CursorPage<UserDto> getPageAfter(String cursor, int size, String sortBy, String order, boolean books) {
+        Cursor after = Cursor.decode(cursor, sortBy, order);
+        List<User> users = userRepository.findPageAfter(sortBy, order.equals("desc"),
+                after == null ? null : after.getValue(), after == null ? null : after.getId(), size + 1);
+        String nextCursor = null;
+        if (users.size() > size) {
+            users = users.subList(0, size);
+            User last = users.get(size - 1);
+            nextCursor = new Cursor(sortBy, order, last.getId(), getSortValue(last, sortBy)).encode();
+        }
+        List<UserDto> userDtos = users.stream().map(UserMapper.INSTANCE::mapUserDto).toList();
+        if (books) {
+            addBooks(userDtos);
+        }
+        return new CursorPage<>(userDtos, nextCursor);
     }
 
     /**
-     * Creates a new user
+     * Checks whether a username and an email are still free for a new user.
+     * A value is only queried when the filter of existing values cannot rule it out.
+     *
+     * @param username the username to check, null to skip it
+     * @param email    the email to check, null to skip it
+     * @return whether no user has the username and whether no user has the email
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public UserAvailability checkAvailability(String username, String email) {
+        Boolean usernameAvailable = username == null ? null
+                : !(uniquenessService.mightExistUsername(username) && userRepository.existsByUsername(username));
+        Boolean emailAvailable = email == null ? null
+                : !(uniquenessService.mightExistEmail(email) && userRepository.existsByEmail(email));
+        return new UserAvailability(usernameAvailable, emailAvailable);
+    }
+
+    /**
+     * Creates a new user.
+     * The user is inserted right away and the unique usernames and emails of the database reject duplicates,
+     * so no query checks the existence of the user first.
      *
      * @param userDto the user to create
      * @return the newly created user
@@ -72,52 +256,66 @@ public class UserServiceImpl implements UserService {
     @Override
     public UserDto create(UserDto userDto) {
         User user = UserMapper.INSTANCE.mapUser(userDto);
-        if (userRepository.existsByUsernameOrEmail(user.getUsername(), user.getEmail())) {
+        uniquenessService.addUser(user.getUsername(), user.getEmail());
+        User saved;
+        try {
+            saved = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
             throw new UserAlreadyExistsException();
         }
-        return UserMapper.INSTANCE.mapUserDto(userRepository.save(user));
+        eventPublisher.publishEvent(new UserChangedEvent(saved.getId()));
+        return UserMapper.INSTANCE.mapUserDto(saved);
     }
 
     /**
      * Updates an existing user.
+     * The loaded user is changed in place and flushed with the changed columns only,
+     * letting the unique emails of the database reject duplicates.
      *
      * @param userDto the user to update
      * @return the updated user.
      * @throws UserNotFoundException      if the user with the specified ID is not found.
      * @throws UserAlreadyExistsException if a user with the same email already exists.
      */
+    @CacheEvict(cacheNames = LookupCacheConfig.USERS, key = "#userDto.id")
     @Transactional
     @Override
     public UserDto update(UserDto userDto) {
         User updating = UserMapper.INSTANCE.mapUser(userDto);
         User persisted = userRepository.findById(updating.getId()).orElseThrow(UserNotFoundException::new);
-        String updatingEmail = updating.getEmail() == null ? persisted.getEmail() : updating.getEmail();
-        if (userRepository.existsByEmailAndIdIsNot(updatingEmail, persisted.getId())) {
+        UserMapper.INSTANCE.mapPresentFields(persisted, updating);
+        uniquenessService.addUser(null, persisted.getEmail());
+        try {
+            userRepository.flush();
+        } catch (DataIntegrityViolationException e) {
             throw new UserAlreadyExistsException();
         }
-        UserMapper.INSTANCE.mapPresentFields(persisted, updating);
-        return UserMapper.INSTANCE.mapUserDto(userRepository.save(persisted));
+        eventPublisher.publishEvent(new UserChangedEvent(persisted.getId()));
+        return mapUserDtoWithBooks(persisted);
     }
 
     /**
-     * Deletes a user with the specified ID.
+     * Deletes a user with the specified ID together with the holds of the user.
      *
      * @param id the ID of the user to delete
      * @throws UserNotFoundException   if the user with the specified ID is not found
      * @throws UserIssuedBookException if the user with the specified ID has issued books
      */
+    @CacheEvict(cacheNames = LookupCacheConfig.USERS, key = "#id")
     @Transactional
     @Override
     public void deleteById(long id) {
-        User user = userRepository.findById(id).orElseThrow(UserNotFoundException::new);
-        if (!user.getBooks().isEmpty()) {
+        userRepository.findById(id).orElseThrow(UserNotFoundException::new);
+        if (loanRepository.existsByUserId(id)) {
             throw new UserIssuedBookException();
         }
+        holdRepository.deleteByUserId(id);
         userRepository.deleteById(id);
+        eventPublisher.publishEvent(new UserChangedEvent(id));
     }
 
     /**
-     * Issues a book to a user.
+     * Issues a book to a user, to be returned within the configured loan period.
      *
      * @param userId the ID of the user to issue the book to
      * @param bookId the ID of the book to issue
@@ -127,25 +325,27 @@ public class UserServiceImpl implements UserService {
      * @throws NoAvailableBooksException  if the book with the specified ID has no available copies left
      * @throws BookAlreadyIssuedException if the book with the specified ID is already issued to the user
      */
-    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = LookupCacheConfig.USERS, key = "#userId"),
+            @CacheEvict(cacheNames = LookupCacheConfig.BOOKS, key = "#bookId")
+    })
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     @Override
     public UserDto issueBook(long userId, long bookId) {
         User user = userRepository.findById(userId).orElseThrow(UserNotFoundException::new);
-        Book book = bookRepository.findById(bookId).orElseThrow(BookNotFoundException::new);
-        int available = book.getAvailable();
-        if (available == 0) {
-            throw new NoAvailableBooksException();
-        }
-        if (!user.getBooks().add(book)) {
+        if (loanRepository.existsByUserIdAndBookId(userId, bookId)) {
             throw new BookAlreadyIssuedException();
         }
-        book.setAvailable(available - 1);
-        bookRepository.save(book);
-        return UserMapper.INSTANCE.mapUserDto(userRepository.save(user));
+        inventoryService.reserve(bookId);
+        loanRepository.save(new Loan(user, bookRepository.getReferenceById(bookId), dueDate()));
+        eventPublisher.publishEvent(new BookChangedEvent(bookId));
+        eventPublisher.publishEvent(new BookLoansChangedEvent(bookId, 1));
+        return mapUserDtoWithBooks(user);
     }
 
     /**
-     * Returns a book from a user.
+     * Returns a book from a user. The returned copy is issued right away to the user holding the book the longest,
+     * if any, in the same transaction, instead of being put back for the waiting users to retry issuing it.
      *
      * @param userId the ID of the user to return the book from
      * @param bookId the ID of the book to return
@@ -154,16 +354,250 @@ public class UserServiceImpl implements UserService {
      * @throws BookNotFoundException  if the book with the specified ID cannot be found
      * @throws BookNotIssuedException if the book with the specified ID is not issued to the user
      */
-    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = LookupCacheConfig.USERS, key = "#userId"),
+            @CacheEvict(cacheNames = LookupCacheConfig.BOOKS, key = "#bookId")
+    })
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     @Override
     public UserDto returnBook(long userId, long bookId) {
         User user = userRepository.findById(userId).orElseThrow(UserNotFoundException::new);
-        Book book = bookRepository.findById(bookId).orElseThrow(BookNotFoundException::new);
-        if (!user.getBooks().remove(book)) {
-            throw new BookNotIssuedException();
+        if (loanRepository.deleteByUserIdAndBookId(userId, bookId) == 0) {
+            throw bookRepository.existsById(bookId) ? new BookNotIssuedException() : new BookNotFoundException();
         }
-        book.setAvailable(book.getAvailable() + 1);
-        bookRepository.save(book);
-        return UserMapper.INSTANCE.mapUserDto(userRepository.save(user));
+        if (!issueToHolder(userId, bookId)) {
+            inventoryService.release(bookId);
+            eventPublisher.publishEvent(new BookLoansChangedEvent(bookId, -1));
+        }
+        eventPublisher.publishEvent(new BookChangedEvent(bookId));
+        return mapUserDtoWithBooks(user);
+    }
+
+    /**
+     * Issues several books to a user at once in a single transaction. The books and the loans already issued
+     * are checked with one query each, copies are taken in ascending book ID order and the loans are inserted
+     * in one batch.
+     *
+     * @param userId     the ID of the user to issue the books to
+     * @param bookIds    the IDs of the books to issue
+     * @param bestEffort whether books that cannot be issued are skipped instead of failing all books
+     * @return the updated user
+     * @throws UserNotFoundException      if the user with the specified ID is not found
+     * @throws BookNotFoundException      if any of the books cannot be found and not issuing on best effort
+     * @throws BookAlreadyIssuedException if any of the books is already issued to the user
+     *                                    and not issuing on best effort
+     * @throws NoAvailableBooksException  if any of the books has no available copies left
+     *                                    and not issuing on best effort
+     */
+    @CacheEvict(cacheNames = LookupCacheConfig.USERS, key = "#userId")
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    @Override
+    public UserDto issueBooks(long userId, Collection<Long> bookIds, boolean bestEffort) {
+        User user = userRepository.findById(userId).orElseThrow(UserNotFoundException::new);
+        SortedSet<Long> issuing = new TreeSet<>(bookIds);
+        List<Long> existing = bookRepository.findIdsByIdIn(issuing);
+        if (existing.size() < issuing.size() && !bestEffort) {
+            throw new BookNotFoundException();
+        }
+        issuing.retainAll(existing);
+        if (issuing.isEmpty()) {
+            return mapUserDtoWithBooks(user);
+        }
+        List<Long> issued = loanRepository.findBookIdsByUserIdAndBookIdIn(userId, issuing);
+        if (!issued.isEmpty() && !bestEffort) {
+            throw new BookAlreadyIssuedException();
+        }
+        issued.forEach(issuing::remove);
+        Set<Long> reserved;
+        if (bestEffort) {
+            reserved = inventoryService.reserveAvailable(issuing);
+        } else {
+            inventoryService.reserveAll(issuing);
+            reserved = issuing;
+        }
+        LocalDateTime dueDate = dueDate();
+        loanRepository.saveAll(reserved.stream()
+                .map(bookId -> new Loan(user, bookRepository.getReferenceById(bookId), dueDate))
+                .toList());
+        evictBooks(reserved);
+        reserved.forEach(bookId -> eventPublisher.publishEvent(new BookLoansChangedEvent(bookId, 1)));
+        return mapUserDtoWithBooks(user);
+    }
+
+    /**
+     * Returns several books from a user at once in a single transaction. The loans are found and deleted
+     * with one statement each, copies of held books are issued to their holders and the other copies
+     * are put back in ascending book ID order.
+     *
+     * @param userId     the ID of the user to return the books from
+     * @param bookIds    the IDs of the books to return
+     * @param bestEffort whether books that cannot be returned are skipped instead of failing all books
+     * @return the updated user
+     * @throws UserNotFoundException  if the user with the specified ID is not found
+     * @throws BookNotFoundException  if any of the books cannot be found and not returning on best effort
+     * @throws BookNotIssuedException if any of the books is not issued to the user and not returning on best effort
+     */
+    @CacheEvict(cacheNames = LookupCacheConfig.USERS, key = "#userId")
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    @Override
+    public UserDto returnBooks(long userId, Collection<Long> bookIds, boolean bestEffort) {
+        User user = userRepository.findById(userId).orElseThrow(UserNotFoundException::new);
+        SortedSet<Long> returning = new TreeSet<>(bookIds);
+        List<Long> issued = loanRepository.findBookIdsByUserIdAndBookIdIn(userId, returning);
+        if (issued.size() < returning.size() && !bestEffort) {
+            throw bookRepository.findIdsByIdIn(returning).size() < returning.size()
+                    ? new BookNotFoundException() : new BookNotIssuedException();
+        }
+        returning.retainAll(issued);
+        if (!returning.isEmpty()) {
+            loanRepository.deleteByUserIdAndBookIdIn(userId, returning);
+            SortedSet<Long> releasing = new TreeSet<>(returning);
+            releasing.removeIf(bookId -> issueToHolder(userId, bookId));
+            if (!releasing.isEmpty()) {
+                inventoryService.releaseAll(releasing);
+                releasing.forEach(bookId -> eventPublisher.publishEvent(new BookLoansChangedEvent(bookId, -1)));
+            }
+        }
+        evictBooks(returning);
+        return mapUserDtoWithBooks(user);
+    }
+
+    /**
+     * Issues a returned copy of a book to the user holding the book the longest. A hold is claimed by deleting it,
+     * so a hold deleted by another transaction first is skipped, and so are the holds of the returning user
+     * and of a user the book was issued to in the meantime. The book row is locked before the holds are read,
+     * as it is when a hold is placed, so a hold placed concurrently is either read here or sees the copy put back.
+     *
+     * @param userId the ID of the user returning the book
+     * @param bookId the ID of the returned book
+     * @return whether the copy was issued to a holder instead of being put back
+     */
+    private boolean issueToHolder(long userId, long bookId) {
+        bookRepository.findLockedAvailableById(bookId);
+        LocalDateTime now = LocalDateTime.now();
+        Optional<Hold> next;
+        while ((next = holdRepository.findFirstByBookIdAndExpiresAtAfterOrderByPlacedAtAscIdAsc(bookId, now))
+                .isPresent()) {
+            Hold hold = next.get();
+            if (holdRepository.deleteHoldById(hold.getId()) == 0 || hold.getUser().getId() == userId
+                    || loanRepository.existsByUserIdAndBookId(hold.getUser().getId(), bookId)) {
+                continue;
+            }
+            loanRepository.save(new Loan(hold.getUser(), hold.getBook(), dueDate()));
+            Cache users = cacheManager.getCache(LookupCacheConfig.USERS);
+            if (users != null) {
+                users.evict(hold.getUser().getId());
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Evicts the cached users holding a changed book, as they embed its available copies.
+     * Users are evicted right before the change is committed, so that the evictions are deferred to the commit
+     * together with the others of its transaction. Events published outside a transaction evict at once.
+     * At most the configured number of holders is read; a book issued to more users clears the whole cache
+     * instead, so a popular book neither reads all its loans nor queues an eviction per holder on every change.
+     * A created book is not issued to anyone yet, so nothing is read for it.
+     *
+     * @param event the event of the changed book
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        Cache users = cacheManager.getCache(LookupCacheConfig.USERS);
+        if (users == null || event.isCreated()) {
+            return;
+        }
+        int maxEvictions = lookupCacheProperties.getMaxHolderEvictions();
+        List<Long> userIds = loanRepository.findUserIdsByBookId(event.getBookId(),
+                PageRequest.ofSize(maxEvictions + 1));
+        if (userIds.size() > maxEvictions) {
+            users.clear();
+        } else {
+            userIds.forEach(users::evict);
+        }
+    }
+
+    /**
+     * Returns the due date of a book issued now.
+     *
+     * @return the time the book should be returned by
+     */
+    private LocalDateTime dueDate() {
+        return LocalDateTime.now().plus(loanProperties.getPeriod());
+    }
+
+    /**
+     * Evicts several issued or returned books from the cache of books by ID and announces their changes.
+     *
+     * @param bookIds the IDs of the issued or returned books
+     */
+    private void evictBooks(Collection<Long> bookIds) {
+        Cache books = cacheManager.getCache(LookupCacheConfig.BOOKS);
+        for (Long bookId : bookIds) {
+            if (books != null) {
+                books.evict(bookId);
+            }
+            eventPublisher.publishEvent(new BookChangedEvent(bookId));
+        }
+    }
+
+    /**
+     * Converts a user to a UserDto object together with the books issued to it, read as DTOs.
+     *
+     * @param user the user to convert
+     * @return the user with its issued books
+     */
+    private UserDto mapUserDtoWithBooks(User user) {
+        UserDto userDto = UserMapper.INSTANCE.mapUserDto(user);
+        userDto.setBooks(new HashSet<>(loanRepository.findBookDtosByUserId(user.getId())));
+        return userDto;
+    }
+
+    /**
+     * Adds the books issued to several users to UserDto objects read without them.
+     * The books of all users are read with a single query instead of one query per user.
+     *
+     * @param userDtos the users to add the books to
+     */
+    private void addBooks(List<UserDto> userDtos) {
+        if (userDtos.isEmpty()) {
+            return;
+        }
+        Map<Long, Set<BookDto>> books = new HashMap<>();
+        userDtos.forEach(userDto -> books.put(userDto.getId(), new HashSet<>()));
+        loanRepository.findIssuedBooksByUserIdIn(books.keySet())
+                .forEach(issued -> books.get(issued.getUserId()).add(issued.getBook()));
+        userDtos.forEach(userDto -> userDto.setBooks(books.get(userDto.getId())));
+    }
+
+    /**
+     * Returns the value of the field a user is sorted by.
+     *
+     * @param user   the user to get the value of
+     * @param sortBy the field the users are sorted by
+     * @return the value of the field, or null when sorting by ID
+     */
+    private String getSortValue(User user, String sortBy) {
+        return switch (sortBy) {
+            case "username" -> user.getUsername();
+            case "email" -> user.getEmail();
+            default -> null;
+        };
+    }
+
+    /**
+     * Creates a page request sorted by the given field.
+     *
+     * @param page   the page number of the results to retrieve
+     * @param size   the maximum number of results per page
+     * @param sortBy the field to sort the results by
+     * @param order  the sort order
+     * @return the page request
+     */
+    private Pageable createPageable(int page, int size, String sortBy, String order) {
+        return PageRequest.of(page, size, order.equals("desc")
+                ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending());
     }
 }
@@ -0,0 +1,253 @@
+package com.my.library.service.impl;
+
+import com.my.library.exception.BookNotFoundException;
+import com.my.library.exception.NoAvailableBooksException;
+import com.my.library.model.Book;
+import com.my.library.repository.BookRepository;
+import com.my.library.repository.projection.BookInventory;
+import com.my.library.service.InventoryService;
+import com.my.library.service.config.LookupCacheConfig;
+import com.my.library.service.event.BookChangedEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Inventory strategy deciding checkouts against in-memory counters and writing available copies to the database
+ * in batches. A counter is loaded from the database on the first use of a book and is dropped together with
+ * the changes not written yet once the book is deleted. Updates of a book never set its available copies,
+ * so the counter stays the only source of them, and this strategy is only correct while a single application
+ * instance changes available copies.
+ * <p>
+ * Loans are still written by the calling transaction, and a counter change reaches the flush queue only after that
+ * transaction commits. A graceful shutdown writes the queue without announcing it. A crash loses the changes of at
+ * most one flush interval: the loan rows stay correct, while the available column of the affected books is off by
+ * the number of checkouts and returns since the last flush. The schema keeps no total number of copies to recompute
+ * it from, so the lost changes cannot be reconciled automatically: the available column of the books issued since
+ * the last flush, found by the issue time of their loans, and of the books returned since, which leave no row
+ * behind, has to be corrected by hand from the copies actually on the shelf before the application is started again.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "library.inventory.strategy", havingValue = "write-behind")
+public class WriteBehindInventoryService implements InventoryService {
+
+    /**
+     * The statement applying a change of available copies to a book.
+     */
+    private static final String FLUSH_SQL = "update book set available = available + ?, version = version + 1 "
+            + "where id = ?";
+
+    /**
+     * The BookRepository object that will be used to load available copies from database.
+     */
+    private final BookRepository bookRepository;
+
+    /**
+     * The JdbcTemplate object that will be used to write batches of changes to database.
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * The TransactionTemplate object that will be used to write a batch of changes atomically.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * The CacheManager object that will be used to evict the cached books once their changes are written.
+     */
+    private final CacheManager cacheManager;
+
+    /**
+     * The EntityManagerFactory object that will be used to evict the written books from the second-level cache.
+     */
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * The ApplicationEventPublisher object that will be used to announce the written changes.
+     */
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Available copies of the loaded books by book ID, including the changes not flushed yet.
+     */
+    private final Map<Long, AtomicInteger> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Committed changes of available copies not written to database yet by book ID.
+     */
+    private final Map<Long, AtomicInteger> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Takes one available copy of a book from its counter.
+     * The copy is given back to the counter if the calling transaction rolls back.
+     *
+     * @param bookId the ID of the book to take a copy of
+     * @throws BookNotFoundException     if the book with the specified ID cannot be found
+     * @throws NoAvailableBooksException if the book with the specified ID has no available copies left
+     */
+    @Transactional
+    @Override
+    public void reserve(long bookId) {
+        AtomicInteger counter = getCounter(bookId);
+        int available;
+        do {
+            available = counter.get();
+            if (available == 0) {
+                throw new NoAvailableBooksException();
+            }
+        } while (!counter.compareAndSet(available, available - 1));
+        onCompletion(() -> addPending(bookId, counter, -1), counter::incrementAndGet);
+    }
+
+    /**
+     * Puts one copy of a book back to its counter once the calling transaction commits.
+     *
+     * @param bookId the ID of the book to put a copy of
+     * @throws BookNotFoundException if the book with the specified ID cannot be found
+     */
+    @Transactional
+    @Override
+    public void release(long bookId) {
+        AtomicInteger counter = getCounter(bookId);
+        onCompletion(() -> {
+            counter.incrementAndGet();
+            addPending(bookId, counter, 1);
+        }, () -> {
+        });
+    }
+
+    /**
+     * Drops the counter of a deleted book and its changes not written yet once the calling transaction commits,
+     * so the next checkout finds the book deleted instead of taking a copy of the counter.
+     *
+     * @param bookId the ID of the deleted book
+     */
+    @Override
+    public void forget(long bookId) {
+        onCompletion(() -> {
+            counters.remove(bookId);
+            pending.remove(bookId);
+        }, () -> {
+        });
+    }
+
+    /**
+     * Writes the committed changes of available copies to database in a single batch.
+     * If the batch fails, the changes are queued again and written by the next flush.
+     * Otherwise, the written books are evicted from the lookup and second-level caches,
+     * as the batch is written with JDBC and bypasses Hibernate, and their changes are announced.
+     */
+    @Scheduled(fixedDelayString = "#{@inventoryProperties.flushInterval.toMillis()}")
+    public void flush() {
+        Cache books = cacheManager.getCache(LookupCacheConfig.BOOKS);
+        write().forEach(args -> {
+            entityManagerFactory.getCache().evict(Book.class, args[1]);
+            if (books != null) {
+                books.evict(args[1]);
+            }
+            eventPublisher.publishEvent(new BookChangedEvent((Long) args[1]));
+        });
+    }
+
+    /**
+     * Writes the committed changes of available copies to database once the application context closes.
+     * The changes are neither announced nor evicted from the caches, as the listeners may already be destroyed
+     * and the in-memory caches are closed together with the context.
+     */
+    @PreDestroy
+    public void close() {
+        write();
+    }
+
+    /**
+     * Writes the committed changes of available copies to database in a single batch.
+     * If the batch fails, the changes are queued again and the failure is rethrown.
+     *
+     * @return the written changes, each as the change of available copies followed by the book ID
+     */
+    private List<Object[]> write() {
+        List<Object[]> batch = new ArrayList<>();
+        pending.forEach((bookId, delta) -> {
+            int value = delta.getAndSet(0);
+            if (value != 0) {
+                batch.add(new Object[]{value, bookId});
+            }
+        });
+        if (batch.isEmpty()) {
+            return batch;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(FLUSH_SQL, batch));
+        } catch (RuntimeException e) {
+            batch.forEach(args -> pending.computeIfAbsent((Long) args[1], id -> new AtomicInteger())
+                    .addAndGet((Integer) args[0]));
+            throw e;
+        }
+        return batch;
+    }
+
+    /**
+     * Returns the counter of a book, loading it from database on first use.
+     *
+     * @param bookId the ID of the book
+     * @return the counter of available copies of the book
+     * @throws BookNotFoundException if the book with the specified ID cannot be found
+     */
+    private AtomicInteger getCounter(long bookId) {
+        return counters.computeIfAbsent(bookId, id -> bookRepository.findInventoryById(id)
+                .map(BookInventory::getAvailable)
+                .map(AtomicInteger::new)
+                .orElseThrow(BookNotFoundException::new));
+    }
+
+    /**
+     * Adds a change of available copies of a book to the flush queue, unless the counter it was made on
+     * has been dropped since, as the book was deleted.
+     *
+     * @param bookId  the ID of the book
+     * @param counter the counter the change was made on
+     * @param delta   the number of copies to add, negative to take copies
+     */
+    private void addPending(long bookId, AtomicInteger counter, int delta) {
+        if (counters.get(bookId) == counter) {
+            pending.computeIfAbsent(bookId, id -> new AtomicInteger()).addAndGet(delta);
+        }
+    }
+
+    /**
+     * Runs one of the given actions once the current transaction completes, or the first one at once without it.
+     *
+     * @param onCommit   the action to run if the transaction commits
+     * @param onRollback the action to run if the transaction rolls back
+     */
+    private void onCompletion(Runnable onCommit, Runnable onRollback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            onCommit.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                (status == STATUS_COMMITTED ? onCommit : onRollback).run();
+            }
+        });
+    }
+}
@@ -0,0 +1,101 @@
+package com.my.library.service.pagination;
+
+import com.my.library.exception.InvalidCursorException;
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * An opaque position in a sorted list of entities: the sort value and the ID of the last entity of a page.
+ * The sort field and order are encoded too, so a cursor cannot be reused with a different sort. Whether a sort value
+ * is present is encoded apart from the value, so an empty value is told apart from no value.
+ */
+@Value
+public class Cursor {
+
+    /**
+     * The separator of the encoded parts.
+     */
+    private static final String SEPARATOR = ",";
+
+    /**
+     * The sort field holding no sort value, as the ID is the sort value itself.
+     */
+    private static final String ID = "id";
+
+    /**
+     * The flag of an encoded cursor holding a sort value.
+     */
+    private static final String PRESENT = "1";
+
+    /**
+     * The flag of an encoded cursor holding no sort value.
+     */
+    private static final String ABSENT = "0";
+
+    /**
+     * The field the entities are sorted by.
+     */
+    String sortBy;
+
+    /**
+     * The sort order (asc or desc).
+     */
+    String order;
+
+    /**
+     * The ID of the last entity of the page.
+     */
+    Long id;
+
+    /**
+     * The sort value of the last entity of the page, null when sorting by ID.
+     */
+    String value;
+
+    /**
+     * Encodes this cursor into a URL-safe string.
+     *
+     * @return the encoded cursor
+     */
+    public String encode() {
+        String raw = String.join(SEPARATOR, sortBy, order, id.toString(), value == null ? ABSENT : PRESENT,
+                value == null ? "" : value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor created for the given sort.
+     *
+     * @param token  the encoded cursor, empty for the first page
+     * @param sortBy the field the entities are sorted by
+     * @param order  the sort order
+     * @return the decoded cursor, or null for the first page
+     * @throws InvalidCursorException if the cursor is malformed, was created for a different sort
+     *                                or holds no sort value for a sort by a field other than the ID
+     */
+    public static Cursor decode(String token, String sortBy, String order) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        String[] parts;
+        Long id;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(SEPARATOR, 5);
+            id = Long.valueOf(parts[2]);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new InvalidCursorException();
+        }
+        if (parts.length != 5 || !parts[0].equals(sortBy) || !parts[1].equals(order)) {
+            throw new InvalidCursorException();
+        }
+        if (parts[3].equals(PRESENT)) {
+            return new Cursor(sortBy, order, id, parts[4]);
+        }
+        if (!parts[3].equals(ABSENT) || !parts[4].isEmpty() || !sortBy.equals(ID)) {
+            throw new InvalidCursorException();
+        }
+        return new Cursor(sortBy, order, id, null);
+    }
+}
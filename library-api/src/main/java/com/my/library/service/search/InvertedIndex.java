@@ -0,0 +1,307 @@
+package com.my.library.service.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * An in-memory inverted index of the author and name of books.
+ * Every indexed book gets an int document number, and every term maps to the ascending numbers of the books
+ * containing it. Searches never lock: posting lists are replaced rather than changed in place, and a list only
+ * grows into array slots that no published list reads. Changes are serialized.
+ */
+public class InvertedIndex {
+
+    /**
+     * The number of documents the index has room for before it grows.
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * The weight of a term found in the name of a book, a term found only in the author weighs 1.
+     */
+    private static final double NAME_WEIGHT = 2;
+
+    /**
+     * The ascending document numbers of the books containing every term.
+     */
+    private final Map<String, Postings> postings = new ConcurrentHashMap<>();
+
+    /**
+     * The document numbers of the indexed books by book ID, changed only while holding the lock of the index.
+     */
+    private final Map<Long, Integer> documents = new HashMap<>();
+
+    /**
+     * The indexed books by document number, null for removed books.
+     */
+    private volatile Document[] entries = new Document[INITIAL_CAPACITY];
+
+    /**
+     * The document number of the next indexed book.
+     */
+    private int next;
+
+    /**
+     * Adds a book to the index, replacing the book with the same ID if it is already indexed.
+     *
+     * @param id     the ID of the book
+     * @param author the author of the book
+     * @param name   the name of the book
+     */
+    public synchronized void put(long id, String author, String name) {
+        remove(id);
+        Document document = new Document(id, Tokenizer.tokenize(author), Tokenizer.tokenize(name));
+        int number = next++;
+        if (number == entries.length) {
+            entries = Arrays.copyOf(entries, number * 2);
+        }
+        entries[number] = document;
+        for (String term : document.terms()) {
+            postings.merge(term, Postings.of(number), (current, added) -> current.append(number));
+        }
+        documents.put(id, number);
+    }
+
+    /**
+     * Removes a book from the index, if it is indexed.
+     *
+     * @param id the ID of the book
+     */
+    public synchronized void remove(long id) {
+        Integer number = documents.remove(id);
+        if (number == null) {
+            return;
+        }
+        for (String term : entries[number].terms()) {
+            postings.computeIfPresent(term, (key, current) -> current.remove(number));
+        }
+        entries[number] = null;
+    }
+
+    /**
+     * Returns the number of indexed books.
+     *
+     * @return the number of indexed books
+     */
+    public synchronized int size() {
+        return documents.size();
+    }
+
+    /**
+     * Finds the books containing every term of a query, best matches first.
+     * A book scores the weights of the query terms, higher for terms in its name than in its author,
+     * divided by the square root of its number of terms, so that shorter titles rank above longer ones
+     * matching the same terms. Equal scores are ordered by the time the books were indexed.
+     *
+     * @param query the query to search for
+     * @param limit the maximum number of books to return
+     * @return the IDs of the best matching books, best first
+     */
+    public List<Long> search(String query, int limit) {
+        List<String> terms = Tokenizer.tokenize(query);
+        if (terms.isEmpty() || limit < 1) {
+            return List.of();
+        }
+        Postings[] lists = new Postings[terms.size()];
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = postings.get(terms.get(i));
+            if (lists[i] == null) {
+                return List.of();
+            }
+        }
+        Arrays.sort(lists, Comparator.comparingInt(Postings::size));
+        Document[] snapshot = entries;
+        PriorityQueue<Hit> best = new PriorityQueue<>(Comparator.comparingDouble(Hit::getScore)
+                .thenComparing(Comparator.comparingInt(Hit::getNumber).reversed()));
+        int[] positions = new int[lists.length];
+        candidates:
+        for (int i = 0; i < lists[0].size(); i++) {
+            int number = lists[0].get(i);
+            for (int j = 1; j < lists.length; j++) {
+                int found = lists[j].find(number, positions[j]);
+                if (found < 0) {
+                    positions[j] = -found - 1;
+                    continue candidates;
+                }
+                positions[j] = found;
+            }
+            Document document = snapshot[number];
+            if (document != null) {
+                best.offer(new Hit(number, document.getId(), document.score(terms)));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        }
+        List<Long> ids = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            ids.add(best.poll().getId());
+        }
+        Collections.reverse(ids);
+        return ids;
+    }
+
+    /**
+     * An indexed book.
+     */
+    @Value
+    private static class Document {
+
+        /**
+         * The ID of the book.
+         */
+        long id;
+
+        /**
+         * The terms of the author of the book.
+         */
+        List<String> authorTerms;
+
+        /**
+         * The terms of the name of the book.
+         */
+        List<String> nameTerms;
+
+        /**
+         * Returns the distinct terms of the author and name of the book.
+         *
+         * @return the terms of the book
+         */
+        private List<String> terms() {
+            return Stream.concat(nameTerms.stream(), authorTerms.stream()).distinct().toList();
+        }
+
+        /**
+         * Scores the book against the terms of a query, all of which the book contains.
+         *
+         * @param terms the terms of the query
+         * @return the score of the book
+         */
+        private double score(List<String> terms) {
+            double score = 0;
+            for (String term : terms) {
+                score += nameTerms.contains(term) ? NAME_WEIGHT : 1;
+            }
+            return score / Math.sqrt(authorTerms.size() + nameTerms.size());
+        }
+    }
+
+    /**
+     * A matching book.
+     */
+    @Value
+    private static class Hit {
+
+        /**
+         * The document number of the book.
+         */
+        int number;
+
+        /**
+         * The ID of the book, kept as the entry of the document may be removed before the search ends.
+         */
+        long id;
+
+        /**
+         * The score of the book.
+         */
+        double score;
+    }
+
+    /**
+     * An immutable list of ascending document numbers. Appending fills the free slots of the shared array,
+     * which lists created before can never read, and copies the array only when it is full.
+     */
+    @RequiredArgsConstructor
+    private static final class Postings {
+
+        /**
+         * The document numbers, of which only the first {@link #size} belong to this list.
+         */
+        private final int[] numbers;
+
+        /**
+         * The number of documents in this list.
+         */
+        private final int size;
+
+        /**
+         * Creates a list of a single document.
+         *
+         * @param number the document number
+         * @return the new list
+         */
+        private static Postings of(int number) {
+            return new Postings(new int[]{number, 0}, 1);
+        }
+
+        /**
+         * @return the number of documents in this list
+         */
+        private int size() {
+            return size;
+        }
+
+        /**
+         * @param index the index of the document in this list
+         * @return the document number at the given index
+         */
+        private int get(int index) {
+            return numbers[index];
+        }
+
+        /**
+         * Looks for a document number from a given index on.
+         *
+         * @param number the document number to look for
+         * @param from   the index to look from
+         * @return the index of the number, or (-(insertion point) - 1) if this list does not contain it
+         */
+        private int find(int number, int from) {
+            return Arrays.binarySearch(numbers, from, size, number);
+        }
+
+        /**
+         * Appends a document number greater than all numbers of this list.
+         *
+         * @param number the document number to append
+         * @return the list with the appended number
+         */
+        private Postings append(int number) {
+            int[] target = size < numbers.length ? numbers : Arrays.copyOf(numbers, size * 2);
+            target[size] = number;
+            return new Postings(target, size + 1);
+        }
+
+        /**
+         * Removes a document number.
+         *
+         * @param number the document number to remove
+         * @return the list without the number, or null if no number is left
+         */
+        private Postings remove(int number) {
+            int index = find(number, 0);
+            if (index < 0) {
+                return this;
+            }
+            if (size == 1) {
+                return null;
+            }
+            int[] target = new int[Math.max(2, size - 1)];
+            System.arraycopy(numbers, 0, target, 0, index);
+            System.arraycopy(numbers, index + 1, target, index, size - index - 1);
+            return new Postings(target, size - 1);
+        }
+    }
+}
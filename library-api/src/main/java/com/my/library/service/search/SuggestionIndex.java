@@ -0,0 +1,536 @@
+package com.my.library.service.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An in-memory radix tree of the normalized names and authors of books, answering prefixes with the most
+ * popular completions. Edges are labelled with whole strings rather than single characters, children are kept
+ * in arrays sorted by their first character, and every node keeps the best completions of its subtree,
+ * so that a prefix is answered by walking its characters once, whatever the number of completions.
+ * A completion is as popular as the copies of its books issued, as counted when they were indexed and changed
+ * by every issue and return since.
+ */
+public class SuggestionIndex {
+
+    /**
+     * The number of best completions kept by every node, which is the most a prefix can return.
+     */
+    public static final int MAX_SUGGESTIONS = 10;
+
+    /**
+     * The order of completions: most popular first, then shortest, then alphabetical.
+     */
+    private static final Comparator<Completion> BEST_FIRST = Comparator.comparingLong(Completion::getPopularity)
+            .reversed()
+            .thenComparingInt(completion -> completion.key.length())
+            .thenComparing(completion -> completion.key);
+
+    /**
+     * The lock letting prefixes be answered concurrently while the tree is changed exclusively.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * The root of the tree, labelled with the empty string.
+     */
+    private final Node root = new Node("");
+
+    /**
+     * The indexed books by ID.
+     */
+    private final Map<Long, IndexedBook> books = new HashMap<>();
+
+    /**
+     * Adds a book to the index or replaces its author and name, keeping its popularity.
+     *
+     * @param id     the ID of the book
+     * @param author the author of the book
+     * @param name   the name of the book
+     */
+    public void put(long id, String author, String name) {
+        lock.writeLock().lock();
+        try {
+            IndexedBook indexed = books.get(id);
+            putLocked(id, author, name, indexed == null ? 0 : indexed.getPopularity());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a book to the index or replaces it.
+     *
+     * @param id         the ID of the book
+     * @param author     the author of the book
+     * @param name       the name of the book
+     * @param popularity the popularity of the book
+     */
+    public void put(long id, String author, String name, long popularity) {
+        lock.writeLock().lock();
+        try {
+            putLocked(id, author, name, popularity);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a book from the index, if it is indexed.
+     *
+     * @param id the ID of the book
+     */
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Changes the popularity of a book and of its name and author, if it is indexed.
+     *
+     * @param id    the ID of the book
+     * @param delta the popularity to add, negative to take popularity
+     */
+    public void addPopularity(long id, long delta) {
+        lock.writeLock().lock();
+        try {
+            IndexedBook indexed = books.get(id);
+            if (indexed == null) {
+                return;
+            }
+            books.put(id, new IndexedBook(indexed.getAuthorKey(), indexed.getNameKey(),
+                    indexed.getPopularity() + delta));
+            reweigh(indexed.getNameKey(), delta);
+            if (!indexed.getAuthorKey().equals(indexed.getNameKey())) {
+                reweigh(indexed.getAuthorKey(), delta);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the most popular names and authors starting with a prefix, ignoring case, accents and punctuation.
+     *
+     * @param prefix the prefix to complete
+     * @param limit  the maximum number of completions to return, at most {@link #MAX_SUGGESTIONS}
+     * @return the names and authors as first indexed, most popular first
+     */
+    public List<String> suggest(String prefix, int limit) {
+        String key = Tokenizer.normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            int matched = 0;
+            while (matched < key.length()) {
+                Node child = node.child(key.charAt(matched));
+                if (child == null) {
+                    return List.of();
+                }
+                int common = commonPrefix(child.label, key, matched);
+                if (matched + common == key.length()) {
+                    node = child;
+                    break;
+                }
+                if (common < child.label.length()) {
+                    return List.of();
+                }
+                node = child;
+                matched += common;
+            }
+            return Arrays.stream(node.best).limit(limit).map(completion -> completion.text).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a book to the index or replaces it, while holding the write lock.
+     *
+     * @param id         the ID of the book
+     * @param author     the author of the book
+     * @param name       the name of the book
+     * @param popularity the popularity of the book
+     */
+    private void putLocked(long id, String author, String name, long popularity) {
+        removeLocked(id);
+        String nameKey = Tokenizer.normalize(name);
+        String authorKey = Tokenizer.normalize(author);
+        books.put(id, new IndexedBook(authorKey, nameKey, popularity));
+        add(nameKey, name, popularity);
+        if (!authorKey.equals(nameKey)) {
+            add(authorKey, author, popularity);
+        }
+    }
+
+    /**
+     * Removes a book from the index, while holding the write lock.
+     *
+     * @param id the ID of the book
+     */
+    private void removeLocked(long id) {
+        IndexedBook indexed = books.remove(id);
+        if (indexed == null) {
+            return;
+        }
+        subtract(indexed.getNameKey(), indexed.getPopularity());
+        if (!indexed.getAuthorKey().equals(indexed.getNameKey())) {
+            subtract(indexed.getAuthorKey(), indexed.getPopularity());
+        }
+    }
+
+    /**
+     * Counts one more book with the given normalized name or author, inserting it into the tree if needed.
+     *
+     * @param key        the normalized name or author
+     * @param text       the name or author as written, shown if the key is new
+     * @param popularity the popularity of the book
+     */
+    private void add(String key, String text, long popularity) {
+        if (key.isEmpty()) {
+            return;
+        }
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        Node node = root;
+        int matched = 0;
+        while (matched < key.length()) {
+            Node child = node.child(key.charAt(matched));
+            if (child == null) {
+                child = new Node(key.substring(matched));
+                node.addChild(child);
+                matched = key.length();
+            } else {
+                int common = commonPrefix(child.label, key, matched);
+                if (common < child.label.length()) {
+                    child = split(node, child, common);
+                }
+                matched += common;
+            }
+            node = child;
+            path.add(node);
+        }
+        if (node.completion == null) {
+            node.completion = new Completion(key, text.strip(), 0, 0);
+        }
+        node.completion.books++;
+        node.completion.popularity += popularity;
+        for (int i = path.size() - 1; i >= 0; i--) {
+            path.get(i).rank();
+        }
+    }
+
+    /**
+     * Counts one less book with the given normalized name or author, removing it from the tree if none is left.
+     *
+     * @param key        the normalized name or author
+     * @param popularity the popularity of the book
+     */
+    private void subtract(String key, long popularity) {
+        if (key.isEmpty()) {
+            return;
+        }
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        Node node = root;
+        int matched = 0;
+        while (matched < key.length()) {
+            node = node.child(key.charAt(matched));
+            matched += node.label.length();
+            path.add(node);
+        }
+        Completion completion = node.completion;
+        completion.books--;
+        completion.popularity -= popularity;
+        if (completion.books == 0) {
+            node.completion = null;
+            Node parent = path.get(path.size() - 2);
+            if (node.children.length == 0) {
+                parent.removeChild(node);
+                path.remove(path.size() - 1);
+                if (parent != root && parent.completion == null && parent.children.length == 1) {
+                    parent.mergeChild();
+                }
+            } else if (node.children.length == 1) {
+                node.mergeChild();
+            }
+        }
+        for (int i = path.size() - 1; i >= 0; i--) {
+            path.get(i).rank();
+        }
+    }
+
+    /**
+     * Changes the popularity of an indexed name or author and ranks the completions of its path again.
+     *
+     * @param key   the normalized name or author
+     * @param delta the popularity to add, negative to take popularity
+     */
+    private void reweigh(String key, long delta) {
+        if (key.isEmpty()) {
+            return;
+        }
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        Node node = root;
+        int matched = 0;
+        while (matched < key.length()) {
+            node = node.child(key.charAt(matched));
+            matched += node.label.length();
+            path.add(node);
+        }
+        node.completion.popularity += delta;
+        for (int i = path.size() - 1; i >= 0; i--) {
+            path.get(i).rank();
+        }
+    }
+
+    /**
+     * Splits the edge to a child so that its first characters lead to a new node.
+     *
+     * @param parent the parent of the child
+     * @param child  the child to split the edge to
+     * @param length the number of characters leading to the new node
+     * @return the new node, parent of the child
+     */
+    private static Node split(Node parent, Node child, int length) {
+        Node middle = new Node(child.label.substring(0, length));
+        parent.replaceChild(middle);
+        child.label = child.label.substring(length);
+        middle.children = new Node[]{child};
+        middle.best = child.best;
+        return middle;
+    }
+
+    /**
+     * Counts the characters an edge label shares with a key from a given index on.
+     *
+     * @param label the edge label
+     * @param key   the key
+     * @param from  the index of the key to compare from
+     * @return the length of the common prefix
+     */
+    private static int commonPrefix(String label, String key, int from) {
+        int max = Math.min(label.length(), key.length() - from);
+        int length = 0;
+        while (length < max && label.charAt(length) == key.charAt(from + length)) {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * A name or author of at least one book.
+     */
+    @AllArgsConstructor
+    private static class Completion {
+
+        /**
+         * The normalized name or author.
+         */
+        private final String key;
+
+        /**
+         * The name or author as written in the first indexed book.
+         */
+        private final String text;
+
+        /**
+         * The sum of the popularity of the books.
+         */
+        private long popularity;
+
+        /**
+         * The number of books with this name or author.
+         */
+        private int books;
+
+        /**
+         * @return the sum of the popularity of the books
+         */
+        private long getPopularity() {
+            return popularity;
+        }
+    }
+
+    /**
+     * The normalized author and name of an indexed book with its popularity.
+     */
+    @Value
+    private static class IndexedBook {
+
+        /**
+         * The normalized author of the book.
+         */
+        String authorKey;
+
+        /**
+         * The normalized name of the book.
+         */
+        String nameKey;
+
+        /**
+         * The popularity of the book.
+         */
+        long popularity;
+    }
+
+    /**
+     * A node of the tree.
+     */
+    private static class Node {
+
+        /**
+         * The node has no children yet.
+         */
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        /**
+         * The node has no completions yet.
+         */
+        private static final Completion[] NO_COMPLETIONS = new Completion[0];
+
+        /**
+         * The characters of the edge from the parent.
+         */
+        private String label;
+
+        /**
+         * The children, sorted by the first character of their labels.
+         */
+        private Node[] children = NO_CHILDREN;
+
+        /**
+         * The completion ending at this node, null if no book has it.
+         */
+        private Completion completion;
+
+        /**
+         * The best completions of the subtree, best first.
+         */
+        private Completion[] best = NO_COMPLETIONS;
+
+        /**
+         * Creates a node without children.
+         *
+         * @param label the characters of the edge from the parent
+         */
+        private Node(String label) {
+            this.label = label;
+        }
+
+        /**
+         * Finds the child whose label starts with a character.
+         *
+         * @param first the first character of the label
+         * @return the child, or null if there is none
+         */
+        private Node child(char first) {
+            int index = indexOf(first);
+            return index < 0 ? null : children[index];
+        }
+
+        /**
+         * Adds a child whose first character no other child starts with.
+         *
+         * @param child the child to add
+         */
+        private void addChild(Node child) {
+            int index = -indexOf(child.label.charAt(0)) - 1;
+            Node[] added = new Node[children.length + 1];
+            System.arraycopy(children, 0, added, 0, index);
+            added[index] = child;
+            System.arraycopy(children, index, added, index + 1, children.length - index);
+            children = added;
+        }
+
+        /**
+         * Replaces the child starting with the same character as the given node.
+         *
+         * @param child the new child
+         */
+        private void replaceChild(Node child) {
+            children[indexOf(child.label.charAt(0))] = child;
+        }
+
+        /**
+         * Removes a child.
+         *
+         * @param child the child to remove
+         */
+        private void removeChild(Node child) {
+            int index = indexOf(child.label.charAt(0));
+            Node[] removed = new Node[children.length - 1];
+            System.arraycopy(children, 0, removed, 0, index);
+            System.arraycopy(children, index + 1, removed, index, children.length - index - 1);
+            children = removed;
+        }
+
+        /**
+         * Merges the only child of a node without completion into the node, so that no node has a single child
+         * without completing anything.
+         */
+        private void mergeChild() {
+            Node child = children[0];
+            label = label + child.label;
+            completion = child.completion;
+            children = child.children;
+            best = child.best;
+        }
+
+        /**
+         * Recomputes the best completions of the subtree from the completion of this node and the best
+         * completions of the children, which contain the best completions of the whole subtree.
+         */
+        private void rank() {
+            List<Completion> candidates = new ArrayList<>();
+            if (completion != null) {
+                candidates.add(completion);
+            }
+            for (Node child : children) {
+                candidates.addAll(Arrays.asList(child.best));
+            }
+            candidates.sort(BEST_FIRST);
+            best = candidates.subList(0, Math.min(MAX_SUGGESTIONS, candidates.size())).toArray(NO_COMPLETIONS);
+        }
+
+        /**
+         * Looks for the child whose label starts with a character.
+         *
+         * @param first the first character of the label
+         * @return the index of the child, or (-(insertion point) - 1) if there is none
+         */
+        private int indexOf(char first) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                char current = children[middle].label.charAt(0);
+                if (current < first) {
+                    low = middle + 1;
+                } else if (current > first) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -(low + 1);
+        }
+    }
+}
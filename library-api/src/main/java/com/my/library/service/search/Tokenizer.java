@@ -0,0 +1,72 @@
+package com.my.library.service.search;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Splits text into search terms: lower-case words and numbers without accents, each returned once.
+ */
+public final class Tokenizer {
+
+    /**
+     * The pattern of the characters between two terms.
+     */
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * The pattern of the accents left by decomposing characters.
+     */
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    /**
+     * Prevents instantiation of this utility class.
+     */
+    private Tokenizer() {
+    }
+
+    /**
+     * Returns all terms of a text separated by single spaces, so that texts differing only in case, accents
+     * or punctuation are equal.
+     *
+     * @param text the text to normalize, may be null
+     * @return the normalized text, empty if the text has no terms
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return Arrays.stream(SEPARATOR.split(fold(text)))
+                .filter(term -> !term.isEmpty())
+                .collect(Collectors.joining(" "));
+    }
+
+    /**
+     * Returns the distinct terms of a text in the order they first appear.
+     *
+     * @param text the text to split, may be null
+     * @return the terms of the text, empty if the text has none
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        return Arrays.stream(SEPARATOR.split(fold(text)))
+                .filter(term -> !term.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    /**
+     * Removes the accents of a text and converts it to lower case.
+     *
+     * @param text the text to fold
+     * @return the folded text
+     */
+    private static String fold(String text) {
+        return MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFKD)).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,140 @@
+package com.my.library.service.timer;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A thread-safe hashed timing wheel of keys to expire at given times. Time is cut into ticks and every key
+ * is kept in the bucket of its tick modulo the number of buckets, so adding a key takes constant time
+ * and advancing the wheel by one tick only visits the keys of one bucket, the ones due in later revolutions
+ * included. Keys cannot be removed; a key no longer needed is simply ignored when it comes due.
+ *
+ * @param <K> the type of the keys
+ */
+public class TimingWheel<K> {
+
+    /**
+     * The length of a tick in milliseconds.
+     */
+    private final long tickMillis;
+
+    /**
+     * The time the first tick starts at in milliseconds.
+     */
+    private final long startMillis;
+
+    /**
+     * The keys waiting to expire, by tick modulo the number of buckets.
+     */
+    private final List<List<Timeout<K>>> buckets;
+
+    /**
+     * The first tick not advanced over yet.
+     */
+    private long tick;
+
+    /**
+     * The number of keys waiting to expire.
+     */
+    private int size;
+
+    /**
+     * Creates an empty wheel.
+     *
+     * @param tickMillis  the length of a tick in milliseconds, the precision keys expire with
+     * @param buckets     the number of buckets, the number of ticks of one revolution
+     * @param startMillis the current time in milliseconds
+     */
+    public TimingWheel(long tickMillis, int buckets, long startMillis) {
+        if (tickMillis < 1 || buckets < 1) {
+            throw new IllegalArgumentException("Invalid size of timing wheel");
+        }
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        this.buckets = new ArrayList<>(buckets);
+        for (int i = 0; i < buckets; i++) {
+            this.buckets.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Adds a key to expire at the given time, rounded up to a whole tick, so it never expires early.
+     * A key due before the first tick not advanced over yet expires with that tick.
+     *
+     * @param key            the key
+     * @param deadlineMillis the time the key expires at in milliseconds
+     */
+    public synchronized void schedule(K key, long deadlineMillis) {
+        long deadlineTick = Math.max(tick,
+                Math.floorDiv(deadlineMillis - startMillis + tickMillis - 1, tickMillis));
+        bucket(deadlineTick).add(new Timeout<>(key, deadlineTick));
+        size++;
+    }
+
+    /**
+     * Advances the wheel over every tick that started by the given time and removes the keys due in them.
+     * After a pause longer than a revolution, every bucket is visited once.
+     *
+     * @param nowMillis the current time in milliseconds
+     * @return the expired keys, in no particular order
+     */
+    public synchronized List<K> advance(long nowMillis) {
+        List<K> expired = new ArrayList<>();
+        long currentTick = Math.floorDiv(nowMillis - startMillis, tickMillis);
+        long ticks = Math.min(currentTick - tick + 1, buckets.size());
+        for (long i = 0; i < ticks; i++) {
+            Iterator<Timeout<K>> timeouts = bucket(tick + i).iterator();
+            while (timeouts.hasNext()) {
+                Timeout<K> timeout = timeouts.next();
+                if (timeout.getTick() <= currentTick) {
+                    expired.add(timeout.getKey());
+                    timeouts.remove();
+                }
+            }
+        }
+        tick = Math.max(tick, currentTick + 1);
+        size -= expired.size();
+        return expired;
+    }
+
+    /**
+     * Returns the number of keys waiting to expire.
+     *
+     * @return the number of keys
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns the bucket of a tick.
+     *
+     * @param tick the tick
+     * @return the keys due in the tick and in the same tick of later revolutions
+     */
+    private List<Timeout<K>> bucket(long tick) {
+        return buckets.get((int) Math.floorMod(tick, (long) buckets.size()));
+    }
+
+    /**
+     * A key waiting to expire.
+     *
+     * @param <K> the type of the key
+     */
+    @Value
+    private static class Timeout<K> {
+
+        /**
+         * The key.
+         */
+        K key;
+
+        /**
+         * The tick the key expires with.
+         */
+        long tick;
+    }
+}
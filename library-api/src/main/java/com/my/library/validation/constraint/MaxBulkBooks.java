@@ -0,0 +1,37 @@
+package com.my.library.validation.constraint;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The annotated collection of book IDs must not hold more books than a single bulk request may issue or return,
+ * as configured by the "library.bulk.max-books" property. The maximum is available to messages as {max}.
+ * Null collections are valid.
+ */
+@Documented
+@Constraint(validatedBy = MaxBulkBooksValidator.class)
+@Target({ElementType.PARAMETER, ElementType.FIELD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface MaxBulkBooks {
+
+    /**
+     * @return the message of a violation
+     */
+    String message();
+
+    /**
+     * @return the validation groups the constraint belongs to
+     */
+    Class<?>[] groups() default {};
+
+    /**
+     * @return the payload of the constraint
+     */
+    Class<? extends Payload>[] payload() default {};
+}
@@ -0,0 +1,35 @@
+package com.my.library.validation.constraint;
+
+import com.my.library.controller.config.BulkProperties;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.validator.constraintvalidation.HibernateConstraintValidatorContext;
+
+import java.util.Collection;
+
+/**
+ * Validator of the {@link MaxBulkBooks} constraint, created by Spring so that it reads the configured maximum.
+ */
+@RequiredArgsConstructor
+public class MaxBulkBooksValidator implements ConstraintValidator<MaxBulkBooks, Collection<?>> {
+
+    /**
+     * The BulkProperties object that holds the maximum number of books of a bulk request.
+     */
+    private final BulkProperties bulkProperties;
+
+    /**
+     * Checks that the collection holds at most the configured number of books.
+     *
+     * @param bookIds the IDs of the books of the request
+     * @param context the context adding the maximum to the message
+     * @return true if the collection is null or not larger than the maximum, false otherwise
+     */
+    @Override
+    public boolean isValid(Collection<?> bookIds, ConstraintValidatorContext context) {
+        int max = bulkProperties.getMaxBooks();
+        context.unwrap(HibernateConstraintValidatorContext.class).addMessageParameter("max", max);
+        return bookIds == null || bookIds.size() <= max;
+    }
+}
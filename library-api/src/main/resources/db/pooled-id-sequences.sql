@@ -0,0 +1,19 @@
+-- Moves an existing MySQL database to the pooled ID sequences of library.id.allocation-size.
+-- Every entity keeps its next ID in a one-row <table>_seq table. The script creates the tables
+-- missing after Hibernate 5, whose ids came from the shared hibernate_sequence table, and moves
+-- every sequence past the highest ID in use. Run it while the application is stopped.
+-- On MySQL the allocation size can be changed at any restart. On databases with native sequences
+-- the sequences must be altered to the new increment first, as Hibernate refuses a mismatch.
+CREATE TABLE IF NOT EXISTS book_seq (next_val BIGINT);
+CREATE TABLE IF NOT EXISTS user_seq (next_val BIGINT);
+CREATE TABLE IF NOT EXISTS loan_seq (next_val BIGINT);
+CREATE TABLE IF NOT EXISTS book_stock_seq (next_val BIGINT);
+
+DELETE FROM book_seq;
+INSERT INTO book_seq SELECT COALESCE(MAX(id), 0) + 1 FROM book;
+DELETE FROM user_seq;
+INSERT INTO user_seq SELECT COALESCE(MAX(id), 0) + 1 FROM user;
+DELETE FROM loan_seq;
+INSERT INTO loan_seq SELECT COALESCE(MAX(id), 0) + 1 FROM loan;
+DELETE FROM book_stock_seq;
+INSERT INTO book_stock_seq SELECT COALESCE(MAX(id), 0) + 1 FROM book_stock;
@@ -0,0 +1,100 @@
+package com.my.library;
+
+import com.my.library.model.Book;
+import com.my.library.repository.BookRepository;
+import com.my.library.repository.UserRepository;
+import com.my.library.service.InventoryService;
+import com.my.library.service.impl.AtomicInventoryService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Checks the second-level cache of books together with the default atomic inventory strategy,
+ * which evicts only the changed books and leaves cached queries valid.
+ */
+@SpringBootTest(properties = {"spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true"})
+@ActiveProfiles("test")
+public class AtomicInventoryCacheTest {
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void givenDefaultStrategy_whenStart_thenUseAtomicInventory() {
+        assertThat(inventoryService, instanceOf(AtomicInventoryService.class));
+    }
+
+    @Test
+    void givenCachedBook_whenReserveAndRelease_thenLoadCopiesFromDatabase() {
+        long bookId = createBook().getId();
+        assertThat(bookRepository.findById(bookId).orElseThrow().getAvailable(), is(10));
+
+        inventoryService.reserve(bookId);
+        assertThat(bookRepository.findById(bookId).orElseThrow().getAvailable(), is(9));
+
+        inventoryService.release(bookId);
+        assertThat(bookRepository.findById(bookId).orElseThrow().getAvailable(), is(10));
+    }
+
+    @Test
+    void givenOtherCachedBook_whenReserve_thenKeepItCached() {
+        long bookId = createBook().getId();
+        long otherId = createBook().getId();
+        bookRepository.findById(otherId);
+
+        inventoryService.reserve(bookId);
+        statistics.clear();
+        bookRepository.findById(otherId);
+
+        assertThat(statistics.getPrepareStatementCount(), is(0L));
+        assertThat(statistics.getSecondLevelCacheHitCount(), is(1L));
+    }
+
+    @Test
+    void givenCachedQuery_whenReserve_thenKeepQueryCached() {
+        long bookId = createBook().getId();
+        userRepository.existsByUsername("atomic user");
+
+        inventoryService.reserve(bookId);
+        statistics.clear();
+        userRepository.existsByUsername("atomic user");
+
+        assertThat(statistics.getPrepareStatementCount(), is(0L));
+        assertThat(statistics.getQueryCacheHitCount(), is(1L));
+    }
+
+    private Book createBook() {
+        Book book = new Book();
+        book.setAuthor("atomic author");
+        book.setName(UUID.randomUUID().toString());
+        book.setAvailable(10);
+        return bookRepository.save(book);
+    }
+}
@@ -0,0 +1,94 @@
+package com.my.library;
+
+import com.my.library.dto.BookDto;
+import com.my.library.dto.BookImportReport;
+import com.my.library.service.BookImportService;
+import com.my.library.service.BookService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Compares importing books in chunks, each checked for duplicates with one query and inserted in JDBC batches,
+ * with creating the same number of books one at a time, and measures importing the same rows again, when every
+ * row is a duplicate. Reports the rows per second, the prepared statements and the queries per row of each.
+ * New books get IDs past the sample data, which creating this many books would otherwise reach.
+ * Run with LIBRARY_LOAD_TEST=true, as the measured throughput depends on the machine.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@EnabledIfEnvironmentVariable(named = "LIBRARY_LOAD_TEST", matches = "true")
+public class BookImportBenchmarkTest {
+    private static final int ROWS = 20000;
+    private static final int WARMUP_ROWS = 2000;
+    private static final long FIRST_ID = 100000;
+
+    @Autowired
+    private BookImportService bookImportService;
+    @Autowired
+    private BookService bookService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void givenManyRows_whenImport_thenBeFasterThanCreatingBooksOneByOne() {
+        jdbcTemplate.execute("alter sequence book_seq restart with " + FIRST_ID);
+        createOneByOne(createRows("warmup single", WARMUP_ROWS).iterator());
+        bookImportService.importBooks(createRows("warmup import", WARMUP_ROWS).iterator());
+        List<BookDto> rows = createRows("import", ROWS);
+
+        long single = measure("single", createRows("single", ROWS), this::createOneByOne);
+        long imported = measure("import", rows, bookImportService::importBooks);
+        List<BookImportReport> reports = new ArrayList<>();
+        measure("duplicates", rows, books -> reports.add(bookImportService.importBooks(books)));
+
+        assertThat(reports.get(0).getDuplicates(), is(ROWS));
+        assertThat(imported, greaterThan(single));
+    }
+
+    private long measure(String mode, List<BookDto> rows, Consumer<Iterator<BookDto>> importer) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        long start = System.nanoTime();
+        importer.accept(rows.iterator());
+        long nanos = System.nanoTime() - start;
+        long rowsPerSecond = rows.size() * 1_000_000_000L / nanos;
+        System.out.printf("import mode=%s rows=%d rows/s=%d statements/row=%.3f queries/row=%.3f%n", mode,
+                rows.size(), rowsPerSecond, (double) statistics.getPrepareStatementCount() / rows.size(),
+                (double) statistics.getQueryExecutionCount() / rows.size());
+        return rowsPerSecond;
+    }
+
+    private void createOneByOne(Iterator<BookDto> books) {
+        books.forEachRemaining(bookService::create);
+    }
+
+    private static List<BookDto> createRows(String prefix, int count) {
+        List<BookDto> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            BookDto bookDto = new BookDto();
+            bookDto.setAuthor(prefix + " author " + i % 100);
+            bookDto.setName(prefix + " book " + i);
+            bookDto.setAvailable(1);
+            rows.add(bookDto);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,208 @@
+package com.my.library;
+
+import com.my.library.controller.config.VirtualThreadConfig;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThan;
+
+/**
+ * Measures the throughput of listing books at growing numbers of concurrent clients with requests handled
+ * on platform threads and on virtual threads. Every statement waits for a simulated database round trip,
+ * and the connection pool is larger than the thread pool of Tomcat, so platform threads run out first.
+ * Virtual threads blocking while pinned to their carrier, as when waiting inside a synchronized block, are
+ * recorded and reported with the first frame outside the JDK.
+ * Run with LIBRARY_LOAD_TEST=true; the virtual mode also needs Java 21 or later, see the virtualThreadTest task.
+ */
+@ActiveProfiles("test")
+public abstract class ExecutionModeLoadTest {
+    private static final int[] CLIENTS = {4, 8, 16, 32, 64, 128, 256};
+    private static final long ROUND_TRIP_MILLIS = 10;
+    private static final long WARMUP_MILLIS = 500;
+    private static final long DURATION_MILLIS = 2000;
+    private static final double PLATEAU = 0.9;
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    @Value("http://localhost:${local.server.port}/book?page=0&size=10&count=none")
+    private String url;
+    @Value("${library.execution.mode}")
+    private String mode;
+
+    @Test
+    void givenSlowDatabase_whenClientsGrow_thenReportWhereThroughputPlateaus() throws Exception {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).GET().build();
+        Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        List<Long> throughputs = new ArrayList<>();
+
+        List<RecordedEvent> pins;
+        try (Recording recording = new Recording()) {
+            recording.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(ROUND_TRIP_MILLIS / 2)).withStackTrace();
+            recording.start();
+            for (int clients : CLIENTS) {
+                long throughput = measure(client, request, clients, errors);
+                throughputs.add(throughput);
+                System.out.printf("mode=%s clients=%d requests/s=%d%n", mode, clients, throughput);
+            }
+            recording.stop();
+            Path file = Files.createTempFile("pinned", ".jfr");
+            recording.dump(file);
+            pins = RecordingFile.readAllEvents(file);
+            Files.delete(file);
+        }
+
+        long best = throughputs.stream().mapToLong(Long::longValue).max().orElseThrow();
+        int plateau = 0;
+        while (throughputs.get(plateau) < best * PLATEAU) {
+            plateau++;
+        }
+        System.out.printf("mode=%s plateau at %d clients, %d requests/s%n", mode, CLIENTS[plateau], best);
+        System.out.printf("mode=%s pinned virtual threads=%d%n", mode, pins.size());
+        pins.stream().collect(Collectors.groupingBy(ExecutionModeLoadTest::blockedAt, Collectors.counting()))
+                .forEach((frame, count) -> System.out.printf("mode=%s pinned=%d at %s%n", mode, count, frame));
+        assertThat(errors, empty());
+        assertThat(best, greaterThan(0L));
+    }
+
+    private long measure(HttpClient client, HttpRequest request, int clients, Queue<Throwable> errors)
+            throws Exception {
+        AtomicLong completed = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                long measureFrom = System.currentTimeMillis() + WARMUP_MILLIS;
+                long deadline = measureFrom + DURATION_MILLIS;
+                while (System.currentTimeMillis() < deadline) {
+                    boolean measured = System.currentTimeMillis() >= measureFrom;
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            throw new IllegalStateException("status " + response.statusCode());
+                        }
+                        completed.addAndGet(measured ? 1 : 0);
+                    } catch (Throwable e) {
+                        errors.add(e);
+                        return null;
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        return completed.get() * 1000 / DURATION_MILLIS;
+    }
+
+    private static String blockedAt(RecordedEvent pin) {
+        return pin.getStackTrace() == null ? "unknown" : pin.getStackTrace().getFrames().stream()
+                .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName())
+                .filter(frame -> !frame.startsWith("java.") && !frame.startsWith("jdk."))
+                .findFirst().orElse("unknown");
+    }
+
+    static boolean virtualThreadsSupported() {
+        try {
+            VirtualThreadConfig.newVirtualThreadPerTaskExecutor().shutdown();
+            return true;
+        } catch (IllegalStateException e) {
+            return false;
+        }
+    }
+
+    @TestConfiguration
+    static class SlowDatabaseConfig {
+        @Bean
+        static BeanPostProcessor slowDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? new SlowDataSource(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    static class SlowDataSource extends DelegatingDataSource {
+        SlowDataSource(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        if (method.getName().startsWith("prepare")) {
+                            Thread.sleep(ROUND_TRIP_MILLIS);
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+            "library.execution.mode=platform",
+            "server.tomcat.threads.max=8",
+            "spring.datasource.hikari.maximum-pool-size=64"})
+    @Import(SlowDatabaseConfig.class)
+    @EnabledIfEnvironmentVariable(named = "LIBRARY_LOAD_TEST", matches = "true")
+    static class PlatformThreadTest extends ExecutionModeLoadTest {
+    }
+
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+            "library.execution.mode=virtual",
+            "server.tomcat.threads.max=8",
+            "spring.datasource.hikari.maximum-pool-size=64"})
+    @Import(SlowDatabaseConfig.class)
+    @EnabledIfEnvironmentVariable(named = "LIBRARY_LOAD_TEST", matches = "true")
+    @EnabledIf("com.my.library.ExecutionModeLoadTest#virtualThreadsSupported")
+    static class VirtualThreadTest extends ExecutionModeLoadTest {
+    }
+}
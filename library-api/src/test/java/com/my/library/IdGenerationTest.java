@@ -0,0 +1,69 @@
+package com.my.library;
+
+import com.my.library.model.Book;
+import com.my.library.repository.BookRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.PooledLoOptimizer;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Checks that entity IDs are reserved in blocks of the configured allocation size,
+ * so that a batch of inserts goes to the sequence once per block instead of once per row.
+ * Uses its own database, as the sequences of the shared one are created with the default allocation size.
+ */
+@SpringBootTest(properties = {"library.id.allocation-size=10",
+        "spring.datasource.url=jdbc:h2:mem:ids;DB_CLOSE_DELAY=-1;MODE=MySQL;NON_KEYWORDS=USER"})
+@ActiveProfiles("test")
+public class IdGenerationTest {
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void givenAllocationSize_whenGetBookIdGenerator_thenUsePooledLoOptimizerWithAllocationSize() {
+        SequenceStyleGenerator generator = (SequenceStyleGenerator) entityManagerFactory
+                .unwrap(SessionFactoryImplementor.class).getMappingMetamodel()
+                .getEntityDescriptor(Book.class).getIdentifierGenerator();
+
+        assertThat(generator.getOptimizer(), instanceOf(PooledLoOptimizer.class));
+        assertThat(generator.getOptimizer().getIncrementSize(), is(10));
+    }
+
+    @Test
+    void givenMoreBooksThanAllocationSize_whenSaveAll_thenReadSequenceOncePerBlock() {
+        String author = UUID.randomUUID().toString();
+        List<Book> books = IntStream.range(0, 12)
+                .mapToObj(i -> new Book(null, author, "name " + i, 1, null))
+                .toList();
+        long before = getBookSequenceValue();
+
+        List<Book> saved = bookRepository.saveAll(books);
+
+        long first = saved.get(0).getId();
+        assertThat(saved.stream().map(Book::getId).toList(),
+                is(IntStream.range(0, 12).mapToObj(i -> first + i).toList()));
+        assertThat(getBookSequenceValue() - before, is(20L));
+    }
+
+    private long getBookSequenceValue() {
+        return jdbcTemplate.queryForObject("select base_value from information_schema.sequences "
+                + "where sequence_name = 'BOOK_SEQ'", Long.class);
+    }
+}
@@ -0,0 +1,181 @@
+package com.my.library;
+
+import com.my.library.exception.InventoryConflictException;
+import com.my.library.exception.NoAvailableBooksException;
+import com.my.library.model.Book;
+import com.my.library.model.User;
+import com.my.library.repository.BookRepository;
+import com.my.library.repository.LoanRepository;
+import com.my.library.repository.UserRepository;
+import com.my.library.service.BookService;
+import com.my.library.service.CheckoutService;
+import com.my.library.service.config.CheckoutProperties;
+import com.my.library.service.config.InventoryProperties;
+import com.my.library.service.impl.WriteBehindInventoryService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Compares the throughput of the inventory strategies on a single hot book under concurrent checkouts.
+ * Every client issues and returns the same book in a loop, so the book row is contended all the time.
+ * The atomic strategy is also measured with single checkouts queued per book instead of contending on the row.
+ * Run with LIBRARY_LOAD_TEST=true, as the measured throughput depends on the machine.
+ */
+@ActiveProfiles("test")
+public abstract class InventoryStrategyBenchmarkTest {
+    private static final int CLIENTS = 64;
+    private static final int COPIES = 16;
+    private static final long WARMUP_MILLIS = 1000;
+    private static final long DURATION_MILLIS = 2000;
+
+    @Autowired
+    private CheckoutService checkoutService;
+    @Autowired
+    private BookService bookService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private LoanRepository loanRepository;
+    @Autowired
+    private InventoryProperties inventoryProperties;
+    @Autowired
+    private CheckoutProperties checkoutProperties;
+
+    @Test
+    void givenHotBook_whenConcurrentClientsIssueAndReturn_thenCopiesAreNeitherOversoldNorLost() throws Exception {
+        String strategy = inventoryProperties.getStrategy() + "-" + checkoutProperties.getMode();
+        long bookId = createBook(strategy).getId();
+        List<Long> userIds = createUsers(strategy);
+        AtomicLong issued = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        AtomicLong conflicts = new AtomicLong();
+        Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CLIENTS);
+
+        List<Future<?>> clients = new ArrayList<>();
+        for (long userId : userIds) {
+            clients.add(executor.submit(() -> {
+                start.await();
+                long measureFrom = System.currentTimeMillis() + WARMUP_MILLIS;
+                long deadline = measureFrom + DURATION_MILLIS;
+                while (System.currentTimeMillis() < deadline) {
+                    boolean measured = System.currentTimeMillis() >= measureFrom;
+                    try {
+                        checkoutService.issueBook(userId, bookId);
+                        issued.addAndGet(measured ? 1 : 0);
+                        returnBook(userId, bookId, conflicts);
+                    } catch (NoAvailableBooksException e) {
+                        rejected.addAndGet(measured ? 1 : 0);
+                    } catch (InventoryConflictException e) {
+                        conflicts.incrementAndGet();
+                    } catch (Throwable e) {
+                        errors.add(e);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> client : clients) {
+            client.get();
+        }
+        executor.shutdown();
+
+        settle();
+        System.out.printf("strategy=%s clients=%d checkouts/s=%d rejected=%d conflicts=%d%n",
+                strategy, CLIENTS, issued.get() * 1000 / DURATION_MILLIS, rejected.get(), conflicts.get());
+        assertThat(errors, empty());
+        assertThat(issued.get(), greaterThan(0L));
+        assertThat(bookService.getById(bookId).getAvailable(), is(COPIES));
+        assertThat(loanRepository.existsByBookId(bookId), is(false));
+    }
+
+    /**
+     * Waits until the changes of available copies made by the clients are visible in database.
+     */
+    protected void settle() {
+    }
+
+    private void returnBook(long userId, long bookId, AtomicLong conflicts) {
+        while (true) {
+            try {
+                checkoutService.returnBook(userId, bookId);
+                return;
+            } catch (InventoryConflictException e) {
+                conflicts.incrementAndGet();
+            }
+        }
+    }
+
+    private Book createBook(String strategy) {
+        Book book = new Book();
+        book.setAuthor("benchmark author");
+        book.setName("hot book " + strategy);
+        book.setAvailable(COPIES);
+        return bookRepository.save(book);
+    }
+
+    private List<Long> createUsers(String strategy) {
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            User user = new User();
+            user.setUsername(strategy + "_client" + i);
+            user.setEmail(strategy + "_client" + i + "@gmail.com");
+            user.setPassword("password1!");
+            userIds.add(userRepository.save(user).getId());
+        }
+        return userIds;
+    }
+
+    @SpringBootTest(properties = "library.inventory.strategy=atomic")
+    @EnabledIfEnvironmentVariable(named = "LIBRARY_LOAD_TEST", matches = "true")
+    static class AtomicStrategyTest extends InventoryStrategyBenchmarkTest {
+    }
+
+    @SpringBootTest(properties = {"library.inventory.strategy=atomic", "library.checkout.mode=queue"})
+    @EnabledIfEnvironmentVariable(named = "LIBRARY_LOAD_TEST", matches = "true")
+    static class QueuedAtomicStrategyTest extends InventoryStrategyBenchmarkTest {
+    }
+
+    @SpringBootTest(properties = "library.inventory.strategy=optimistic")
+    @EnabledIfEnvironmentVariable(named = "LIBRARY_LOAD_TEST", matches = "true")
+    static class OptimisticStrategyTest extends InventoryStrategyBenchmarkTest {
+    }
+
+    @SpringBootTest(properties = "library.inventory.strategy=pessimistic")
+    @EnabledIfEnvironmentVariable(named = "LIBRARY_LOAD_TEST", matches = "true")
+    static class PessimisticStrategyTest extends InventoryStrategyBenchmarkTest {
+    }
+
+    @SpringBootTest(properties = "library.inventory.strategy=striped")
+    @EnabledIfEnvironmentVariable(named = "LIBRARY_LOAD_TEST", matches = "true")
+    static class StripedStrategyTest extends InventoryStrategyBenchmarkTest {
+    }
+
+    @SpringBootTest(properties = "library.inventory.strategy=write-behind")
+    @EnabledIfEnvironmentVariable(named = "LIBRARY_LOAD_TEST", matches = "true")
+    static class WriteBehindStrategyTest extends InventoryStrategyBenchmarkTest {
+        @Autowired
+        private WriteBehindInventoryService inventoryService;
+
+        @Override
+        protected void settle() {
+            inventoryService.flush();
+        }
+    }
+}
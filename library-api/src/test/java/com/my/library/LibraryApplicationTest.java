@@ -1,28 +1,53 @@
 package com.my.library;
 
+import com.my.library.controller.ReactiveServer;
 import com.my.library.dto.BookDto;
+import com.my.library.dto.BookImportReport;
+import com.my.library.dto.BookImportResult;
+import com.my.library.dto.CursorPage;
+import com.my.library.dto.HoldDto;
+import com.my.library.dto.LoanDto;
+import com.my.library.dto.UserAvailability;
 import com.my.library.dto.UserDto;
+import com.my.library.repository.LoanRepository;
+import com.my.library.service.impl.LoanServiceImpl;
 import com.my.library.util.PaginatedResponse;
 import org.apache.hc.client5.http.classic.HttpClient;
 import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.event.annotation.BeforeTestClass;
-
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.my.library.util.BookTestData.createBookDto;
 import static com.my.library.util.CommonTestData.*;
@@ -40,6 +65,14 @@ public class LibraryApplicationTest {
             + "&sortBy=" + SORT_BY + "&order=" + ORDER;
     @Autowired
     private TestRestTemplate restTemplate;
+    @Autowired
+    private ReactiveServer reactiveServer;
+    @Autowired
+    private LoanServiceImpl loanService;
+    @Autowired
+    private LoanRepository loanRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
     @Value("http://localhost:${local.server.port}/")
     private String baseUrl;
 
@@ -117,6 +150,56 @@ public class LibraryApplicationTest {
         assertThat(userDtoPage.getSize(), is(SIZE));
         assertThat(userDtoPage.getNumber(), is(PAGE));
         assertThat(bookDtoNameList, containsInRelativeOrder("username1", "username2"));
+        Map<String, Set<BookDto>> booksByUsername = userDtoPage.getContent().stream()
+                .collect(Collectors.toMap(UserDto::getUsername, UserDto::getBooks));
+        assertThat(booksByUsername.get("username1"), empty());
+        assertThat(booksByUsername.get("username2").stream().map(BookDto::getId).toList(), contains(1002L));
+    }
+
+    @Test
+    void givenCursorData_whenGetPageAfterUntilLastPage_thenReturnEveryBookOnce() {
+        List<String> bookDtoNameList = new ArrayList<>();
+        String cursor = "";
+        do {
+            ResponseEntity<CursorPage<BookDto>> response = restTemplate
+                    .exchange(baseUrl + "book?cursor=" + cursor + "&size=1&sortBy=name&order=desc",
+                            HttpMethod.GET,
+                            HttpEntity.EMPTY,
+                            new ParameterizedTypeReference<>() {
+                            });
+            CursorPage<BookDto> bookDtoPage = Objects.requireNonNull(response.getBody());
+            assertThat(response.getStatusCode(), is(HttpStatus.OK));
+            assertThat(bookDtoPage.getContent(), hasSize(1));
+            bookDtoNameList.add(bookDtoPage.getContent().get(0).getName());
+            cursor = bookDtoPage.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(bookDtoNameList, contains("Name2", "Name1"));
+    }
+
+    @Test
+    void givenBookWithEmptyAuthor_whenGetPageAfterSortedByAuthor_thenPagePastIt() {
+        BookDto anonymous = createBookDto();
+        anonymous.setId(null);
+        anonymous.setAuthor("");
+        anonymous.setName("Anonymous");
+        restTemplate.postForEntity(baseUrl + "book", anonymous, BookDto.class);
+        List<String> bookDtoNameList = new ArrayList<>();
+        String cursor = "";
+        do {
+            ResponseEntity<CursorPage<BookDto>> response = restTemplate
+                    .exchange(baseUrl + "book?cursor=" + cursor + "&size=1&sortBy=author&order=asc",
+                            HttpMethod.GET,
+                            HttpEntity.EMPTY,
+                            new ParameterizedTypeReference<>() {
+                            });
+            CursorPage<BookDto> bookDtoPage = Objects.requireNonNull(response.getBody());
+            assertThat(response.getStatusCode(), is(HttpStatus.OK));
+            bookDtoNameList.add(bookDtoPage.getContent().get(0).getName());
+            cursor = bookDtoPage.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(bookDtoNameList, contains("Anonymous", "Name1", "Name2"));
     }
 
     @Test
@@ -250,4 +333,254 @@ public class LibraryApplicationTest {
         assertThat(returnedUserDto.getBooks(), notNullValue());
         assertThat(returnedUserDto.getBooks().isEmpty(), is(true));
     }
+
+    @Test
+    void givenETagOfBookPage_whenIssueBook_thenReturnNotModifiedOnlyBeforeIssue() {
+        String pageUrl = baseUrl + "book" + paginationParameters;
+        String eTag = restTemplate.getForEntity(pageUrl, String.class).getHeaders().getETag();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(Objects.requireNonNull(eTag));
+
+        ResponseEntity<String> notModified = restTemplate
+                .exchange(pageUrl, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        restTemplate.exchange(baseUrl + "user/issue/1/1001", HttpMethod.POST, HttpEntity.EMPTY, String.class);
+        ResponseEntity<String> stillNotModified = restTemplate
+                .exchange(pageUrl, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        restTemplate.exchange(baseUrl + "user/issue/1001/1001", HttpMethod.POST, HttpEntity.EMPTY, String.class);
+        ResponseEntity<String> modified = restTemplate
+                .exchange(pageUrl, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        assertThat(notModified.getStatusCode(), is(HttpStatus.NOT_MODIFIED));
+        assertThat(notModified.getBody(), nullValue());
+        assertThat(stillNotModified.getStatusCode(), is(HttpStatus.NOT_MODIFIED));
+        assertThat(modified.getStatusCode(), is(HttpStatus.OK));
+        assertThat(modified.getHeaders().getETag(), not(eTag));
+    }
+
+    @Test
+    void givenNewExistingAndInvalidBooks_whenImportBooks_thenCreateOnlyNewBooks() {
+        String books = """
+                {"author":"Author1","name":"Name1","available":1}
+                {"author":"Author3","name":"Name3","available":3}
+                {"author":"Author3","name":"Name4"}
+                """;
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_NDJSON);
+
+        ResponseEntity<BookImportReport> response = restTemplate
+                .exchange(baseUrl + "book/bulk", HttpMethod.POST, new HttpEntity<>(books, headers),
+                        BookImportReport.class);
+        BookImportReport report = Objects.requireNonNull(response.getBody());
+        Long createdId = report.getResults().get(1).getId();
+
+        assertThat(response.getStatusCode(), is(HttpStatus.OK));
+        assertThat(report.getResults().stream().map(BookImportResult::getStatus).toList(),
+                contains(BookImportResult.Status.DUPLICATE, BookImportResult.Status.CREATED,
+                        BookImportResult.Status.INVALID));
+        assertThat(report.getResults().get(2).getErrors(), contains("available should not be null"));
+        assertThat(restTemplate.getForObject(baseUrl + "book/" + createdId, BookDto.class).getName(),
+                is("Name3"));
+    }
+
+    @Test
+    void givenAvailableAndIssuedBooks_whenIssueBooks_thenIssueAllOrNothingUnlessBestEffort() {
+        long userId = 1002L;
+        String url = baseUrl + "user/" + userId + "/issue";
+
+        ResponseEntity<UserDto> failed = restTemplate
+                .exchange(url, HttpMethod.POST, new HttpEntity<>(List.of(1001L, 1002L)), UserDto.class);
+        BookDto notIssued = restTemplate.getForObject(baseUrl + "book/1001", BookDto.class);
+        ResponseEntity<UserDto> issued = restTemplate
+                .exchange(url + "?mode=best-effort", HttpMethod.POST, new HttpEntity<>(List.of(1001L, 1002L)),
+                        UserDto.class);
+        BookDto afterIssue = restTemplate.getForObject(baseUrl + "book/1001", BookDto.class);
+        ResponseEntity<UserDto> returned = restTemplate
+                .exchange(baseUrl + "user/" + userId + "/return", HttpMethod.POST,
+                        new HttpEntity<>(List.of(1001L, 1002L)), UserDto.class);
+
+        assertThat(failed.getStatusCode(), is(HttpStatus.INTERNAL_SERVER_ERROR));
+        assertThat(notIssued.getAvailable(), is(100));
+        assertThat(issued.getStatusCode(), is(HttpStatus.OK));
+        assertThat(Objects.requireNonNull(issued.getBody()).getBooks().stream().map(BookDto::getId)
+                .collect(Collectors.toSet()), is(Set.of(1001L, 1002L)));
+        assertThat(afterIssue.getAvailable(), is(99));
+        assertThat(Objects.requireNonNull(returned.getBody()).getBooks(), is(empty()));
+    }
+
+    @Test
+    void givenBooksAndUsers_whenExport_thenReturnOneJsonLinePerRowInIdOrder() {
+        ResponseEntity<String> books = restTemplate.getForEntity(baseUrl + "book/export", String.class);
+        ResponseEntity<String> users = restTemplate.getForEntity(baseUrl + "user/export", String.class);
+
+        assertThat(books.getStatusCode(), is(HttpStatus.OK));
+        assertThat(books.getHeaders().getContentType(), is(MediaType.APPLICATION_NDJSON));
+        assertThat(Objects.requireNonNull(books.getBody()).lines().toList(), is(List.of(
+                "{\"id\":1001,\"author\":\"Author1\",\"name\":\"Name1\",\"available\":100}",
+                "{\"id\":1002,\"author\":\"Author2\",\"name\":\"Name2\",\"available\":100}")));
+        assertThat(Objects.requireNonNull(users.getBody()).lines().toList(), is(List.of(
+                "{\"id\":1001,\"username\":\"username1\",\"email\":\"email1@gmail.com\"}",
+                "{\"id\":1002,\"username\":\"username2\",\"email\":\"email2@gmail.com\"}")));
+    }
+
+    @Test
+    void givenIndexedAndCreatedBooks_whenSearch_thenFindBooksByAuthorAndName() {
+        BookDto sequel = createBookDto();
+        sequel.setId(null);
+        sequel.setAuthor("Author3");
+        sequel.setName("Name1 Sequel");
+        restTemplate.postForEntity(baseUrl + "book", sequel, BookDto.class);
+
+        ResponseEntity<List<BookDto>> response = restTemplate.exchange(baseUrl + "book/search?q=name1",
+                HttpMethod.GET, null, new ParameterizedTypeReference<>() {
+                });
+
+        assertThat(response.getStatusCode(), is(HttpStatus.OK));
+        assertThat(Objects.requireNonNull(response.getBody()).stream().map(BookDto::getName).toList(),
+                is(List.of("Name1", "Name1 Sequel")));
+        assertThat(restTemplate.getForObject(baseUrl + "book/search?q=author1 name2", BookDto[].class),
+                is(emptyArray()));
+    }
+
+    @Test
+    void givenIssuedAndDeletedBooks_whenSuggest_thenReturnMostIssuedFirstWithoutDeleted() {
+        String[] names = restTemplate.getForObject(baseUrl + "book/suggest?prefix=name", String[].class);
+        restTemplate.delete(baseUrl + "book/1001");
+
+        assertThat(names, is(new String[]{"Name2", "Name1"}));
+        assertThat(restTemplate.getForObject(baseUrl + "book/suggest?prefix=AUTH", String[].class),
+                is(new String[]{"Author2"}));
+    }
+
+    @Test
+    void givenExistingAndCreatedUsers_whenCheckAvailability_thenReportTakenValues() {
+        UserDto userDto = createUserDto();
+        userDto.setId(null);
+        userDto.setPassword(PASSWORD);
+        userDto.setUsername("newuser");
+        userDto.setEmail("newuser@gmail.com");
+        String url = baseUrl + "user/availability?username={username}&email={email}";
+
+        UserAvailability before = restTemplate.getForObject(url, UserAvailability.class, "newuser", "email1@gmail.com");
+        restTemplate.postForEntity(baseUrl + "user", userDto, UserDto.class);
+        UserAvailability after = restTemplate.getForObject(url, UserAvailability.class, "newuser", "free@gmail.com");
+
+        assertThat(before, is(new UserAvailability(true, false)));
+        assertThat(after, is(new UserAvailability(false, true)));
+    }
+
+    @Test
+    void givenExistingTitlesAndEmails_whenCreateOrUpdate_thenRejectDuplicatesWithoutChanges() {
+        BookDto duplicateBook = new BookDto(null, "Author1", "Name1", 10);
+        BookDto renamedBook = new BookDto(1002L, "Author1", "Name1", null);
+        UserDto emailChange = new UserDto();
+        emailChange.setId(1002L);
+        emailChange.setEmail("email1@gmail.com");
+
+        ResponseEntity<String> created = restTemplate.postForEntity(baseUrl + "book", duplicateBook, String.class);
+        ResponseEntity<String> renamed = restTemplate.exchange(baseUrl + "book", HttpMethod.PATCH,
+                new HttpEntity<>(renamedBook), String.class);
+        ResponseEntity<String> changedEmail = restTemplate.exchange(baseUrl + "user", HttpMethod.PATCH,
+                new HttpEntity<>(emailChange), String.class);
+
+        assertThat(created.getStatusCode(), is(HttpStatus.INTERNAL_SERVER_ERROR));
+        assertThat(created.getBody(), containsString("Book for author with this name already exists!"));
+        assertThat(renamed.getStatusCode(), is(HttpStatus.INTERNAL_SERVER_ERROR));
+        assertThat(changedEmail.getStatusCode(), is(HttpStatus.INTERNAL_SERVER_ERROR));
+        assertThat(restTemplate.getForObject(baseUrl + "book/1002", BookDto.class).getName(), is("Name2"));
+        assertThat(restTemplate.getForObject(baseUrl + "user/1002", UserDto.class).getEmail(),
+                is("email2@gmail.com"));
+    }
+
+    @Test
+    void givenBooksAndIssuedBook_whenReadReactively_thenReturnSameDtosAsBlockingApi() {
+        String reactiveUrl = "http://localhost:" + reactiveServer.getPort() + "/reactive/";
+        BookDto book = restTemplate.getForObject(reactiveUrl + "book/1001", BookDto.class);
+        BookDto[] books = restTemplate.getForObject(reactiveUrl + "book?size=2&sortBy=name&order=desc",
+                BookDto[].class);
+        UserDto user = restTemplate.getForObject(reactiveUrl + "user/1002", UserDto.class);
+        ResponseEntity<String> missing = restTemplate.getForEntity(reactiveUrl + "book/999", String.class);
+
+        assertThat(book, is(restTemplate.getForObject(baseUrl + "book/1001", BookDto.class)));
+        assertThat(Arrays.stream(books).map(BookDto::getName).toList(), is(List.of("Name2", "Name1")));
+        assertThat(user.getUsername(), is("username2"));
+        assertThat(user.getBooks().stream().map(BookDto::getId).toList(), is(List.of(1002L)));
+        assertThat(missing.getStatusCode(), is(HttpStatus.INTERNAL_SERVER_ERROR));
+        assertThat(missing.getBody(), containsString("PROCESSING_EXCEPTION"));
+    }
+
+    @Test
+    @Timeout(30)
+    void givenStreamOfBook_whenBooksChange_thenPushAvailableCopiesOfThatBookOnly() throws Exception {
+        int available = restTemplate.getForObject(baseUrl + "book/1001", BookDto.class).getAvailable();
+        List<String> events = new ArrayList<>();
+
+        HttpResponse<Stream<String>> response = java.net.http.HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create(baseUrl + "book/stream?ids=1001")).build(),
+                HttpResponse.BodyHandlers.ofLines());
+        try (Stream<String> lines = response.body()) {
+            Iterator<String> data = lines.filter(line -> line.startsWith("data:"))
+                    .map(line -> line.substring("data:".length()))
+                    .iterator();
+            events.add(data.next());
+            restTemplate.postForEntity(baseUrl + "user/issue/1001/1002", null, UserDto.class);
+            restTemplate.postForEntity(baseUrl + "user/issue/1001/1001", null, UserDto.class);
+            events.add(data.next());
+        }
+
+        assertThat(response.headers().firstValue(HttpHeaders.CONTENT_TYPE).orElseThrow(),
+                startsWith(MediaType.TEXT_EVENT_STREAM_VALUE));
+        assertThat(events, is(List.of("{\"id\":1001,\"available\":" + available + "}",
+                "{\"id\":1001,\"available\":" + (available - 1) + "}")));
+    }
+
+    @Test
+    void givenHoldOfSoldOutBook_whenCopyIsReturned_thenIssueItToHolder() {
+        BookDto created = restTemplate.postForObject(baseUrl + "book", new BookDto(null, "Author3", "Name3", 1),
+                BookDto.class);
+        long bookId = created.getId();
+        restTemplate.postForEntity(baseUrl + "user/issue/1001/" + bookId, HttpEntity.EMPTY, UserDto.class);
+
+        ResponseEntity<HoldDto> hold = restTemplate.postForEntity(baseUrl + "book/" + bookId + "/hold?userId=1002",
+                HttpEntity.EMPTY, HoldDto.class);
+        ResponseEntity<String> repeated = restTemplate.postForEntity(
+                baseUrl + "book/" + bookId + "/hold?userId=1002", HttpEntity.EMPTY, String.class);
+        restTemplate.postForEntity(baseUrl + "user/return/1001/" + bookId, HttpEntity.EMPTY, UserDto.class);
+        UserDto holder = restTemplate.getForObject(baseUrl + "user/1002", UserDto.class);
+        ResponseEntity<String> available = restTemplate.postForEntity(
+                baseUrl + "book/1002/hold?userId=1001", HttpEntity.EMPTY, String.class);
+
+        assertThat(hold.getStatusCode(), is(HttpStatus.CREATED));
+        assertThat(Objects.requireNonNull(hold.getBody()).getPosition(), is(1L));
+        assertThat(repeated.getStatusCode(), is(HttpStatus.INTERNAL_SERVER_ERROR));
+        assertThat(repeated.getBody(), containsString("Book had been already held by user!"));
+        assertThat(holder.getBooks().stream().map(BookDto::getId).collect(Collectors.toSet()),
+                hasItem(bookId));
+        assertThat(restTemplate.getForObject(baseUrl + "book/" + bookId, BookDto.class).getAvailable(), is(0));
+        assertThat(available.getBody(), containsString("Book has available copies!"));
+    }
+
+    @Test
+    void givenOverdueAndNewLoans_whenGetOverdue_thenPageThroughOverdueLoansOnly() {
+        restTemplate.postForEntity(baseUrl + "user/issue/1001/1001", HttpEntity.EMPTY, UserDto.class);
+
+        ResponseEntity<CursorPage<LoanDto>> first = restTemplate.exchange(baseUrl + "loan/overdue?size=1",
+                HttpMethod.GET, HttpEntity.EMPTY, new ParameterizedTypeReference<>() {
+                });
+        CursorPage<LoanDto> page = Objects.requireNonNull(first.getBody());
+
+        assertThat(first.getStatusCode(), is(HttpStatus.OK));
+        assertThat(page.getContent().stream().map(LoanDto::getId).toList(), is(List.of(1001L)));
+        assertThat(page.getContent().get(0).getDueDate().isBefore(page.getContent().get(0).getIssuedAt()
+                .plusDays(15)), is(true));
+        assertThat(page.getNextCursor(), is(nullValue()));
+    }
+
+    @Test
+    void givenOverdueLoan_whenProcessOverdue_thenPersistItsClaim() {
+        loanService.processOverdue();
+        LocalDateTime now = LocalDateTime.now();
+
+        assertThat(loanRepository.findOverdueNotNotified(now, PageRequest.ofSize(10)), empty());
+        assertThat(transactionTemplate.execute(status -> loanRepository.markOverdueNotified(1001L, now)), is(0));
+    }
 }
@@ -0,0 +1,83 @@
+package com.my.library;
+
+import com.my.library.mapper.BookMapper;
+import com.my.library.model.Book;
+import com.my.library.repository.BookRepository;
+import com.my.library.service.BookService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+
+/**
+ * Compares the memory allocated per listed book when a page is read as managed entities and mapped afterwards
+ * with the memory allocated when it is read as DTOs in a read-only transaction.
+ * The in-memory database runs on the calling thread, so both numbers include its own allocations.
+ * Run with LIBRARY_LOAD_TEST=true, as the measured allocations depend on the JVM.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfEnvironmentVariable(named = "LIBRARY_LOAD_TEST", matches = "true")
+public class ListingAllocationBenchmarkTest {
+    private static final int BOOKS = 1000;
+    private static final int PAGE_SIZE = 500;
+    private static final int ITERATIONS = 50;
+
+    @Autowired
+    private BookService bookService;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void givenLargePage_whenListAsDtos_thenAllocateLessThanWithEntities() {
+        createBooks();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Pageable pageable = PageRequest.of(0, PAGE_SIZE, Sort.by("author").ascending());
+
+        long entityBytes = measureBytesPerBook(() -> transaction.execute(status ->
+                bookRepository.findAll(pageable).map(BookMapper.INSTANCE::mapBookDto)));
+        long dtoBytes = measureBytesPerBook(() -> bookService.getSortedPage(0, PAGE_SIZE, "author", "asc"));
+
+        System.out.printf("listing allocation: entities=%d bytes/book dtos=%d bytes/book%n", entityBytes, dtoBytes);
+        assertThat(dtoBytes, lessThan(entityBytes));
+    }
+
+    private long measureBytesPerBook(Runnable listing) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < ITERATIONS; i++) {
+            listing.run();
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < ITERATIONS; i++) {
+            listing.run();
+        }
+        return (threads.getCurrentThreadAllocatedBytes() - before) / ((long) ITERATIONS * PAGE_SIZE);
+    }
+
+    private void createBooks() {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            Book book = new Book();
+            book.setAuthor("allocation author " + i);
+            book.setName("allocation book " + i);
+            book.setAvailable(1);
+            books.add(book);
+        }
+        bookRepository.saveAll(books);
+    }
+}
@@ -0,0 +1,112 @@
+package com.my.library;
+
+import com.my.library.dto.BookDto;
+import com.my.library.dto.UserDto;
+import com.my.library.service.BookService;
+import com.my.library.service.UserService;
+import com.my.library.service.config.LookupCacheConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Checks that lookups by ID are served from cache and that writes evict the changed entries.
+ * The time to live is long enough for no entry to expire during the test.
+ */
+@SpringBootTest(properties = "library.cache.ttl=1h")
+@ActiveProfiles("test")
+public class LookupCacheTest {
+    @Autowired
+    private BookService bookService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void givenRepeatedLookups_whenGetById_thenServeFromCache() {
+        long bookId = createBook().getId();
+        double hits = count(LookupCacheConfig.BOOKS, "hit");
+        double misses = count(LookupCacheConfig.BOOKS, "miss");
+
+        bookService.getById(bookId);
+        bookService.getById(bookId);
+        bookService.getById(bookId);
+
+        assertThat(count(LookupCacheConfig.BOOKS, "miss") - misses, is(1.0));
+        assertThat(count(LookupCacheConfig.BOOKS, "hit") - hits, is(2.0));
+    }
+
+    @Test
+    void givenCachedBook_whenUpdate_thenReturnUpdatedBook() {
+        BookDto book = createBook();
+        bookService.getById(book.getId());
+        BookDto update = new BookDto();
+        update.setId(book.getId());
+        update.setName("updated");
+
+        bookService.update(update);
+
+        assertThat(bookService.getById(book.getId()).getName(), is("updated"));
+    }
+
+    @Test
+    void givenCachedUserAndBook_whenIssueAndReturnBook_thenReturnChangedUserAndBook() {
+        BookDto book = createBook();
+        long userId = createUser().getId();
+        assertThat(userService.getById(userId, true).getBooks(), empty());
+        assertThat(bookService.getById(book.getId()).getAvailable(), is(book.getAvailable()));
+
+        userService.issueBook(userId, book.getId());
+
+        assertThat(userService.getById(userId, true).getBooks(), hasSize(1));
+        assertThat(bookService.getById(book.getId()).getAvailable(), is(book.getAvailable() - 1));
+
+        userService.returnBook(userId, book.getId());
+
+        assertThat(userService.getById(userId, true).getBooks(), empty());
+        assertThat(bookService.getById(book.getId()).getAvailable(), is(book.getAvailable()));
+    }
+
+    @Test
+    void givenCachedHolder_whenIssueBookToOtherUser_thenReturnHolderWithChangedAvailable() {
+        BookDto book = createBook();
+        long holderId = createUser().getId();
+        long otherId = createUser().getId();
+        userService.issueBook(holderId, book.getId());
+        assertThat(userService.getById(holderId, true).getBooks().iterator().next().getAvailable(), is(book.getAvailable() - 1));
+
+        userService.issueBook(otherId, book.getId());
+
+        assertThat(userService.getById(holderId, true).getBooks().iterator().next().getAvailable(), is(book.getAvailable() - 2));
+    }
+
+    private double count(String cache, String result) {
+        return meterRegistry.get("cache.gets").tag("cache", cache).tag("result", result).functionCounter().count();
+    }
+
+    private BookDto createBook() {
+        BookDto book = new BookDto();
+        book.setAuthor("cache author");
+        book.setName(UUID.randomUUID().toString());
+        book.setAvailable(10);
+        return bookService.create(book);
+    }
+
+    private UserDto createUser() {
+        UserDto user = new UserDto();
+        user.setUsername("c" + UUID.randomUUID().toString().substring(0, 8));
+        user.setEmail(user.getUsername() + "@gmail.com");
+        user.setPassword("password1!");
+        return userService.create(user);
+    }
+}
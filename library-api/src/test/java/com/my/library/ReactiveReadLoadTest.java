@@ -0,0 +1,113 @@
+package com.my.library;
+
+import com.my.library.controller.ReactiveServer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Compares listing books through the blocking API with listing them through the reactive API while many
+ * connections each keep one request in flight, reporting the throughput, the heap used per connection
+ * and the number of live threads of both, also counting the threads started during each run. Requests failing
+ * or timing out are reported rather than failing the test. Clients and server share the JVM, so both memory
+ * numbers include the same client overhead.
+ * Run with LIBRARY_LOAD_TEST=true; LIBRARY_LOAD_TEST_CONNECTIONS changes the number of connections,
+ * which needs about two file descriptors each.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "server.tomcat.max-connections=50000")
+@ActiveProfiles("test")
+@EnabledIfEnvironmentVariable(named = "LIBRARY_LOAD_TEST", matches = "true")
+public class ReactiveReadLoadTest {
+    private static final int CONNECTIONS = Integer.parseInt(
+            System.getenv().getOrDefault("LIBRARY_LOAD_TEST_CONNECTIONS", "10000"));
+    private static final long DURATION_MILLIS = 20000;
+    private static final long SAMPLE_MILLIS = 100;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    @Value("http://localhost:${local.server.port}/")
+    private String baseUrl;
+    @Autowired
+    private ReactiveServer reactiveServer;
+
+    @Test
+    void givenManyConnections_whenListBooks_thenReportThroughputAndMemoryOfBothApis() throws Exception {
+        long blocking = measure("blocking", baseUrl + "book?page=0&size=10&count=none");
+        long reactive = measure("reactive",
+                "http://localhost:" + reactiveServer.getPort() + "/reactive/book?page=0&size=10");
+
+        assertThat(blocking, greaterThan(0L));
+        assertThat(reactive, greaterThan(0L));
+    }
+
+    private long measure(String api, String url) throws Exception {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        System.gc();
+        long baseHeap = memory.getHeapMemoryUsage().getUsed();
+        AtomicLong peakHeap = new AtomicLong(baseHeap);
+        long baseThreads = threads.getThreadCount();
+        AtomicLong peakThreads = new AtomicLong(baseThreads);
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> {
+            peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+            peakThreads.accumulateAndGet(threads.getThreadCount(), Math::max);
+        }, 0, SAMPLE_MILLIS, TimeUnit.MILLISECONDS);
+
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(REQUEST_TIMEOUT).GET().build();
+        AtomicLong completed = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(CONNECTIONS);
+        long deadline = System.currentTimeMillis() + DURATION_MILLIS;
+        for (int i = 0; i < CONNECTIONS; i++) {
+            send(client, request, deadline, completed, failed, done);
+        }
+        boolean finished = done.await(DURATION_MILLIS + 2 * REQUEST_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        sampler.shutdown();
+
+        long throughput = completed.get() * 1000 / DURATION_MILLIS;
+        System.out.printf("api=%s connections=%d requests/s=%d failed=%d heap/connection=%dKB peak threads=%d "
+                        + "new threads=%d%n", api, CONNECTIONS, throughput, failed.get(),
+                (peakHeap.get() - baseHeap) / CONNECTIONS / 1024, peakThreads.get(), peakThreads.get() - baseThreads);
+        assertThat(finished, is(true));
+        return throughput;
+    }
+
+    private void send(HttpClient client, HttpRequest request, long deadline, AtomicLong completed,
+                      AtomicLong failed, CountDownLatch done) {
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, e) -> {
+            if (e == null && response.statusCode() == 200) {
+                completed.incrementAndGet();
+            } else {
+                failed.incrementAndGet();
+            }
+            if (System.currentTimeMillis() < deadline) {
+                send(client, request, deadline, completed, failed, done);
+            } else {
+                done.countDown();
+            }
+        });
+    }
+}
@@ -0,0 +1,56 @@
+package com.my.library;
+
+import com.my.library.service.search.InvertedIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+
+/**
+ * Measures the latency of two-term searches in an index of many generated titles.
+ * Titles are drawn from a skewed vocabulary, so that common terms have long posting lists like in real catalogues.
+ * Run with LIBRARY_LOAD_TEST=true, as the measured latency depends on the machine.
+ */
+@EnabledIfEnvironmentVariable(named = "LIBRARY_LOAD_TEST", matches = "true")
+public class SearchLatencyBenchmarkTest {
+    private static final int BOOKS = 200_000;
+    private static final int VOCABULARY = 20_000;
+    private static final int QUERIES = 20_000;
+    private static final long P99_LIMIT_NANOS = 1_000_000;
+
+    private final Random random = new Random(42);
+
+    @Test
+    void givenLargeIndex_whenSearchTwoTerms_thenAnswerWithinOneMillisecondAtP99() {
+        InvertedIndex index = new InvertedIndex();
+        for (int i = 0; i < BOOKS; i++) {
+            index.put(i, word() + " " + word(), word() + " " + word() + " " + word());
+        }
+        for (int i = 0; i < QUERIES; i++) {
+            index.search(word() + " " + word(), 10);
+        }
+
+        long[] latencies = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            String query = word() + " " + word();
+            long start = System.nanoTime();
+            index.search(query, 10);
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        long p50 = latencies[QUERIES / 2];
+        long p99 = latencies[QUERIES * 99 / 100];
+
+        System.out.printf("search latency: books=%d p50=%dus p99=%dus%n", BOOKS, p50 / 1000, p99 / 1000);
+        assertThat(p99, lessThan(P99_LIMIT_NANOS));
+    }
+
+    private String word() {
+        double skewed = Math.pow(random.nextDouble(), 3);
+        return "w" + (int) (skewed * VOCABULARY);
+    }
+}
@@ -0,0 +1,127 @@
+package com.my.library;
+
+import com.my.library.model.Book;
+import com.my.library.model.User;
+import com.my.library.repository.BookRepository;
+import com.my.library.repository.UserRepository;
+import com.my.library.service.InventoryService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Checks the number of SQL statements executed by repeated entity loads and existence checks,
+ * which are served by the second-level and query caches.
+ * The caches are disabled for the other tests but AtomicInventoryCacheTest, whose contexts share one cache manager
+ * but recreate the schema.
+ * The striped inventory is used to check that cached books follow the copies in their stripes.
+ */
+@SpringBootTest(properties = {"spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true",
+        "library.inventory.strategy=striped"})
+@ActiveProfiles("test")
+public class SecondLevelCacheTest {
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void givenRepeatedLoads_whenFindById_thenExecuteOneStatement() {
+        Book book = createBook();
+        User user = createUser();
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+
+        for (int i = 0; i < 3; i++) {
+            bookRepository.findById(book.getId());
+            userRepository.findById(user.getId());
+        }
+
+        assertThat(statistics.getPrepareStatementCount(), is(2L));
+        assertThat(statistics.getSecondLevelCacheHitCount(), is(4L));
+    }
+
+    @Test
+    void givenRepeatedChecks_whenExists_thenExecuteOneStatementPerQuery() {
+        User user = createUser();
+        statistics.clear();
+
+        for (int i = 0; i < 3; i++) {
+            userRepository.existsByUsername(user.getUsername());
+            userRepository.existsByEmail(user.getEmail());
+        }
+
+        assertThat(statistics.getPrepareStatementCount(), is(2L));
+        assertThat(statistics.getQueryCacheHitCount(), is(4L));
+    }
+
+    @Test
+    void givenCachedChecks_whenUserWritten_thenCheckAgainInDatabase() {
+        User user = createUser();
+        userRepository.existsByEmail(user.getEmail());
+        String otherEmail = UUID.randomUUID() + "@gmail.com";
+        userRepository.existsByEmail(otherEmail);
+
+        user.setEmail(otherEmail);
+        userRepository.save(user);
+
+        assertThat(userRepository.existsByEmail(otherEmail), is(true));
+    }
+
+    @Test
+    void givenCachedStripedBook_whenReserve_thenLoadCopiesFromDatabase() {
+        long bookId = createBook().getId();
+        inventoryService.reserve(bookId);
+        assertThat(countAvailable(bookId), is(9));
+
+        inventoryService.reserve(bookId);
+
+        assertThat(countAvailable(bookId), is(8));
+    }
+
+    private int countAvailable(long bookId) {
+        Book book = bookRepository.findById(bookId).orElseThrow();
+        return book.getAvailable() + inventoryService.countOutsideRows(List.of(bookId)).getOrDefault(bookId, 0);
+    }
+
+    private Book createBook() {
+        Book book = new Book();
+        book.setAuthor("l2 author");
+        book.setName(UUID.randomUUID().toString());
+        book.setAvailable(10);
+        return bookRepository.save(book);
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setUsername(UUID.randomUUID().toString());
+        user.setEmail(user.getUsername() + "@gmail.com");
+        user.setPassword("password1!");
+        return userRepository.save(user);
+    }
+}
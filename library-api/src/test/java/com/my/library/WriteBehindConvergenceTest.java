@@ -0,0 +1,116 @@
+package com.my.library;
+
+import com.my.library.exception.NoAvailableBooksException;
+import com.my.library.model.Book;
+import com.my.library.model.User;
+import com.my.library.repository.BookRepository;
+import com.my.library.repository.LoanRepository;
+import com.my.library.repository.UserRepository;
+import com.my.library.service.BookService;
+import com.my.library.service.UserService;
+import com.my.library.service.impl.WriteBehindInventoryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Checks that the in-memory counters of the write-behind strategy and the database agree after a flush.
+ * The flush interval is long enough for the test to control every flush.
+ */
+@SpringBootTest(properties = {"library.inventory.strategy=write-behind", "library.inventory.flush-interval=1h"})
+@ActiveProfiles("test")
+public class WriteBehindConvergenceTest {
+    private static final int CLIENTS = 40;
+    private static final int COPIES = 16;
+    private static final int RETURNS = 6;
+
+    @Autowired
+    private WriteBehindInventoryService inventoryService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private BookService bookService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Test
+    void givenConcurrentCheckouts_whenFlush_thenDatabaseMatchesCounter() throws Exception {
+        inventoryService.flush();
+        long bookId = createBook();
+        List<Long> userIds = createUsers();
+        ExecutorService executor = Executors.newFixedThreadPool(CLIENTS);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (long userId : userIds) {
+            results.add(executor.submit(() -> {
+                try {
+                    userService.issueBook(userId, bookId);
+                    return true;
+                } catch (NoAvailableBooksException e) {
+                    return false;
+                }
+            }));
+        }
+        List<Long> borrowers = new ArrayList<>();
+        for (int i = 0; i < userIds.size(); i++) {
+            if (results.get(i).get()) {
+                borrowers.add(userIds.get(i));
+            }
+        }
+        executor.shutdown();
+
+        assertThat(borrowers.size(), is(COPIES));
+        assertThat(bookService.getById(bookId).getAvailable(), is(COPIES));
+        inventoryService.flush();
+        assertThat(bookService.getById(bookId).getAvailable(), is(0));
+
+        for (long userId : borrowers.subList(0, RETURNS)) {
+            userService.returnBook(userId, bookId);
+        }
+        inventoryService.flush();
+
+        assertThat(bookService.getById(bookId).getAvailable(), is(RETURNS));
+        assertThat(borrowers.stream().filter(id -> loanRepository.existsByUserIdAndBookId(id, bookId)).count(),
+                is((long) COPIES - RETURNS));
+        List<Long> others = userIds.stream().filter(id -> !borrowers.contains(id)).toList();
+        for (long userId : others.subList(0, RETURNS)) {
+            userService.issueBook(userId, bookId);
+        }
+        assertThatExceptionOfType(NoAvailableBooksException.class)
+                .isThrownBy(() -> userService.issueBook(others.get(RETURNS), bookId));
+    }
+
+    private long createBook() {
+        Book book = new Book();
+        book.setAuthor("convergence author");
+        book.setName("convergence book");
+        book.setAvailable(COPIES);
+        return bookRepository.save(book).getId();
+    }
+
+    private List<Long> createUsers() {
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            User user = new User();
+            user.setUsername("convergence_client" + i);
+            user.setEmail("convergence_client" + i + "@gmail.com");
+            user.setPassword("password1!");
+            userIds.add(userRepository.save(user).getId());
+        }
+        return userIds;
+    }
+}
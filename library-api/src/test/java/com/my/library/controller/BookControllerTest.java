@@ -2,20 +2,41 @@ package com.my.library.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.my.library.dto.BookDto;
+import com.my.library.dto.BookImportReport;
+import com.my.library.dto.BookImportResult;
+import com.my.library.dto.CursorPage;
+import com.my.library.dto.HoldDto;
+import com.my.library.exception.BookModifiedException;
+import com.my.library.exception.InvalidCursorException;
 import com.my.library.exception.wrapper.ExceptionType;
+import com.my.library.service.BookImportService;
+import com.my.library.service.BookSearchService;
 import com.my.library.service.BookService;
+import com.my.library.service.ExportService;
+import com.my.library.service.HoldService;
+import com.my.library.service.InventoryStreamService;
+import com.my.library.service.ModificationService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 import static com.my.library.util.BookTestData.*;
 import static com.my.library.util.CommonTestData.*;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -32,6 +53,24 @@ public class BookControllerTest {
     @MockBean
     private BookService bookService;
 
+    @MockBean
+    private ModificationService modificationService;
+
+    @MockBean
+    private ExportService exportService;
+
+    @MockBean
+    private BookSearchService bookSearchService;
+
+    @MockBean
+    private BookImportService bookImportService;
+
+    @MockBean
+    private InventoryStreamService inventoryStreamService;
+
+    @MockBean
+    private HoldService holdService;
+
     @Test
     void givenValidBookId_whenGetById_thenReturnBookDto() throws Exception {
         when(bookService.getById(ID)).thenReturn(createBookDto());
@@ -47,6 +86,32 @@ public class BookControllerTest {
         verify(bookService).getById(ID);
     }
 
+    @Test
+    void givenValidBookId_whenGetById_thenReturnETagOfVersionAndAvailable() throws Exception {
+        BookDto bookDto = createBookDto();
+        bookDto.setVersion(2L);
+        when(bookService.getById(ID)).thenReturn(bookDto);
+
+        mockMvc.perform(get("/book/{id}", ID))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2-" + AVAILABLE + "\""))
+                .andExpect(jsonPath("$.version").doesNotExist());
+    }
+
+    @Test
+    void givenMatchingETag_whenGetById_thenReturnNotModified() throws Exception {
+        BookDto bookDto = createBookDto();
+        bookDto.setVersion(2L);
+        when(bookService.getById(ID)).thenReturn(bookDto);
+
+        mockMvc.perform(get("/book/{id}", ID)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"2-" + AVAILABLE + "\""))
+                .andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
     @Test
     void givenInvalidBookId_whenGetById_thenReturnValidationExceptionListJson() throws Exception {
         mockMvc.perform(get("/book/{id}", INVALID_ID))
@@ -79,6 +144,52 @@ public class BookControllerTest {
         verify(bookService).getSortedPage(PAGE, SIZE, SORT_BY, ORDER);
     }
 
+    @Test
+    void givenMatchingETag_whenGetSortedPage_thenReturnNotModifiedWithoutReadingBooks() throws Exception {
+        when(modificationService.isEnabled()).thenReturn(true);
+        when(modificationService.getEpoch()).thenReturn("e1");
+        when(modificationService.getBookModifications()).thenReturn(7L);
+
+        mockMvc.perform(get("/book")
+                        .queryParam("page", String.valueOf(PAGE))
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"books-e1-7\""))
+                .andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"books-e1-7\""));
+        verifyNoInteractions(bookService);
+    }
+
+    @Test
+    void givenCountedTagsDisabled_whenGetSortedPage_thenReturnPageWithoutETag() throws Exception {
+        when(bookService.getSortedPage(PAGE, SIZE, SORT_BY, ORDER)).thenReturn(createPage(createBookDtoList()));
+
+        mockMvc.perform(get("/book")
+                        .queryParam("page", String.valueOf(PAGE))
+                        .queryParam("size", String.valueOf(SIZE))
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"books-e1-7\""))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+        verify(modificationService, never()).getBookModifications();
+    }
+
+    @Test
+    void givenStaleETag_whenGetSortedPage_thenReturnPageWithNewETag() throws Exception {
+        when(modificationService.isEnabled()).thenReturn(true);
+        when(modificationService.getEpoch()).thenReturn("e1");
+        when(modificationService.getBookModifications()).thenReturn(8L);
+        when(bookService.getSortedPage(PAGE, SIZE, SORT_BY, ORDER)).thenReturn(createPage(createBookDtoList()));
+
+        mockMvc.perform(get("/book")
+                        .queryParam("page", String.valueOf(PAGE))
+                        .queryParam("size", String.valueOf(SIZE))
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"books-e1-7\""))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"books-e1-8\""));
+        verify(bookService).getSortedPage(PAGE, SIZE, SORT_BY, ORDER);
+    }
+
     @Test
     void givenInvalidPageableData_whenGetSortedPage_thenReturnValidationExceptionListJson() throws Exception {
         mockMvc.perform(get("/book")
@@ -96,6 +207,255 @@ public class BookControllerTest {
         verify(bookService, never()).getSortedPage(PAGE, SIZE, SORT_BY, ORDER);
     }
 
+    @Test
+    void givenCountNone_whenGetSortedPage_thenReturnSliceWithoutTotal() throws Exception {
+        List<BookDto> bookDtoList = createBookDtoList();
+        when(bookService.getSortedSlice(PAGE, SIZE, SORT_BY, ORDER))
+                .thenReturn(new SliceImpl<>(bookDtoList, createPageable(), false));
+
+        mockMvc.perform(get("/book")
+                        .queryParam("page", String.valueOf(PAGE))
+                        .queryParam("size", String.valueOf(SIZE))
+                        .queryParam("sortBy", SORT_BY)
+                        .queryParam("order", ORDER)
+                        .queryParam("count", "none"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.content[0].id").value(bookDtoList.get(0).getId()))
+                .andExpect(jsonPath("$.last").value(true))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+        verify(bookService).getSortedSlice(PAGE, SIZE, SORT_BY, ORDER);
+        verify(bookService, never()).getSortedPage(PAGE, SIZE, SORT_BY, ORDER);
+    }
+
+    @Test
+    void givenCountEstimate_whenGetSortedPage_thenReturnPageWithEstimatedTotal() throws Exception {
+        List<BookDto> bookDtoList = createBookDtoList();
+        when(bookService.getSortedPageWithEstimatedTotal(PAGE, SIZE, SORT_BY, ORDER)).thenReturn(createPage(bookDtoList));
+
+        mockMvc.perform(get("/book")
+                        .queryParam("page", String.valueOf(PAGE))
+                        .queryParam("size", String.valueOf(SIZE))
+                        .queryParam("sortBy", SORT_BY)
+                        .queryParam("order", ORDER)
+                        .queryParam("count", "estimate"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.totalElements").value(bookDtoList.size()));
+        verify(bookService).getSortedPageWithEstimatedTotal(PAGE, SIZE, SORT_BY, ORDER);
+        verify(bookService, never()).getSortedPage(PAGE, SIZE, SORT_BY, ORDER);
+    }
+
+    @Test
+    void givenInvalidCount_whenGetSortedPage_thenReturnValidationExceptionListJson() throws Exception {
+        mockMvc.perform(get("/book")
+                        .queryParam("count", "approximate"))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].exceptionType").value(ExceptionType.VALIDATION_EXCEPTION.name()));
+        verify(bookService, never()).getSortedPage(anyInt(), anyInt(), any(), any());
+    }
+
+    @Test
+    void givenValidCursorData_whenGetPageAfter_thenReturnPageWithNextCursor() throws Exception {
+        List<BookDto> bookDtoList = createBookDtoList();
+        when(bookService.getPageAfter("", SIZE, SORT_BY, ORDER)).thenReturn(new CursorPage<>(bookDtoList, "next"));
+
+        mockMvc.perform(get("/book")
+                        .queryParam("cursor", "")
+                        .queryParam("size", String.valueOf(SIZE))
+                        .queryParam("sortBy", SORT_BY)
+                        .queryParam("order", ORDER))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.content[0].id").value(bookDtoList.get(0).getId()))
+                .andExpect(jsonPath("$.content[1].id").value(bookDtoList.get(1).getId()))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+        verify(bookService).getPageAfter("", SIZE, SORT_BY, ORDER);
+        verify(bookService, never()).getSortedPage(anyInt(), anyInt(), any(), any());
+    }
+
+    @Test
+    void givenInvalidCursorData_whenGetPageAfter_thenReturnValidationExceptionListJson() throws Exception {
+        mockMvc.perform(get("/book")
+                        .queryParam("cursor", "")
+                        .queryParam("size", String.valueOf(INVALID_SIZE))
+                        .queryParam("sortBy", INVALID_SORT_BY)
+                        .queryParam("order", INVALID_ORDER))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].exceptionType").value(ExceptionType.VALIDATION_EXCEPTION.name()))
+                .andExpect(jsonPath("$[1].exceptionType").value(ExceptionType.VALIDATION_EXCEPTION.name()))
+                .andExpect(jsonPath("$[2].exceptionType").value(ExceptionType.VALIDATION_EXCEPTION.name()));
+        verify(bookService, never()).getPageAfter(any(), anyInt(), any(), any());
+    }
+
+    @Test
+    void givenCursorForDifferentSort_whenGetPageAfter_thenReturnValidationExceptionJson() throws Exception {
+        when(bookService.getPageAfter("cursor", SIZE, SORT_BY, ORDER)).thenThrow(new InvalidCursorException());
+
+        mockMvc.perform(get("/book")
+                        .queryParam("cursor", "cursor")
+                        .queryParam("size", String.valueOf(SIZE))
+                        .queryParam("sortBy", SORT_BY)
+                        .queryParam("order", ORDER))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.exceptionType").value(ExceptionType.VALIDATION_EXCEPTION.name()));
+        verify(bookService).getPageAfter("cursor", SIZE, SORT_BY, ORDER);
+    }
+
+    @Test
+    void givenNdjsonBooks_whenImportBooks_thenImportEveryRow() throws Exception {
+        when(bookImportService.importBooks(any())).thenAnswer(invocation -> importAll(invocation.getArgument(0)));
+
+        mockMvc.perform(post("/book/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"author\":\"a\",\"name\":\"n1\",\"available\":1}\n"
+                                + "{\"author\":\"a\",\"name\":\"n2\",\"available\":1}\n"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.results[1].index").value(1));
+    }
+
+    @Test
+    void givenJsonArrayOfBooks_whenImportBooks_thenImportEveryRow() throws Exception {
+        when(bookImportService.importBooks(any())).thenAnswer(invocation -> importAll(invocation.getArgument(0)));
+
+        mockMvc.perform(post("/book/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createBookDtoList())))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(createBookDtoList().size()));
+    }
+
+    @Test
+    void givenMalformedRow_whenImportBooks_thenReturnValidationExceptionJson() throws Exception {
+        when(bookImportService.importBooks(any())).thenAnswer(invocation -> importAll(invocation.getArgument(0)));
+
+        mockMvc.perform(post("/book/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"author\":\"a\",\"name\":\"n1\",\"available\":1}\n{\"author\":"))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.exceptionType").value(ExceptionType.VALIDATION_EXCEPTION.name()))
+                .andExpect(jsonPath("$.message").value(containsString("Row 1")));
+    }
+
+    @Test
+    void givenQuery_whenSearch_thenReturnFoundBooks() throws Exception {
+        List<BookDto> bookDtoList = createBookDtoList();
+        when(bookSearchService.search(NAME, 10)).thenReturn(bookDtoList);
+
+        mockMvc.perform(get("/book/search").queryParam("q", NAME))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].id").value(bookDtoList.get(0).getId()))
+                .andExpect(jsonPath("$[1].id").value(bookDtoList.get(1).getId()));
+    }
+
+    @Test
+    void givenBlankQueryAndInvalidSize_whenSearch_thenReturnValidationExceptionListJson() throws Exception {
+        mockMvc.perform(get("/book/search")
+                        .queryParam("q", " ")
+                        .queryParam("size", "101"))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$[0].exceptionType").value(ExceptionType.VALIDATION_EXCEPTION.name()))
+                .andExpect(jsonPath("$[1].exceptionType").value(ExceptionType.VALIDATION_EXCEPTION.name()));
+        verifyNoInteractions(bookSearchService);
+    }
+
+    @Test
+    void givenPrefix_whenSuggest_thenReturnCompletions() throws Exception {
+        when(bookSearchService.suggest("te", 10)).thenReturn(List.of(NAME, AUTHOR));
+
+        mockMvc.perform(get("/book/suggest").queryParam("prefix", "te"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]").value(NAME))
+                .andExpect(jsonPath("$[1]").value(AUTHOR));
+    }
+
+    @Test
+    void givenTooLargeSize_whenSuggest_thenReturnValidationExceptionListJson() throws Exception {
+        mockMvc.perform(get("/book/suggest")
+                        .queryParam("prefix", "te")
+                        .queryParam("size", "11"))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$[0].exceptionType").value(ExceptionType.VALIDATION_EXCEPTION.name()));
+        verifyNoInteractions(bookSearchService);
+    }
+
+    @Test
+    void givenBooks_whenExportBooks_thenReturnNdjsonWrittenByService() throws Exception {
+        doAnswer(invocation -> {
+            invocation.getArgument(0, OutputStream.class).write("{\"id\":1}\n".getBytes());
+            return null;
+        }).when(exportService).exportBooks(any());
+
+        mockMvc.perform(get("/book/export"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":1}\n"));
+    }
+
+    @Test
+    void givenBookIds_whenStream_thenSubscribeToChangesOfThem() throws Exception {
+        when(inventoryStreamService.subscribe(Set.of(1L, 2L))).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/book/stream").param("ids", "1,2"))
+                .andDo(print())
+                .andExpect(request().asyncStarted());
+        verify(inventoryStreamService).subscribe(Set.of(1L, 2L));
+    }
+
+    @Test
+    void givenNoBookIds_whenStream_thenSubscribeToChangesOfEveryBook() throws Exception {
+        when(inventoryStreamService.subscribe(Set.of())).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/book/stream"))
+                .andDo(print())
+                .andExpect(request().asyncStarted());
+        verify(inventoryStreamService).subscribe(Set.of());
+    }
+
+    @Test
+    void givenBookAndUser_whenPlaceHold_thenReturnCreatedHoldWithPosition() throws Exception {
+        HoldDto hold = new HoldDto(3L, 2L, ID, 1L, LocalDateTime.now().plusDays(7));
+        when(holdService.placeHold(ID, 2)).thenReturn(hold);
+
+        mockMvc.perform(post("/book/{id}/hold", ID).param("userId", "2"))
+                .andDo(print())
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.id").value(3))
+                .andExpect(jsonPath("$.userId").value(2))
+                .andExpect(jsonPath("$.bookId").value(ID))
+                .andExpect(jsonPath("$.position").value(1));
+        verify(holdService).placeHold(ID, 2);
+    }
+
+    @Test
+    void givenInvalidUserId_whenPlaceHold_thenReturnValidationExceptionListJson() throws Exception {
+        mockMvc.perform(post("/book/{id}/hold", ID).param("userId", "0"))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$[0].exceptionType").value(ExceptionType.VALIDATION_EXCEPTION.name()));
+        verifyNoInteractions(holdService);
+    }
+
     @Test
     void givenValidBookDto_whenCreate_thenReturnCreatedBookDto() throws Exception {
         BookDto beforeCreate = createBookDto();
@@ -154,6 +514,22 @@ public class BookControllerTest {
         verify(bookService).update(beforeUpdate);
     }
 
+    @Test
+    void givenConcurrentlyChangedBook_whenUpdate_thenReturnConflict() throws Exception {
+        BookDto bookDto = createBookDto();
+        bookDto.setAvailable(null);
+        when(bookService.update(bookDto)).thenThrow(new BookModifiedException());
+
+        mockMvc.perform(patch("/book")
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(bookDto)))
+                .andDo(print())
+                .andExpect(status().isConflict())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.exceptionType").value(ExceptionType.DATABASE_EXCEPTION.name()));
+        verify(bookService).update(bookDto);
+    }
+
     @Test
     void givenInvalidBookDto_whenUpdate_thenReturnValidationExceptionListJson() throws Exception {
         BookDto bookDto = new BookDto();
@@ -188,4 +564,13 @@ public class BookControllerTest {
                 .andExpect(jsonPath("$[0].exceptionType").value(ExceptionType.VALIDATION_EXCEPTION.name()));
         verify(bookService, never()).deleteById(INVALID_ID);
     }
+
+    private static BookImportReport importAll(Iterator<BookDto> books) {
+        BookImportReport report = new BookImportReport();
+        while (books.hasNext()) {
+            books.next();
+            report.add(new BookImportResult(report.getResults().size(), BookImportResult.Status.CREATED, ID, List.of()));
+        }
+        return report;
+    }
 }
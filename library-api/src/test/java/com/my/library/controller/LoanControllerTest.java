@@ -0,0 +1,71 @@
+package com.my.library.controller;
+
+import com.my.library.dto.CursorPage;
+import com.my.library.dto.LoanDto;
+import com.my.library.exception.InvalidCursorException;
+import com.my.library.exception.wrapper.ExceptionType;
+import com.my.library.service.LoanService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(LoanController.class)
+public class LoanControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private LoanService loanService;
+
+    @Test
+    void givenNoCursor_whenGetOverdue_thenReturnFirstPageWithNextCursor() throws Exception {
+        LocalDateTime dueDate = LocalDateTime.of(2023, 3, 1, 12, 0);
+        when(loanService.getOverduePage("", 20)).thenReturn(new CursorPage<>(
+                List.of(new LoanDto(1L, 2L, 3L, dueDate.minusDays(14), dueDate)), "next"));
+
+        mockMvc.perform(get("/loan/overdue"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.content[0].id").value(1))
+                .andExpect(jsonPath("$.content[0].userId").value(2))
+                .andExpect(jsonPath("$.content[0].bookId").value(3))
+                .andExpect(jsonPath("$.content[0].dueDate").value("2023-03-01T12:00:00"))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+        verify(loanService).getOverduePage("", 20);
+    }
+
+    @Test
+    void givenInvalidSize_whenGetOverdue_thenReturnValidationExceptionListJson() throws Exception {
+        mockMvc.perform(get("/loan/overdue").queryParam("size", "0"))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].exceptionType").value(ExceptionType.VALIDATION_EXCEPTION.name()));
+        verify(loanService, never()).getOverduePage(any(), anyInt());
+    }
+
+    @Test
+    void givenInvalidCursor_whenGetOverdue_thenReturnValidationExceptionJson() throws Exception {
+        when(loanService.getOverduePage("cursor", 20)).thenThrow(new InvalidCursorException());
+
+        mockMvc.perform(get("/loan/overdue").queryParam("cursor", "cursor"))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.exceptionType").value(ExceptionType.VALIDATION_EXCEPTION.name()));
+    }
+}
@@ -0,0 +1,101 @@
+package com.my.library.controller;
+
+import com.my.library.controller.config.ReactiveServerProperties;
+import com.my.library.exception.BookNotFoundException;
+import com.my.library.exception.handler.CustomExceptionHandler;
+import com.my.library.exception.wrapper.ExceptionType;
+import com.my.library.service.ReactiveReadService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.context.MessageSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static com.my.library.util.BookTestData.*;
+import static com.my.library.util.CommonTestData.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(classes = {ReactiveServer.class, ReactiveController.class, ReactiveServerProperties.class,
+        CustomExceptionHandler.class}, properties = "library.reactive.port=0")
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, MessageSourceAutoConfiguration.class,
+        ValidationAutoConfiguration.class})
+public class ReactiveServerTest {
+    @Autowired
+    private ReactiveServer reactiveServer;
+
+    @MockBean
+    private ReactiveReadService reactiveReadService;
+
+    @Test
+    void givenValidBookId_whenGetBookById_thenReturnBookDto() throws Exception {
+        when(reactiveReadService.getBookById(ID)).thenReturn(Mono.just(createBookDto()));
+
+        HttpResponse<String> response = get("/reactive/book/" + ID);
+
+        assertThat(response.statusCode(), is(200));
+        assertThat(response.headers().firstValue("Content-Type").orElseThrow(), is("application/json"));
+        assertThat(response.body(), allOf(containsString("\"id\":" + ID), containsString("\"author\":\"" + AUTHOR),
+                containsString("\"name\":\"" + NAME)));
+    }
+
+    @Test
+    void givenMissingBook_whenGetBookById_thenReturnExceptionJson() throws Exception {
+        when(reactiveReadService.getBookById(ID)).thenReturn(Mono.error(BookNotFoundException::new));
+
+        HttpResponse<String> response = get("/reactive/book/" + ID);
+
+        assertThat(response.statusCode(), is(500));
+        assertThat(response.body(), containsString(ExceptionType.PROCESSING_EXCEPTION.name()));
+    }
+
+    @Test
+    void givenInvalidSortBy_whenGetBooks_thenReturnValidationExceptionListJson() throws Exception {
+        HttpResponse<String> response = get("/reactive/book?sortBy=" + INVALID_SORT_BY);
+
+        assertThat(response.statusCode(), is(400));
+        assertThat(response.body().startsWith("[{"), is(true));
+        assertThat(response.body(), containsString(ExceptionType.VALIDATION_EXCEPTION.name()));
+        verify(reactiveReadService, never()).getBooks(anyInt(), anyInt(), anyString(), anyString());
+    }
+
+    @Test
+    void givenMalformedBookId_whenGetBookById_thenReturnValidationExceptionListJson() throws Exception {
+        HttpResponse<String> response = get("/reactive/book/abc");
+
+        assertThat(response.statusCode(), is(400));
+        assertThat(response.body(), containsString(ExceptionType.VALIDATION_EXCEPTION.name()));
+        verifyNoInteractions(reactiveReadService);
+    }
+
+    @Test
+    void givenPage_whenGetBooks_thenReturnBooksAsJsonArray() throws Exception {
+        when(reactiveReadService.getBooks(PAGE, SIZE, SORT_BY, ORDER)).thenReturn(Flux.just(createBookDto()));
+
+        HttpResponse<String> response = get("/reactive/book?page=" + PAGE + "&size=" + SIZE
+                + "&sortBy=" + SORT_BY + "&order=" + ORDER);
+
+        assertThat(response.statusCode(), is(200));
+        assertThat(response.body().startsWith("[{\"id\":" + ID), is(true));
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return HttpClient.newHttpClient().send(HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + reactiveServer.getPort() + path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -1,21 +1,33 @@
 package com.my.library.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.my.library.controller.config.BulkProperties;
 import com.my.library.dto.BookDto;
+import com.my.library.dto.CursorPage;
+import com.my.library.dto.UserAvailability;
 import com.my.library.dto.UserDto;
+import com.my.library.exception.InvalidCursorException;
+import com.my.library.exception.InventoryConflictException;
 import com.my.library.exception.wrapper.ExceptionType;
+import com.my.library.service.CheckoutService;
+import com.my.library.service.ExportService;
+import com.my.library.service.ModificationService;
 import com.my.library.service.UserService;
 import com.my.library.util.BookTestData;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.HashSet;
 import java.util.List;
+import java.util.stream.LongStream;
 
 import static com.my.library.util.CommonTestData.*;
 import static com.my.library.util.UserTestData.*;
@@ -25,6 +37,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(UserController.class)
+@Import(BulkProperties.class)
 public class UserControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
@@ -35,9 +48,18 @@ public class UserControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private CheckoutService checkoutService;
+
+    @MockBean
+    private ModificationService modificationService;
+
+    @MockBean
+    private ExportService exportService;
+
     @Test
     void givenValidUserId_whenGetById_thenReturnUserDto() throws Exception {
-        when(userService.getById(ID)).thenReturn(createUserDto());
+        when(userService.getById(ID, true)).thenReturn(createUserDto());
 
         mockMvc.perform(get("/user/{id}", ID))
                 .andDo(print())
@@ -47,7 +69,79 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.username").value(USERNAME))
                 .andExpect(jsonPath("$.email").value(EMAIL))
                 .andExpect(jsonPath("$.books").doesNotExist());
-        verify(userService).getById(ID);
+        verify(userService).getById(ID, true);
+    }
+
+    @Test
+    void givenMatchingETag_whenGetById_thenReturnNotModified() throws Exception {
+        UserDto userDto = createUserDto();
+        userDto.setVersion(2L);
+        when(modificationService.isEnabled()).thenReturn(true);
+        when(modificationService.getEpoch()).thenReturn("e1");
+        when(modificationService.getBookModifications()).thenReturn(7L);
+        when(userService.getById(ID, true)).thenReturn(userDto);
+
+        mockMvc.perform(get("/user/{id}", ID)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"2-e1-7\""))
+                .andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void givenCountedTagsDisabled_whenGetById_thenReturnUserWithBooksWithoutETag() throws Exception {
+        UserDto userDto = createUserDto();
+        userDto.setVersion(2L);
+        when(userService.getById(ID, true)).thenReturn(userDto);
+
+        mockMvc.perform(get("/user/{id}", ID)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"2\""))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+        verify(modificationService, never()).getBookModifications();
+    }
+
+    @Test
+    void givenBooksFalse_whenGetById_thenReturnETagOfVersionOnly() throws Exception {
+        UserDto userDto = createUserDto();
+        userDto.setVersion(2L);
+        when(userService.getById(ID, false)).thenReturn(userDto);
+
+        mockMvc.perform(get("/user/{id}", ID)
+                        .queryParam("books", "false"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+        verify(modificationService, never()).getBookModifications();
+    }
+
+    @Test
+    void givenMatchingETag_whenGetSortedPage_thenReturnNotModifiedWithoutReadingUsers() throws Exception {
+        when(modificationService.isEnabled()).thenReturn(true);
+        when(modificationService.getEpoch()).thenReturn("e1");
+        when(modificationService.getUserModifications()).thenReturn(3L);
+        when(modificationService.getBookModifications()).thenReturn(7L);
+
+        mockMvc.perform(get("/user")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"users-e1-3-7\""))
+                .andDo(print())
+                .andExpect(status().isNotModified());
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void givenBooksFalse_whenGetById_thenReturnUserDtoWithoutBooks() throws Exception {
+        when(userService.getById(ID, false)).thenReturn(createUserDto());
+
+        mockMvc.perform(get("/user/{id}", ID)
+                        .queryParam("books", "false"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(ID))
+                .andExpect(jsonPath("$.books").doesNotExist());
+        verify(userService).getById(ID, false);
+        verify(userService, never()).getById(ID, true);
     }
 
     @Test
@@ -57,14 +151,14 @@ public class UserControllerTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$[0].exceptionType").value(ExceptionType.VALIDATION_EXCEPTION.name()));
-        verify(userService, never()).getById(INVALID_ID);
+        verify(userService, never()).getById(INVALID_ID, true);
     }
 
     @Test
     void givenValidPageableData_whenGetSortedPage_thenReturnPageOfUsers() throws Exception {
         List<UserDto> userDtoList = createUserDtoList();
         Page<UserDto> userDtoPage = createPage(userDtoList);
-        when(userService.getSortedPage(PAGE, SIZE, SORT_BY, ORDER)).thenReturn(userDtoPage);
+        when(userService.getSortedPage(PAGE, SIZE, SORT_BY, ORDER, true)).thenReturn(userDtoPage);
 
         mockMvc.perform(get("/user")
                         .queryParam("page", String.valueOf(PAGE))
@@ -79,7 +173,25 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.pageable.sort.sorted").value(true))
                 .andExpect(jsonPath("$.content[0].id").value(userDtoList.get(0).getId()))
                 .andExpect(jsonPath("$.content[1].id").value(userDtoList.get(1).getId()));
-        verify(userService).getSortedPage(PAGE, SIZE, SORT_BY, ORDER);
+        verify(userService).getSortedPage(PAGE, SIZE, SORT_BY, ORDER, true);
+    }
+
+    @Test
+    void givenBooksFalse_whenGetSortedPage_thenPassFlagToService() throws Exception {
+        List<UserDto> userDtoList = createUserDtoList();
+        when(userService.getSortedPage(PAGE, SIZE, SORT_BY, ORDER, false)).thenReturn(createPage(userDtoList));
+
+        mockMvc.perform(get("/user")
+                        .queryParam("page", String.valueOf(PAGE))
+                        .queryParam("size", String.valueOf(SIZE))
+                        .queryParam("sortBy", SORT_BY)
+                        .queryParam("order", ORDER)
+                        .queryParam("books", "false"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(userDtoList.get(0).getId()))
+                .andExpect(jsonPath("$.content[0].books").doesNotExist());
+        verify(userService).getSortedPage(PAGE, SIZE, SORT_BY, ORDER, false);
     }
 
     @Test
@@ -96,7 +208,122 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$[1].exceptionType").value(ExceptionType.VALIDATION_EXCEPTION.name()))
                 .andExpect(jsonPath("$[2].exceptionType").value(ExceptionType.VALIDATION_EXCEPTION.name()))
                 .andExpect(jsonPath("$[3].exceptionType").value(ExceptionType.VALIDATION_EXCEPTION.name()));
-        verify(userService, never()).getSortedPage(PAGE, SIZE, SORT_BY, ORDER);
+        verify(userService, never()).getSortedPage(PAGE, SIZE, SORT_BY, ORDER, true);
+    }
+
+    @Test
+    void givenCountNone_whenGetSortedPage_thenReturnSliceWithoutTotal() throws Exception {
+        List<UserDto> userDtoList = createUserDtoList();
+        when(userService.getSortedSlice(PAGE, SIZE, SORT_BY, ORDER, true))
+                .thenReturn(new SliceImpl<>(userDtoList, createPageable(), false));
+
+        mockMvc.perform(get("/user")
+                        .queryParam("page", String.valueOf(PAGE))
+                        .queryParam("size", String.valueOf(SIZE))
+                        .queryParam("sortBy", SORT_BY)
+                        .queryParam("order", ORDER)
+                        .queryParam("count", "none"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.content[0].id").value(userDtoList.get(0).getId()))
+                .andExpect(jsonPath("$.last").value(true))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+        verify(userService).getSortedSlice(PAGE, SIZE, SORT_BY, ORDER, true);
+        verify(userService, never()).getSortedPage(PAGE, SIZE, SORT_BY, ORDER, true);
+    }
+
+    @Test
+    void givenCountEstimate_whenGetSortedPage_thenReturnPageWithEstimatedTotal() throws Exception {
+        List<UserDto> userDtoList = createUserDtoList();
+        when(userService.getSortedPageWithEstimatedTotal(PAGE, SIZE, SORT_BY, ORDER, true)).thenReturn(createPage(userDtoList));
+
+        mockMvc.perform(get("/user")
+                        .queryParam("page", String.valueOf(PAGE))
+                        .queryParam("size", String.valueOf(SIZE))
+                        .queryParam("sortBy", SORT_BY)
+                        .queryParam("order", ORDER)
+                        .queryParam("count", "estimate"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.totalElements").value(userDtoList.size()));
+        verify(userService).getSortedPageWithEstimatedTotal(PAGE, SIZE, SORT_BY, ORDER, true);
+        verify(userService, never()).getSortedPage(PAGE, SIZE, SORT_BY, ORDER, true);
+    }
+
+    @Test
+    void givenInvalidCount_whenGetSortedPage_thenReturnValidationExceptionListJson() throws Exception {
+        mockMvc.perform(get("/user")
+                        .queryParam("count", "approximate"))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].exceptionType").value(ExceptionType.VALIDATION_EXCEPTION.name()));
+        verify(userService, never()).getSortedPage(anyInt(), anyInt(), any(), any(), anyBoolean());
+    }
+
+    @Test
+    void givenValidCursorData_whenGetPageAfter_thenReturnPageWithNextCursor() throws Exception {
+        List<UserDto> userDtoList = createUserDtoList();
+        when(userService.getPageAfter("", SIZE, SORT_BY, ORDER, true)).thenReturn(new CursorPage<>(userDtoList, "next"));
+
+        mockMvc.perform(get("/user")
+                        .queryParam("cursor", "")
+                        .queryParam("size", String.valueOf(SIZE))
+                        .queryParam("sortBy", SORT_BY)
+                        .queryParam("order", ORDER))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.content[0].id").value(userDtoList.get(0).getId()))
+                .andExpect(jsonPath("$.content[1].id").value(userDtoList.get(1).getId()))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+        verify(userService).getPageAfter("", SIZE, SORT_BY, ORDER, true);
+        verify(userService, never()).getSortedPage(anyInt(), anyInt(), any(), any(), anyBoolean());
+    }
+
+    @Test
+    void givenInvalidCursorData_whenGetPageAfter_thenReturnValidationExceptionListJson() throws Exception {
+        mockMvc.perform(get("/user")
+                        .queryParam("cursor", "")
+                        .queryParam("size", String.valueOf(INVALID_SIZE))
+                        .queryParam("sortBy", INVALID_SORT_BY)
+                        .queryParam("order", INVALID_ORDER))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].exceptionType").value(ExceptionType.VALIDATION_EXCEPTION.name()))
+                .andExpect(jsonPath("$[1].exceptionType").value(ExceptionType.VALIDATION_EXCEPTION.name()))
+                .andExpect(jsonPath("$[2].exceptionType").value(ExceptionType.VALIDATION_EXCEPTION.name()));
+        verify(userService, never()).getPageAfter(any(), anyInt(), any(), any(), anyBoolean());
+    }
+
+    @Test
+    void givenCursorForDifferentSort_whenGetPageAfter_thenReturnValidationExceptionJson() throws Exception {
+        when(userService.getPageAfter("cursor", SIZE, SORT_BY, ORDER, true)).thenThrow(new InvalidCursorException());
+
+        mockMvc.perform(get("/user")
+                        .queryParam("cursor", "cursor")
+                        .queryParam("size", String.valueOf(SIZE))
+                        .queryParam("sortBy", SORT_BY)
+                        .queryParam("order", ORDER))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.exceptionType").value(ExceptionType.VALIDATION_EXCEPTION.name()));
+        verify(userService).getPageAfter("cursor", SIZE, SORT_BY, ORDER, true);
+    }
+
+    @Test
+    void givenUsernameOnly_whenCheckAvailability_thenReturnOnlyUsernameAvailability() throws Exception {
+        when(userService.checkAvailability(USERNAME, null)).thenReturn(new UserAvailability(true, null));
+
+        mockMvc.perform(get("/user/availability").queryParam("username", USERNAME))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value(true))
+                .andExpect(jsonPath("$.email").doesNotExist());
     }
 
     @Test
@@ -205,7 +432,7 @@ public class UserControllerTest {
         int available = bookDto.getAvailable() - 1;
         bookDto.setAvailable(available);
         userDto.setBooks(new HashSet<>(List.of(bookDto)));
-        when(userService.issueBook(ID, BookTestData.ID)).thenReturn(userDto);
+        when(checkoutService.issueBook(ID, BookTestData.ID)).thenReturn(userDto);
 
         mockMvc.perform(post("/user/issue/{userId}/{bookId}", ID, BookTestData.ID))
                 .andDo(print())
@@ -219,7 +446,19 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.books[0].author").value(BookTestData.AUTHOR))
                 .andExpect(jsonPath("$.books[0].name").value(BookTestData.NAME))
                 .andExpect(jsonPath("$.books[0].available").value(available));
-        verify(userService).issueBook(ID, BookTestData.ID);
+        verify(checkoutService).issueBook(ID, BookTestData.ID);
+    }
+
+    @Test
+    void givenBookIssuedConcurrently_whenIssueBook_thenReturnConflict() throws Exception {
+        when(checkoutService.issueBook(ID, BookTestData.ID)).thenThrow(new InventoryConflictException());
+
+        mockMvc.perform(post("/user/issue/{userId}/{bookId}", ID, BookTestData.ID))
+                .andDo(print())
+                .andExpect(status().isConflict())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.exceptionType").value(ExceptionType.DATABASE_EXCEPTION.name()));
+        verify(checkoutService).issueBook(ID, BookTestData.ID);
     }
 
     @Test
@@ -230,14 +469,14 @@ public class UserControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$[0].exceptionType").value(ExceptionType.VALIDATION_EXCEPTION.name()))
                 .andExpect(jsonPath("$[1].exceptionType").value(ExceptionType.VALIDATION_EXCEPTION.name()));
-        verify(userService, never()).issueBook(INVALID_ID, BookTestData.INVALID_ID);
+        verify(checkoutService, never()).issueBook(INVALID_ID, BookTestData.INVALID_ID);
     }
 
     @Test
     void givenValidUserAndBookId_whenReturnBook_thenReturnUserWithEmptyBooks() throws Exception {
         UserDto userDto = createUserDto();
         userDto.setBooks(new HashSet<>());
-        when(userService.returnBook(ID, BookTestData.ID)).thenReturn(userDto);
+        when(checkoutService.returnBook(ID, BookTestData.ID)).thenReturn(userDto);
 
         mockMvc.perform(post("/user/return/{userId}/{bookId}", ID, BookTestData.ID))
                 .andDo(print())
@@ -247,7 +486,7 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.username").value(USERNAME))
                 .andExpect(jsonPath("$.email").value(EMAIL))
                 .andExpect(jsonPath("$.books").isEmpty());
-        verify(userService).returnBook(ID, BookTestData.ID);
+        verify(checkoutService).returnBook(ID, BookTestData.ID);
     }
 
     @Test
@@ -258,6 +497,59 @@ public class UserControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$[0].exceptionType").value(ExceptionType.VALIDATION_EXCEPTION.name()))
                 .andExpect(jsonPath("$[1].exceptionType").value(ExceptionType.VALIDATION_EXCEPTION.name()));
-        verify(userService, never()).returnBook(INVALID_ID, BookTestData.INVALID_ID);
+        verify(checkoutService, never()).returnBook(INVALID_ID, BookTestData.INVALID_ID);
+    }
+
+    @Test
+    void givenBookIdsOnBestEffort_whenIssueBooks_thenReturnUpdatedUser() throws Exception {
+        when(userService.issueBooks(ID, List.of(2L, 3L), true)).thenReturn(createUserDto());
+
+        mockMvc.perform(post("/user/{userId}/issue", ID)
+                        .queryParam("mode", "best-effort")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[2, 3]"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(ID));
+        verify(userService).issueBooks(ID, List.of(2L, 3L), true);
+    }
+
+    @Test
+    void givenEmptyBookIdsAndInvalidMode_whenIssueBooks_thenReturnValidationExceptionListJson() throws Exception {
+        mockMvc.perform(post("/user/{userId}/issue", ID)
+                        .queryParam("mode", "some")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$[0].exceptionType").value(ExceptionType.VALIDATION_EXCEPTION.name()))
+                .andExpect(jsonPath("$[1].exceptionType").value(ExceptionType.VALIDATION_EXCEPTION.name()));
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void givenMoreBookIdsThanMaxBooks_whenIssueBooks_thenReturnValidationExceptionListJson() throws Exception {
+        List<Long> bookIds = LongStream.rangeClosed(1, 101).boxed().toList();
+
+        mockMvc.perform(post("/user/{userId}/issue", ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookIds)))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$[0].exceptionType").value(ExceptionType.VALIDATION_EXCEPTION.name()))
+                .andExpect(jsonPath("$[0].message").value("maximal number of bookIds is 100"));
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void givenBookIds_whenReturnBooks_thenReturnAllOrNothing() throws Exception {
+        when(userService.returnBooks(ID, List.of(2L, 3L), false)).thenReturn(createUserDto());
+
+        mockMvc.perform(post("/user/{userId}/return", ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[2, 3]"))
+                .andDo(print())
+                .andExpect(status().isOk());
+        verify(userService).returnBooks(ID, List.of(2L, 3L), false);
     }
 }
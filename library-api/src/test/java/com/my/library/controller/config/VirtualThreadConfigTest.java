@@ -0,0 +1,39 @@
+package com.my.library.controller.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class VirtualThreadConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(VirtualThreadConfig.class);
+
+    @Test
+    void givenPlatformMode_whenStartContext_thenStartWithoutVirtualThreads() {
+        contextRunner.withPropertyValues("library.execution.mode=platform")
+                .run(context -> assertThat(context).hasNotFailed().doesNotHaveBean(VirtualThreadConfig.class));
+    }
+
+    @Test
+    @EnabledForJreRange(max = JRE.JAVA_20)
+    void givenVirtualModeBeforeJava21_whenStartContext_thenFailWithIllegalStateException() {
+        contextRunner.withPropertyValues("library.execution.mode=virtual")
+                .run(context -> assertThat(context).getFailure().hasStackTraceContaining(
+                        IllegalStateException.class.getName() + ": Virtual threads need Java 21 or later"));
+    }
+
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    void givenVirtualModeOnJava21_whenRunTask_thenRunItOnVirtualThread() {
+        contextRunner.withPropertyValues("library.execution.mode=virtual").run(context -> {
+            assertThat(context).hasNotFailed().hasBean("virtualThreadProtocolHandlerCustomizer");
+            Thread thread = context.getBean(AsyncTaskExecutor.class).submit(Thread::currentThread).get();
+            assertThat(Thread.class.getMethod("isVirtual").invoke(thread)).isEqualTo(true);
+        });
+    }
+}
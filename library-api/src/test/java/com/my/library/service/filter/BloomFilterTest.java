@@ -0,0 +1,38 @@
+package com.my.library.service.filter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class BloomFilterTest {
+
+    @Test
+    void givenAddedValues_whenMightContain_thenNeverMissThem() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.add("user" + i));
+
+        assertThat(IntStream.range(0, 10_000).allMatch(i -> filter.mightContain("user" + i)), is(true));
+    }
+
+    @Test
+    void givenFullFilter_whenMightContainNewValues_thenStayNearFalsePositiveRate() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.add("user" + i));
+
+        long falsePositives = IntStream.range(0, 100_000).filter(i -> filter.mightContain("other" + i)).count();
+
+        assertThat(falsePositives, lessThan(2_000L));
+    }
+
+    @Test
+    void givenInvalidSize_whenCreate_thenThrowIllegalArgumentException() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> new BloomFilter(0, 0.01));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> new BloomFilter(100, 1));
+    }
+}
@@ -0,0 +1,79 @@
+package com.my.library.service.impl;
+
+import com.my.library.exception.BookNotFoundException;
+import com.my.library.exception.NoAvailableBooksException;
+import com.my.library.model.Book;
+import com.my.library.repository.BookRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static com.my.library.util.BookTestData.ID;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AtomicInventoryServiceTest {
+    @InjectMocks
+    private AtomicInventoryService inventoryService;
+
+    @Mock
+    private BookRepository bookRepository;
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void givenBookWithAvailableCopies_whenReserve_thenDecrementAvailable() {
+        when(bookRepository.decrementAvailable(ID)).thenReturn(1);
+
+        inventoryService.reserve(ID);
+
+        verify(bookRepository).decrementAvailable(ID);
+        verify(bookRepository, never()).existsById(ID);
+        verify(entityManagerFactory.getCache()).evict(Book.class, ID);
+    }
+
+    @Test
+    void givenBookWithZeroAvailable_whenReserve_thenThrowNoAvailableBooksException() {
+        when(bookRepository.decrementAvailable(ID)).thenReturn(0);
+        when(bookRepository.existsById(ID)).thenReturn(true);
+
+        assertThatExceptionOfType(NoAvailableBooksException.class)
+                .isThrownBy(() -> inventoryService.reserve(ID));
+        verify(bookRepository).decrementAvailable(ID);
+        verify(bookRepository).existsById(ID);
+    }
+
+    @Test
+    void givenInvalidBookId_whenReserve_thenThrowBookNotFoundException() {
+        when(bookRepository.decrementAvailable(ID)).thenReturn(0);
+        when(bookRepository.existsById(ID)).thenReturn(false);
+
+        assertThatExceptionOfType(BookNotFoundException.class)
+                .isThrownBy(() -> inventoryService.reserve(ID));
+        verify(bookRepository).decrementAvailable(ID);
+        verify(bookRepository).existsById(ID);
+    }
+
+    @Test
+    void givenValidBookId_whenRelease_thenIncrementAvailable() {
+        when(bookRepository.incrementAvailable(ID)).thenReturn(1);
+
+        inventoryService.release(ID);
+
+        verify(bookRepository).incrementAvailable(ID);
+    }
+
+    @Test
+    void givenInvalidBookId_whenRelease_thenThrowBookNotFoundException() {
+        when(bookRepository.incrementAvailable(ID)).thenReturn(0);
+
+        assertThatExceptionOfType(BookNotFoundException.class)
+                .isThrownBy(() -> inventoryService.release(ID));
+        verify(bookRepository).incrementAvailable(ID);
+    }
+}
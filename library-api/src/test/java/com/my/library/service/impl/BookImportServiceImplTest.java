@@ -0,0 +1,175 @@
+package com.my.library.service.impl;
+
+import com.my.library.dto.BookDto;
+import com.my.library.dto.BookImportReport;
+import com.my.library.dto.BookImportResult;
+import com.my.library.model.Book;
+import com.my.library.repository.BookRepository;
+import com.my.library.repository.projection.BookTitle;
+import com.my.library.service.UniquenessService;
+import com.my.library.service.config.ImportProperties;
+import com.my.library.service.event.BookChangedEvent;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static com.my.library.util.BookTestData.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BookImportServiceImplTest {
+    @InjectMocks
+    private BookImportServiceImpl bookImportService;
+
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private Validator validator;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Spy
+    private ImportProperties importProperties = new ImportProperties();
+    @Mock
+    private UniquenessService uniquenessService;
+
+    @Test
+    void givenNewExistingAndRepeatedBooks_whenImportBooks_thenCreateOnlyNewBooks() {
+        executeTransactions();
+        when(uniquenessService.mightExistBook(AUTHOR, NAME)).thenReturn(true);
+        when(bookRepository.findTitlesByAuthorInAndNameIn(anyCollection(), anyCollection()))
+                .thenReturn(List.of(createTitle(AUTHOR, NAME)));
+        assignIds();
+
+        BookImportReport report = bookImportService.importBooks(List.of(
+                createImportedBookDto(AUTHOR, NAME),
+                createImportedBookDto(AUTHOR, "new name"),
+                createImportedBookDto(AUTHOR, "new name")).iterator());
+
+        assertThat(report.getCreated(), is(1));
+        assertThat(report.getDuplicates(), is(2));
+        assertThat(report.getResults().stream().map(BookImportResult::getStatus).toList(),
+                is(List.of(BookImportResult.Status.DUPLICATE, BookImportResult.Status.CREATED,
+                        BookImportResult.Status.DUPLICATE)));
+        assertThat(report.getResults().get(1).getId(), is(ID));
+        verify(eventPublisher).publishEvent(BookChangedEvent.created(ID));
+        verify(bookRepository).findTitlesByAuthorInAndNameIn(Set.of(AUTHOR), Set.of(NAME));
+        verify(uniquenessService).addBook(AUTHOR, "new name");
+    }
+
+    @Test
+    void givenBooksRuledOutByFilter_whenImportBooks_thenSkipDuplicateQuery() {
+        executeTransactions();
+        assignIds();
+
+        BookImportReport report = bookImportService.importBooks(List.of(
+                createImportedBookDto(AUTHOR, "name 1"),
+                createImportedBookDto(AUTHOR, "name 2")).iterator());
+
+        assertThat(report.getCreated(), is(2));
+        verify(bookRepository, never()).findTitlesByAuthorInAndNameIn(anyCollection(), anyCollection());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void givenInvalidBook_whenImportBooks_thenReportErrorsWithoutCreatingIt() {
+        executeTransactions();
+        ConstraintViolation<BookDto> violation = mock(ConstraintViolation.class);
+        when(violation.getMessage()).thenReturn("author should not be null");
+        BookDto invalid = createImportedBookDto(null, NAME);
+        when(validator.validate(same(invalid), any())).thenReturn(Set.of(violation));
+
+        BookImportReport report = bookImportService.importBooks(List.of(invalid).iterator());
+
+        assertThat(report.getInvalid(), is(1));
+        assertThat(report.getResults().get(0).getErrors(), is(List.of("author should not be null")));
+        verify(bookRepository, never()).findTitlesByAuthorInAndNameIn(anyCollection(), anyCollection());
+        verify(bookRepository).saveAll(argThat(books -> !books.iterator().hasNext()));
+    }
+
+    @Test
+    void givenMoreBooksThanChunkSize_whenImportBooks_thenImportEveryChunkInItsOwnTransaction() {
+        importProperties.setChunkSize(2);
+        executeTransactions();
+        when(uniquenessService.mightExistBook(eq(AUTHOR), anyString())).thenReturn(true);
+        assignIds();
+
+        BookImportReport report = bookImportService.importBooks(List.of(
+                createImportedBookDto(AUTHOR, "name 1"),
+                createImportedBookDto(AUTHOR, "name 2"),
+                createImportedBookDto(AUTHOR, "name 3")).iterator());
+
+        assertThat(report.getCreated(), is(3));
+        assertThat(report.getResults().stream().map(BookImportResult::getIndex).toList(), is(List.of(0, 1, 2)));
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(bookRepository, times(2)).findTitlesByAuthorInAndNameIn(anyCollection(), anyCollection());
+    }
+
+    @Test
+    void givenConcurrentlyCreatedBook_whenImportBooks_thenImportRowsOneByOne() {
+        executeTransactions();
+        assignIds();
+        doThrow(new DataIntegrityViolationException("duplicate"))
+                .doNothing()
+                .doThrow(new DataIntegrityViolationException("duplicate"))
+                .when(bookRepository).flush();
+
+        BookImportReport report = bookImportService.importBooks(List.of(
+                createImportedBookDto(AUTHOR, "name 1"),
+                createImportedBookDto(AUTHOR, "name 2")).iterator());
+
+        assertThat(report.getCreated(), is(1));
+        assertThat(report.getDuplicates(), is(1));
+        assertThat(report.getResults().get(1).getStatus(), is(BookImportResult.Status.DUPLICATE));
+        verify(transactionTemplate, times(3)).execute(any());
+    }
+
+    private static BookDto createImportedBookDto(String author, String name) {
+        return new BookDto(null, author, name, AVAILABLE);
+    }
+
+    private static BookTitle createTitle(String author, String name) {
+        return new BookTitle() {
+            @Override
+            public String getAuthor() {
+                return author;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+
+    private void executeTransactions() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.getArgument(0, TransactionCallback.class).doInTransaction(null));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void assignIds() {
+        when(bookRepository.saveAll(any())).thenAnswer(invocation -> {
+            Collection<Book> books = invocation.getArgument(0, Collection.class);
+            books.forEach(book -> book.setId(ID));
+            return List.copyOf(books);
+        });
+    }
+}
@@ -0,0 +1,118 @@
+package com.my.library.service.impl;
+
+import com.my.library.dto.BookDto;
+import com.my.library.repository.BookRepository;
+import com.my.library.repository.projection.IndexedBookTitle;
+import com.my.library.service.event.BookLoansChangedEvent;
+import com.my.library.service.event.BookTitleChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static com.my.library.util.BookTestData.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BookSearchServiceImplTest {
+    @InjectMocks
+    private BookSearchServiceImpl bookSearchService;
+
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void givenBooksInDatabase_whenBuildIndexAndSearch_thenReturnBooksInRankOrder() {
+        executeTransactions();
+        when(bookRepository.streamTitles()).thenReturn(Stream.of(
+                createTitle(ID, "Frankenstein Scholar", "Notes"),
+                createTitle(ID + 1, AUTHOR, "Frankenstein")));
+        List<BookDto> books = createBookDtoList();
+        when(bookRepository.findBookDtosByIdIn(List.of(ID + 1, ID))).thenReturn(books);
+
+        bookSearchService.afterSingletonsInstantiated();
+
+        assertThat(bookSearchService.search("frankenstein", 10), is(List.of(books.get(1), books.get(0))));
+        assertThat(bookSearchService.suggest("fr", 10), is(List.of("Frankenstein", "Frankenstein Scholar")));
+    }
+
+    @Test
+    void givenNoMatchingBook_whenSearch_thenReturnEmptyListWithoutQuery() {
+        assertThat(bookSearchService.search(NAME, 10), is(empty()));
+        verify(bookRepository, never()).findBookDtosByIdIn(anyCollection());
+    }
+
+    @Test
+    void givenCreatedAndDeletedBooks_whenSearch_thenFindOnlyCreatedBook() {
+        BookDto bookDto = createBookDto();
+        when(bookRepository.findBookDtosByIdIn(List.of(ID))).thenReturn(List.of(bookDto));
+
+        bookSearchService.onBookTitleChanged(new BookTitleChangedEvent(ID, AUTHOR, NAME));
+        bookSearchService.onBookTitleChanged(new BookTitleChangedEvent(ID + 1, AUTHOR, NAME));
+        bookSearchService.onBookTitleChanged(BookTitleChangedEvent.deleted(ID + 1));
+
+        assertThat(bookSearchService.search(NAME, 10), is(List.of(bookDto)));
+        assertThat(bookSearchService.suggest(NAME, 10), is(List.of(NAME)));
+    }
+
+    @Test
+    void givenBookIssuedAfterStart_whenSuggest_thenRankItFirst() {
+        bookSearchService.onBookTitleChanged(new BookTitleChangedEvent(ID, AUTHOR, "Name a"));
+        bookSearchService.onBookTitleChanged(new BookTitleChangedEvent(ID + 1, AUTHOR, "Name b"));
+
+        bookSearchService.onBookLoansChanged(new BookLoansChangedEvent(ID + 1, 1));
+
+        assertThat(bookSearchService.suggest("name", 10), is(List.of("Name b", "Name a")));
+    }
+
+    @Test
+    void givenBookDeletedAfterIndexRead_whenSearch_thenSkipIt() {
+        bookSearchService.onBookTitleChanged(new BookTitleChangedEvent(ID, AUTHOR, NAME));
+        when(bookRepository.findBookDtosByIdIn(List.of(ID))).thenReturn(List.of());
+
+        assertThat(bookSearchService.search(NAME, 10), is(empty()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void executeTransactions() {
+        doAnswer(invocation -> {
+            invocation.getArgument(0, Consumer.class).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    private static IndexedBookTitle createTitle(long id, String author, String name) {
+        return new IndexedBookTitle() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getAuthor() {
+                return author;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public Long getLoans() {
+                return id;
+            }
+        };
+    }
+}
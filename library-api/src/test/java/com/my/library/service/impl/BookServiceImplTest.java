@@ -1,20 +1,37 @@
 package com.my.library.service.impl;
 
 import com.my.library.dto.BookDto;
+import com.my.library.dto.CursorPage;
 import com.my.library.exception.BookAlreadyExistsException;
+import com.my.library.exception.BookModifiedException;
 import com.my.library.exception.BookNotFoundException;
+import com.my.library.exception.InvalidCursorException;
 import com.my.library.exception.IssuedBookException;
 import com.my.library.model.Book;
 import com.my.library.repository.BookRepository;
+import com.my.library.repository.BookStockRepository;
+import com.my.library.repository.HoldRepository;
+import com.my.library.repository.LoanRepository;
+import com.my.library.service.CountService;
+import com.my.library.service.InventoryService;
+import com.my.library.service.UniquenessService;
+import com.my.library.service.event.BookChangedEvent;
+import com.my.library.service.pagination.Cursor;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 
-import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static com.my.library.util.BookTestData.*;
@@ -22,6 +39,7 @@ import static com.my.library.util.CommonTestData.*;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,6 +49,20 @@ public class BookServiceImplTest {
 
     @Mock
     private BookRepository bookRepository;
+    @Mock
+    private LoanRepository loanRepository;
+    @Mock
+    private BookStockRepository bookStockRepository;
+    @Mock
+    private HoldRepository holdRepository;
+    @Mock
+    private InventoryService inventoryService;
+    @Mock
+    private CountService countService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private UniquenessService uniquenessService;
 
     @Test
     void givenValidBookId_whenGetById_thenReturnBookDto() {
@@ -44,6 +76,16 @@ public class BookServiceImplTest {
         verify(bookRepository).findById(ID);
     }
 
+    @Test
+    void givenBookWithCopiesOutsideRow_whenGetById_thenAddThemToAvailable() {
+        when(bookRepository.findById(ID)).thenReturn(Optional.of(createBook()));
+        when(inventoryService.countOutsideRows(List.of(ID))).thenReturn(Map.of(ID, 3));
+
+        BookDto actual = bookService.getById(ID);
+
+        assertThat(actual.getAvailable(), is(AVAILABLE + 3));
+    }
+
     @Test
     void givenInvalidBookId_whenGetById_thenThrowBookNotFoundException() {
         when(bookRepository.findById(ID)).thenReturn(Optional.empty());
@@ -56,27 +98,135 @@ public class BookServiceImplTest {
     @Test
     void givenPageableData_whenGetSortedPage_thenReturnPageOfBooks() {
         Pageable pageable = createPageable();
-        Page<Book> bookPage = createPage(createBookList());
+        Page<BookDto> bookDtoPage = createPage(createBookDtoList());
         Page<BookDto> expected = createPage(createBookDtoList());
 
-        when(bookRepository.findAll(pageable)).thenReturn(bookPage);
+        when(bookRepository.findBookDtos(pageable)).thenReturn(bookDtoPage);
 
         Page<BookDto> actual = bookService.getSortedPage(PAGE, SIZE, SORT_BY, ORDER);
 
         assertThat(actual.getSize(), is(SIZE));
         assertThat(actual.getPageable(), is(pageable));
         assertThat(actual, is(expected));
-        verify(bookRepository).findAll(pageable);
+        verify(bookRepository).findBookDtos(pageable);
+    }
+
+    @Test
+    void givenPageableData_whenGetSortedSlice_thenReturnSliceWithoutCount() {
+        Pageable pageable = createPageable();
+        Slice<BookDto> bookDtoSlice = new SliceImpl<>(createBookDtoList(), pageable, true);
+
+        when(bookRepository.findBookDtoSlice(pageable)).thenReturn(bookDtoSlice);
+
+        Slice<BookDto> actual = bookService.getSortedSlice(PAGE, SIZE, SORT_BY, ORDER);
+
+        assertThat(actual.getContent(), is(createBookDtoList()));
+        assertThat(actual.hasNext(), is(true));
+        verify(bookRepository).findBookDtoSlice(pageable);
+        verify(bookRepository, never()).findBookDtos(pageable);
+        verify(bookRepository, never()).count();
+    }
+
+    @Test
+    void givenPageableData_whenGetSortedPageWithEstimatedTotal_thenReturnPageWithEstimatedTotal() {
+        Pageable pageable = createPageable();
+        Slice<BookDto> bookDtoSlice = new SliceImpl<>(createBookDtoList(), pageable, true);
+
+        when(bookRepository.findBookDtoSlice(pageable)).thenReturn(bookDtoSlice);
+        when(countService.estimateBooks()).thenReturn(1000L);
+
+        Page<BookDto> actual = bookService.getSortedPageWithEstimatedTotal(PAGE, SIZE, SORT_BY, ORDER);
+
+        assertThat(actual.getTotalElements(), is(1000L));
+        assertThat(actual.getPageable(), is(pageable));
+        verify(bookRepository, never()).count();
+    }
+
+    @Test
+    void givenStaleEstimate_whenGetSortedPageWithEstimatedTotal_thenReturnTotalConsistentWithPage() {
+        Pageable pageable = createPageable();
+        Slice<BookDto> bookDtoSlice = new SliceImpl<>(createBookDtoList(), pageable, false);
+
+        when(bookRepository.findBookDtoSlice(pageable)).thenReturn(bookDtoSlice);
+        when(countService.estimateBooks()).thenReturn(0L);
+
+        Page<BookDto> actual = bookService.getSortedPageWithEstimatedTotal(PAGE, SIZE, SORT_BY, ORDER);
+
+        assertThat(actual.getTotalElements(), is((long) createBookList().size()));
+        assertThat(actual.hasNext(), is(false));
+    }
+
+    @Test
+    void givenMoreBooksThanSize_whenGetPageAfter_thenReturnFirstBooksWithNextCursor() {
+        List<Book> bookList = createBookList();
+        String expectedCursor = new Cursor(SORT_BY, ORDER, ID, null).encode();
+
+        when(bookRepository.findPageAfter(SORT_BY, false, null, null, 2)).thenReturn(bookList);
+
+        CursorPage<BookDto> actual = bookService.getPageAfter("", 1, SORT_BY, ORDER);
+
+        assertThat(actual.getContent(), is(List.of(createBookDtoList().get(0))));
+        assertThat(actual.getNextCursor(), is(expectedCursor));
+        verify(bookRepository).findPageAfter(SORT_BY, false, null, null, 2);
+    }
+
+    @Test
+    void givenCursor_whenGetPageAfter_thenReturnBooksAfterCursorWithoutNextCursor() {
+        String cursor = new Cursor("author", "desc", ID, AUTHOR).encode();
+
+        when(bookRepository.findPageAfter("author", true, AUTHOR, ID, SIZE + 1)).thenReturn(createBookList());
+
+        CursorPage<BookDto> actual = bookService.getPageAfter(cursor, SIZE, "author", "desc");
+
+        assertThat(actual.getContent(), is(createBookDtoList()));
+        assertThat(actual.getNextCursor(), nullValue());
+        verify(bookRepository).findPageAfter("author", true, AUTHOR, ID, SIZE + 1);
+    }
+
+    @Test
+    void givenCursorWithEmptyAuthor_whenGetPageAfter_thenReadBooksAfterEmptyAuthor() {
+        String cursor = new Cursor("author", ORDER, ID, "").encode();
+
+        when(bookRepository.findPageAfter("author", false, "", ID, SIZE + 1)).thenReturn(createBookList());
+
+        CursorPage<BookDto> actual = bookService.getPageAfter(cursor, SIZE, "author", ORDER);
+
+        assertThat(actual.getContent(), is(createBookDtoList()));
+        verify(bookRepository).findPageAfter("author", false, "", ID, SIZE + 1);
+    }
+
+    @Test
+    void givenCursorWithoutAuthor_whenGetPageAfterSortedByAuthor_thenThrowInvalidCursorException() {
+        String cursor = new Cursor("author", ORDER, ID, null).encode();
+
+        assertThatExceptionOfType(InvalidCursorException.class)
+                .isThrownBy(() -> bookService.getPageAfter(cursor, SIZE, "author", ORDER));
+        verify(bookRepository, never()).findPageAfter(any(), anyBoolean(), any(), any(), anyInt());
+    }
+
+    @Test
+    void givenCursorForDifferentSort_whenGetPageAfter_thenThrowInvalidCursorException() {
+        String cursor = new Cursor("name", ORDER, ID, NAME).encode();
+
+        assertThatExceptionOfType(InvalidCursorException.class)
+                .isThrownBy(() -> bookService.getPageAfter(cursor, SIZE, "author", ORDER));
+        verify(bookRepository, never()).findPageAfter(any(), anyBoolean(), any(), any(), anyInt());
+    }
+
+    @Test
+    void givenMalformedCursor_whenGetPageAfter_thenThrowInvalidCursorException() {
+        assertThatExceptionOfType(InvalidCursorException.class)
+                .isThrownBy(() -> bookService.getPageAfter("not a cursor", SIZE, SORT_BY, ORDER));
+        verify(bookRepository, never()).findPageAfter(any(), anyBoolean(), any(), any(), anyInt());
     }
 
     @Test
     void givenBookDtoWithExistingNameForAuthor_whenCreate_thenThrowBookAlreadyExistsException() {
-        when(bookRepository.existsByAuthorAndName(AUTHOR, NAME)).thenReturn(true);
+        when(bookRepository.saveAndFlush(createBook())).thenThrow(new DataIntegrityViolationException("duplicate"));
 
         assertThatExceptionOfType(BookAlreadyExistsException.class)
                 .isThrownBy(() -> bookService.create(createBookDto()));
-        verify(bookRepository).existsByAuthorAndName(AUTHOR, NAME);
-        verify(bookRepository, never()).save(any());
+        verify(eventPublisher, never()).publishEvent(BookChangedEvent.created(ID));
     }
 
     @Test
@@ -85,12 +235,13 @@ public class BookServiceImplTest {
         Book book = createBook();
         BookDto expected = createBookDto();
 
-        when(bookRepository.save(book)).thenReturn(createBook());
+        when(bookRepository.saveAndFlush(book)).thenReturn(createBook());
 
         BookDto actual = bookService.create(bookDto);
 
         assertThat(actual, is(expected));
-        verify(bookRepository).save(book);
+        verify(bookRepository).saveAndFlush(book);
+        verify(uniquenessService).addBook(AUTHOR, NAME);
     }
 
     @Test
@@ -102,7 +253,7 @@ public class BookServiceImplTest {
         assertThatExceptionOfType(BookNotFoundException.class)
                 .isThrownBy(() -> bookService.update(bookDto));
         verify(bookRepository).findById(ID);
-        verify(bookRepository, never()).save(any());
+        verify(bookRepository, never()).flush();
     }
 
     @Test
@@ -111,13 +262,26 @@ public class BookServiceImplTest {
         Book book = createBook();
 
         when(bookRepository.findById(ID)).thenReturn(Optional.of(book));
-        when(bookRepository.existsByAuthorAndNameAndIdIsNot(AUTHOR, NAME, ID)).thenReturn(true);
+        doThrow(new DataIntegrityViolationException("duplicate")).when(bookRepository).flush();
 
         assertThatExceptionOfType(BookAlreadyExistsException.class)
                 .isThrownBy(() -> bookService.update(bookDto));
         verify(bookRepository).findById(ID);
-        verify(bookRepository).existsByAuthorAndNameAndIdIsNot(AUTHOR, NAME, ID);
-        verify(bookRepository, never()).save(any());
+        verify(eventPublisher, never()).publishEvent(new BookChangedEvent(ID));
+    }
+
+    @Test
+    void givenConcurrentlyChangedBook_whenUpdate_thenThrowBookModifiedException() {
+        BookDto bookDto = createBookDto();
+        Book book = createBook();
+
+        when(bookRepository.findById(ID)).thenReturn(Optional.of(book));
+        doThrow(new ObjectOptimisticLockingFailureException(Book.class, ID)).when(bookRepository).flush();
+
+        assertThatExceptionOfType(BookModifiedException.class)
+                .isThrownBy(() -> bookService.update(bookDto));
+        verify(bookRepository).findById(ID);
+        verify(eventPublisher, never()).publishEvent(new BookChangedEvent(ID));
     }
 
     @Test
@@ -126,14 +290,13 @@ public class BookServiceImplTest {
         Book book = createBook();
 
         when(bookRepository.findById(ID)).thenReturn(Optional.of(book));
-        when(bookRepository.existsByAuthorAndNameAndIdIsNot(AUTHOR, NAME, ID)).thenReturn(false);
-        when(bookRepository.save(book)).thenReturn(book);
 
         BookDto actual = bookService.update(expected);
         assertThat(actual, is(expected));
         verify(bookRepository).findById(ID);
-        verify(bookRepository).existsByAuthorAndNameAndIdIsNot(AUTHOR, NAME, ID);
-        verify(bookRepository).save(book);
+        verify(bookRepository).flush();
+        verify(bookRepository, never()).save(any());
+        verify(uniquenessService).addBook(AUTHOR, NAME);
     }
 
     @Test
@@ -148,26 +311,31 @@ public class BookServiceImplTest {
 
     @Test
     void givenValidBookIdForIssuedBook_whenDelete_thenThrowIssuedBookException() {
-        Book book = createBook();
-        book.setUsers(USERS);
-        when(bookRepository.findById(ID)).thenReturn(Optional.of(book));
+        when(bookRepository.findById(ID)).thenReturn(Optional.of(createBook()));
+        when(loanRepository.existsByBookId(ID)).thenReturn(true);
 
         assertThatExceptionOfType(IssuedBookException.class)
                 .isThrownBy(() -> bookService.deleteById(ID));
         verify(bookRepository).findById(ID);
+        verify(loanRepository).existsByBookId(ID);
+        verify(bookStockRepository, never()).deleteByBookId(ID);
         verify(bookRepository, never()).deleteById(ID);
     }
 
     @Test
     void givenValidBookId_whenDelete_thenRepositoryMethodCall() {
-        Book book = createBook();
-        book.setUsers(new HashSet<>());
-        when(bookRepository.findById(ID)).thenReturn(Optional.of(book));
+        when(bookRepository.findById(ID)).thenReturn(Optional.of(createBook()));
+        when(loanRepository.existsByBookId(ID)).thenReturn(false);
         doNothing().when(bookRepository).deleteById(ID);
 
         bookService.deleteById(ID);
 
         verify(bookRepository).findById(ID);
+        verify(loanRepository).existsByBookId(ID);
+        verify(bookStockRepository).deleteByBookId(ID);
+        verify(holdRepository).deleteByBookId(ID);
         verify(bookRepository).deleteById(ID);
+        verify(inventoryService).forget(ID);
+        verify(eventPublisher).publishEvent(new BookChangedEvent(ID));
     }
 }
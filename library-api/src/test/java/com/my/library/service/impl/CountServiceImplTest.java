@@ -0,0 +1,52 @@
+package com.my.library.service.impl;
+
+import com.my.library.repository.BookRepository;
+import com.my.library.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CountServiceImplTest {
+    @InjectMocks
+    private CountServiceImpl countService;
+
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private UserRepository userRepository;
+
+    @Test
+    void givenNoRefreshYet_whenEstimate_thenCountOnce() {
+        when(bookRepository.count()).thenReturn(10L);
+        when(userRepository.count()).thenReturn(20L);
+
+        assertThat(countService.estimateBooks(), is(10L));
+        assertThat(countService.estimateBooks(), is(10L));
+        assertThat(countService.estimateUsers(), is(20L));
+        assertThat(countService.estimateUsers(), is(20L));
+
+        verify(bookRepository).count();
+        verify(userRepository).count();
+    }
+
+    @Test
+    void givenRefresh_whenEstimate_thenReturnRefreshedCountWithoutCounting() {
+        when(bookRepository.count()).thenReturn(10L, 11L);
+        when(userRepository.count()).thenReturn(20L, 21L);
+
+        countService.refresh();
+        countService.refresh();
+
+        assertThat(countService.estimateBooks(), is(11L));
+        assertThat(countService.estimateUsers(), is(21L));
+        verify(bookRepository, times(2)).count();
+        verify(userRepository, times(2)).count();
+    }
+}
@@ -0,0 +1,60 @@
+package com.my.library.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.my.library.dto.BookDto;
+import com.my.library.repository.BookRepository;
+import com.my.library.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static com.my.library.util.BookTestData.createBookDto;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ExportServiceImplTest {
+    @InjectMocks
+    private ExportServiceImpl exportService;
+
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void givenBooks_whenExportBooks_thenWriteOneLinePerBookAndCloseStream() throws Exception {
+        BookDto bookDto = createBookDto();
+        AtomicBoolean closed = new AtomicBoolean();
+        when(bookRepository.streamBookDtos())
+                .thenReturn(Stream.of(bookDto, bookDto).onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.exportBooks(out);
+
+        String line = objectMapper.writeValueAsString(bookDto);
+        assertThat(out.toString(), is(line + "\n" + line + "\n"));
+        assertThat(closed.get(), is(true));
+    }
+
+    @Test
+    void givenNoUsers_whenExportUsers_thenWriteNothing() throws Exception {
+        when(userRepository.streamUserDtos()).thenReturn(Stream.empty());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.exportUsers(out);
+
+        assertThat(out.size(), is(0));
+        verify(userRepository).streamUserDtos();
+    }
+}
@@ -0,0 +1,132 @@
+package com.my.library.service.impl;
+
+import com.my.library.dto.HoldDto;
+import com.my.library.exception.BookAvailableException;
+import com.my.library.exception.HoldAlreadyPlacedException;
+import com.my.library.model.Book;
+import com.my.library.model.Hold;
+import com.my.library.repository.BookRepository;
+import com.my.library.repository.HoldRepository;
+import com.my.library.repository.LoanRepository;
+import com.my.library.repository.UserRepository;
+import com.my.library.service.InventoryService;
+import com.my.library.service.config.HoldProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static com.my.library.util.BookTestData.ID;
+import static com.my.library.util.BookTestData.createBook;
+import static com.my.library.util.UserTestData.createUser;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class HoldServiceImplTest {
+    @InjectMocks
+    private HoldServiceImpl holdService;
+
+    @Mock
+    private HoldRepository holdRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private LoanRepository loanRepository;
+    @Mock
+    private InventoryService inventoryService;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Spy
+    private HoldProperties holdProperties = createHoldProperties();
+
+    @Test
+    void givenBookWithAvailableCopies_whenPlaceHold_thenThrowBookAvailableException() {
+        when(userRepository.findById(2L)).thenReturn(Optional.of(createUser()));
+        when(bookRepository.findLockedById(ID)).thenReturn(Optional.of(createBook()));
+
+        assertThatExceptionOfType(BookAvailableException.class)
+                .isThrownBy(() -> holdService.placeHold(ID, 2));
+        verifyNoInteractions(holdRepository);
+    }
+
+    @Test
+    void givenHoldOfSameUser_whenPlaceHold_thenThrowHoldAlreadyPlacedException() {
+        when(userRepository.findById(2L)).thenReturn(Optional.of(createUser()));
+        when(bookRepository.findLockedById(ID)).thenReturn(Optional.of(createSoldOutBook()));
+        when(holdRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("user_id, book_id"));
+
+        assertThatExceptionOfType(HoldAlreadyPlacedException.class)
+                .isThrownBy(() -> holdService.placeHold(ID, 2));
+    }
+
+    @Test
+    void givenSoldOutBook_whenPlaceHold_thenReturnPositionInQueueAndKeepHoldUntilItExpires() {
+        when(userRepository.findById(2L)).thenReturn(Optional.of(createUser()));
+        when(bookRepository.findLockedById(ID)).thenReturn(Optional.of(createSoldOutBook()));
+        when(holdRepository.saveAndFlush(any())).thenAnswer(invocation -> {
+            Hold hold = invocation.getArgument(0);
+            hold.setId(3L);
+            return hold;
+        });
+        when(holdRepository.countQueuedBefore(eq(3L), any())).thenReturn(2L);
+
+        HoldDto hold = holdService.placeHold(ID, 2);
+        holdService.expire();
+
+        assertThat(hold.getPosition(), is(2L));
+        assertThat(hold.getUserId(), is(2L));
+        verifyNoInteractions(transactionTemplate);
+    }
+
+    @Test
+    void givenExpiredHold_whenExpire_thenDeleteItWithoutScanningHolds() throws InterruptedException {
+        holdProperties.setTtl(Duration.ZERO);
+        when(userRepository.findById(2L)).thenReturn(Optional.of(createUser()));
+        when(bookRepository.findLockedById(ID)).thenReturn(Optional.of(createSoldOutBook()));
+        when(holdRepository.saveAndFlush(any())).thenAnswer(invocation -> {
+            Hold hold = invocation.getArgument(0);
+            hold.setId(3L);
+            return hold;
+        });
+        doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        holdService.placeHold(ID, 2);
+        Thread.sleep(holdProperties.getTick().toMillis() * 2);
+        holdService.expire();
+        holdService.expire();
+
+        verify(holdRepository).deleteAllByIdInBatch(List.of(3L));
+        verify(holdRepository, never()).streamExpiries();
+    }
+
+    private static HoldProperties createHoldProperties() {
+        HoldProperties holdProperties = new HoldProperties();
+        holdProperties.setTick(Duration.ofMillis(10));
+        return holdProperties;
+    }
+
+    private static Book createSoldOutBook() {
+        Book book = createBook();
+        book.setAvailable(0);
+        return book;
+    }
+}
@@ -0,0 +1,162 @@
+package com.my.library.service.impl;
+
+import com.my.library.dto.BookDto;
+import com.my.library.repository.BookRepository;
+import com.my.library.service.config.StreamProperties;
+import com.my.library.service.event.BookChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static com.my.library.util.BookTestData.*;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class InventoryStreamServiceImplTest {
+    @InjectMocks
+    private InventoryStreamServiceImpl inventoryStreamService;
+
+    @Mock
+    private BookRepository bookRepository;
+    @Spy
+    private StreamProperties streamProperties = new StreamProperties();
+
+    @BeforeEach
+    void startSenders() {
+        inventoryStreamService.start();
+    }
+
+    @AfterEach
+    void stopSenders() {
+        inventoryStreamService.stop();
+    }
+
+    @Test
+    void givenNoSubscribers_whenBookChanged_thenSkipReadingIt() {
+        inventoryStreamService.onBookChanged(new BookChangedEvent(ID));
+
+        inventoryStreamService.publish();
+
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    void givenRepeatedChanges_whenPublish_thenReadEveryChangedBookOnce() {
+        when(bookRepository.findBookDtosByIdIn(anyCollection()))
+                .thenReturn(List.of(new BookDto(ID, AUTHOR, NAME, AVAILABLE)));
+        inventoryStreamService.subscribe(Set.of());
+        inventoryStreamService.onBookChanged(new BookChangedEvent(ID));
+        inventoryStreamService.onBookChanged(new BookChangedEvent(ID));
+        inventoryStreamService.onBookChanged(new BookChangedEvent(2));
+
+        inventoryStreamService.publish();
+        inventoryStreamService.publish();
+
+        verify(bookRepository).findBookDtosByIdIn(argThat(ids ->
+                ids.size() == 2 && ids.containsAll(List.of(ID, 2L))));
+    }
+
+    @Test
+    void givenSubscriberOfSomeBooks_whenOtherBooksChange_thenReadCurrentAvailabilityOfItsBooksFirst() {
+        when(bookRepository.findBookDtosByIdIn(anyCollection()))
+                .thenReturn(List.of(new BookDto(ID, AUTHOR, NAME, AVAILABLE)))
+                .thenReturn(List.of());
+        inventoryStreamService.subscribe(Set.of(ID));
+        inventoryStreamService.onBookChanged(new BookChangedEvent(2));
+
+        inventoryStreamService.publish();
+
+        verify(bookRepository).findBookDtosByIdIn(Set.of(ID));
+        verify(bookRepository).findBookDtosByIdIn(List.of(2L));
+    }
+
+    @Test
+    void givenSubscriberFallingBehind_whenBufferOverflows_thenCompleteItsStream() {
+        streamProperties.setBufferSize(1);
+        SseEmitter emitter = inventoryStreamService.subscribe(Set.of());
+        inventoryStreamService.onBookChanged(new BookChangedEvent(ID));
+        inventoryStreamService.onBookChanged(new BookChangedEvent(2));
+
+        inventoryStreamService.publish();
+        inventoryStreamService.onBookChanged(new BookChangedEvent(ID));
+        inventoryStreamService.publish();
+        inventoryStreamService.stop();
+
+        assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() -> emitter.send("change"));
+        verify(bookRepository).findBookDtosByIdIn(anyCollection());
+    }
+
+    @Test
+    void givenSubscriberStuckOnSend_whenSendTimeoutPasses_thenDropAndCompleteItsStream() throws Exception {
+        when(bookRepository.findBookDtosByIdIn(anyCollection()))
+                .thenReturn(List.of(new BookDto(ID, AUTHOR, NAME, AVAILABLE)));
+        streamProperties.setSendTimeout(Duration.ofMillis(50));
+        SseEmitter emitter = inventoryStreamService.subscribe(Set.of());
+
+        synchronized (emitter) {
+            inventoryStreamService.onBookChanged(new BookChangedEvent(ID));
+            inventoryStreamService.publish();
+            Thread.sleep(500);
+            inventoryStreamService.publish();
+            inventoryStreamService.onBookChanged(new BookChangedEvent(ID));
+            inventoryStreamService.publish();
+        }
+        inventoryStreamService.stop();
+
+        assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() -> emitter.send("change"));
+        verify(bookRepository).findBookDtosByIdIn(anyCollection());
+    }
+
+    @Test
+    void givenSubscriberStuckOnSend_whenOtherSubscriberIsSentTo_thenSendToItOnAnotherThread() throws Exception {
+        when(bookRepository.findBookDtosByIdIn(anyCollection()))
+                .thenReturn(List.of(new BookDto(ID, AUTHOR, NAME, AVAILABLE)));
+        streamProperties.setSenders(1);
+        streamProperties.setSendTimeout(Duration.ofMillis(50));
+        inventoryStreamService.stop();
+        inventoryStreamService.start();
+        SseEmitter stuck = inventoryStreamService.subscribe(Set.of());
+        SseEmitter other = inventoryStreamService.subscribe(Set.of());
+
+        synchronized (stuck) {
+            synchronized (other) {
+                inventoryStreamService.onBookChanged(new BookChangedEvent(ID));
+                inventoryStreamService.publish();
+                Thread.sleep(500);
+                inventoryStreamService.publish();
+            }
+        }
+        inventoryStreamService.stop();
+
+        assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() -> stuck.send("change"));
+        assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() -> other.send("change"));
+    }
+
+    @Test
+    void givenCompletedStream_whenChangeIsSent_thenDropSubscriber() {
+        when(bookRepository.findBookDtosByIdIn(anyCollection()))
+                .thenReturn(List.of(new BookDto(ID, AUTHOR, NAME, AVAILABLE)));
+        SseEmitter emitter = inventoryStreamService.subscribe(Set.of());
+        emitter.complete();
+
+        inventoryStreamService.onBookChanged(new BookChangedEvent(ID));
+        inventoryStreamService.publish();
+        inventoryStreamService.stop();
+        inventoryStreamService.onBookChanged(new BookChangedEvent(ID));
+        inventoryStreamService.publish();
+
+        verify(bookRepository).findBookDtosByIdIn(anyCollection());
+    }
+}
@@ -0,0 +1,120 @@
+package com.my.library.service.impl;
+
+import com.my.library.dto.CursorPage;
+import com.my.library.dto.LoanDto;
+import com.my.library.exception.InvalidCursorException;
+import com.my.library.repository.LoanRepository;
+import com.my.library.service.config.LoanProperties;
+import com.my.library.service.event.LoanOverdueEvent;
+import com.my.library.service.pagination.Cursor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LoanServiceImplTest {
+    private static final LocalDateTime DUE_DATE = LocalDateTime.of(2023, 3, 1, 12, 0);
+
+    @InjectMocks
+    private LoanServiceImpl loanService;
+
+    @Mock
+    private LoanRepository loanRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Spy
+    private LoanProperties loanProperties = new LoanProperties();
+
+    @Test
+    void givenMoreOverdueLoansThanSize_whenGetOverduePage_thenReturnCursorOfLastLoan() {
+        when(loanRepository.findOverdue(any(), eq(PageRequest.ofSize(3))))
+                .thenReturn(List.of(createLoanDto(1), createLoanDto(2), createLoanDto(3)));
+
+        CursorPage<LoanDto> page = loanService.getOverduePage("", 2);
+
+        assertThat(page.getContent(), is(List.of(createLoanDto(1), createLoanDto(2))));
+        assertThat(page.getNextCursor(), is(new Cursor("dueDate", "asc", 2L, DUE_DATE.toString()).encode()));
+    }
+
+    @Test
+    void givenCursor_whenGetOverduePage_thenReadLoansAfterItsDueDateAndId() {
+        String cursor = new Cursor("dueDate", "asc", 2L, DUE_DATE.toString()).encode();
+        when(loanRepository.findOverdueAfter(any(), eq(DUE_DATE), eq(2L), eq(PageRequest.ofSize(3))))
+                .thenReturn(List.of(createLoanDto(3)));
+
+        CursorPage<LoanDto> page = loanService.getOverduePage(cursor, 2);
+
+        assertThat(page.getContent(), is(List.of(createLoanDto(3))));
+        assertThat(page.getNextCursor(), is(nullValue()));
+        verify(loanRepository, never()).findOverdue(any(), any());
+    }
+
+    @Test
+    void givenCursorOfOtherSort_whenGetOverduePage_thenThrowInvalidCursorException() {
+        String cursor = new Cursor("username", "asc", 2L, "username2").encode();
+
+        assertThatExceptionOfType(InvalidCursorException.class)
+                .isThrownBy(() -> loanService.getOverduePage(cursor, 2));
+        verifyNoInteractions(loanRepository);
+    }
+
+    @Test
+    void givenOverdueLoans_whenProcessOverdue_thenPublishEveryClaimedLoanInBatches() {
+        loanProperties.setOverdueBatchSize(2);
+        executeTransactions();
+        when(loanRepository.findOverdueNotNotified(any(), eq(PageRequest.ofSize(2))))
+                .thenReturn(List.of(createLoanDto(1), createLoanDto(2)))
+                .thenReturn(List.of(createLoanDto(3)));
+        when(loanRepository.markOverdueNotified(anyLong(), any())).thenReturn(1);
+
+        loanService.processOverdue();
+
+        verify(loanRepository, times(2)).findOverdueNotNotified(any(), any());
+        verify(eventPublisher, times(3)).publishEvent(any(LoanOverdueEvent.class));
+        verify(eventPublisher).publishEvent(new LoanOverdueEvent(3, 1003, 1, DUE_DATE));
+    }
+
+    @Test
+    void givenLoanClaimedByOtherInstance_whenProcessOverdue_thenSkipIt() {
+        loanProperties.setOverdueBatchSize(2);
+        executeTransactions();
+        when(loanRepository.findOverdueNotNotified(any(), eq(PageRequest.ofSize(2))))
+                .thenReturn(List.of(createLoanDto(1)));
+        when(loanRepository.markOverdueNotified(eq(1L), any())).thenReturn(0);
+
+        loanService.processOverdue();
+
+        verify(loanRepository).findOverdueNotNotified(any(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void executeTransactions() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.getArgument(0, TransactionCallback.class).doInTransaction(null));
+    }
+
+    private static LoanDto createLoanDto(long id) {
+        return new LoanDto(id, 1000 + id, 1L, DUE_DATE.minusDays(14), DUE_DATE);
+    }
+}
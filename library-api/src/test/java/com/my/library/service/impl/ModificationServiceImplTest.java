@@ -0,0 +1,51 @@
+package com.my.library.service.impl;
+
+import com.my.library.service.config.PaginationProperties;
+import com.my.library.service.event.BookChangedEvent;
+import com.my.library.service.event.UserChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+public class ModificationServiceImplTest {
+    private final PaginationProperties paginationProperties = new PaginationProperties();
+    private final ModificationServiceImpl modificationService = new ModificationServiceImpl(paginationProperties);
+
+    @Test
+    void givenDefaultProperties_whenIsEnabled_thenReturnFalse() {
+        assertThat(modificationService.isEnabled(), is(false));
+
+        paginationProperties.setCountedTags(true);
+
+        assertThat(modificationService.isEnabled(), is(true));
+    }
+
+    @Test
+    void givenBookChangedEvents_whenGetModifications_thenCountOnlyBookModifications() {
+        modificationService.onBookChanged(new BookChangedEvent(1L));
+        modificationService.onBookChanged(new BookChangedEvent(1L));
+
+        assertThat(modificationService.getBookModifications(), is(2L));
+        assertThat(modificationService.getUserModifications(), is(0L));
+    }
+
+    @Test
+    void givenUserChangedEvent_whenGetModifications_thenCountOnlyUserModifications() {
+        modificationService.onUserChanged(new UserChangedEvent(1L));
+
+        assertThat(modificationService.getUserModifications(), is(1L));
+        assertThat(modificationService.getBookModifications(), is(0L));
+    }
+
+    @Test
+    void givenTwoProcessesWithSameCounts_whenGetEpoch_thenTellThemApart() {
+        ModificationServiceImpl other = new ModificationServiceImpl(paginationProperties);
+        modificationService.onBookChanged(new BookChangedEvent(1L));
+        other.onBookChanged(new BookChangedEvent(1L));
+
+        assertThat(other.getBookModifications(), is(modificationService.getBookModifications()));
+        assertThat(other.getEpoch(), is(not(modificationService.getEpoch())));
+    }
+}
@@ -0,0 +1,123 @@
+package com.my.library.service.impl;
+
+import com.my.library.exception.BookNotFoundException;
+import com.my.library.exception.InventoryConflictException;
+import com.my.library.exception.NoAvailableBooksException;
+import com.my.library.model.Book;
+import com.my.library.repository.BookRepository;
+import com.my.library.repository.projection.BookInventory;
+import com.my.library.service.config.InventoryProperties;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static com.my.library.util.BookTestData.AVAILABLE;
+import static com.my.library.util.BookTestData.ID;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OptimisticInventoryServiceTest {
+    private static final Long VERSION = 7L;
+    private static final int MAX_ATTEMPTS = 3;
+
+    private OptimisticInventoryService inventoryService;
+
+    @Mock
+    private BookRepository bookRepository;
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setup() {
+        InventoryProperties inventoryProperties = new InventoryProperties();
+        inventoryProperties.setMaxAttempts(MAX_ATTEMPTS);
+        inventoryProperties.setBackoff(Duration.ofMillis(1));
+        inventoryService = new OptimisticInventoryService(bookRepository, inventoryProperties, entityManagerFactory);
+    }
+
+    @Test
+    void givenUnchangedBook_whenReserve_thenDecrementAvailableOnFirstAttempt() {
+        when(bookRepository.findInventoryById(ID)).thenReturn(Optional.of(createInventory(AVAILABLE, VERSION)));
+        when(bookRepository.addAvailableIfVersion(ID, VERSION, -1)).thenReturn(1);
+
+        inventoryService.reserve(ID);
+
+        verify(bookRepository).findInventoryById(ID);
+        verify(bookRepository).addAvailableIfVersion(ID, VERSION, -1);
+        verify(entityManagerFactory.getCache()).evict(Book.class, ID);
+    }
+
+    @Test
+    void givenConcurrentlyChangedBook_whenReserve_thenRetryWithNewVersion() {
+        when(bookRepository.findInventoryById(ID))
+                .thenReturn(Optional.of(createInventory(AVAILABLE, VERSION)))
+                .thenReturn(Optional.of(createInventory(AVAILABLE - 1, VERSION + 1)));
+        when(bookRepository.addAvailableIfVersion(ID, VERSION, -1)).thenReturn(0);
+        when(bookRepository.addAvailableIfVersion(ID, VERSION + 1, -1)).thenReturn(1);
+
+        inventoryService.reserve(ID);
+
+        verify(bookRepository, times(2)).findInventoryById(ID);
+        verify(bookRepository).addAvailableIfVersion(ID, VERSION + 1, -1);
+    }
+
+    @Test
+    void givenBookChangedOnEveryAttempt_whenReserve_thenThrowInventoryConflictException() {
+        when(bookRepository.findInventoryById(ID)).thenReturn(Optional.of(createInventory(AVAILABLE, VERSION)));
+        when(bookRepository.addAvailableIfVersion(ID, VERSION, -1)).thenReturn(0);
+
+        assertThatExceptionOfType(InventoryConflictException.class)
+                .isThrownBy(() -> inventoryService.reserve(ID));
+        verify(bookRepository, times(MAX_ATTEMPTS)).addAvailableIfVersion(ID, VERSION, -1);
+    }
+
+    @Test
+    void givenBookWithZeroAvailable_whenReserve_thenThrowNoAvailableBooksException() {
+        when(bookRepository.findInventoryById(ID)).thenReturn(Optional.of(createInventory(0, VERSION)));
+
+        assertThatExceptionOfType(NoAvailableBooksException.class)
+                .isThrownBy(() -> inventoryService.reserve(ID));
+        verify(bookRepository, never()).addAvailableIfVersion(anyLong(), anyLong(), anyInt());
+    }
+
+    @Test
+    void givenInvalidBookId_whenRelease_thenThrowBookNotFoundException() {
+        when(bookRepository.findInventoryById(ID)).thenReturn(Optional.empty());
+
+        assertThatExceptionOfType(BookNotFoundException.class)
+                .isThrownBy(() -> inventoryService.release(ID));
+        verify(bookRepository, never()).addAvailableIfVersion(anyLong(), anyLong(), anyInt());
+    }
+
+    @Test
+    void givenUnchangedBook_whenRelease_thenIncrementAvailable() {
+        when(bookRepository.findInventoryById(ID)).thenReturn(Optional.of(createInventory(0, VERSION)));
+        when(bookRepository.addAvailableIfVersion(ID, VERSION, 1)).thenReturn(1);
+
+        inventoryService.release(ID);
+
+        verify(bookRepository).addAvailableIfVersion(ID, VERSION, 1);
+    }
+
+    private static BookInventory createInventory(int available, long version) {
+        return new BookInventory() {
+            @Override
+            public Integer getAvailable() {
+                return available;
+            }
+
+            @Override
+            public Long getVersion() {
+                return version;
+            }
+        };
+    }
+}
@@ -0,0 +1,71 @@
+package com.my.library.service.impl;
+
+import com.my.library.exception.BookNotFoundException;
+import com.my.library.exception.NoAvailableBooksException;
+import com.my.library.model.Book;
+import com.my.library.repository.BookRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static com.my.library.util.BookTestData.*;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PessimisticInventoryServiceTest {
+    @InjectMocks
+    private PessimisticInventoryService inventoryService;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Test
+    void givenBookWithAvailableCopies_whenReserve_thenDecrementAvailable() {
+        Book book = createBook();
+        when(bookRepository.findLockedById(ID)).thenReturn(Optional.of(book));
+
+        inventoryService.reserve(ID);
+
+        assertThat(book.getAvailable(), is(AVAILABLE - 1));
+        verify(bookRepository).findLockedById(ID);
+    }
+
+    @Test
+    void givenBookWithZeroAvailable_whenReserve_thenThrowNoAvailableBooksException() {
+        Book book = createBook();
+        book.setAvailable(0);
+        when(bookRepository.findLockedById(ID)).thenReturn(Optional.of(book));
+
+        assertThatExceptionOfType(NoAvailableBooksException.class)
+                .isThrownBy(() -> inventoryService.reserve(ID));
+        assertThat(book.getAvailable(), is(0));
+        verify(bookRepository).findLockedById(ID);
+    }
+
+    @Test
+    void givenInvalidBookId_whenReserve_thenThrowBookNotFoundException() {
+        when(bookRepository.findLockedById(ID)).thenReturn(Optional.empty());
+
+        assertThatExceptionOfType(BookNotFoundException.class)
+                .isThrownBy(() -> inventoryService.reserve(ID));
+        verify(bookRepository).findLockedById(ID);
+    }
+
+    @Test
+    void givenValidBookId_whenRelease_thenIncrementAvailable() {
+        Book book = createBook();
+        when(bookRepository.findLockedById(ID)).thenReturn(Optional.of(book));
+
+        inventoryService.release(ID);
+
+        assertThat(book.getAvailable(), is(AVAILABLE + 1));
+        verify(bookRepository).findLockedById(ID);
+    }
+}
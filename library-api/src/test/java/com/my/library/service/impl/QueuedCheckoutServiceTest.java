@@ -0,0 +1,178 @@
+package com.my.library.service.impl;
+
+import com.my.library.dto.UserDto;
+import com.my.library.exception.InventoryConflictException;
+import com.my.library.exception.NoAvailableBooksException;
+import com.my.library.service.UserService;
+import com.my.library.service.config.CheckoutProperties;
+import com.my.library.service.config.LookupCacheConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import static com.my.library.util.BookTestData.ID;
+import static com.my.library.util.UserTestData.createUserDto;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class QueuedCheckoutServiceTest {
+    @InjectMocks
+    private QueuedCheckoutService checkoutService;
+
+    @Mock
+    private UserService userService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private CacheManager cacheManager;
+    @Mock
+    private Cache cache;
+    @Spy
+    private CheckoutProperties checkoutProperties = new CheckoutProperties();
+
+    @BeforeEach
+    void startQueues() {
+        checkoutProperties.setPartitions(1);
+        checkoutService.start();
+    }
+
+    @AfterEach
+    void stopQueues() throws InterruptedException {
+        checkoutService.stop();
+    }
+
+    @Test
+    void givenQueuedIssue_whenIssueBook_thenReturnUserAfterCommitAndEvictCaches() {
+        UserDto userDto = createUserDto();
+        when(userService.issueBook(7, ID)).thenReturn(userDto);
+        when(cacheManager.getCache(any())).thenReturn(cache);
+
+        UserDto result = checkoutService.issueBook(7, ID);
+
+        assertThat(result, is(userDto));
+        verify(transactionManager).commit(any());
+        verify(cacheManager).getCache(LookupCacheConfig.USERS);
+        verify(cacheManager).getCache(LookupCacheConfig.BOOKS);
+        verify(cache).evict(7L);
+        verify(cache).evict(ID);
+    }
+
+    @Test
+    void givenSoldOutBook_whenIssueBook_thenRethrowNoAvailableBooksException() {
+        when(userService.issueBook(1, ID)).thenThrow(new NoAvailableBooksException());
+
+        assertThatExceptionOfType(NoAvailableBooksException.class)
+                .isThrownBy(() -> checkoutService.issueBook(1, ID));
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+    }
+
+    @Test
+    void givenFailingCheckoutInBatch_whenCheckoutsAreQueued_thenFailOnlyItAndCommitTheOthers() throws Exception {
+        CountDownLatch executing = new CountDownLatch(1);
+        CountDownLatch blocked = new CountDownLatch(1);
+        UserDto first = createUserDto();
+        UserDto second = createUserDto();
+        UserDto fourth = createUserDto();
+        second.setId(2L);
+        fourth.setId(4L);
+        when(userService.issueBook(1, ID)).thenAnswer(invocation -> {
+            executing.countDown();
+            blocked.await();
+            return first;
+        });
+        when(userService.issueBook(2, ID)).thenReturn(second);
+        when(userService.issueBook(3, ID)).thenThrow(new NoAvailableBooksException());
+        when(userService.returnBook(4, ID)).thenReturn(fourth);
+
+        FutureTask<UserDto> firstTask = queue(() -> checkoutService.issueBook(1, ID));
+        executing.await();
+        FutureTask<UserDto> secondTask = queue(() -> checkoutService.issueBook(2, ID));
+        FutureTask<UserDto> thirdTask = queue(() -> checkoutService.issueBook(3, ID));
+        FutureTask<UserDto> fourthTask = queue(() -> checkoutService.returnBook(4, ID));
+        blocked.countDown();
+
+        assertThat(firstTask.get(), is(first));
+        assertThat(secondTask.get(), is(second));
+        assertThat(fourthTask.get(), is(fourth));
+        assertThatExceptionOfType(ExecutionException.class)
+                .isThrownBy(thirdTask::get)
+                .withCauseInstanceOf(NoAvailableBooksException.class);
+        verify(userService, times(2)).issueBook(2, ID);
+        verify(userService, times(2)).issueBook(3, ID);
+        verify(userService).returnBook(4, ID);
+        verify(transactionManager, times(3)).commit(any());
+        verify(transactionManager, times(2)).rollback(any());
+    }
+
+    @Test
+    void givenCheckoutThrowingError_whenCheckoutsAreQueued_thenFailItAndExecuteTheNextBatch() {
+        UserDto userDto = createUserDto();
+        when(userService.issueBook(1, ID)).thenThrow(new AssertionError("broken"));
+        when(userService.issueBook(2, ID)).thenReturn(userDto);
+
+        assertThatExceptionOfType(IllegalStateException.class)
+                .isThrownBy(() -> checkoutService.issueBook(1, ID))
+                .withCauseInstanceOf(AssertionError.class);
+        assertThat(checkoutService.issueBook(2, ID), is(userDto));
+    }
+
+    @Test
+    void givenStalledQueue_whenTimeoutPasses_thenFailQueuedCheckoutWithoutExecutingIt() throws Exception {
+        CountDownLatch executing = new CountDownLatch(1);
+        CountDownLatch blocked = new CountDownLatch(1);
+        UserDto userDto = createUserDto();
+        checkoutProperties.setTimeout(Duration.ofMillis(200));
+        when(userService.issueBook(1, ID)).thenAnswer(invocation -> {
+            executing.countDown();
+            blocked.await();
+            return userDto;
+        });
+
+        FutureTask<UserDto> firstTask = queue(() -> checkoutService.issueBook(1, ID));
+        executing.await();
+        assertThatExceptionOfType(InventoryConflictException.class)
+                .isThrownBy(() -> checkoutService.issueBook(2, ID));
+        blocked.countDown();
+
+        assertThat(firstTask.get(), is(userDto));
+        verify(userService, never()).issueBook(2, ID);
+    }
+
+    @Test
+    void givenStoppedQueues_whenIssueBook_thenThrowIllegalStateException() throws InterruptedException {
+        checkoutService.stop();
+
+        assertThatExceptionOfType(IllegalStateException.class)
+                .isThrownBy(() -> checkoutService.issueBook(1, ID));
+        verifyNoInteractions(userService);
+    }
+
+    private static FutureTask<UserDto> queue(Callable<UserDto> checkout) throws InterruptedException {
+        FutureTask<UserDto> task = new FutureTask<>(checkout);
+        Thread caller = new Thread(task);
+        caller.start();
+        while (caller.getState() != Thread.State.WAITING && caller.getState() != Thread.State.TIMED_WAITING) {
+            Thread.sleep(1);
+        }
+        return task;
+    }
+}
@@ -0,0 +1,75 @@
+package com.my.library.service.impl;
+
+import com.my.library.dto.BookDto;
+import com.my.library.dto.UserDto;
+import com.my.library.exception.BookNotFoundException;
+import com.my.library.exception.UserNotFoundException;
+import com.my.library.repository.reactive.ReactiveBookRepository;
+import com.my.library.repository.reactive.ReactiveUserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Set;
+
+import static com.my.library.util.BookTestData.createBookDto;
+import static com.my.library.util.UserTestData.ID;
+import static com.my.library.util.UserTestData.createUserDto;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReactiveReadServiceImplTest {
+    @InjectMocks
+    private ReactiveReadServiceImpl reactiveReadService;
+
+    @Mock
+    private ReactiveBookRepository reactiveBookRepository;
+    @Mock
+    private ReactiveUserRepository reactiveUserRepository;
+
+    @Test
+    void givenMissingBook_whenGetBookById_thenSignalBookNotFoundException() {
+        when(reactiveBookRepository.findBookDtoById(ID)).thenReturn(Mono.empty());
+
+        assertThatExceptionOfType(BookNotFoundException.class)
+                .isThrownBy(() -> reactiveReadService.getBookById(ID).block());
+    }
+
+    @Test
+    void givenDescendingOrder_whenGetBooks_thenReadBooksInDescendingOrder() {
+        BookDto bookDto = createBookDto();
+        when(reactiveBookRepository.findBookDtos(0, 10, "name", true)).thenReturn(Flux.just(bookDto));
+
+        List<BookDto> actual = reactiveReadService.getBooks(0, 10, "name", "desc").collectList().block();
+
+        assertThat(actual, is(List.of(bookDto)));
+    }
+
+    @Test
+    void givenUserWithIssuedBook_whenGetUserById_thenReturnUserWithBook() {
+        BookDto bookDto = createBookDto();
+        when(reactiveUserRepository.findUserDtoById(ID)).thenReturn(Mono.just(createUserDto()));
+        when(reactiveUserRepository.findBookDtosByUserId(ID)).thenReturn(Flux.just(bookDto));
+
+        UserDto actual = reactiveReadService.getUserById(ID).block();
+
+        assertThat(actual.getBooks(), is(Set.of(bookDto)));
+    }
+
+    @Test
+    void givenMissingUser_whenGetUserById_thenSignalUserNotFoundWithoutReadingBooks() {
+        when(reactiveUserRepository.findUserDtoById(ID)).thenReturn(Mono.empty());
+
+        assertThatExceptionOfType(UserNotFoundException.class)
+                .isThrownBy(() -> reactiveReadService.getUserById(ID).block());
+        verify(reactiveUserRepository, never()).findBookDtosByUserId(anyLong());
+    }
+}
@@ -0,0 +1,194 @@
+package com.my.library.service.impl;
+
+import com.my.library.dto.BookAvailability;
+import com.my.library.exception.BookNotFoundException;
+import com.my.library.exception.NoAvailableBooksException;
+import com.my.library.model.BookStock;
+import com.my.library.repository.BookRepository;
+import com.my.library.repository.BookStockRepository;
+import com.my.library.service.config.InventoryProperties;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.random.RandomGenerator;
+
+import static com.my.library.util.BookTestData.ID;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class StripedInventoryServiceTest {
+    private static final int STRIPES = 8;
+    private static final int AVAILABLE = 10;
+
+    @InjectMocks
+    private StripedInventoryService inventoryService;
+
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private BookStockRepository bookStockRepository;
+    @Spy
+    private InventoryProperties inventoryProperties = new InventoryProperties();
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private EntityManagerFactory entityManagerFactory;
+    @Mock
+    private RandomGenerator stripeRandom;
+
+    @Test
+    void givenStripeWithAvailableCopies_whenReserve_thenDecrementStripe() {
+        when(bookStockRepository.findAvailableStripesByBookId(ID)).thenReturn(List.of(3));
+        when(bookStockRepository.decrementAvailable(ID, 3)).thenReturn(1);
+
+        inventoryService.reserve(ID);
+
+        verify(bookStockRepository).decrementAvailable(ID, 3);
+        verify(bookRepository, never()).decrementAvailable(ID);
+    }
+
+    @Test
+    void givenStripeEmptiedConcurrently_whenReserve_thenFallBackToOtherStripe() {
+        when(bookStockRepository.findAvailableStripesByBookId(ID)).thenReturn(List.of(1, 2, 4));
+        when(stripeRandom.nextInt(3)).thenReturn(1);
+        when(bookStockRepository.decrementAvailable(ID, 2)).thenReturn(0);
+        when(bookStockRepository.decrementAvailable(ID, 4)).thenReturn(1);
+
+        inventoryService.reserve(ID);
+
+        InOrder inOrder = inOrder(bookStockRepository);
+        inOrder.verify(bookStockRepository).decrementAvailable(ID, 2);
+        inOrder.verify(bookStockRepository).decrementAvailable(ID, 4);
+        verify(bookStockRepository, never()).decrementAvailable(ID, 1);
+        verify(bookRepository, never()).decrementAvailable(ID);
+    }
+
+    @Test
+    void givenBookWithoutStripes_whenReserve_thenSplitAvailableCopiesOverStripes() {
+        when(bookStockRepository.findAvailableStripesByBookId(ID)).thenReturn(List.of());
+        when(bookStockRepository.existsByBookId(ID)).thenReturn(false);
+        when(bookRepository.findLockedAvailableById(ID)).thenReturn(Optional.of(AVAILABLE));
+        when(bookStockRepository.decrementAvailable(eq(ID), anyInt())).thenReturn(1);
+
+        inventoryService.reserve(ID);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<BookStock>> captor = ArgumentCaptor.forClass(List.class);
+        verify(bookStockRepository).saveAll(captor.capture());
+        List<BookStock> stocks = captor.getValue();
+        assertThat(stocks, hasSize(STRIPES));
+        assertThat(stocks.stream().mapToInt(BookStock::getAvailable).sum(), is(AVAILABLE));
+        assertThat(stocks.stream().mapToInt(BookStock::getAvailable).max().orElseThrow(), is(2));
+        verify(bookRepository).clearAvailable(ID);
+        verify(bookStockRepository).decrementAvailable(eq(ID), anyInt());
+    }
+
+    @Test
+    void givenBookSplitConcurrently_whenReserve_thenDoNotSplitAgain() {
+        when(bookStockRepository.findAvailableStripesByBookId(ID))
+                .thenReturn(List.of())
+                .thenReturn(List.of(5));
+        when(bookStockRepository.existsByBookId(ID)).thenReturn(false, true);
+        when(bookRepository.findLockedAvailableById(ID)).thenReturn(Optional.of(0));
+        when(bookStockRepository.decrementAvailable(ID, 5)).thenReturn(1);
+
+        inventoryService.reserve(ID);
+
+        verify(bookStockRepository, never()).saveAll(anyList());
+        verify(bookRepository, never()).clearAvailable(ID);
+        verify(bookStockRepository).decrementAvailable(ID, 5);
+    }
+
+    @Test
+    void givenEmptyStripesAndCopiesInBookRow_whenReserve_thenDecrementBookRow() {
+        when(bookStockRepository.findAvailableStripesByBookId(ID)).thenReturn(List.of());
+        when(bookStockRepository.existsByBookId(ID)).thenReturn(true);
+        when(bookRepository.decrementAvailable(ID)).thenReturn(1);
+
+        inventoryService.reserve(ID);
+
+        verify(bookRepository).decrementAvailable(ID);
+        verify(bookRepository, never()).existsById(ID);
+    }
+
+    @Test
+    void givenBookWithZeroAvailable_whenReserve_thenThrowNoAvailableBooksException() {
+        when(bookStockRepository.findAvailableStripesByBookId(ID)).thenReturn(List.of());
+        when(bookStockRepository.existsByBookId(ID)).thenReturn(true);
+        when(bookRepository.decrementAvailable(ID)).thenReturn(0);
+        when(bookRepository.existsById(ID)).thenReturn(true);
+
+        assertThatExceptionOfType(NoAvailableBooksException.class)
+                .isThrownBy(() -> inventoryService.reserve(ID));
+        verify(bookRepository).existsById(ID);
+    }
+
+    @Test
+    void givenInvalidBookId_whenReserve_thenThrowBookNotFoundException() {
+        when(bookStockRepository.findAvailableStripesByBookId(ID)).thenReturn(List.of());
+        when(bookStockRepository.existsByBookId(ID)).thenReturn(false);
+        when(bookRepository.findLockedAvailableById(ID)).thenReturn(Optional.empty());
+
+        assertThatExceptionOfType(BookNotFoundException.class)
+                .isThrownBy(() -> inventoryService.reserve(ID));
+        verify(bookStockRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void givenBookWithStripes_whenRelease_thenIncrementStripe() {
+        when(stripeRandom.nextInt(STRIPES)).thenReturn(5);
+        when(bookStockRepository.incrementAvailable(ID, 5)).thenReturn(1);
+
+        inventoryService.release(ID);
+
+        verify(bookStockRepository).incrementAvailable(ID, 5);
+        verify(bookRepository, never()).incrementAvailable(ID);
+    }
+
+    @Test
+    void givenBookWithoutStripes_whenRelease_thenIncrementBookRow() {
+        when(bookStockRepository.incrementAvailable(eq(ID), anyInt())).thenReturn(0);
+        when(bookRepository.incrementAvailable(ID)).thenReturn(1);
+
+        inventoryService.release(ID);
+
+        verify(bookRepository).incrementAvailable(ID);
+    }
+
+    @Test
+    void givenInvalidBookId_whenRelease_thenThrowBookNotFoundException() {
+        when(bookStockRepository.incrementAvailable(eq(ID), anyInt())).thenReturn(0);
+        when(bookRepository.incrementAvailable(ID)).thenReturn(0);
+
+        assertThatExceptionOfType(BookNotFoundException.class)
+                .isThrownBy(() -> inventoryService.release(ID));
+    }
+
+    @Test
+    void givenBooksWithAndWithoutStripes_whenCountOutsideRows_thenSumStripesOfBooksHavingThem() {
+        when(bookStockRepository.sumAvailableByBookIdIn(List.of(ID, 2L)))
+                .thenReturn(List.of(new BookAvailability(ID, 3)));
+
+        assertThat(inventoryService.countOutsideRows(List.of(ID, 2L)), is(Map.of(ID, 3)));
+    }
+
+    @Test
+    void givenNoBooks_whenCountOutsideRows_thenQueryNothing() {
+        assertThat(inventoryService.countOutsideRows(List.of()), is(Map.of()));
+
+        verifyNoInteractions(bookStockRepository);
+    }
+}
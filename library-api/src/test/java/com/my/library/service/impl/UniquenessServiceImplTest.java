@@ -0,0 +1,64 @@
+package com.my.library.service.impl;
+
+import com.my.library.repository.BookRepository;
+import com.my.library.repository.UserRepository;
+import com.my.library.service.config.BloomFilterProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+public class UniquenessServiceImplTest {
+    private static final String USERNAME = "username";
+    private static final String EMAIL = "user@mail.com";
+
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void givenSeveralInstances_whenStarted_thenSkipFillingFilters() {
+        UniquenessServiceImpl uniquenessService = createService(false);
+
+        uniquenessService.afterSingletonsInstantiated();
+
+        verifyNoInteractions(transactionTemplate, bookRepository, userRepository);
+    }
+
+    @Test
+    void givenSeveralInstances_whenCheckNewValues_thenReportThemAsPossiblyTaken() {
+        UniquenessServiceImpl uniquenessService = createService(false);
+
+        assertThat(uniquenessService.mightExistUsername(USERNAME), is(true));
+        assertThat(uniquenessService.mightExistEmail(EMAIL), is(true));
+        assertThat(uniquenessService.mightExistBook("author", "name"), is(true));
+    }
+
+    @Test
+    void givenSingleInstance_whenCheckValues_thenReportOnlyRecordedOnesAsPossiblyTaken() {
+        UniquenessServiceImpl uniquenessService = createService(true);
+
+        uniquenessService.addUser(USERNAME, EMAIL);
+
+        assertThat(uniquenessService.mightExistUsername(USERNAME), is(true));
+        assertThat(uniquenessService.mightExistUsername("other"), is(false));
+        assertThat(uniquenessService.mightExistEmail("other@mail.com"), is(false));
+    }
+
+    private UniquenessServiceImpl createService(boolean singleInstance) {
+        BloomFilterProperties properties = new BloomFilterProperties();
+        properties.setExpectedInsertions(1000);
+        properties.setFalsePositiveRate(0.001);
+        properties.setSingleInstance(singleInstance);
+        return new UniquenessServiceImpl(bookRepository, userRepository, transactionTemplate, properties);
+    }
+}
@@ -1,24 +1,49 @@
 package com.my.library.service.impl;
 
 import com.my.library.dto.BookDto;
+import com.my.library.dto.CursorPage;
+import com.my.library.dto.UserAvailability;
 import com.my.library.dto.UserDto;
 import com.my.library.exception.*;
-import com.my.library.model.Book;
+import com.my.library.model.Hold;
 import com.my.library.model.User;
 import com.my.library.repository.BookRepository;
+import com.my.library.repository.HoldRepository;
+import com.my.library.repository.LoanRepository;
 import com.my.library.repository.UserRepository;
+import com.my.library.repository.projection.IssuedBook;
+import com.my.library.service.CountService;
+import com.my.library.service.InventoryService;
+import com.my.library.service.UniquenessService;
+import com.my.library.service.config.LoanProperties;
+import com.my.library.service.config.LookupCacheProperties;
+import com.my.library.service.event.BookChangedEvent;
+import com.my.library.service.event.BookLoansChangedEvent;
+import com.my.library.service.event.UserChangedEvent;
+import com.my.library.service.pagination.Cursor;
 import com.my.library.util.BookTestData;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 
+import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 
 import static com.my.library.util.BookTestData.createBook;
 import static com.my.library.util.BookTestData.createBookDto;
@@ -27,7 +52,9 @@ import static com.my.library.util.UserTestData.*;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,52 +66,178 @@ public class UserServiceImplTest {
     private BookRepository bookRepository;
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private LoanRepository loanRepository;
+    @Mock
+    private HoldRepository holdRepository;
+    @Mock
+    private InventoryService inventoryService;
+    @Mock
+    private CountService countService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private CacheManager cacheManager;
+    @Mock
+    private UniquenessService uniquenessService;
+    @Spy
+    private LoanProperties loanProperties = new LoanProperties();
+    @Spy
+    private LookupCacheProperties lookupCacheProperties = new LookupCacheProperties();
 
     @Test
     void givenValidUserId_whenGetById_thenReturnUserDto() {
         UserDto expected = createUserDto();
+        expected.setBooks(new HashSet<>());
 
         when(userRepository.findById(ID)).thenReturn(Optional.of(createUser()));
 
-        UserDto actual = userService.getById(ID);
+        UserDto actual = userService.getById(ID, true);
 
         assertThat(actual, is(expected));
         verify(userRepository).findById(ID);
     }
 
+    @Test
+    void givenBooksNotRequested_whenGetById_thenReturnUserDtoWithoutBooks() {
+        when(userRepository.findById(ID)).thenReturn(Optional.of(createUser()));
+
+        UserDto actual = userService.getById(ID, false);
+
+        assertThat(actual, is(createUserDto()));
+        assertThat(actual.getBooks(), nullValue());
+        verifyNoInteractions(loanRepository);
+    }
+
     @Test
     void givenInvalidUserId_whenGetById_thenThrowUserNotFoundException() {
         when(userRepository.findById(ID)).thenReturn(Optional.empty());
 
         assertThatExceptionOfType(UserNotFoundException.class)
-                .isThrownBy(() -> userService.getById(ID));
+                .isThrownBy(() -> userService.getById(ID, true));
         verify(userRepository).findById(ID);
     }
 
     @Test
     void givenPageableData_whenGetSortedPage_thenReturnPageOfUsers() {
         Pageable pageable = createPageable();
-        Page<User> userPage = createPage(createUserList());
-        Page<UserDto> expected = createPage(createUserDtoList());
+        Page<UserDto> userDtoPage = createPage(createUserDtoList());
+        List<UserDto> userDtoList = createUserDtoList();
+        userDtoList.get(0).setBooks(Set.of(createBookDto()));
+        userDtoList.get(1).setBooks(Set.of());
+        Page<UserDto> expected = createPage(userDtoList);
+        IssuedBook issuedBook = new IssuedBook(ID, BookTestData.ID, BookTestData.AUTHOR, BookTestData.NAME,
+                BookTestData.AVAILABLE);
 
-        when(userRepository.findAll(pageable)).thenReturn(userPage);
+        when(userRepository.findUserDtos(pageable)).thenReturn(userDtoPage);
+        when(loanRepository.findIssuedBooksByUserIdIn(Set.of(ID, ID + 1))).thenReturn(List.of(issuedBook));
 
-        Page<UserDto> actual = userService.getSortedPage(PAGE, SIZE, SORT_BY, ORDER);
+        Page<UserDto> actual = userService.getSortedPage(PAGE, SIZE, SORT_BY, ORDER, true);
 
         assertThat(actual.getSize(), is(SIZE));
         assertThat(actual.getPageable(), is(pageable));
         assertThat(actual, is(expected));
-        verify(userRepository).findAll(pageable);
+        verify(userRepository).findUserDtos(pageable);
+        verify(loanRepository).findIssuedBooksByUserIdIn(Set.of(ID, ID + 1));
+        verify(loanRepository, never()).findBookDtosByUserId(anyLong());
+    }
+
+    @Test
+    void givenBooksNotRequested_whenGetSortedPage_thenReturnPageOfUsersWithoutBooks() {
+        Pageable pageable = createPageable();
+
+        when(userRepository.findUserDtos(pageable)).thenReturn(createPage(createUserDtoList()));
+
+        Page<UserDto> actual = userService.getSortedPage(PAGE, SIZE, SORT_BY, ORDER, false);
+
+        assertThat(actual.getContent(), is(createUserDtoList()));
+        verifyNoInteractions(loanRepository);
+    }
+
+    @Test
+    void givenPageableData_whenGetSortedSlice_thenReturnSliceWithoutCount() {
+        Pageable pageable = createPageable();
+        List<UserDto> userDtoList = createUserDtoList();
+        userDtoList.forEach(userDto -> userDto.setBooks(new HashSet<>()));
+        Slice<UserDto> userDtoSlice = new SliceImpl<>(createUserDtoList(), pageable, true);
+
+        when(userRepository.findUserDtoSlice(pageable)).thenReturn(userDtoSlice);
+
+        Slice<UserDto> actual = userService.getSortedSlice(PAGE, SIZE, SORT_BY, ORDER, true);
+
+        assertThat(actual.getContent(), is(userDtoList));
+        assertThat(actual.hasNext(), is(true));
+        verify(userRepository).findUserDtoSlice(pageable);
+        verify(userRepository, never()).findUserDtos(pageable);
+        verify(userRepository, never()).count();
+    }
+
+    @Test
+    void givenPageableData_whenGetSortedPageWithEstimatedTotal_thenReturnPageWithEstimatedTotal() {
+        Pageable pageable = createPageable();
+        Slice<UserDto> userDtoSlice = new SliceImpl<>(createUserDtoList(), pageable, true);
+
+        when(userRepository.findUserDtoSlice(pageable)).thenReturn(userDtoSlice);
+        when(countService.estimateUsers()).thenReturn(1000L);
+
+        Page<UserDto> actual = userService.getSortedPageWithEstimatedTotal(PAGE, SIZE, SORT_BY, ORDER, true);
+
+        assertThat(actual.getTotalElements(), is(1000L));
+        assertThat(actual.getPageable(), is(pageable));
+        verify(userRepository, never()).count();
+    }
+
+    @Test
+    void givenStaleEstimate_whenGetSortedPageWithEstimatedTotal_thenReturnTotalConsistentWithPage() {
+        Pageable pageable = createPageable();
+        Slice<UserDto> userDtoSlice = new SliceImpl<>(createUserDtoList(), pageable, false);
+
+        when(userRepository.findUserDtoSlice(pageable)).thenReturn(userDtoSlice);
+        when(countService.estimateUsers()).thenReturn(0L);
+
+        Page<UserDto> actual = userService.getSortedPageWithEstimatedTotal(PAGE, SIZE, SORT_BY, ORDER, true);
+
+        assertThat(actual.getTotalElements(), is((long) createUserList().size()));
+        assertThat(actual.hasNext(), is(false));
+    }
+
+    @Test
+    void givenMoreUsersThanSize_whenGetPageAfter_thenReturnFirstUsersWithNextCursor() {
+        List<User> userList = createUserList();
+        UserDto expectedUser = createUserDtoList().get(0);
+        expectedUser.setBooks(new HashSet<>());
+        String expectedCursor = new Cursor("username", ORDER, userList.get(0).getId(),
+                userList.get(0).getUsername()).encode();
+
+        when(userRepository.findPageAfter("username", false, null, null, 2)).thenReturn(userList);
+
+        CursorPage<UserDto> actual = userService.getPageAfter("", 1, "username", ORDER, true);
+
+        assertThat(actual.getContent(), is(List.of(expectedUser)));
+        assertThat(actual.getNextCursor(), is(expectedCursor));
+        verify(userRepository).findPageAfter("username", false, null, null, 2);
+    }
+
+    @Test
+    void givenCursor_whenGetPageAfter_thenReturnUsersAfterCursorWithoutNextCursor() {
+        String cursor = new Cursor("email", "desc", ID, EMAIL).encode();
+
+        when(userRepository.findPageAfter("email", true, EMAIL, ID, SIZE + 1)).thenReturn(List.of());
+
+        CursorPage<UserDto> actual = userService.getPageAfter(cursor, SIZE, "email", "desc", true);
+
+        assertThat(actual.getContent(), is(List.of()));
+        assertThat(actual.getNextCursor(), nullValue());
+        verify(userRepository).findPageAfter("email", true, EMAIL, ID, SIZE + 1);
     }
 
     @Test
     void givenUserDtoWithExistingUsernameOrEmail_whenCreate_thenThrowUserAlreadyExistsException() {
-        when(userRepository.existsByUsernameOrEmail(USERNAME, EMAIL)).thenReturn(true);
+        when(userRepository.saveAndFlush(createUser())).thenThrow(new DataIntegrityViolationException("duplicate"));
 
         assertThatExceptionOfType(UserAlreadyExistsException.class)
                 .isThrownBy(() -> userService.create(createUserDto()));
-        verify(userRepository).existsByUsernameOrEmail(USERNAME, EMAIL);
-        verify(userRepository, never()).save(any());
+        verify(eventPublisher, never()).publishEvent(new UserChangedEvent(ID));
     }
 
     @Test
@@ -93,12 +246,32 @@ public class UserServiceImplTest {
         User user = createUser();
         UserDto expected = createUserDto();
 
-        when(userRepository.save(user)).thenReturn(createUser());
+        when(userRepository.saveAndFlush(user)).thenReturn(createUser());
 
         UserDto actual = userService.create(userDto);
 
         assertThat(actual, is(expected));
-        verify(userRepository).save(user);
+        verify(userRepository).saveAndFlush(user);
+        verify(uniquenessService).addUser(USERNAME, EMAIL);
+    }
+
+    @Test
+    void givenUsernameAndEmailRuledOutByFilter_whenCheckAvailability_thenAnswerWithoutQuery() {
+        UserAvailability actual = userService.checkAvailability(USERNAME, EMAIL);
+
+        assertThat(actual, is(new UserAvailability(true, true)));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void givenPossiblyTakenUsername_whenCheckAvailability_thenQueryOnlyUsername() {
+        when(uniquenessService.mightExistUsername(USERNAME)).thenReturn(true);
+        when(userRepository.existsByUsername(USERNAME)).thenReturn(true);
+
+        UserAvailability actual = userService.checkAvailability(USERNAME, null);
+
+        assertThat(actual, is(new UserAvailability(false, null)));
+        verify(userRepository, never()).existsByEmail(any());
     }
 
     @Test
@@ -110,7 +283,7 @@ public class UserServiceImplTest {
         assertThatExceptionOfType(UserNotFoundException.class)
                 .isThrownBy(() -> userService.update(userDto));
         verify(userRepository).findById(ID);
-        verify(userRepository, never()).save(any());
+        verify(userRepository, never()).flush();
     }
 
     @Test
@@ -119,13 +292,12 @@ public class UserServiceImplTest {
         User user = createUser();
 
         when(userRepository.findById(ID)).thenReturn(Optional.of(user));
-        when(userRepository.existsByEmailAndIdIsNot(EMAIL, ID)).thenReturn(true);
+        doThrow(new DataIntegrityViolationException("duplicate")).when(userRepository).flush();
 
         assertThatExceptionOfType(UserAlreadyExistsException.class)
                 .isThrownBy(() -> userService.update(userDto));
         verify(userRepository).findById(ID);
-        verify(userRepository).existsByEmailAndIdIsNot(EMAIL, ID);
-        verify(userRepository, never()).save(any());
+        verify(eventPublisher, never()).publishEvent(new UserChangedEvent(ID));
     }
 
     @Test
@@ -134,14 +306,13 @@ public class UserServiceImplTest {
         User user = createUser();
 
         when(userRepository.findById(ID)).thenReturn(Optional.of(user));
-        when(userRepository.existsByEmailAndIdIsNot(EMAIL, ID)).thenReturn(false);
-        when(userRepository.save(user)).thenReturn(user);
 
         UserDto actual = userService.update(expected);
+        expected.setBooks(new HashSet<>());
         assertThat(actual, is(expected));
         verify(userRepository).findById(ID);
-        verify(userRepository).existsByEmailAndIdIsNot(EMAIL, ID);
-        verify(userRepository).save(user);
+        verify(userRepository).flush();
+        verify(userRepository, never()).save(any());
     }
 
     @Test
@@ -156,27 +327,29 @@ public class UserServiceImplTest {
 
     @Test
     void givenValidUserIdForUserWithIssuedBook_whenDelete_thenThrowUserIssuedBookException() {
-        User user = createUser();
-        user.setBooks(BOOKS);
-        when(userRepository.findById(ID)).thenReturn(Optional.of(user));
+        when(userRepository.findById(ID)).thenReturn(Optional.of(createUser()));
+        when(loanRepository.existsByUserId(ID)).thenReturn(true);
 
         assertThatExceptionOfType(UserIssuedBookException.class)
                 .isThrownBy(() -> userService.deleteById(ID));
         verify(userRepository).findById(ID);
+        verify(loanRepository).existsByUserId(ID);
         verify(userRepository, never()).deleteById(ID);
     }
 
     @Test
     void givenValidUserId_whenDelete_thenRepositoryMethodCall() {
-        User user = createUser();
-        user.setBooks(new HashSet<>());
-        when(userRepository.findById(ID)).thenReturn(Optional.of(user));
+        when(userRepository.findById(ID)).thenReturn(Optional.of(createUser()));
+        when(loanRepository.existsByUserId(ID)).thenReturn(false);
         doNothing().when(userRepository).deleteById(ID);
 
         userService.deleteById(ID);
 
         verify(userRepository).findById(ID);
+        verify(loanRepository).existsByUserId(ID);
+        verify(holdRepository).deleteByUserId(ID);
         verify(userRepository).deleteById(ID);
+        verify(eventPublisher).publishEvent(new UserChangedEvent(ID));
     }
 
     @Test
@@ -186,81 +359,67 @@ public class UserServiceImplTest {
         assertThatExceptionOfType(UserNotFoundException.class)
                 .isThrownBy(() -> userService.issueBook(ID, BookTestData.ID));
         verify(userRepository).findById(ID);
-        verify(bookRepository, never()).save(any());
-        verify(userRepository, never()).save(any());
+        verify(inventoryService, never()).reserve(anyLong());
+        verify(loanRepository, never()).save(any());
     }
 
     @Test
     void givenInvalidBookId_whenIssueBook_thenThrowBookNotFoundException() {
-        when(bookRepository.findById(BookTestData.INVALID_ID)).thenReturn(Optional.empty());
         when(userRepository.findById(ID)).thenReturn(Optional.of(createUser()));
+        doThrow(new BookNotFoundException()).when(inventoryService).reserve(BookTestData.INVALID_ID);
 
         assertThatExceptionOfType(BookNotFoundException.class)
                 .isThrownBy(() -> userService.issueBook(ID, BookTestData.INVALID_ID));
-        verify(bookRepository).findById(BookTestData.INVALID_ID);
         verify(userRepository).findById(ID);
-        verify(bookRepository, never()).save(any());
-        verify(userRepository, never()).save(any());
+        verify(inventoryService).reserve(BookTestData.INVALID_ID);
+        verify(loanRepository, never()).save(any());
     }
 
     @Test
     void givenBookWithZeroAvailable_whenIssueBook_thenThrowNoAvailableBooksException() {
-        Book book = createBook();
-        book.setAvailable(0);
-        when(bookRepository.findById(BookTestData.ID)).thenReturn(Optional.of(book));
         when(userRepository.findById(ID)).thenReturn(Optional.of(createUser()));
+        doThrow(new NoAvailableBooksException()).when(inventoryService).reserve(BookTestData.ID);
 
         assertThatExceptionOfType(NoAvailableBooksException.class)
                 .isThrownBy(() -> userService.issueBook(ID, BookTestData.ID));
-        verify(bookRepository).findById(BookTestData.ID);
         verify(userRepository).findById(ID);
-        verify(bookRepository, never()).save(any());
-        verify(userRepository, never()).save(any());
+        verify(inventoryService).reserve(BookTestData.ID);
+        verify(loanRepository, never()).save(any());
     }
 
     @Test
     void givenAlreadyIssuedBook_whenIssueBook_thenThrowBookAlreadyIssuedException() {
-        Book book = createBook();
-        User user = createUser();
-        user.setBooks(new HashSet<>(List.of(book)));
-        when(bookRepository.findById(BookTestData.ID)).thenReturn(Optional.of(book));
-        when(userRepository.findById(ID)).thenReturn(Optional.of(user));
+        when(userRepository.findById(ID)).thenReturn(Optional.of(createUser()));
+        when(loanRepository.existsByUserIdAndBookId(ID, BookTestData.ID)).thenReturn(true);
 
         assertThatExceptionOfType(BookAlreadyIssuedException.class)
                 .isThrownBy(() -> userService.issueBook(ID, BookTestData.ID));
-        verify(bookRepository).findById(BookTestData.ID);
         verify(userRepository).findById(ID);
-        verify(bookRepository, never()).save(any());
-        verify(userRepository, never()).save(any());
+        verify(loanRepository).existsByUserIdAndBookId(ID, BookTestData.ID);
+        verify(inventoryService, never()).reserve(anyLong());
+        verify(loanRepository, never()).save(any());
     }
 
     @Test
     void givenValidUserAndBook_whenIssueBook_thenReturnUpdatedUserDto() {
-        Book book = createBook();
-        User user = createUser();
-        user.setBooks(new HashSet<>());
-        Book updatedBook = createBook();
-        updatedBook.setAvailable(updatedBook.getAvailable() - 1);
-        User updatedUser = createUser();
-        updatedUser.setBooks(new HashSet<>(List.of(updatedBook)));
-
         BookDto expectedBook = createBookDto();
         expectedBook.setAvailable(expectedBook.getAvailable() - 1);
         UserDto expectedUser = createUserDto();
         expectedUser.setBooks(new HashSet<>(List.of(expectedBook)));
 
-        when(bookRepository.findById(BookTestData.ID)).thenReturn(Optional.of(book));
-        when(userRepository.findById(ID)).thenReturn(Optional.of(user));
-        when(bookRepository.save(updatedBook)).thenReturn(updatedBook);
-        when(userRepository.save(updatedUser)).thenReturn(updatedUser);
+        when(userRepository.findById(ID)).thenReturn(Optional.of(createUser()));
+        when(bookRepository.getReferenceById(BookTestData.ID)).thenReturn(createBook());
+        when(loanRepository.findBookDtosByUserId(ID)).thenReturn(List.of(expectedBook));
 
         UserDto actual = userService.issueBook(ID, BookTestData.ID);
 
         assertThat(actual, is(expectedUser));
-        verify(bookRepository).findById(BookTestData.ID);
         verify(userRepository).findById(ID);
-        verify(bookRepository).save(updatedBook);
-        verify(userRepository).save(updatedUser);
+        verify(inventoryService).reserve(BookTestData.ID);
+        verify(loanRepository).save(argThat(loan ->
+                loan.getDueDate().isAfter(LocalDateTime.now().plus(loanProperties.getPeriod()).minusMinutes(1))));
+        verify(eventPublisher).publishEvent(new BookChangedEvent(BookTestData.ID));
+        verify(eventPublisher).publishEvent(new BookLoansChangedEvent(BookTestData.ID, 1));
     }
 
     @Test
@@ -270,63 +429,222 @@ public class UserServiceImplTest {
         assertThatExceptionOfType(UserNotFoundException.class)
                 .isThrownBy(() -> userService.returnBook(ID, BookTestData.ID));
         verify(userRepository).findById(ID);
-        verify(bookRepository, never()).save(any());
-        verify(userRepository, never()).save(any());
+        verify(loanRepository, never()).deleteByUserIdAndBookId(anyLong(), anyLong());
+        verify(inventoryService, never()).release(anyLong());
     }
 
     @Test
     void givenInvalidBookId_whenReturnBook_thenThrowBookNotFoundException() {
-        when(bookRepository.findById(BookTestData.INVALID_ID)).thenReturn(Optional.empty());
         when(userRepository.findById(ID)).thenReturn(Optional.of(createUser()));
+        when(loanRepository.deleteByUserIdAndBookId(ID, BookTestData.INVALID_ID)).thenReturn(0);
+        when(bookRepository.existsById(BookTestData.INVALID_ID)).thenReturn(false);
 
         assertThatExceptionOfType(BookNotFoundException.class)
                 .isThrownBy(() -> userService.returnBook(ID, BookTestData.INVALID_ID));
-        verify(bookRepository).findById(BookTestData.INVALID_ID);
         verify(userRepository).findById(ID);
-        verify(bookRepository, never()).save(any());
-        verify(userRepository, never()).save(any());
+        verify(bookRepository).existsById(BookTestData.INVALID_ID);
+        verify(inventoryService, never()).release(anyLong());
     }
 
     @Test
     void givenNotIssuedBook_whenReturnBook_thenThrowBookNotIssuedException() {
-        Book book = createBook();
-        User user = createUser();
-        user.setBooks(new HashSet<>());
-        when(bookRepository.findById(BookTestData.ID)).thenReturn(Optional.of(book));
-        when(userRepository.findById(ID)).thenReturn(Optional.of(user));
+        when(userRepository.findById(ID)).thenReturn(Optional.of(createUser()));
+        when(loanRepository.deleteByUserIdAndBookId(ID, BookTestData.ID)).thenReturn(0);
+        when(bookRepository.existsById(BookTestData.ID)).thenReturn(true);
 
         assertThatExceptionOfType(BookNotIssuedException.class)
                 .isThrownBy(() -> userService.returnBook(ID, BookTestData.ID));
-        verify(bookRepository).findById(BookTestData.ID);
         verify(userRepository).findById(ID);
-        verify(bookRepository, never()).save(any());
-        verify(userRepository, never()).save(any());
+        verify(loanRepository).deleteByUserIdAndBookId(ID, BookTestData.ID);
+        verify(inventoryService, never()).release(anyLong());
     }
 
     @Test
     void givenValidUserAndBook_whenReturnBook_thenReturnUpdatedUserDto() {
-        Book book = createBook();
-        User user = createUser();
-        user.setBooks(new HashSet<>(List.of(book)));
-        Book updatedBook = createBook();
-        updatedBook.setAvailable(updatedBook.getAvailable() + 1);
-        User updatedUser = createUser();
-        updatedUser.setBooks(new HashSet<>());
-
         UserDto expected = createUserDto();
         expected.setBooks(new HashSet<>());
 
-        when(bookRepository.findById(BookTestData.ID)).thenReturn(Optional.of(book));
-        when(userRepository.findById(ID)).thenReturn(Optional.of(user));
-        when(bookRepository.save(updatedBook)).thenReturn(updatedBook);
-        when(userRepository.save(updatedUser)).thenReturn(updatedUser);
+        when(userRepository.findById(ID)).thenReturn(Optional.of(createUser()));
+        when(loanRepository.deleteByUserIdAndBookId(ID, BookTestData.ID)).thenReturn(1);
 
         UserDto actual = userService.returnBook(ID, BookTestData.ID);
 
         assertThat(actual, is(expected));
-        verify(bookRepository).findById(BookTestData.ID);
         verify(userRepository).findById(ID);
-        verify(bookRepository).save(updatedBook);
-        verify(userRepository).save(updatedUser);
+        verify(loanRepository).deleteByUserIdAndBookId(ID, BookTestData.ID);
+        verify(inventoryService).release(BookTestData.ID);
+    }
+
+    @Test
+    void givenHeldBook_whenReturnBook_thenIssueCopyToOldestHolderInsteadOfReleasingIt() {
+        User holder = createUser();
+        holder.setId(2L);
+        Hold claimed = new Hold(3L, holder, createBook(), LocalDateTime.now(), LocalDateTime.now().plusDays(1));
+        Hold next = new Hold(4L, holder, createBook(), LocalDateTime.now(), LocalDateTime.now().plusDays(1));
+        Cache users = mock(Cache.class);
+
+        when(userRepository.findById(ID)).thenReturn(Optional.of(createUser()));
+        when(loanRepository.deleteByUserIdAndBookId(ID, BookTestData.ID)).thenReturn(1);
+        when(holdRepository.findFirstByBookIdAndExpiresAtAfterOrderByPlacedAtAscIdAsc(eq(BookTestData.ID), any()))
+                .thenReturn(Optional.of(claimed)).thenReturn(Optional.of(next));
+        when(holdRepository.deleteHoldById(3L)).thenReturn(0);
+        when(holdRepository.deleteHoldById(4L)).thenReturn(1);
+        when(loanRepository.existsByUserIdAndBookId(2L, BookTestData.ID)).thenReturn(false);
+        when(cacheManager.getCache(any())).thenReturn(users);
+
+        userService.returnBook(ID, BookTestData.ID);
+
+        verify(bookRepository).findLockedAvailableById(BookTestData.ID);
+        verify(loanRepository).save(argThat(loan -> loan.getUser() == holder));
+        verify(users).evict(2L);
+        verify(inventoryService, never()).release(anyLong());
+        verify(eventPublisher).publishEvent(new BookChangedEvent(BookTestData.ID));
+        verify(eventPublisher, never()).publishEvent(any(BookLoansChangedEvent.class));
+    }
+
+    @Test
+    void givenBookHeldByReturningUserOnly_whenReturnBook_thenDropHoldAndReleaseCopy() {
+        Hold own = new Hold(3L, createUser(), createBook(), LocalDateTime.now(), LocalDateTime.now().plusDays(1));
+
+        when(userRepository.findById(ID)).thenReturn(Optional.of(createUser()));
+        when(loanRepository.deleteByUserIdAndBookId(ID, BookTestData.ID)).thenReturn(1);
+        when(holdRepository.findFirstByBookIdAndExpiresAtAfterOrderByPlacedAtAscIdAsc(eq(BookTestData.ID), any()))
+                .thenReturn(Optional.of(own)).thenReturn(Optional.empty());
+        when(holdRepository.deleteHoldById(3L)).thenReturn(1);
+
+        userService.returnBook(ID, BookTestData.ID);
+
+        verify(loanRepository, never()).save(any());
+        verify(inventoryService).release(BookTestData.ID);
+        verify(eventPublisher).publishEvent(new BookLoansChangedEvent(BookTestData.ID, -1));
+    }
+
+    @Test
+    void givenAvailableBooks_whenIssueBooks_thenReserveAllInAscendingOrderAndSaveLoansAtOnce() {
+        when(userRepository.findById(ID)).thenReturn(Optional.of(createUser()));
+        when(bookRepository.findIdsByIdIn(new TreeSet<>(List.of(2L, 3L)))).thenReturn(List.of(2L, 3L));
+        when(loanRepository.findBookIdsByUserIdAndBookIdIn(ID, new TreeSet<>(List.of(2L, 3L)))).thenReturn(List.of());
+
+        userService.issueBooks(ID, List.of(3L, 2L, 3L), false);
+
+        verify(inventoryService).reserveAll(new TreeSet<>(List.of(2L, 3L)));
+        verify(loanRepository).saveAll(argThat(loans -> loans.spliterator().getExactSizeIfKnown() == 2));
+        verify(eventPublisher).publishEvent(new BookChangedEvent(2L));
+        verify(eventPublisher).publishEvent(new BookChangedEvent(3L));
+        verify(eventPublisher).publishEvent(new BookLoansChangedEvent(2L, 1));
+        verify(eventPublisher).publishEvent(new BookLoansChangedEvent(3L, 1));
+    }
+
+    @Test
+    void givenIssuedBook_whenIssueBooks_thenThrowBookAlreadyIssuedExceptionWithoutReserving() {
+        when(userRepository.findById(ID)).thenReturn(Optional.of(createUser()));
+        when(bookRepository.findIdsByIdIn(any())).thenReturn(List.of(2L, 3L));
+        when(loanRepository.findBookIdsByUserIdAndBookIdIn(eq(ID), any())).thenReturn(List.of(3L));
+
+        assertThatExceptionOfType(BookAlreadyIssuedException.class)
+                .isThrownBy(() -> userService.issueBooks(ID, List.of(2L, 3L), false));
+
+        verifyNoInteractions(inventoryService);
+        verify(loanRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void givenMissingIssuedAndUnavailableBooks_whenIssueBooksOnBestEffort_thenIssueOnlyAvailableBooks() {
+        when(userRepository.findById(ID)).thenReturn(Optional.of(createUser()));
+        when(bookRepository.findIdsByIdIn(any())).thenReturn(List.of(2L, 3L, 4L));
+        when(loanRepository.findBookIdsByUserIdAndBookIdIn(eq(ID), any())).thenReturn(List.of(3L));
+        when(inventoryService.reserveAvailable(new TreeSet<>(List.of(2L, 4L)))).thenReturn(Set.of(4L));
+
+        userService.issueBooks(ID, List.of(1L, 2L, 3L, 4L), true);
+
+        verify(loanRepository).saveAll(argThat(loans -> loans.spliterator().getExactSizeIfKnown() == 1));
+        verify(eventPublisher).publishEvent(new BookChangedEvent(4L));
+        verify(eventPublisher, never()).publishEvent(new BookChangedEvent(2L));
+    }
+
+    @Test
+    void givenNotIssuedBook_whenReturnBooks_thenThrowBookNotIssuedException() {
+        when(userRepository.findById(ID)).thenReturn(Optional.of(createUser()));
+        when(loanRepository.findBookIdsByUserIdAndBookIdIn(eq(ID), any())).thenReturn(List.of(2L));
+        when(bookRepository.findIdsByIdIn(any())).thenReturn(List.of(2L, 3L));
+
+        assertThatExceptionOfType(BookNotIssuedException.class)
+                .isThrownBy(() -> userService.returnBooks(ID, List.of(2L, 3L), false));
+
+        verify(loanRepository, never()).deleteByUserIdAndBookIdIn(anyLong(), any());
+        verifyNoInteractions(inventoryService);
+    }
+
+    @Test
+    void givenNotIssuedBook_whenReturnBooksOnBestEffort_thenReturnOnlyIssuedBooks() {
+        when(userRepository.findById(ID)).thenReturn(Optional.of(createUser()));
+        when(loanRepository.findBookIdsByUserIdAndBookIdIn(eq(ID), any())).thenReturn(List.of(2L));
+
+        userService.returnBooks(ID, List.of(2L, 3L), true);
+
+        verify(loanRepository).deleteByUserIdAndBookIdIn(ID, new TreeSet<>(List.of(2L)));
+        verify(inventoryService).releaseAll(new TreeSet<>(List.of(2L)));
+        verify(eventPublisher).publishEvent(new BookChangedEvent(2L));
+    }
+
+    @Test
+    void givenOneHeldBook_whenReturnBooks_thenIssueItToHolderAndReleaseOnlyTheOthers() {
+        User holder = createUser();
+        holder.setId(2L);
+        Hold hold = new Hold(3L, holder, createBook(), LocalDateTime.now(), LocalDateTime.now().plusDays(1));
+
+        when(userRepository.findById(ID)).thenReturn(Optional.of(createUser()));
+        when(loanRepository.findBookIdsByUserIdAndBookIdIn(eq(ID), any())).thenReturn(List.of(2L, 3L));
+        when(holdRepository.findFirstByBookIdAndExpiresAtAfterOrderByPlacedAtAscIdAsc(eq(2L), any()))
+                .thenReturn(Optional.empty());
+        when(holdRepository.findFirstByBookIdAndExpiresAtAfterOrderByPlacedAtAscIdAsc(eq(3L), any()))
+                .thenReturn(Optional.of(hold));
+        when(holdRepository.deleteHoldById(3L)).thenReturn(1);
+
+        userService.returnBooks(ID, List.of(3L, 2L), false);
+
+        verify(loanRepository).save(argThat(loan -> loan.getUser() == holder));
+        verify(inventoryService).releaseAll(new TreeSet<>(List.of(2L)));
+        verify(eventPublisher).publishEvent(new BookChangedEvent(2L));
+        verify(eventPublisher).publishEvent(new BookChangedEvent(3L));
+        verify(eventPublisher).publishEvent(new BookLoansChangedEvent(2L, -1));
+        verify(eventPublisher, never()).publishEvent(new BookLoansChangedEvent(3L, -1));
+    }
+
+    @Test
+    void givenCachedHolders_whenOnBookChanged_thenEvictHolders() {
+        Cache users = mock(Cache.class);
+        when(cacheManager.getCache(any())).thenReturn(users);
+        when(loanRepository.findUserIdsByBookId(BookTestData.ID, PageRequest.ofSize(1001)))
+                .thenReturn(List.of(ID, ID + 1));
+
+        userService.onBookChanged(new BookChangedEvent(BookTestData.ID));
+
+        verify(users).evict(ID);
+        verify(users).evict(ID + 1);
+        verify(users, never()).clear();
+    }
+
+    @Test
+    void givenCreatedBook_whenOnBookChanged_thenReadNoHolders() {
+        when(cacheManager.getCache(any())).thenReturn(mock(Cache.class));
+
+        userService.onBookChanged(BookChangedEvent.created(BookTestData.ID));
+
+        verifyNoInteractions(loanRepository);
+    }
+
+    @Test
+    void givenMoreHoldersThanMaxEvictions_whenOnBookChanged_thenClearCacheOfUsers() {
+        lookupCacheProperties.setMaxHolderEvictions(1);
+        Cache users = mock(Cache.class);
+        when(cacheManager.getCache(any())).thenReturn(users);
+        when(loanRepository.findUserIdsByBookId(BookTestData.ID, PageRequest.ofSize(2)))
+                .thenReturn(List.of(ID, ID + 1));
+
+        userService.onBookChanged(new BookChangedEvent(BookTestData.ID));
+
+        verify(users).clear();
+        verify(users, never()).evict(any());
     }
 }
@@ -0,0 +1,234 @@
+package com.my.library.service.impl;
+
+import com.my.library.exception.BookNotFoundException;
+import com.my.library.exception.NoAvailableBooksException;
+import com.my.library.model.Book;
+import com.my.library.repository.BookRepository;
+import com.my.library.repository.projection.BookInventory;
+import com.my.library.service.config.LookupCacheConfig;
+import com.my.library.service.event.BookChangedEvent;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static com.my.library.util.BookTestData.ID;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class WriteBehindInventoryServiceTest {
+    @InjectMocks
+    private WriteBehindInventoryService inventoryService;
+
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private CacheManager cacheManager;
+    @Mock
+    private Cache cache;
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private EntityManagerFactory entityManagerFactory;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void givenBookWithAvailableCopies_whenReserve_thenLoadCounterOnce() {
+        when(bookRepository.findInventoryById(ID)).thenReturn(Optional.of(createInventory(2)));
+
+        inventoryService.reserve(ID);
+        inventoryService.reserve(ID);
+
+        verify(bookRepository).findInventoryById(ID);
+    }
+
+    @Test
+    void givenCounterAtZero_whenReserve_thenThrowNoAvailableBooksException() {
+        when(bookRepository.findInventoryById(ID)).thenReturn(Optional.of(createInventory(1)));
+        inventoryService.reserve(ID);
+
+        assertThatExceptionOfType(NoAvailableBooksException.class)
+                .isThrownBy(() -> inventoryService.reserve(ID));
+    }
+
+    @Test
+    void givenInvalidBookId_whenReserve_thenThrowBookNotFoundException() {
+        when(bookRepository.findInventoryById(ID)).thenReturn(Optional.empty());
+
+        assertThatExceptionOfType(BookNotFoundException.class)
+                .isThrownBy(() -> inventoryService.reserve(ID));
+    }
+
+    @Test
+    void givenRolledBackTransaction_whenReserve_thenGiveCopyBackAndFlushNothing() {
+        when(bookRepository.findInventoryById(ID)).thenReturn(Optional.of(createInventory(1)));
+        TransactionSynchronizationManager.initSynchronization();
+
+        inventoryService.reserve(ID);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        inventoryService.flush();
+
+        verifyNoInteractions(jdbcTemplate);
+        TransactionSynchronizationManager.initSynchronization();
+        inventoryService.reserve(ID);
+    }
+
+    @Test
+    void givenCommittedChanges_whenFlush_thenWriteNetChangeInOneBatch() {
+        when(bookRepository.findInventoryById(ID)).thenReturn(Optional.of(createInventory(5)));
+        executeTransactions();
+
+        inventoryService.reserve(ID);
+        inventoryService.reserve(ID);
+        inventoryService.release(ID);
+        inventoryService.flush();
+        inventoryService.flush();
+
+        assertThat(captureBatch(), contains(arrayContaining(-1, ID)));
+    }
+
+    @Test
+    void givenCommittedChanges_whenFlush_thenEvictWrittenBooksFromCaches() {
+        when(bookRepository.findInventoryById(ID)).thenReturn(Optional.of(createInventory(5)));
+        when(cacheManager.getCache(LookupCacheConfig.BOOKS)).thenReturn(cache);
+        executeTransactions();
+
+        inventoryService.reserve(ID);
+        inventoryService.flush();
+
+        verify(cache).evict(ID);
+        verify(entityManagerFactory.getCache()).evict(Book.class, ID);
+        verify(eventPublisher).publishEvent(new BookChangedEvent(ID));
+    }
+
+    @Test
+    void givenCommittedChanges_whenClose_thenWriteThemWithoutEvictingOrAnnouncing() {
+        when(bookRepository.findInventoryById(ID)).thenReturn(Optional.of(createInventory(5)));
+        executeTransactions();
+
+        inventoryService.reserve(ID);
+        inventoryService.close();
+
+        assertThat(captureBatch(), contains(arrayContaining(-1, ID)));
+        verifyNoInteractions(cacheManager, entityManagerFactory, eventPublisher);
+    }
+
+    @Test
+    void givenFailedFlush_whenFlushAgain_thenRetryChanges() {
+        when(bookRepository.findInventoryById(ID)).thenReturn(Optional.of(createInventory(5)));
+        executeTransactions();
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(new int[]{1});
+
+        inventoryService.reserve(ID);
+        assertThatExceptionOfType(DataAccessResourceFailureException.class)
+                .isThrownBy(() -> inventoryService.flush());
+        inventoryService.flush();
+
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void givenCommittedForget_whenReserve_thenThrowBookNotFoundExceptionAndFlushNothing() {
+        when(bookRepository.findInventoryById(ID))
+                .thenReturn(Optional.of(createInventory(5)))
+                .thenReturn(Optional.empty());
+
+        inventoryService.reserve(ID);
+        inventoryService.forget(ID);
+        inventoryService.flush();
+
+        assertThatExceptionOfType(BookNotFoundException.class)
+                .isThrownBy(() -> inventoryService.reserve(ID));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void givenRolledBackForget_whenReserve_thenKeepCounter() {
+        when(bookRepository.findInventoryById(ID)).thenReturn(Optional.of(createInventory(5)));
+        TransactionSynchronizationManager.initSynchronization();
+
+        inventoryService.reserve(ID);
+        inventoryService.forget(ID);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        TransactionSynchronizationManager.initSynchronization();
+        inventoryService.reserve(ID);
+
+        verify(bookRepository).findInventoryById(ID);
+    }
+
+    @Test
+    void givenInvalidBookId_whenRelease_thenThrowBookNotFoundException() {
+        when(bookRepository.findInventoryById(ID)).thenReturn(Optional.empty());
+
+        assertThatExceptionOfType(BookNotFoundException.class)
+                .isThrownBy(() -> inventoryService.release(ID));
+    }
+
+    private static BookInventory createInventory(int available) {
+        return new BookInventory() {
+            @Override
+            public Integer getAvailable() {
+                return available;
+            }
+
+            @Override
+            public Long getVersion() {
+                return 0L;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private void executeTransactions() {
+        doAnswer(invocation -> {
+            invocation.getArgument(0, Consumer.class).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> captureBatch() {
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), captor.capture());
+        return captor.getValue();
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
@@ -0,0 +1,109 @@
+package com.my.library.service.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class InvertedIndexTest {
+    private final InvertedIndex index = new InvertedIndex();
+
+    @Test
+    void givenBooks_whenSearch_thenReturnOnlyBooksContainingEveryTerm() {
+        index.put(1, "J. R. R. Tolkien", "The Hobbit");
+        index.put(2, "J. R. R. Tolkien", "The Lord of the Rings");
+        index.put(3, "Lewis Carroll", "Through the Looking-Glass");
+
+        assertThat(index.search("tolkien rings", 10), is(List.of(2L)));
+        assertThat(index.search("the", 10), containsInAnyOrder(1L, 2L, 3L));
+        assertThat(index.search("tolkien glass", 10), is(empty()));
+        assertThat(index.search(" - ", 10), is(empty()));
+    }
+
+    @Test
+    void givenTermInNameAndInAuthor_whenSearch_thenRankNameAndShorterTitlesFirst() {
+        index.put(1, "Mary Shelley", "Frankenstein");
+        index.put(2, "Frankenstein Scholar", "Notes");
+        index.put(3, "Mary Shelley", "Frankenstein or The Modern Prometheus");
+
+        assertThat(index.search("frankenstein", 10), is(List.of(1L, 3L, 2L)));
+        assertThat(index.search("frankenstein", 2), is(List.of(1L, 3L)));
+    }
+
+    @Test
+    void givenMixedCaseAndAccents_whenSearch_thenFoldThem() {
+        index.put(1, "Gabriel Garc\u00eda M\u00e1rquez", "Cien A\u00f1os de Soledad");
+
+        assertThat(index.search("GARCIA anos", 10), is(List.of(1L)));
+    }
+
+    @Test
+    void givenUpdatedAndRemovedBooks_whenSearch_thenFindOnlyCurrentTitles() {
+        index.put(1, "Author", "Old Name");
+        index.put(2, "Author", "Other Name");
+        index.put(1, "Author", "New Name");
+        index.remove(2);
+        index.remove(3);
+
+        assertThat(index.search("old", 10), is(empty()));
+        assertThat(index.search("name", 10), is(List.of(1L)));
+        assertThat(index.search("other", 10), is(empty()));
+        assertThat(index.size(), is(1));
+    }
+
+    @Test
+    void givenMoreBooksThanInitialCapacity_whenSearch_thenFindAllOfThem() {
+        for (int i = 0; i < 3000; i++) {
+            index.put(i, "Author " + (i % 3), "Name " + i);
+        }
+        for (int i = 0; i < 3000; i += 2) {
+            index.remove(i);
+        }
+
+        assertThat(index.search("author 1", 3000), hasSize(500));
+        assertThat(index.search("name 2999", 10), is(List.of(2999L)));
+        assertThat(index.size(), is(1500));
+    }
+
+    @Test
+    void givenConcurrentPutsAndRemoves_whenSearch_thenNeverFailAndReturnOnlyIndexedIds() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            index.put(i, "Author", "Shared " + i);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<?> writer = executor.submit(() -> {
+                for (int round = 0; round < 200; round++) {
+                    for (int i = 0; i < 200; i++) {
+                        if ((i + round) % 2 == 0) {
+                            index.remove(i);
+                        } else {
+                            index.put(i, "Author", "Shared " + i);
+                        }
+                    }
+                }
+            });
+            List<Future<?>> readers = new ArrayList<>();
+            for (int reader = 0; reader < 3; reader++) {
+                readers.add(executor.submit(() -> {
+                    while (!writer.isDone()) {
+                        assertThat(index.search("shared author", 50), everyItem(both(greaterThanOrEqualTo(0L))
+                                .and(lessThan(200L))));
+                    }
+                }));
+            }
+            writer.get();
+            for (Future<?> reader : readers) {
+                reader.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.my.library.service.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class SuggestionIndexTest {
+    private final SuggestionIndex index = new SuggestionIndex();
+
+    @Test
+    void givenNamesAndAuthors_whenSuggest_thenReturnCompletionsByPopularity() {
+        index.put(1, "J. R. R. Tolkien", "The Hobbit", 5);
+        index.put(2, "J. R. R. Tolkien", "The Lord of the Rings", 3);
+        index.put(3, "Leo Tolstoy", "War and Peace", 7);
+
+        assertThat(index.suggest("to", 10), is(List.of()));
+        assertThat(index.suggest("the", 10), is(List.of("The Hobbit", "The Lord of the Rings")));
+        assertThat(index.suggest("J R", 10), is(List.of("J. R. R. Tolkien")));
+        assertThat(index.suggest("le", 10), is(List.of("Leo Tolstoy")));
+        assertThat(index.suggest("the lord of the ringsx", 10), is(empty()));
+    }
+
+    @Test
+    void givenSharedAuthor_whenSuggest_thenSumPopularityOfItsBooks() {
+        index.put(1, "Author", "Abc", 4);
+        index.put(2, "Ab", "Name1", 1);
+        index.put(3, "Ab", "Name2", 4);
+
+        assertThat(index.suggest("a", 10), is(List.of("Ab", "Abc", "Author")));
+        assertThat(index.suggest("a", 2), is(List.of("Ab", "Abc")));
+        assertThat(index.suggest("ABC!", 10), is(List.of("Abc")));
+    }
+
+    @Test
+    void givenIssuesAndReturns_whenSuggest_thenReorderCompletions() {
+        index.put(1, "Author", "Abc", 2);
+        index.put(2, "Author", "Abd", 1);
+        index.put(3, "Other", "Abe");
+
+        index.addPopularity(3, 3);
+        index.addPopularity(1, -2);
+        index.addPopularity(4, 5);
+
+        assertThat(index.suggest("ab", 10), is(List.of("Abe", "Abd", "Abc")));
+        assertThat(index.suggest("a", 10), is(List.of("Abe", "Abd", "Author", "Abc")));
+
+        index.put(3, "Other", "Abf");
+
+        assertThat(index.suggest("ab", 10), is(List.of("Abf", "Abd", "Abc")));
+    }
+
+    @Test
+    void givenUpdatedAndRemovedBooks_whenSuggest_thenReturnOnlyCurrentCompletions() {
+        index.put(1, "Author", "Old Name", 2);
+        index.put(2, "Author", "Other Name", 1);
+        index.put(1, "Author", "New Name");
+        index.remove(2);
+        index.remove(3);
+
+        assertThat(index.suggest("o", 10), is(empty()));
+        assertThat(index.suggest("n", 10), is(List.of("New Name")));
+        assertThat(index.suggest("a", 10), is(List.of("Author")));
+    }
+
+    @Test
+    void givenManyCompletions_whenSuggestAfterRemovingBest_thenPromoteNextBest() {
+        for (int i = 0; i < 30; i++) {
+            index.put(i, "Author", "book " + i, i);
+        }
+        for (int i = 29; i >= 25; i--) {
+            index.remove(i);
+        }
+
+        assertThat(index.suggest("book", 3), is(List.of("book 24", "book 23", "book 22")));
+        assertThat(index.suggest("book 1", 10), hasSize(10));
+        assertThat(index.suggest("book 1", 10).get(0), is("book 19"));
+    }
+}
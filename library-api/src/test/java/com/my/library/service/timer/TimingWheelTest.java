@@ -0,0 +1,61 @@
+package com.my.library.service.timer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class TimingWheelTest {
+
+    @Test
+    void givenScheduledKey_whenAdvance_thenExpireItOnlyOnceItsTickStarted() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 4, 0);
+        wheel.schedule("hold", 25);
+
+        assertThat(wheel.advance(29), is(empty()));
+        assertThat(wheel.advance(30), contains("hold"));
+        assertThat(wheel.advance(70), is(empty()));
+        assertThat(wheel.size(), is(0));
+    }
+
+    @Test
+    void givenKeyDueInLaterRevolution_whenAdvanceOverItsBucket_thenKeepItUntilItsTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 4, 0);
+        wheel.schedule("hold", 95);
+
+        assertThat(wheel.advance(20), is(empty()));
+        assertThat(wheel.advance(60), is(empty()));
+        assertThat(wheel.size(), is(1));
+        assertThat(wheel.advance(100), contains("hold"));
+    }
+
+    @Test
+    void givenPauseLongerThanRevolution_whenAdvance_thenExpireEveryDueKey() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 4, 0);
+        wheel.schedule("first", 10);
+        wheel.schedule("second", 30);
+        wheel.schedule("later", 2_000);
+
+        assertThat(wheel.advance(1_000), containsInAnyOrder("first", "second"));
+        assertThat(wheel.size(), is(1));
+    }
+
+    @Test
+    void givenDeadlineAlreadyPassed_whenSchedule_thenExpireKeyWithNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 4, 0);
+        wheel.advance(50);
+        wheel.schedule("late", 0);
+
+        assertThat(wheel.advance(55), is(empty()));
+        assertThat(wheel.advance(60), contains("late"));
+    }
+
+    @Test
+    void givenInvalidSize_whenCreate_thenThrowIllegalArgumentException() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> new TimingWheel<String>(0, 4, 0));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> new TimingWheel<String>(10, 0, 0));
+    }
+}
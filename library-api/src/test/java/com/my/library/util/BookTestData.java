@@ -2,12 +2,9 @@ package com.my.library.util;
 
 import com.my.library.dto.BookDto;
 import com.my.library.model.Book;
-import com.my.library.model.User;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 public class BookTestData {
     public static final Long ID = 1L;
@@ -15,7 +12,6 @@ public class BookTestData {
     public static final String AUTHOR = "test author";
     public static final String NAME = "test name";
     public static final Integer AVAILABLE = 100;
-    public static final Set<User> USERS = new HashSet<>(List.of(new User()));
 
     public static Book createBook() {
         Book book = new Book();
@@ -1,13 +1,10 @@
 package com.my.library.util;
 
 import com.my.library.dto.UserDto;
-import com.my.library.model.Book;
 import com.my.library.model.User;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 public class UserTestData {
     public static final Long ID = 1L;
@@ -15,7 +12,6 @@ public class UserTestData {
     public static final String USERNAME = "test_user";
     public static final String EMAIL = "test_email@gmail.com";
     public static final String PASSWORD = "testpassword1!";
-    public static final Set<Book> BOOKS = new HashSet<>(List.of(new Book()));
 
     public static User createUser() {
         User user = new User();